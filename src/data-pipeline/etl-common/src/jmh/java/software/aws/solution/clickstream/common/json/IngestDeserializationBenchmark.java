@@ -0,0 +1,113 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+package software.aws.solution.clickstream.common.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import software.aws.solution.clickstream.common.ingest.Event;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares deserialization of a batch of ingest events:
+ * <ul>
+ *     <li>{@code reflection}: ObjectMapper.readValue(..., Event.class), the path used before pre-built readers</li>
+ *     <li>{@code reader}: pre-built ObjectReader</li>
+ *     <li>{@code blackbird}: pre-built ObjectReader with Blackbird generated accessors</li>
+ *     <li>{@code projected}: pre-built ObjectReader over a parser that skips the projected fields</li>
+ * </ul>
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IngestDeserializationBenchmark {
+
+    @Param({"20"})
+    private int batchSize;
+
+    private String batch;
+    private ObjectMapper reflectionMapper;
+    private ObjectReader reader;
+    private ObjectReader blackbirdReader;
+    private FieldProjection projection;
+
+    @Setup
+    public void setup() throws IOException {
+        String event;
+        try (InputStream in = getClass().getResourceAsStream("/event_deser_input.json")) {
+            event = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        batch = "[" + String.join(",", Collections.nCopies(batchSize, event)) + "]";
+        reflectionMapper = new ObjectMapper();
+        reader = IngestReaders.readerFor(Event.class);
+        blackbirdReader = IngestReaders.createMapper(true).readerFor(Event.class);
+        projection = FieldProjection.skipping("hashCode", "event_previous_timestamp", "attributes._privacy_info_ads_storage",
+                "attributes._privacy_info_analytics_storage", "attributes._privacy_info_uses_transient_token");
+    }
+
+    @Benchmark
+    public void reflection(final Blackhole blackhole) throws IOException {
+        try (JsonParser parser = reflectionMapper.createParser(batch)) {
+            parser.nextToken();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                blackhole.consume(reflectionMapper.readValue(parser, Event.class));
+            }
+        }
+    }
+
+    @Benchmark
+    public void reader(final Blackhole blackhole) throws IOException {
+        readBatch(reader, FieldProjection.NONE, blackhole);
+    }
+
+    @Benchmark
+    public void blackbird(final Blackhole blackhole) throws IOException {
+        readBatch(blackbirdReader, FieldProjection.NONE, blackhole);
+    }
+
+    @Benchmark
+    public void projected(final Blackhole blackhole) throws IOException {
+        readBatch(reader, projection, blackhole);
+    }
+
+    private void readBatch(final ObjectReader objectReader, final FieldProjection fieldProjection, final Blackhole blackhole) throws IOException {
+        try (JsonParser parser = fieldProjection.apply(objectReader.createParser(batch))) {
+            parser.nextToken();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                blackhole.consume(objectReader.<Event>readValue(parser));
+            }
+        }
+    }
+}
@@ -13,24 +13,32 @@
 
 package software.aws.solution.clickstream.common;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import lombok.extern.slf4j.Slf4j;
+import software.aws.solution.clickstream.common.codec.PayloadDecoder;
 import software.aws.solution.clickstream.common.enrich.RuleBasedTrafficSourceHelper;
 import software.aws.solution.clickstream.common.enrich.UrlParseResult;
 import software.aws.solution.clickstream.common.enrich.ts.CategoryTrafficSource;
+import software.aws.solution.clickstream.common.exception.ExtractDataException;
 import software.aws.solution.clickstream.common.ingest.ClickstreamIngestRow;
+import software.aws.solution.clickstream.common.json.FieldProjection;
+import software.aws.solution.clickstream.common.json.IngestReaders;
 import software.aws.solution.clickstream.common.model.ClickstreamEvent;
+import software.aws.solution.clickstream.common.plugin.Enrichers;
 
-import java.util.Base64;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static software.aws.solution.clickstream.common.Util.deCodeUri;
-import static software.aws.solution.clickstream.common.Util.decompress;
 import static software.aws.solution.clickstream.common.enrich.RuleBasedTrafficSourceHelper.CATEGORY_RULE_FILE;
 import static software.aws.solution.clickstream.common.enrich.RuleBasedTrafficSourceHelper.CHANNEL_RULE_FILE;
 
@@ -45,73 +53,197 @@ public abstract class BaseEventParser implements EventParser {
     public static final String PLATFORM_WECHATMP = "WeChatMP";
 
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final ObjectReader INGEST_ROW_READER = IngestReaders.readerFor(ClickstreamIngestRow.class);
 
-    private static void addDataResult(final ParseRowResult rowResult, final ParseDataResult result) {
-        rowResult.getClickstreamEventList().addAll(result.getClickstreamEventList());
-        rowResult.getClickstreamUserList().add(result.getClickstreamUser());
-        rowResult.getClickstreamItemList().addAll(result.getClickstreamItemList());
+    private final EnrichmentContext enrichmentContext;
+    private FieldProjection fieldProjection;
+
+    protected BaseEventParser(final EnrichmentContext enrichmentContext) {
+        this.enrichmentContext = enrichmentContext;
+    }
+
+    protected static ParseDataResult newParseDataResult() {
+        ParseDataResult parseDataResult = new ParseDataResult();
+        parseDataResult.setClickstreamEventList(new ArrayList<>());
+        parseDataResult.setClickstreamItemList(new ArrayList<>());
+        return parseDataResult;
     }
 
     public ClickstreamIngestRow ingestLineToRow(final String ingestLine) throws JsonProcessingException {
-        return OBJECT_MAPPER.readValue(ingestLine, ClickstreamIngestRow.class);
+        return INGEST_ROW_READER.readValue(ingestLine);
     }
 
     @Override
     public JsonNode getData(final String ingestDataField) throws JsonProcessingException {
-        String rawStringData = ingestDataField;
-        if (!rawStringData.startsWith("[") && !rawStringData.startsWith("{")) {
-            log.debug("gzipData: " + true);
-            String gzipData = rawStringData;
-            rawStringData = decompress(Base64.getDecoder().decode(gzipData));
+        if (PayloadDecoder.isPlainJson(ingestDataField)) {
+            return OBJECT_MAPPER.readTree(ingestDataField);
+        }
+        try (JsonParser jsonParser = createDataParser(ingestDataField)) {
+            return OBJECT_MAPPER.readTree(jsonParser);
+        } catch (JsonProcessingException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new ExtractDataException(e);
+        }
+    }
+
+    /**
+     * Create a streaming parser over the (decoded) ingest data field.
+     * Base64 payloads are decoded and decompressed on the fly while Jackson reads them.
+     * This implementation never returns null; overrides may return null when there is nothing to parse
+     * (e.g. an empty GTM body or a Sensors request without a data form value), which callers treat as no elements.
+     */
+    protected JsonParser createDataParser(final String ingestDataField) throws IOException {
+        if (PayloadDecoder.isPlainJson(ingestDataField)) {
+            return OBJECT_MAPPER.createParser(ingestDataField);
         }
-        return OBJECT_MAPPER.readTree(rawStringData);
+        log.debug("gzipData: " + true);
+        return OBJECT_MAPPER.createParser(PayloadDecoder.getDefault().openBase64(ingestDataField));
     }
+
+    /**
+     * Bind the element at the current token of the parser and convert it to the parse result.
+     */
+    protected abstract ParseDataResult parseDataElement(JsonParser jsonParser, ExtraParams extraParams, int index) throws IOException;
+
     @Override
-    public ParseRowResult parseLineToDBRow(final String ingestLine, final String projectId, final String fileName) throws JsonProcessingException {
-        ParseRowResult rowResult = new ParseRowResult();
-        ClickstreamIngestRow clickstreamIngestRow = ingestLineToRow(ingestLine);
-        String dataField = clickstreamIngestRow.getData();
+    public int parseDataElements(final String ingestDataField, final ExtraParams extraParams,
+                                 final Consumer<ParseDataResult> resultConsumer) throws IOException {
+        JsonParser dataParser = createDataParser(ingestDataField);
+        if (dataParser == null) {
+            return 0;
+        }
+        JsonParser jsonParser = getFieldProjection().apply(dataParser);
+        Enrichers enrichers = getEnrichers();
+        Consumer<ParseDataResult> consumer = enrichers.isEmpty() ? resultConsumer : result -> {
+            enrichers.enrich(result, extraParams);
+            resultConsumer.accept(result);
+        };
+        int index = 0;
+        try (jsonParser) {
+            JsonToken token = jsonParser.nextToken();
+            if (token == null) {
+                return 0;
+            }
+            if (token == JsonToken.START_ARRAY) {
+                while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+                    consumer.accept(parseDataElement(jsonParser, extraParams, index++));
+                }
+            } else {
+                consumer.accept(parseDataElement(jsonParser, extraParams, index++));
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public int parseDataElements(final String ingestDataField, final ExtraParams extraParams,
+                                 final ParseSink sink, final ParseBatchStats stats) throws IOException {
+        stats.addRow();
+        // the elements are counted once the whole row is parsed, a row that fails halfway adds none of them
+        ParseBatchStats rowStats = new ParseBatchStats();
+        int count;
+        try {
+            count = parseDataElements(ingestDataField, extraParams, result -> {
+                rowStats.addElement(result);
+                sink.acceptElement(result);
+            });
+        } catch (IOException | RuntimeException e) {
+            stats.addFailedRow();
+            throw e;
+        }
+        stats.merge(rowStats);
+        if (count == 0) {
+            stats.addEmptyRow();
+        }
+        return count;
+    }
+
+    @Override
+    public int parseRow(final ClickstreamIngestRow ingestRow, final String projectId, final String fileName,
+                        final ParseSink sink, final ParseBatchStats stats) throws IOException {
+        return parseRow(ingestRow, ExtraParams.builder().projectId(projectId).inputFileName(fileName), sink, stats);
+    }
+
+    @Override
+    public ParseBatchStats parseRows(final Iterable<ClickstreamIngestRow> ingestRows, final String projectId, final String fileName,
+                                     final ParseSink sink) {
+        ParseBatchStats stats = new ParseBatchStats();
+        // the builder only carries values, one instance serves the whole batch
+        ExtraParams.ExtraParamsBuilder builder = ExtraParams.builder().projectId(projectId).inputFileName(fileName);
+        for (ClickstreamIngestRow ingestRow : ingestRows) {
+            try {
+                parseRow(ingestRow, builder, sink, stats);
+            } catch (IOException | RuntimeException e) {
+                log.error("cannot parse ingest row, rid: " + ingestRow.getRid() + ", error: " + e.getMessage());
+                sink.acceptError(ingestRow, e);
+            }
+        }
+        return stats;
+    }
+
+    private int parseRow(final ClickstreamIngestRow ingestRow, final ExtraParams.ExtraParamsBuilder builder,
+                         final ParseSink sink, final ParseBatchStats stats) throws IOException {
+        String dataField = ingestRow.getData();
         if (dataField == null || dataField.isEmpty()) {
             log.warn("Data field is empty, skipping the row");
-            return rowResult;
+            stats.addRow();
+            stats.addEmptyRow();
+            return 0;
         }
-        JsonNode dataNode = getData(dataField);
-        if (dataNode == null) {
-            log.warn("getData is empty, skipping the row");
-            return rowResult;
-        }
-
-        ExtraParams extraParams = ExtraParams.builder()
-                .ua(clickstreamIngestRow.getUa())
-                .ip(clickstreamIngestRow.getIp())
-                .projectId(projectId)
-                .rid(clickstreamIngestRow.getRid())
-                .ingestTimestamp(clickstreamIngestRow.getIngestTime())
-                .uploadTimestamp(clickstreamIngestRow.getUploadTimestamp())
-                .uri(clickstreamIngestRow.getUri())
-                .inputFileName(fileName)
-                .appId(clickstreamIngestRow.getAppId())
+        ExtraParams extraParams = builder
+                .ua(ingestRow.getUa())
+                .ip(ingestRow.getIp())
+                .rid(ingestRow.getRid())
+                .ingestTimestamp(ingestRow.getIngestTime())
+                .uploadTimestamp(ingestRow.getUploadTimestamp())
+                .uri(ingestRow.getUri())
+                .appId(ingestRow.getAppId())
                 .build();
-
-        int index = 0;
-        if (dataNode.isArray()) {
-            Iterator<JsonNode> iterator = dataNode.elements();
-            while (iterator.hasNext()) {
-                JsonNode element = iterator.next();
-                ParseDataResult result = parseData(element.toString(), extraParams, index++);
-                addDataResult(rowResult, result);
-            }
-        } else {
-            ParseDataResult result = parseData(dataNode.toString(), extraParams, 0);
-            addDataResult(rowResult, result);
+        int count = parseDataElements(dataField, extraParams, sink, stats);
+        if (count == 0) {
+            log.warn("getData is empty, skipping the row");
         }
+        return count;
+    }
+
+    @Override
+    public ParseRowResult parseLineToDBRow(final String ingestLine, final String projectId, final String fileName) throws IOException {
+        ParseRowResult rowResult = new ParseRowResult();
+        parseRow(ingestLineToRow(ingestLine), projectId, fileName, rowResult, new ParseBatchStats());
         return rowResult;
     }
 
+    public EnrichmentContext getEnrichmentContext() {
+        return enrichmentContext;
+    }
+
+    /**
+     * The enrichers run on each element in {@link #parseDataElements}, shared through the enrichment context.
+     */
+    public Enrichers getEnrichers() {
+        return enrichmentContext.getComponent(Enrichers.class, context -> Enrichers.load(context.getTransformConfig()));
+    }
+
     public ObjectMapper getObjectMapper() {
         return OBJECT_MAPPER;
     }
 
+    /**
+     * Ingest fields skipped by {@link #parseDataElements}, defaults to the fields this parser never reads.
+     */
+    public FieldProjection getFieldProjection() {
+        return fieldProjection != null ? fieldProjection : getDefaultFieldProjection();
+    }
+
+    public void setFieldProjection(final FieldProjection fieldProjection) {
+        this.fieldProjection = fieldProjection;
+    }
+
+    protected FieldProjection getDefaultFieldProjection() {
+        return FieldProjection.NONE;
+    }
+
     protected void setTrafficSourceBySourceParser(final String url, final String pageReferrer, final String latestReferrer, final String latestReferrerHost,
                                                   final ClickstreamEvent clickstreamEvent) {
         String appId = clickstreamEvent.getAppId();
@@ -125,7 +257,7 @@ public abstract class BaseEventParser implements EventParser {
             }
         }
 
-        RuleBasedTrafficSourceHelper rsHelper = RuleBasedTrafficSourceHelper.getInstance(appId, ruleConfig);
+        RuleBasedTrafficSourceHelper rsHelper = enrichmentContext.getTrafficSourceHelper(appId, ruleConfig);
 
         CategoryTrafficSource ts = rsHelper.parse(url,
                 pageReferrer,
@@ -11,34 +11,201 @@
  *  and limitations under the License.
  */
 
+
 package software.aws.solution.clickstream.common;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.Getter;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
+/**
+ * Enrichment lookup cache.
+ * <p>
+ * Named caches are bounded by an estimated size in bytes rather than an entry count, so a long tail of distinct
+ * user agents or URLs cannot grow an executor heap without limit. The budget of a cache named {@code <name>} is read
+ * from the JVM property {@code clickstream.cache.<name>.max.bytes}, then {@code clickstream.cache.max.bytes}, then
+ * {@link #DEFAULT_MAX_BYTES}; on Spark set it with {@code spark.executor.extraJavaOptions}.
+ * The budget applies to each instance, {@link EnrichmentContext#getCache(String, ToIntFunction)} shares one instance
+ * per name within a context, so a JVM holds at most one budget per name and live context.
+ * Hit, miss and eviction counts are recorded and summed per name by {@link #getStats(String)}.
+ */
 public class Cache<T> {
-    private final com.github.benmanes.caffeine.cache.Cache<String, T> dataCached;
+    public static final String MAX_BYTES_PROP_PREFIX = "clickstream.cache.";
+    public static final String MAX_BYTES_PROP_SUFFIX = "max.bytes";
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+    public static final String UNNAMED = "unnamed";
+    private static final int STRING_BYTES = 40;
+    private static final int OTHER_KEY_BYTES = 16;
+    private static final int ENTRY_BYTES = 64;
+    private static final Map<String, Set<Cache<?>>> REGISTRY = new ConcurrentHashMap<>();
+
+    @Getter
+    private final String name;
+    @Getter
+    private final long maxBytes;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, T> dataCached;
 
     public Cache() {
-        this(Integer.MAX_VALUE/8); //255M
+        this(UNNAMED, value -> OTHER_KEY_BYTES);
     }
 
+    /**
+     * Unnamed cache bounded by entry count rather than bytes.
+     */
     public Cache(final int size) {
-        this.dataCached =  Caffeine.newBuilder()
+        this.name = UNNAMED;
+        this.maxBytes = -1;
+        this.dataCached = Caffeine.newBuilder()
                 .maximumSize(size)
-                .expireAfterWrite(Duration.ofMinutes(5))
                 .expireAfterAccess(Duration.ofMinutes(5))
+                .recordStats()
                 .build();
     }
-    public boolean containsKey(final String key) {
+
+    public Cache(final String name, final ToIntFunction<? super T> valueWeigher) {
+        this(name, maxBytesOf(name), valueWeigher);
+    }
+
+    public Cache(final String name, final long maxBytes, final ToIntFunction<? super T> valueWeigher) {
+        this.name = name;
+        this.maxBytes = maxBytes;
+        this.dataCached = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Object key, T value) -> ENTRY_BYTES + keyWeight(key) + valueWeigher.applyAsInt(value))
+                .expireAfterAccess(Duration.ofMinutes(5))
+                .recordStats()
+                .build();
+        REGISTRY.computeIfAbsent(name, k -> Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()))).add(this);
+    }
+
+    /**
+     * The byte budget configured for the cache name.
+     */
+    public static long maxBytesOf(final String name) {
+        String value = System.getProperty(MAX_BYTES_PROP_PREFIX + name + "." + MAX_BYTES_PROP_SUFFIX,
+                System.getProperty(MAX_BYTES_PROP_PREFIX + MAX_BYTES_PROP_SUFFIX));
+        if (value == null || value.isEmpty()) {
+            return DEFAULT_MAX_BYTES;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Config Error::invalid max bytes of cache " + name + ": " + value, e);
+        }
+    }
+
+    /**
+     * Rough retained size of a string in bytes, for weighers.
+     */
+    public static int stringWeight(final String value) {
+        return value == null ? 0 : STRING_BYTES + 2 * value.length();
+    }
+
+    private static int keyWeight(final Object key) {
+        if (key instanceof CacheKey) {
+            return ((CacheKey) key).weight();
+        }
+        if (key instanceof String) {
+            return stringWeight((String) key);
+        }
+        return OTHER_KEY_BYTES;
+    }
+
+    public boolean containsKey(final Object key) {
         return dataCached.getIfPresent(key) != null;
     }
-    public T get(final String key) {
+
+    public T get(final Object key) {
         return dataCached.getIfPresent(key);
     }
 
-    public void put(final String key, final T data) {
+    /**
+     * Get the value of the key, computing and caching it on a miss with a single lookup.
+     * Concurrent callers of the same key wait for one computation; the loader must not use this cache itself.
+     */
+    public <K> T get(final K key, final Function<? super K, ? extends T> loader) {
+        return dataCached.get(key, k -> loader.apply(key));
+    }
+
+    public void put(final Object key, final T data) {
         dataCached.put(key, data);
     }
+
+    void cleanUp() {
+        dataCached.cleanUp();
+    }
+
+    public Stats getStats() {
+        Stats stats = new Stats(name);
+        stats.add(this);
+        return stats;
+    }
+
+    /**
+     * Stats summed over all live caches with the name in this JVM.
+     */
+    public static Stats getStats(final String name) {
+        Stats stats = new Stats(name);
+        Set<Cache<?>> caches = REGISTRY.get(name);
+        if (caches != null) {
+            List<Cache<?>> live;
+            synchronized (caches) {
+                live = new ArrayList<>(caches);
+            }
+            for (Cache<?> cache : live) {
+                stats.add(cache);
+            }
+        }
+        return stats;
+    }
+
+    public static Set<String> getNames() {
+        return Collections.unmodifiableSet(REGISTRY.keySet());
+    }
+
+    @Getter
+    public static final class Stats {
+        private final String name;
+        private long hitCount;
+        private long missCount;
+        private long evictionCount;
+        private long evictionWeight;
+        private long estimatedSize;
+        private long weightedSize;
+        private long maxBytes;
+
+        private Stats(final String name) {
+            this.name = name;
+        }
+
+        private void add(final Cache<?> cache) {
+            // writes are applied to the weighted size asynchronously, settle them so the sizes are current
+            cache.dataCached.cleanUp();
+            CacheStats cacheStats = cache.dataCached.stats();
+            hitCount += cacheStats.hitCount();
+            missCount += cacheStats.missCount();
+            evictionCount += cacheStats.evictionCount();
+            evictionWeight += cacheStats.evictionWeight();
+            estimatedSize += cache.dataCached.estimatedSize();
+            weightedSize += cache.dataCached.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L);
+            maxBytes += Math.max(cache.maxBytes, 0);
+        }
+
+        @Override
+        public String toString() {
+            return "cache:" + name + ", hits:" + hitCount + ", misses:" + missCount + ", evictions:" + evictionCount
+                    + ", entries:" + estimatedSize + ", weightedBytes:" + weightedSize + ", maxBytes:" + maxBytes;
+        }
+    }
 }
@@ -0,0 +1,141 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+
+package software.aws.solution.clickstream.common;
+
+import java.util.Arrays;
+
+/**
+ * Composite cache key built from several nullable string parts without concatenating them.
+ * <p>
+ * The parts are hashed once into 128 bits (a MurmurHash3 style mix over length-prefixed UTF-16 words, so
+ * {@code ("a|b", null)} and {@code ("a", "b|")} never look alike) and kept by reference: equality compares the
+ * 128-bit hash first and then the parts themselves, so a hash collision can never return another key's value.
+ */
+public final class CacheKey {
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+    private static final long NULL_PART = -1L;
+    private static final int OBJECT_BYTES = 40;
+    private static final int ARRAY_BYTES = 16;
+    private static final int REFERENCE_BYTES = 8;
+
+    private final String[] parts;
+    private final long high;
+    private final long low;
+
+    CacheKey(final String[] parts, final long high, final long low) {
+        this.parts = parts;
+        this.high = high;
+        this.low = low;
+    }
+
+    /**
+     * Key of the given parts, the varargs array is owned by the key and must not be changed afterwards.
+     */
+    public static CacheKey of(final String... parts) {
+        long h1 = C1;
+        long h2 = C2;
+        long words = 0;
+        for (String part : parts) {
+            long header = part == null ? NULL_PART : part.length();
+            h1 = mixH1(h1, h2, header);
+            h2 = mixH2(h2, h1, header);
+            words++;
+            int len = part == null ? 0 : part.length();
+            for (int i = 0; i < len; i += 4) {
+                long word = 0;
+                int end = Math.min(i + 4, len);
+                for (int j = i; j < end; j++) {
+                    word |= (long) part.charAt(j) << ((j - i) * 16);
+                }
+                h1 = mixH1(h1, h2, word);
+                h2 = mixH2(h2, h1, word);
+                words++;
+            }
+        }
+        h1 ^= words;
+        h2 ^= words;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        h1 += h2;
+        h2 += h1;
+        return new CacheKey(parts, h1, h2);
+    }
+
+    private static long mixH1(final long h1, final long h2, final long word) {
+        long k = Long.rotateLeft(word * C1, 31) * C2;
+        long h = Long.rotateLeft(h1 ^ k, 27) + h2;
+        return h * 5 + 0x52dce729;
+    }
+
+    private static long mixH2(final long h2, final long h1, final long word) {
+        long k = Long.rotateLeft(word * C2, 33) * C1;
+        long h = Long.rotateLeft(h2 ^ k, 31) + h1;
+        return h * 5 + 0x38495ab5;
+    }
+
+    private static long fmix(final long value) {
+        long k = value;
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    public long getHigh() {
+        return high;
+    }
+
+    public long getLow() {
+        return low;
+    }
+
+    /**
+     * Rough retained size of the key in bytes, used to weigh cache entries.
+     */
+    public int weight() {
+        int weight = OBJECT_BYTES + ARRAY_BYTES + parts.length * REFERENCE_BYTES;
+        for (String part : parts) {
+            weight += Cache.stringWeight(part);
+        }
+        return weight;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CacheKey)) {
+            return false;
+        }
+        CacheKey other = (CacheKey) o;
+        return high == other.high && low == other.low && Arrays.equals(parts, other.parts);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (low ^ (low >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "CacheKey" + Arrays.toString(parts);
+    }
+}
@@ -14,6 +14,7 @@
 package software.aws.solution.clickstream.common;
 
 import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.databind.ObjectReader;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.*;
@@ -21,10 +22,12 @@ import software.aws.solution.clickstream.common.enrich.*;
 import software.aws.solution.clickstream.common.enrich.ts.CategoryTrafficSource;
 import software.aws.solution.clickstream.common.enrich.ts.TrafficSourceUtm;
 import software.aws.solution.clickstream.common.ingest.*;
+import software.aws.solution.clickstream.common.json.FieldProjection;
+import software.aws.solution.clickstream.common.json.IngestReaders;
 import software.aws.solution.clickstream.common.model.*;
 
+import java.io.IOException;
 import java.sql.Timestamp;
-import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -39,8 +42,8 @@ import static software.aws.solution.clickstream.common.enrich.RuleBasedTrafficSo
 
 @Slf4j
 public final class ClickstreamEventParser extends BaseEventParser {
-    private static ClickstreamEventParser instance;
     public static final String ENABLE_EVENT_TIME_SHIFT_PROP =  "enable.event.time.shift";
+    public static final String EVENT_TIMESTAMP_ADJUSTED = "event_timestamp_adjusted";
     public static final String EVENT_PROFILE_SET = "_profile_set";
     public static final String EVENT_PAGE_VIEW = "_page_view";
     public static final String EVENT_SCREEN_VIEW = "_screen_view";
@@ -52,10 +55,14 @@ public final class ClickstreamEventParser extends BaseEventParser {
     public static final String EVENT_USER_ENGAGEMENT = "_user_engagement";
     public static final String EVENT_SCROLL = "_scroll";
 
+    private static final ObjectReader EVENT_READER = IngestReaders.readerFor(Event.class);
+    private static final FieldProjection DEFAULT_PROJECTION = FieldProjection.skipping("event_previous_timestamp");
+
     private TransformConfig transformConfig;
 
-    private ClickstreamEventParser(final TransformConfig transformConfig) {
-        this.transformConfig = transformConfig;
+    private ClickstreamEventParser(final EnrichmentContext enrichmentContext) {
+        super(enrichmentContext);
+        this.transformConfig = enrichmentContext.getTransformConfig();
     }
 
     public static ClickstreamEventParser getInstance() {
@@ -64,44 +71,44 @@ public final class ClickstreamEventParser extends BaseEventParser {
     }
 
     public static ClickstreamEventParser getInstance(final TransformConfig transformConfig) {
-        if (instance == null) {
-            instance = new ClickstreamEventParser(transformConfig);
-        }
-         return instance;
+        return EnrichmentContext.forConfig(transformConfig).getComponent(ClickstreamEventParser.class, ClickstreamEventParser::new);
     }
     Event ingestDataToEvent(final String data) throws JsonProcessingException {
-        return getObjectMapper().readValue(data, Event.class);
+        return EVENT_READER.readValue(data);
     }
 
     @Override
     public ParseDataResult parseData(final String dataString, final ExtraParams extraParams, final int index) throws JsonProcessingException {
-        ParseDataResult parseDataResult = new ParseDataResult();
-        List<ClickstreamEvent> clickstreamEventList = new ArrayList<>();
-        parseDataResult.setClickstreamEventList(clickstreamEventList);
-        parseDataResult.setClickstreamItemList(new ArrayList<>());
-
         log.debug("Parsing data: " + dataString);
         if (dataString == null || dataString.isEmpty()) {
             log.warn("Data field is empty, skipping the row");
-            return parseDataResult;
+            return newParseDataResult();
         }
-        Event ingestEvent = ingestDataToEvent(dataString);
-        if (ingestEvent.getEventName() == null || ingestEvent.getEventName().isEmpty()) {
-            log.warn("Event name is empty, skipping the row, dataString:" + dataString);
+        return parseEvent(ingestDataToEvent(dataString), extraParams, index);
+    }
+
+    @Override
+    protected ParseDataResult parseDataElement(final JsonParser jsonParser, final ExtraParams extraParams, final int index) throws IOException {
+        return parseEvent(EVENT_READER.readValue(jsonParser), extraParams, index);
+    }
+
+    private ParseDataResult parseEvent(final Event ingestEvent, final ExtraParams extraParams, final int index) {
+        ParseDataResult parseDataResult = newParseDataResult();
+        if (ingestEvent == null || ingestEvent.getEventName() == null || ingestEvent.getEventName().isEmpty()) {
+            log.warn("Event name is empty, skipping the row, rid: " + extraParams.getRid() + ", index: " + index);
             return parseDataResult;
         }
 
         TimeShiftInfo timeShiftInfo = getEventTimeShiftInfo(ingestEvent, extraParams);
 
         ClickstreamEvent clickstreamEvent = getClickstreamEvent(ingestEvent, index, extraParams, timeShiftInfo);
-        clickstreamEventList.add(clickstreamEvent);
+        parseDataResult.getClickstreamEventList().add(clickstreamEvent);
 
         // User
         ClickstreamUser clickstreamUser = getClickstreamUser(ingestEvent, clickstreamEvent, timeShiftInfo);
         // Items
         List<ClickstreamItem> clickstreamItemList = getClickstreamItemList(ingestEvent, clickstreamEvent);
 
-        parseDataResult.setClickstreamEventList(clickstreamEventList);
         parseDataResult.setClickstreamUser(clickstreamUser);
         parseDataResult.setClickstreamItemList(clickstreamItemList);
         return parseDataResult;
@@ -215,8 +222,6 @@ public final class ClickstreamEventParser extends BaseEventParser {
 
     private ClickstreamEvent getClickstreamEvent(final Event ingestEvent, final int index, final ExtraParams extraParams, final TimeShiftInfo timeShiftInfo) {
         ClickstreamEvent clickstreamEvent = new ClickstreamEvent();
-        Map<String, List<String>> uriParams = getUriParams(extraParams.getUri());
-
         clickstreamEvent.setEventTimeMsec(ingestEvent.getEventTimestamp() + timeShiftInfo.getTimeDiff());
         clickstreamEvent.setEventTimestamp(new Timestamp(clickstreamEvent.getEventTimeMsec()));
         clickstreamEvent.setEventId(ingestEvent.getEventId());
@@ -235,7 +240,7 @@ public final class ClickstreamEventParser extends BaseEventParser {
         clickstreamEvent.setEventName(ingestEvent.getEventName());
 
         setEventValue(ingestEvent, clickstreamEvent);
-        setEventBundleSeqId(uriParams, clickstreamEvent);
+        clickstreamEvent.setEventBundleSequenceId(extraParams.getRequestContext().getEventBundleSequenceId());
         setDeviceInfo(ingestEvent, clickstreamEvent);
         setUA(extraParams, clickstreamEvent);
         setAppInfo(ingestEvent, clickstreamEvent);
@@ -477,7 +482,7 @@ public final class ClickstreamEventParser extends BaseEventParser {
                 log.warn("RuleConfig is not set for appId: " + appId);
             }
 
-            RuleBasedTrafficSourceHelper rsHelper = RuleBasedTrafficSourceHelper.getInstance(appId, ruleConfig);
+            RuleBasedTrafficSourceHelper rsHelper = getEnrichmentContext().getTrafficSourceHelper(appId, ruleConfig);
 
             TrafficSourceUtm trafficSourceUtm = new TrafficSourceUtm();
             trafficSourceUtm.setSource(clientTsInfo.getSource());
@@ -581,22 +586,21 @@ public final class ClickstreamEventParser extends BaseEventParser {
     public TransformConfig getTransformConfig() {
         return this.transformConfig;
     }
+
+    @Override
+    protected FieldProjection getDefaultFieldProjection() {
+        return DEFAULT_PROJECTION;
+    }
     public void setTransformConfig(final TransformConfig transformConfig) {
         this.transformConfig = transformConfig;
     }
 
-    private boolean isEnableEventTimeShift() {
-        if (System.getProperty(ENABLE_EVENT_TIME_SHIFT_PROP) == null) {
-            return false;
-        }
-        return Boolean.parseBoolean(System.getProperty(ENABLE_EVENT_TIME_SHIFT_PROP));
-    }
-
     private TimeShiftInfo getEventTimeShiftInfo(final Event ingestEvent, final ExtraParams extraParams) {
+        RequestContext requestContext = extraParams.getRequestContext();
         TimeShiftInfo timeShiftInfo = new TimeShiftInfo();
-        long currentTime = System.currentTimeMillis();
+        long currentTime = requestContext.getCurrentTime();
         Long eventTimestamp = ingestEvent.getEventTimestamp();
-        Long uploadTimestamp = extraParams.getUploadTimestamp();
+        Long uploadTimestamp = requestContext.getUploadTimestamp();
 
         timeShiftInfo.setAdjustThreshold(ADJUST_THRESHOLD);
         timeShiftInfo.setOriginEventTimestamp(eventTimestamp);
@@ -608,22 +612,13 @@ public final class ClickstreamEventParser extends BaseEventParser {
 
         boolean isFutureEvent = eventTimestamp > currentTime;
 
-        if (!isEnableEventTimeShift() && !isFutureEvent) {
+        if (!requestContext.isEnableEventTimeShift() && !isFutureEvent) {
             log.debug("event time shift is not enable and event is not future event, skip time shift adjustment.");
             return timeShiftInfo;
         }
 
         if (uploadTimestamp == null) {
-            Map<String, List<String>> uriParams = getUriParams(extraParams.getUri());
-            if (uriParams.containsKey(UPLOAD_TIMESTAMP)) {
-                String uploadTimestampStr = uriParams.get(UPLOAD_TIMESTAMP).get(0);
-                try {
-                    uploadTimestamp = Long.parseLong(uploadTimestampStr);
-                    extraParams.setUploadTimestamp(uploadTimestamp);
-                } catch (Exception e) {
-                    log.warn("cannot parse upload_timestamp: " + uploadTimestampStr + ERROR_LOG + e.getMessage());
-                }
-            }
+            uploadTimestamp = requestContext.resolveUploadTimestamp();
             timeShiftInfo.setUri(extraParams.getUri());
         }
 
@@ -657,16 +652,9 @@ public final class ClickstreamEventParser extends BaseEventParser {
     }
 
     private void setProcessInfo(final ExtraParams extraParams, final ClickstreamEvent clickstreamEvent, final TimeShiftInfo timeShiftInfo) {
-        Map<String, String> processInfo = new HashMap<>();
-        processInfo.put("rid", extraParams.getRid());
-        processInfo.put("ingest_time", Instant.ofEpochMilli(extraParams.getIngestTimestamp()).toString());
-        processInfo.put(INPUT_FILE_NAME, extraParams.getInputFileName());
-        processInfo.put("source_ip", extraParams.getIp());
-        if (extraParams.getUploadTimestamp() != null) {
-            processInfo.put("upload_time", Instant.ofEpochMilli(extraParams.getUploadTimestamp()).toString());
-        }
+        Map<String, String> processInfo = extraParams.getRequestContext().newProcessInfo();
         if (timeShiftInfo.isAdjusted()) {
-            processInfo.put("event_timestamp_adjusted", true + "");
+            processInfo.put(EVENT_TIMESTAMP_ADJUSTED, true + "");
             processInfo.put("event_timestamp_adjusted_from", timeShiftInfo.getOriginEventTimestamp() + "");
             processInfo.put("event_timestamp_adjusted_to", timeShiftInfo.getEventTimestamp() + "");
             processInfo.put("event_timestamp_adjusted_reason", timeShiftInfo.getReason());
@@ -679,16 +667,6 @@ public final class ClickstreamEventParser extends BaseEventParser {
         return "{\"type\":\"" + type + "\",\"value\":\"" + value + "\"}";
     }
 
-    private void setEventBundleSeqId(final Map<String, List<String>> uriParams, final ClickstreamEvent clickstreamEvent) {
-        String eventBundleId = uriParams.get("event_bundle_sequence_id") == null ? null : uriParams.get("event_bundle_sequence_id").get(0);
-        try {
-            Long eventBundleIdLong = eventBundleId == null ? null : Long.parseLong(eventBundleId);
-            clickstreamEvent.setEventBundleSequenceId(eventBundleIdLong);
-        } catch (Exception e) {
-            log.warn("cannot parse event_bundle_sequence_id: " + eventBundleId + ERROR_LOG + e.getMessage());
-        }
-    }
-
     private void setEventValue(final Event ingestEvent, final ClickstreamEvent clickstreamEvent) {
         clickstreamEvent.setEventValue(ingestEvent.getEventValue());
         if (clickstreamEvent.getEventValue() != null) {
@@ -0,0 +1,239 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream.common;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maximum UTF-8 byte length of the string columns of the event, item and user tables.
+ * <p>
+ * The row converters truncate values while they build the rows and list the truncated columns in
+ * {@code process_info} under {@link #TRUNCATED_FIELDS}, so the tables never hold a value over its limit.
+ */
+public final class ColumnLimits {
+    public static final int MAX_STRING_VALUE_LEN_32 = 32;
+    public static final int MAX_STRING_VALUE_LEN_255 = 255;
+    public static final int MAX_STRING_VALUE_LEN_2K = 2048;
+    public static final int MAX_STRING_VALUE_LEN_MAX = 65535;
+    public static final String TRUNCATED_FIELDS = "truncated_fields";
+
+    private static final Map<String, Integer> EVENT_LIMITS = buildLimits(
+            List.of(Constant.EVENT_VALUE_CURRENCY),
+            List.of(
+                    Constant.EVENT_ID,
+                    Constant.EVENT_NAME,
+                    Constant.DEVICE_MOBILE_BRAND_NAME,
+                    Constant.DEVICE_MOBILE_MODEL_NAME,
+                    Constant.DEVICE_MANUFACTURER,
+                    Constant.DEVICE_CARRIER,
+                    Constant.DEVICE_NETWORK_TYPE,
+                    Constant.DEVICE_OPERATING_SYSTEM,
+                    Constant.DEVICE_OPERATING_SYSTEM_VERSION,
+                    Constant.DEVICE_VENDOR_ID,
+                    Constant.DEVICE_ADVERTISING_ID,
+                    Constant.DEVICE_SYSTEM_LANGUAGE,
+                    Constant.DEVICE_UA_BROWSER,
+                    Constant.DEVICE_UA_BROWSER_VERSION,
+                    Constant.DEVICE_UA_DEVICE,
+                    Constant.DEVICE_UA_DEVICE_CATEGORY,
+                    Constant.GEO_CONTINENT,
+                    Constant.GEO_SUB_CONTINENT,
+                    Constant.GEO_COUNTRY,
+                    Constant.GEO_REGION,
+                    Constant.GEO_METRO,
+                    Constant.GEO_CITY,
+                    Constant.GEO_LOCALE,
+                    Constant.TRAFFIC_SOURCE_SOURCE,
+                    Constant.TRAFFIC_SOURCE_MEDIUM,
+                    Constant.TRAFFIC_SOURCE_CAMPAIGN,
+                    Constant.TRAFFIC_SOURCE_CAMPAIGN_ID,
+                    Constant.TRAFFIC_SOURCE_CLID_PLATFORM,
+                    Constant.TRAFFIC_SOURCE_CHANNEL_GROUP,
+                    Constant.TRAFFIC_SOURCE_CATEGORY,
+                    Constant.APP_PACKAGE_ID,
+                    Constant.APP_ID,
+                    Constant.APP_VERSION,
+                    Constant.APP_TITLE,
+                    Constant.APP_INSTALL_SOURCE,
+                    Constant.PLATFORM,
+                    Constant.PROJECT_ID,
+                    Constant.SCREEN_VIEW_SCREEN_NAME,
+                    Constant.SCREEN_VIEW_SCREEN_ID,
+                    Constant.SCREEN_VIEW_SCREEN_UNIQUE_ID,
+                    Constant.SCREEN_VIEW_PREVIOUS_SCREEN_NAME,
+                    Constant.SCREEN_VIEW_PREVIOUS_SCREEN_ID,
+                    Constant.SCREEN_VIEW_PREVIOUS_SCREEN_UNIQUE_ID,
+                    Constant.UPGRADE_PREVIOUS_APP_VERSION,
+                    Constant.UPGRADE_PREVIOUS_OS_VERSION,
+                    Constant.USER_ID,
+                    Constant.USER_PSEUDO_ID,
+                    Constant.SESSION_ID,
+                    Constant.SDK_ERROR_CODE,
+                    Constant.SDK_VERSION,
+                    Constant.SDK_NAME,
+                    Constant.UA,
+                    Constant.IP
+            ),
+            List.of(
+                    Constant.TRAFFIC_SOURCE_CONTENT,
+                    Constant.TRAFFIC_SOURCE_TERM,
+                    Constant.TRAFFIC_SOURCE_CLID,
+                    Constant.PAGE_VIEW_PAGE_REFERRER_TITLE,
+                    Constant.PAGE_VIEW_PAGE_TITLE,
+                    Constant.PAGE_VIEW_HOSTNAME,
+                    Constant.PAGE_VIEW_LATEST_REFERRER_HOST,
+                    Constant.SEARCH_KEY,
+                    Constant.SEARCH_TERM,
+                    Constant.OUTBOUND_LINK_CLASSES,
+                    Constant.OUTBOUND_LINK_DOMAIN,
+                    Constant.OUTBOUND_LINK_ID,
+                    Constant.SDK_ERROR_MESSAGE,
+                    Constant.APP_EXCEPTION_MESSAGE
+            ),
+            List.of(
+                    Constant.PAGE_VIEW_PAGE_REFERRER,
+                    Constant.PAGE_VIEW_PAGE_URL,
+                    Constant.PAGE_VIEW_PAGE_URL_PATH,
+                    Constant.PAGE_VIEW_LATEST_REFERRER,
+                    Constant.OUTBOUND_LINK_URL,
+                    Constant.APP_EXCEPTION_STACK,
+                    Constant.CUSTOM_PARAMETERS_JSON_STR
+            ));
+
+    private static final Map<String, Integer> ITEM_LIMITS = buildLimits(
+            List.of(),
+            List.of(
+                    Constant.EVENT_ID,
+                    Constant.EVENT_NAME,
+                    Constant.PLATFORM,
+                    Constant.USER_PSEUDO_ID,
+                    Constant.USER_ID,
+                    Constant.ITEM_ID,
+                    Constant.NAME,
+                    Constant.BRAND,
+                    Constant.CURRENCY,
+                    Constant.CREATIVE_NAME,
+                    Constant.CREATIVE_SLOT,
+                    Constant.LOCATION_ID,
+                    Constant.CATEGORY,
+                    Constant.CATEGORY2,
+                    Constant.CATEGORY3,
+                    Constant.CATEGORY4,
+                    Constant.CATEGORY5,
+                    Constant.CUSTOM_PARAMETERS_JSON_STR
+            ),
+            List.of(),
+            List.of());
+
+    private static final Map<String, Integer> USER_LIMITS = buildLimits(
+            List.of(),
+            List.of(
+                    Constant.USER_PSEUDO_ID,
+                    Constant.USER_ID,
+                    Constant.FIRST_TRAFFIC_SOURCE,
+                    Constant.FIRST_TRAFFIC_MEDIUM,
+                    Constant.FIRST_TRAFFIC_CAMPAIGN,
+                    Constant.FIRST_TRAFFIC_CAMPAIGN_ID,
+                    Constant.FIRST_TRAFFIC_CLID_PLATFORM,
+                    Constant.FIRST_TRAFFIC_CHANNEL_GROUP,
+                    Constant.FIRST_TRAFFIC_CATEGORY,
+                    Constant.FIRST_APP_INSTALL_SOURCE
+            ),
+            List.of(
+                    Constant.FIRST_TRAFFIC_CONTENT,
+                    Constant.FIRST_TRAFFIC_CLID,
+                    Constant.FIRST_TRAFFIC_TERM
+            ),
+            List.of(
+                    Constant.FIRST_REFERRER,
+                    Constant.USER_PROPERTIES_JSON_STR
+            ));
+
+    private ColumnLimits() {
+    }
+
+    /**
+     * @return column name to maximum byte length of the event table
+     */
+    public static Map<String, Integer> getEventLimits() {
+        return EVENT_LIMITS;
+    }
+
+    public static Map<String, Integer> getItemLimits() {
+        return ITEM_LIMITS;
+    }
+
+    public static Map<String, Integer> getUserLimits() {
+        return USER_LIMITS;
+    }
+
+    /**
+     * Longest prefix of the value that is at most {@code maxBytes} long in UTF-8, surrogate pairs are never split.
+     * The value itself is returned when it fits, so callers can detect a truncation by identity.
+     */
+    public static String truncate(final String value, final int maxBytes) {
+        int length = value == null ? 0 : value.length();
+        // a char is at most 3 bytes in UTF-8, shorter values fit without counting
+        if (length <= maxBytes / 3) {
+            return value;
+        }
+        int bytes = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            int charBytes;
+            if (c < 0x80) {
+                charBytes = 1;
+            } else if (c < 0x800) {
+                charBytes = 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                charBytes = 4;
+            } else {
+                charBytes = 3;
+            }
+            if (bytes + charBytes > maxBytes) {
+                return value.substring(0, i);
+            }
+            bytes += charBytes;
+            if (charBytes == 4) {
+                i++;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Copy of the process info with the truncated columns recorded, the shared map of the event is not modified.
+     */
+    public static Map<String, String> markTruncated(final Map<String, String> processInfo, final String truncatedFields) {
+        Map<String, String> marked = processInfo == null ? new HashMap<>() : new HashMap<>(processInfo);
+        marked.put(TRUNCATED_FIELDS, truncatedFields);
+        return marked;
+    }
+
+    @SafeVarargs
+    private static Map<String, Integer> buildLimits(final List<String>... columnsByLimit) {
+        int[] limits = {MAX_STRING_VALUE_LEN_32, MAX_STRING_VALUE_LEN_255, MAX_STRING_VALUE_LEN_2K, MAX_STRING_VALUE_LEN_MAX};
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int i = 0; i < columnsByLimit.length; i++) {
+            for (String column : columnsByLimit[i]) {
+                result.put(column, limits[i]);
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+package software.aws.solution.clickstream.common;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import software.aws.solution.clickstream.common.enrich.RuleBasedTrafficSourceHelper;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Per-JVM (i.e. per Spark executor) holder of everything that is expensive to build for a {@link TransformConfig}:
+ * event parsers, traffic source rule helpers, UA/IP lookup resources and their caches.
+ * <p>
+ * Contexts are keyed by {@link TransformConfig#getFingerprint()}, so tasks that deserialize their own copy of the
+ * same config share one context, while a changed config gets a fresh one instead of being silently ignored.
+ * At most {@link #MAX_SHARED_CONTEXTS} contexts are shared, one not looked up for {@link #SHARED_CONTEXT_IDLE} or
+ * beyond that count is dropped from the shared map without being closed, a task still holding it keeps using it
+ * and it is released with its last reference.
+ * All lookups are lock-free reads on concurrent maps, a component is built at most once per context.
+ */
+@Slf4j
+public final class EnrichmentContext implements AutoCloseable {
+    public static final String DEFAULT_FINGERPRINT = "default";
+    public static final int MAX_SHARED_CONTEXTS = 16;
+    public static final Duration SHARED_CONTEXT_IDLE = Duration.ofHours(1);
+    private static final Map<String, EnrichmentContext> CONTEXTS = Caffeine.newBuilder()
+            .maximumSize(MAX_SHARED_CONTEXTS)
+            .expireAfterAccess(SHARED_CONTEXT_IDLE)
+            .<String, EnrichmentContext>build()
+            .asMap();
+
+    private final String fingerprint;
+    private final TransformConfig transformConfig;
+    private final Map<Class<?>, Object> components = new ConcurrentHashMap<>();
+    private final Map<String, Cache<?>> caches = new ConcurrentHashMap<>();
+    private final Map<String, RuleBasedTrafficSourceHelper> trafficSourceHelpers = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    private EnrichmentContext(final String fingerprint, final TransformConfig transformConfig) {
+        this.fingerprint = fingerprint;
+        this.transformConfig = transformConfig;
+    }
+
+    /**
+     * The shared context of this JVM for the config, built on first use. A null config means the default rules.
+     */
+    public static EnrichmentContext forConfig(final TransformConfig transformConfig) {
+        String key = transformConfig == null ? DEFAULT_FINGERPRINT : transformConfig.getFingerprint();
+        EnrichmentContext context = CONTEXTS.get(key);
+        if (context != null) {
+            return context;
+        }
+        return CONTEXTS.computeIfAbsent(key, k -> build(k, transformConfig));
+    }
+
+    public static EnrichmentContext getDefault() {
+        return forConfig(null);
+    }
+
+    /**
+     * Build a private context that is not shared through {@link #forConfig(TransformConfig)}, the caller owns and closes it.
+     */
+    public static EnrichmentContext build(final TransformConfig transformConfig) {
+        return build(transformConfig == null ? DEFAULT_FINGERPRINT : transformConfig.getFingerprint(), transformConfig);
+    }
+
+    private static EnrichmentContext build(final String fingerprint, final TransformConfig transformConfig) {
+        log.info("Building enrichment context for config fingerprint: {}", fingerprint);
+        return new EnrichmentContext(fingerprint, transformConfig);
+    }
+
+    /**
+     * Close and forget all shared contexts of this JVM.
+     */
+    public static void closeAll() {
+        for (EnrichmentContext context : CONTEXTS.values()) {
+            context.close();
+        }
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public TransformConfig getTransformConfig() {
+        return transformConfig;
+    }
+
+    /**
+     * Get the component of the given type, building it with the factory on first use.
+     * Components implementing {@link AutoCloseable} are closed with the context.
+     */
+    public <T> T getComponent(final Class<T> type, final Function<EnrichmentContext, ? extends T> factory) {
+        Object component = components.get(type);
+        if (component == null) {
+            component = components.computeIfAbsent(type, k -> factory.apply(this));
+        }
+        return type.cast(component);
+    }
+
+    public <T> Cache<T> getCache(final String name) {
+        return getCache(name, value -> 0);
+    }
+
+    /**
+     * Get the named cache, built on first use with the byte budget of {@link Cache#maxBytesOf(String)}.
+     * All users of a name in this context share the one cache and its budget, so they must keep their keys apart.
+     * The weigher estimates the retained bytes of a value and is only used when the cache is built.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Cache<T> getCache(final String name, final ToIntFunction<? super T> valueWeigher) {
+        Cache<?> cache = caches.get(name);
+        if (cache == null) {
+            cache = caches.computeIfAbsent(name, k -> new Cache<T>(name, valueWeigher));
+        }
+        return (Cache<T>) cache;
+    }
+
+    public RuleBasedTrafficSourceHelper getTrafficSourceHelper(final String appId, final RuleConfig ruleConfig) {
+        String key = appId == null ? "" : appId;
+        RuleBasedTrafficSourceHelper helper = trafficSourceHelpers.get(key);
+        if (helper == null) {
+            helper = trafficSourceHelpers.computeIfAbsent(key, k -> RuleBasedTrafficSourceHelper.create(appId, ruleConfig, this));
+        }
+        return helper;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        CONTEXTS.remove(fingerprint, this);
+        for (Object component : components.values()) {
+            if (component instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) component).close();
+                } catch (Exception e) {
+                    log.warn("Failed to close enrichment component {}: {}", component.getClass().getName(), e.getMessage());
+                }
+            }
+        }
+        components.clear();
+        caches.clear();
+        trafficSourceHelpers.clear();
+    }
+}
@@ -15,9 +15,46 @@ package software.aws.solution.clickstream.common;
 
 import com.fasterxml.jackson.core.*;
 import com.fasterxml.jackson.databind.JsonNode;
+import software.aws.solution.clickstream.common.ingest.ClickstreamIngestRow;
+
+import java.io.IOException;
+import java.util.function.Consumer;
 
 public interface EventParser {
-    ParseRowResult parseLineToDBRow(String ingestLine, String projectId, String fileName)  throws JsonProcessingException;
+    ParseRowResult parseLineToDBRow(String ingestLine, String projectId, String fileName)  throws IOException;
     JsonNode getData(String ingestDataField) throws JsonProcessingException;
     ParseDataResult parseData(String dataString, ExtraParams extraParams, int index)  throws JsonProcessingException;
+
+    /**
+     * Walk the ingest data field element by element with a streaming parser and bind
+     * each element directly to the ingest model, without building a JsonNode tree.
+     * The configured event and user enrichers run on each element before it is passed to the consumer.
+     *
+     * @return the number of elements parsed
+     */
+    int parseDataElements(String ingestDataField, ExtraParams extraParams, Consumer<ParseDataResult> resultConsumer) throws IOException;
+
+    /**
+     * Parse the data field of one ingest row into the sink and count the row in the stats.
+     * A row without elements is counted as empty, a row that throws is counted as failed before the exception is rethrown,
+     * without the elements it parsed before the failure.
+     *
+     * @return the number of elements parsed
+     */
+    int parseDataElements(String ingestDataField, ExtraParams extraParams, ParseSink sink, ParseBatchStats stats) throws IOException;
+
+    /**
+     * Parse one ingest row into the sink, the request parameters are taken from the row.
+     * A row with an empty data field is skipped and counted as empty.
+     *
+     * @return the number of elements parsed
+     */
+    int parseRow(ClickstreamIngestRow ingestRow, String projectId, String fileName, ParseSink sink, ParseBatchStats stats) throws IOException;
+
+    /**
+     * Parse a batch of ingest rows into the sink. Rows that cannot be parsed are reported to {@link ParseSink#acceptError}.
+     *
+     * @return the stats of this batch
+     */
+    ParseBatchStats parseRows(Iterable<ClickstreamIngestRow> ingestRows, String projectId, String fileName, ParseSink sink);
 }
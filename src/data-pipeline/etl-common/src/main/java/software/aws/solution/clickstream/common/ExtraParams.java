@@ -28,6 +28,7 @@ public class ExtraParams {
     String ua;
     String ip;
     String appId;
+    final RequestContext requestContext = new RequestContext(this);
 
     public static ExtraParamsBuilder builder() {
         return new ExtraParamsBuilder();
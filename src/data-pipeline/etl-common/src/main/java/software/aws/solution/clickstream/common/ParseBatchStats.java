@@ -0,0 +1,69 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+
+package software.aws.solution.clickstream.common;
+
+import lombok.Getter;
+
+/**
+ * Counters of one call (or a caller-defined series of calls) of the batch parse API of {@link EventParser}.
+ */
+@Getter
+public final class ParseBatchStats {
+    private long rows;
+    private long emptyRows;
+    private long failedRows;
+    private long elements;
+    private long events;
+    private long items;
+    private long users;
+
+    void addRow() {
+        rows++;
+    }
+
+    void addEmptyRow() {
+        emptyRows++;
+    }
+
+    void addFailedRow() {
+        failedRows++;
+    }
+
+    void addElement(final ParseDataResult result) {
+        elements++;
+        events += result.getClickstreamEventList().size();
+        items += result.getClickstreamItemList().size();
+        if (result.getClickstreamUser() != null) {
+            users++;
+        }
+    }
+
+    public ParseBatchStats merge(final ParseBatchStats other) {
+        rows += other.rows;
+        emptyRows += other.emptyRows;
+        failedRows += other.failedRows;
+        elements += other.elements;
+        events += other.events;
+        items += other.items;
+        users += other.users;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "rows=" + rows + ", emptyRows=" + emptyRows + ", failedRows=" + failedRows + ", elements=" + elements
+                + ", events=" + events + ", items=" + items + ", users=" + users;
+    }
+}
@@ -20,8 +20,23 @@ import java.util.*;
 
 
 @Getter
-public class ParseRowResult {
+public class ParseRowResult implements ParseSink {
     private List<ClickstreamEvent> clickstreamEventList = new ArrayList<>(); //NOSONAR
     private List<ClickstreamUser> clickstreamUserList  = new ArrayList<>(); //NOSONAR
     private List<ClickstreamItem> clickstreamItemList  = new ArrayList<>(); //NOSONAR
+
+    @Override
+    public void acceptEvent(final ClickstreamEvent event) {
+        clickstreamEventList.add(event);
+    }
+
+    @Override
+    public void acceptItem(final ClickstreamItem item) {
+        clickstreamItemList.add(item);
+    }
+
+    @Override
+    public void acceptUser(final ClickstreamUser user) {
+        clickstreamUserList.add(user);
+    }
 }
@@ -0,0 +1,84 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+
+package software.aws.solution.clickstream.common;
+
+import software.aws.solution.clickstream.common.exception.ExtractDataException;
+import software.aws.solution.clickstream.common.ingest.ClickstreamIngestRow;
+import software.aws.solution.clickstream.common.model.ClickstreamEvent;
+import software.aws.solution.clickstream.common.model.ClickstreamItem;
+import software.aws.solution.clickstream.common.model.ClickstreamUser;
+
+import java.util.function.Consumer;
+
+/**
+ * Caller-owned output of the batch parse API of {@link EventParser}.
+ * <p>
+ * The parser hands over every parsed data element through {@link #acceptElement}, which by default fans the
+ * element out to the typed methods. Sinks that need the per-element grouping (e.g. one Spark row per element)
+ * override {@link #acceptElement}, the typed methods ignore what they are given unless overridden.
+ */
+public interface ParseSink {
+
+    static ParseSink of(final Consumer<ClickstreamEvent> eventSink, final Consumer<ClickstreamItem> itemSink,
+                        final Consumer<ClickstreamUser> userSink) {
+        return new ParseSink() {
+            @Override
+            public void acceptEvent(final ClickstreamEvent event) {
+                eventSink.accept(event);
+            }
+
+            @Override
+            public void acceptItem(final ClickstreamItem item) {
+                itemSink.accept(item);
+            }
+
+            @Override
+            public void acceptUser(final ClickstreamUser user) {
+                userSink.accept(user);
+            }
+        };
+    }
+
+    default void acceptElement(final ParseDataResult result) {
+        for (ClickstreamEvent event : result.getClickstreamEventList()) {
+            acceptEvent(event);
+        }
+        for (ClickstreamItem item : result.getClickstreamItemList()) {
+            acceptItem(item);
+        }
+        acceptUser(result.getClickstreamUser());
+    }
+
+    default void acceptEvent(final ClickstreamEvent event) {
+    }
+
+    default void acceptItem(final ClickstreamItem item) {
+    }
+
+    /**
+     * Receives the user of each data element, which may be null.
+     */
+    default void acceptUser(final ClickstreamUser user) {
+    }
+
+    /**
+     * Called by {@link EventParser#parseRows} when a row cannot be parsed, the elements parsed before the failure
+     * have already been handed to the sink. The default fails the whole batch, override to record the row as corrupt
+     * and continue with the next one.
+     */
+    default void acceptError(final ClickstreamIngestRow ingestRow, final Exception e) {
+        throw e instanceof RuntimeException ? (RuntimeException) e : new ExtractDataException(e);
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+
+package software.aws.solution.clickstream.common;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static software.aws.solution.clickstream.common.BaseEventParser.INPUT_FILE_NAME;
+import static software.aws.solution.clickstream.common.BaseEventParser.UPLOAD_TIMESTAMP;
+import static software.aws.solution.clickstream.common.ClickstreamEventParser.ENABLE_EVENT_TIME_SHIFT_PROP;
+import static software.aws.solution.clickstream.common.Util.ERROR_LOG;
+
+/**
+ * Values derived from the {@link ExtraParams} of one ingest request, computed on first use and shared by all events
+ * of the request: the parsed URI parameters, the bundle sequence id, the upload timestamp taken from the URI,
+ * the time shift switch, the clock reading and the request part of {@code process_info}.
+ * <p>
+ * One context belongs to one {@link ExtraParams} instance and, like it, is used by one thread at a time.
+ */
+@Slf4j
+public class RequestContext {
+    private static final String EVENT_BUNDLE_SEQUENCE_ID = "event_bundle_sequence_id";
+
+    private final ExtraParams extraParams;
+    private Map<String, List<String>> uriParams;
+    private boolean bundleSequenceIdResolved;
+    private Long eventBundleSequenceId;
+    private boolean uriUploadTimestampResolved;
+    private Long uriUploadTimestamp;
+    private Boolean enableEventTimeShift;
+    private Long currentTime;
+    private Map<String, String> baseProcessInfo;
+
+    RequestContext(final ExtraParams extraParams) {
+        this.extraParams = extraParams;
+    }
+
+    public Map<String, List<String>> getUriParams() {
+        if (uriParams == null) {
+            uriParams = Util.getUriParams(extraParams.getUri());
+        }
+        return uriParams;
+    }
+
+    public Long getEventBundleSequenceId() {
+        if (!bundleSequenceIdResolved) {
+            bundleSequenceIdResolved = true;
+            List<String> values = getUriParams().get(EVENT_BUNDLE_SEQUENCE_ID);
+            String eventBundleId = values == null ? null : values.get(0);
+            try {
+                eventBundleSequenceId = eventBundleId == null ? null : Long.parseLong(eventBundleId);
+            } catch (Exception e) {
+                log.warn("cannot parse event_bundle_sequence_id: " + eventBundleId + ERROR_LOG + e.getMessage());
+            }
+        }
+        return eventBundleSequenceId;
+    }
+
+    /**
+     * The upload timestamp of the request if it is known so far: the one passed in {@link ExtraParams},
+     * or the one taken from the URI once {@link #resolveUploadTimestamp()} has been called.
+     */
+    public Long getUploadTimestamp() {
+        if (extraParams.getUploadTimestamp() != null) {
+            return extraParams.getUploadTimestamp();
+        }
+        return uriUploadTimestamp;
+    }
+
+    /**
+     * The upload timestamp of the request, falling back to the {@code upload_timestamp} URI parameter.
+     */
+    public Long resolveUploadTimestamp() {
+        if (extraParams.getUploadTimestamp() != null) {
+            return extraParams.getUploadTimestamp();
+        }
+        if (!uriUploadTimestampResolved) {
+            uriUploadTimestampResolved = true;
+            List<String> values = getUriParams().get(UPLOAD_TIMESTAMP);
+            if (values != null) {
+                String uploadTimestampStr = values.get(0);
+                try {
+                    uriUploadTimestamp = Long.parseLong(uploadTimestampStr);
+                    // process_info carries the upload time from now on
+                    baseProcessInfo = null;
+                } catch (Exception e) {
+                    log.warn("cannot parse upload_timestamp: " + uploadTimestampStr + ERROR_LOG + e.getMessage());
+                }
+            }
+        }
+        return uriUploadTimestamp;
+    }
+
+    public boolean isEnableEventTimeShift() {
+        if (enableEventTimeShift == null) {
+            enableEventTimeShift = Boolean.parseBoolean(System.getProperty(ENABLE_EVENT_TIME_SHIFT_PROP));
+        }
+        return enableEventTimeShift;
+    }
+
+    /**
+     * Current time read once per request, events of a request are compared against the same clock reading.
+     */
+    public long getCurrentTime() {
+        if (currentTime == null) {
+            currentTime = System.currentTimeMillis();
+        }
+        return currentTime;
+    }
+
+    /**
+     * A new mutable {@code process_info} map pre-filled with the request entries, events add their own entries to it.
+     */
+    public Map<String, String> newProcessInfo() {
+        if (baseProcessInfo == null) {
+            Map<String, String> processInfo = new HashMap<>();
+            processInfo.put("rid", extraParams.getRid());
+            processInfo.put("ingest_time", Instant.ofEpochMilli(extraParams.getIngestTimestamp()).toString());
+            processInfo.put(INPUT_FILE_NAME, extraParams.getInputFileName());
+            processInfo.put("source_ip", extraParams.getIp());
+            Long uploadTimestamp = getUploadTimestamp();
+            if (uploadTimestamp != null) {
+                processInfo.put("upload_time", Instant.ofEpochMilli(uploadTimestamp).toString());
+            }
+            baseProcessInfo = processInfo;
+        }
+        return new HashMap<>(baseProcessInfo);
+    }
+}
@@ -10,19 +10,109 @@
  *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
  *  and limitations under the License.
  */
-
 package software.aws.solution.clickstream.common;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 @Getter
 @Setter
 public class TransformConfig implements Serializable {
     private static final long serialVersionUID = 1L;
+    private static final char FIELD_SEPARATOR = '\u0000';
     private Map<String, RuleConfig> appRuleConfig; // NOSONAR
     private boolean trafficSourceEnrichmentDisabled; // NOSONAR
+    private List<String> enricherClassNames; // NOSONAR
+    private String mappingSpecJson; // NOSONAR
+    @Setter(AccessLevel.NONE)
+    private volatile String fingerprint; // NOSONAR
+
+    public void setAppRuleConfig(final Map<String, RuleConfig> appRuleConfig) {
+        this.appRuleConfig = appRuleConfig;
+        this.fingerprint = null;
+    }
+
+    public void setTrafficSourceEnrichmentDisabled(final boolean trafficSourceEnrichmentDisabled) {
+        this.trafficSourceEnrichmentDisabled = trafficSourceEnrichmentDisabled;
+        this.fingerprint = null;
+    }
+
+    /**
+     * Classes of {@link software.aws.solution.clickstream.common.plugin.EventEnricher}s and
+     * {@link software.aws.solution.clickstream.common.plugin.UserEnricher}s run in the parse loop,
+     * in addition to those registered for {@link java.util.ServiceLoader}.
+     */
+    public void setEnricherClassNames(final List<String> enricherClassNames) {
+        this.enricherClassNames = enricherClassNames;
+        this.fingerprint = null;
+    }
+
+    /**
+     * The {@link software.aws.solution.clickstream.common.mapping.MappingSpec} json used by the mapping transformer.
+     */
+    public void setMappingSpecJson(final String mappingSpecJson) {
+        this.mappingSpecJson = mappingSpecJson;
+        this.fingerprint = null;
+    }
+
+    /**
+     * Content hash of the config, two configs with the same rules share one {@link EnrichmentContext}.
+     * The value is computed once and serialized with the config, so the copies deserialized by the tasks do not
+     * hash the rules again. The rule map must not be mutated in place afterwards.
+     */
+    public String getFingerprint() {
+        String result = fingerprint;
+        if (result == null) {
+            result = computeFingerprint();
+            fingerprint = result;
+        }
+        return result;
+    }
+
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        getFingerprint();
+        out.defaultWriteObject();
+    }
+
+    private String computeFingerprint() {
+        StringBuilder content = new StringBuilder().append(trafficSourceEnrichmentDisabled);
+        if (enricherClassNames != null) {
+            content.append(FIELD_SEPARATOR).append(String.join(",", enricherClassNames));
+        }
+        if (mappingSpecJson != null) {
+            content.append(FIELD_SEPARATOR).append(mappingSpecJson);
+        }
+        if (appRuleConfig != null) {
+            for (Map.Entry<String, RuleConfig> entry : new TreeMap<>(appRuleConfig).entrySet()) {
+                content.append(FIELD_SEPARATOR).append(entry.getKey())
+                        .append(FIELD_SEPARATOR).append(entry.getValue() == null ? null : entry.getValue().getOptChannelRuleJson())
+                        .append(FIELD_SEPARATOR).append(entry.getValue() == null ? null : entry.getValue().getOptCategoryRuleJson());
+            }
+        }
+        return sha256Hex(content.toString());
+    }
+
+    static String sha256Hex(final String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
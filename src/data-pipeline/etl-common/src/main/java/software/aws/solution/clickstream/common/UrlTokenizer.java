@@ -0,0 +1,274 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+
+package software.aws.solution.clickstream.common;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single-pass tokenizer for the plain URLs that make up most page URLs, referrers and ingest URIs.
+ * Scheme, host, path and query are kept as offsets into the original string and only cut out when asked for,
+ * query parameters can be looked up by key without building the parameter map.
+ * <p>
+ * {@link #tokenize(String)} only accepts URLs whose result is known to be the same as {@link java.net.URI} followed by
+ * {@link Util#deCodeUri(String)}: printable ASCII without {@code %} or {@code +} (so nothing needs decoding),
+ * an optional {@code scheme://host[:port]} with a plain host name and at most one {@code #}.
+ * For anything else it returns null and callers keep using {@link java.net.URI}.
+ */
+public final class UrlTokenizer {
+    private static final int MAX_PORT_DIGITS = 5;
+    private static final boolean[] SIMPLE_CHARS = new boolean[128];
+
+    static {
+        for (char c = '0'; c <= '9'; c++) {
+            SIMPLE_CHARS[c] = true;
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            SIMPLE_CHARS[c] = true;
+            SIMPLE_CHARS[Character.toUpperCase(c)] = true;
+        }
+        for (char c : "-_.!~*'();/?:@&=$,".toCharArray()) {
+            SIMPLE_CHARS[c] = true;
+        }
+    }
+
+    private final String url;
+    private final int schemeEnd;
+    private final int hostStart;
+    private final int hostEnd;
+    private final int pathStart;
+    private final int pathEnd;
+    private final int queryStart;
+    private final int queryEnd;
+
+    private UrlTokenizer(final String url, final int schemeEnd, final int hostStart, final int hostEnd,
+                         final int pathStart, final int pathEnd, final int queryStart, final int queryEnd) {
+        this.url = url;
+        this.schemeEnd = schemeEnd;
+        this.hostStart = hostStart;
+        this.hostEnd = hostEnd;
+        this.pathStart = pathStart;
+        this.pathEnd = pathEnd;
+        this.queryStart = queryStart;
+        this.queryEnd = queryEnd;
+    }
+
+    /**
+     * Tokenize {@code url}, or null when it is not a plain URL and has to go through {@link java.net.URI}.
+     */
+    public static UrlTokenizer tokenize(final String url) {
+        if (url == null) {
+            return null;
+        }
+        int end = url.length();
+        int fragment = -1;
+        for (int i = 0; i < url.length(); i++) {
+            char c = url.charAt(i);
+            if (c == '#' && fragment < 0) {
+                fragment = i;
+                end = i;
+            } else if (c >= SIMPLE_CHARS.length || !SIMPLE_CHARS[c]) {
+                return null;
+            }
+        }
+
+        int schemeEnd = -1;
+        int hostStart = -1;
+        int hostEnd = -1;
+        int p = 0;
+        while (p < end && url.charAt(p) != ':' && url.charAt(p) != '/' && url.charAt(p) != '?') {
+            p++;
+        }
+        if (p < end && url.charAt(p) == ':') {
+            if (!isScheme(url, p) || !url.startsWith("//", p + 1)) {
+                return null;
+            }
+            schemeEnd = p;
+            hostStart = p + 3;
+            int authorityEnd = hostStart;
+            while (authorityEnd < end && url.charAt(authorityEnd) != '/' && url.charAt(authorityEnd) != '?') {
+                authorityEnd++;
+            }
+            hostEnd = scanHost(url, hostStart, authorityEnd);
+            if (hostEnd < 0 || !isPort(url, hostEnd, authorityEnd)) {
+                return null;
+            }
+            p = authorityEnd;
+        } else if (url.startsWith("//")) {
+            return null;
+        } else {
+            p = 0;
+        }
+
+        int pathStart = p;
+        int pathEnd = p;
+        while (pathEnd < end && url.charAt(pathEnd) != '?') {
+            pathEnd++;
+        }
+        int queryStart = pathEnd < end ? pathEnd + 1 : -1;
+        return new UrlTokenizer(url, schemeEnd, hostStart, hostEnd, pathStart, pathEnd, queryStart, end);
+    }
+
+    private static boolean isScheme(final String url, final int end) {
+        if (end == 0 || !isAlpha(url.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < end; i++) {
+            char c = url.charAt(i);
+            if (!isAlpha(c) && !isDigit(c) && c != '-' && c != '.') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * End of a host name made of dot-separated labels of letters, digits and inner dashes, starting with a letter,
+     * whose last label also starts with a letter; -1 for anything else (IP addresses, user info, IDN, '_').
+     */
+    private static int scanHost(final String url, final int start, final int end) {
+        if (start >= end || !isAlpha(url.charAt(start))) {
+            return -1;
+        }
+        int p = start;
+        int lastLabel = start;
+        while (p < end && url.charAt(p) != ':') {
+            int labelStart = p;
+            while (p < end && (isAlpha(url.charAt(p)) || isDigit(url.charAt(p)) || url.charAt(p) == '-')) {
+                p++;
+            }
+            if (p == labelStart || url.charAt(labelStart) == '-' || url.charAt(p - 1) == '-') {
+                return -1;
+            }
+            lastLabel = labelStart;
+            if (p < end && url.charAt(p) == '.') {
+                p++;
+            } else if (p < end && url.charAt(p) != ':') {
+                return -1;
+            }
+        }
+        return isAlpha(url.charAt(lastLabel)) ? p : -1;
+    }
+
+    private static boolean isPort(final String url, final int start, final int end) {
+        if (start == end) {
+            return true;
+        }
+        int digits = end - start - 1;
+        if (url.charAt(start) != ':' || digits < 1 || digits > MAX_PORT_DIGITS) {
+            return false;
+        }
+        for (int i = start + 1; i < end; i++) {
+            if (!isDigit(url.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAlpha(final char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    public String getScheme() {
+        return schemeEnd < 0 ? null : url.substring(0, schemeEnd);
+    }
+
+    public String getHost() {
+        return hostStart < 0 ? null : url.substring(hostStart, hostEnd);
+    }
+
+    public String getPath() {
+        return url.substring(pathStart, pathEnd);
+    }
+
+    /**
+     * The query without the leading {@code ?}, empty for a bare {@code ?} and null without one.
+     */
+    public String getQuery() {
+        return queryStart < 0 ? null : url.substring(queryStart, queryEnd);
+    }
+
+    /**
+     * First value of the query parameter {@code key}, null when the parameter is missing or has no value.
+     */
+    public String getParameter(final String key) {
+        if (queryStart < 0) {
+            return null;
+        }
+        int start = queryStart;
+        while (start <= queryEnd) {
+            int end = url.indexOf('&', start);
+            if (end < 0 || end > queryEnd) {
+                end = queryEnd;
+            }
+            int eq = indexOf('=', start, end);
+            int keyEnd = eq > start ? eq : end;
+            if (keyEnd - start == key.length() && url.startsWith(key, start)) {
+                return eq > start && end > eq + 1 ? url.substring(eq + 1, end) : null;
+            }
+            start = end + 1;
+        }
+        return null;
+    }
+
+    /**
+     * All query parameters, keyed and split like {@link Util#getUriParams(java.net.URI)}:
+     * on {@code &} with trailing empty pairs dropped, a pair without {@code =} (or starting with it) is a key with a null value.
+     */
+    public Map<String, List<String>> getParameters() {
+        Map<String, List<String>> params = new HashMap<>();
+        if (queryStart < 0) {
+            return params;
+        }
+        int last = queryEnd;
+        if (indexOf('&', queryStart, queryEnd) >= 0) {
+            while (last > queryStart && url.charAt(last - 1) == '&') {
+                last--;
+            }
+            if (last == queryStart) {
+                return params;
+            }
+        }
+        int start = queryStart;
+        while (start <= last) {
+            int end = indexOf('&', start, last);
+            if (end < 0) {
+                end = last;
+            }
+            int eq = indexOf('=', start, end);
+            String key = url.substring(start, eq > start ? eq : end);
+            String value = eq > start && end > eq + 1 ? url.substring(eq + 1, end) : null;
+            params.computeIfAbsent(key, k -> new ArrayList<>()).add(value);
+            start = end + 1;
+        }
+        return params;
+    }
+
+    private int indexOf(final char c, final int start, final int end) {
+        for (int i = start; i < end; i++) {
+            if (url.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
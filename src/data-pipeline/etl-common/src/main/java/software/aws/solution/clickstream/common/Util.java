@@ -16,20 +16,20 @@ package software.aws.solution.clickstream.common;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import software.aws.solution.clickstream.common.codec.PayloadDecoder;
 import software.aws.solution.clickstream.common.enrich.UrlParseResult;
 import software.aws.solution.clickstream.common.exception.ExtractDataException;
 import software.aws.solution.clickstream.common.ingest.UserPropObjectValue;
+import software.aws.solution.clickstream.common.json.RawJsonValue;
 import software.aws.solution.clickstream.common.model.ClickstreamEventPropValue;
 import software.aws.solution.clickstream.common.model.ClickstreamUserPropValue;
 import software.aws.solution.clickstream.common.model.ValueType;
 
-import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLDecoder;
@@ -39,7 +39,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.zip.GZIPInputStream;
 
 @Slf4j
 public final class Util {
@@ -56,16 +55,17 @@ public final class Util {
         if (str == null) {
             return "";
         }
-        GZIPInputStream gis;
         try {
-            gis = new GZIPInputStream(new ByteArrayInputStream(str));
-            BufferedReader bf = new BufferedReader(new InputStreamReader(gis, StandardCharsets.UTF_8));
-            StringBuilder outStr = new StringBuilder();
-            String line;
-            while ((line = bf.readLine()) != null) {
-                outStr.append(line);
-            }
-            return outStr.toString();
+            return PayloadDecoder.getDefault().decodeToString(new ByteArrayInputStream(str));
+        } catch (IOException e) {
+            log.error("decompress error:" + e.getMessage());
+            throw new ExtractDataException(e);
+        }
+    }
+
+    public static String decompressBase64(final String base64Data) {
+        try {
+            return PayloadDecoder.getDefault().decodeBase64ToString(base64Data);
         } catch (IOException e) {
             log.error("decompress error:" + e.getMessage());
             throw new ExtractDataException(e);
@@ -77,6 +77,10 @@ public final class Util {
         if (uri == null) {
             return new HashMap<>();
         }
+        UrlTokenizer tokens = UrlTokenizer.tokenize(uri);
+        if (tokens != null) {
+            return tokens.getParameters();
+        }
         URI uriObj = null;
         try {
              uriObj = new URI(uri);
@@ -196,6 +200,14 @@ public final class Util {
         }
 
         UrlParseResult result = new UrlParseResult();
+        UrlTokenizer tokens = UrlTokenizer.tokenize(schemaUrl);
+        if (tokens != null) {
+            result.setHostName(tokens.getHost());
+            result.setPath(tokens.getPath());
+            result.setQueryString(tokens.getQuery());
+            result.setQueryParameters(tokens.getParameters());
+            return Optional.of(result);
+        }
         try {
             result = extractFromUrl(schemaUrl);
         } catch (URISyntaxException e) {
@@ -280,27 +292,30 @@ public final class Util {
         Map<String, ClickstreamEventPropValue> result = new HashMap<>();
 
         for (Map.Entry<String, Object> entry : inputMap.entrySet()) {
-            String k = entry.getKey();
-            Object v = entry.getValue();
-            if (v instanceof String) {
-                result.put(k, new ClickstreamEventPropValue(v.toString(), ValueType.STRING));
-            } else if (v instanceof Number) {
-                result.put(k, new ClickstreamEventPropValue(v.toString(), ValueType.NUMBER));
-            } else if (v instanceof Boolean) {
-                result.put(k, new ClickstreamEventPropValue(v.toString(), ValueType.BOOLEAN));
-            } else {
-                try {
-                    result.put(k, new ClickstreamEventPropValue(OBJECT_MAPPER.writeValueAsString(v), ValueType.OBJECT));
-                } catch (JsonProcessingException e) {
-                    log.error("convertStringObjectMapToStringEventPropMap::Error converting object to string", e);
-                    throw e;
-                }
-            }
-
+            result.put(entry.getKey(), toEventPropValue(entry.getValue()));
         }
         return result;
     }
 
+    public static ClickstreamEventPropValue toEventPropValue(final Object v) throws JsonProcessingException {
+        if (v instanceof String) {
+            return new ClickstreamEventPropValue(v.toString(), ValueType.STRING);
+        } else if (v instanceof Number) {
+            return new ClickstreamEventPropValue(v.toString(), ValueType.NUMBER);
+        } else if (v instanceof Boolean) {
+            return new ClickstreamEventPropValue(v.toString(), ValueType.BOOLEAN);
+        } else if (v instanceof RawJsonValue) {
+            RawJsonValue raw = (RawJsonValue) v;
+            return new ClickstreamEventPropValue(raw.getJson(), raw.getValueType());
+        }
+        try {
+            return new ClickstreamEventPropValue(OBJECT_MAPPER.writeValueAsString(v), ValueType.OBJECT);
+        } catch (JsonProcessingException e) {
+            log.error("convertStringObjectMapToStringEventPropMap::Error converting object to string", e);
+            throw e;
+        }
+    }
+
 
     public static Map<String, ClickstreamUserPropValue> convertStringObjectMapToStringUserPropMap(final Map<String, Object> inputMap)
             throws JsonProcessingException {
@@ -309,26 +324,30 @@ public final class Util {
         }
         Map<String, ClickstreamUserPropValue> result = new HashMap<>();
         for (Map.Entry<String, Object> entry : inputMap.entrySet()) {
-            String k = entry.getKey();
-            Object v = entry.getValue();
-            if (v instanceof String) {
-                result.put(k, new ClickstreamUserPropValue(v.toString(), ValueType.STRING, null));
-            } else if (v instanceof Number) {
-                result.put(k, new ClickstreamUserPropValue(v.toString(), ValueType.NUMBER, null));
-            } else if (v instanceof Boolean) {
-                result.put(k, new ClickstreamUserPropValue(v.toString(), ValueType.BOOLEAN, null));
-            } else {
-                try {
-                    result.put(k, new ClickstreamUserPropValue(OBJECT_MAPPER.writeValueAsString(v), ValueType.OBJECT, null));
-                } catch (JsonProcessingException e) {
-                    log.error("convertStringObjectMapToStringUserPropMap::Error converting object to string", e);
-                    throw e;
-                }
-            }
+            result.put(entry.getKey(), toUserPropValue(entry.getValue()));
         }
         return result;
     }
 
+    public static ClickstreamUserPropValue toUserPropValue(final Object v) throws JsonProcessingException {
+        if (v instanceof String) {
+            return new ClickstreamUserPropValue(v.toString(), ValueType.STRING, null);
+        } else if (v instanceof Number) {
+            return new ClickstreamUserPropValue(v.toString(), ValueType.NUMBER, null);
+        } else if (v instanceof Boolean) {
+            return new ClickstreamUserPropValue(v.toString(), ValueType.BOOLEAN, null);
+        } else if (v instanceof RawJsonValue) {
+            RawJsonValue raw = (RawJsonValue) v;
+            return new ClickstreamUserPropValue(raw.getJson(), raw.getValueType(), null);
+        }
+        try {
+            return new ClickstreamUserPropValue(OBJECT_MAPPER.writeValueAsString(v), ValueType.OBJECT, null);
+        } catch (JsonProcessingException e) {
+            log.error("convertStringObjectMapToStringUserPropMap::Error converting object to string", e);
+            throw e;
+        }
+    }
+
     public static Map<String, ClickstreamUserPropValue> convertCustomerUserPropMapToStringUserPropMap(final Map<String, UserPropObjectValue> customProperties)
             throws JsonProcessingException {
         Map<String, ClickstreamUserPropValue> result = new HashMap<>();
@@ -0,0 +1,44 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+package software.aws.solution.clickstream.common.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Zlib wrapped deflate stream (RFC 1950), as produced by {@link java.util.zip.Deflater} and most SDK deflate helpers.
+ */
+public final class DeflateCodec implements PayloadCodec {
+    private static final int DEFLATE_METHOD = 8;
+    private static final int CHECK_DIVISOR = 31;
+
+    @Override
+    public String getName() {
+        return "deflate";
+    }
+
+    @Override
+    public boolean matches(final byte[] header, final int length) {
+        if (length < 2) {
+            return false;
+        }
+        int cmf = header[0] & 0xff;
+        int flg = header[1] & 0xff;
+        return (cmf & 0x0f) == DEFLATE_METHOD && ((cmf << 8) | flg) % CHECK_DIVISOR == 0;
+    }
+
+    @Override
+    public InputStream wrap(final InputStream in) throws IOException {
+        return new PooledInflaterInputStream(in, false);
+    }
+}
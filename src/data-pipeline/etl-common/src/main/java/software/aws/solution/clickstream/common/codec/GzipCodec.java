@@ -0,0 +1,36 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+package software.aws.solution.clickstream.common.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public final class GzipCodec implements PayloadCodec {
+    private static final int MAGIC_0 = 0x1f;
+    private static final int MAGIC_1 = 0x8b;
+
+    @Override
+    public String getName() {
+        return "gzip";
+    }
+
+    @Override
+    public boolean matches(final byte[] header, final int length) {
+        return length >= 2 && (header[0] & 0xff) == MAGIC_0 && (header[1] & 0xff) == MAGIC_1;
+    }
+
+    @Override
+    public InputStream wrap(final InputStream in) throws IOException {
+        return new PooledInflaterInputStream(in, true);
+    }
+}
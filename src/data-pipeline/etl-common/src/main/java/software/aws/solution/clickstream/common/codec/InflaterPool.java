@@ -0,0 +1,52 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+package software.aws.solution.clickstream.common.codec;
+
+import java.util.zip.Inflater;
+
+/**
+ * Keeps one idle {@link Inflater} per thread and per mode, so that inflating a row does not
+ * allocate (and later finalize) a native zlib stream. Nested borrows fall back to a fresh instance.
+ */
+public final class InflaterPool {
+    private static final ThreadLocal<Inflater[]> IDLE = ThreadLocal.withInitial(() -> new Inflater[2]);
+
+    private InflaterPool() {
+    }
+
+    public static Inflater borrow(final boolean nowrap) {
+        Inflater[] idle = IDLE.get();
+        int slot = slotOf(nowrap);
+        Inflater inflater = idle[slot];
+        if (inflater == null) {
+            return new Inflater(nowrap);
+        }
+        idle[slot] = null;
+        return inflater;
+    }
+
+    public static void release(final Inflater inflater, final boolean nowrap) {
+        Inflater[] idle = IDLE.get();
+        int slot = slotOf(nowrap);
+        if (idle[slot] == null) {
+            inflater.reset();
+            idle[slot] = inflater;
+        } else {
+            inflater.end();
+        }
+    }
+
+    private static int slotOf(final boolean nowrap) {
+        return nowrap ? 1 : 0;
+    }
+}
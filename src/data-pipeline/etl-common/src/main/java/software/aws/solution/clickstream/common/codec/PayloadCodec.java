@@ -0,0 +1,42 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+package software.aws.solution.clickstream.common.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A compression format that can appear in the data field of an ingest row.
+ * Codecs are detected from the leading magic bytes of the decoded payload.
+ */
+public interface PayloadCodec {
+
+    /**
+     * Number of leading bytes the decoder peeks before selecting a codec.
+     */
+    int MAGIC_LENGTH = 4;
+
+    String getName();
+
+    /**
+     * @param header the first bytes of the payload
+     * @param length how many bytes of {@code header} are valid, may be less than {@link #MAGIC_LENGTH}
+     */
+    boolean matches(byte[] header, int length);
+
+    /**
+     * Wrap the compressed stream into a stream of decompressed bytes. Closing the returned
+     * stream closes {@code in} and releases any pooled resources.
+     */
+    InputStream wrap(InputStream in) throws IOException;
+}
@@ -0,0 +1,226 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+package software.aws.solution.clickstream.common.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.ZipException;
+
+/**
+ * Turns the data field of an ingest row into a stream of JSON bytes.
+ * <p>
+ * The chain is {@code Base64 -> codec -> caller}, every stage is a stream so the payload is never
+ * materialised as an intermediate byte[] or String. The codec is chosen per row from the magic bytes;
+ * payloads that are already JSON pass through untouched.
+ */
+public final class PayloadDecoder {
+    private static final PayloadDecoder DEFAULT = new PayloadDecoder(Arrays.asList(new GzipCodec(), new ZstdCodec(), new DeflateCodec()));
+
+    private final List<PayloadCodec> codecs;
+
+    public PayloadDecoder(final List<PayloadCodec> codecs) {
+        this.codecs = codecs;
+    }
+
+    public static PayloadDecoder getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @return true if the data field is inline JSON rather than a Base64 encoded payload
+     */
+    public static boolean isPlainJson(final CharSequence data) {
+        for (int i = 0; i < data.length(); i++) {
+            char c = data.charAt(i);
+            if (!isWhitespace(c)) {
+                return c == '[' || c == '{';
+            }
+        }
+        return false;
+    }
+
+    public InputStream openBase64(final String base64Data) throws IOException {
+        return open(Base64.getDecoder().wrap(new AsciiInputStream(base64Data)));
+    }
+
+    /**
+     * Open the percent-encoded form value held in {@code data[start, end)}, it is unescaped while it is read.
+     * A value that is inline JSON once unescaped goes straight to the caller, anything else is read as Base64
+     * and handed to {@link #open(InputStream)}.
+     */
+    public InputStream openFormValue(final String data, final int start, final int end) throws IOException {
+        if (isFormEncodedJson(data, start, end)) {
+            return new PercentDecodingInputStream(data, start, end, true);
+        }
+        // '+' is part of the Base64 alphabet, a client that did not escape it still means '+'
+        return open(Base64.getDecoder().wrap(new PercentDecodingInputStream(data, start, end, false)));
+    }
+
+    /**
+     * Detect the codec of the payload and return the decompressed stream.
+     *
+     * @throws ZipException if the payload is neither compressed by a known codec nor JSON
+     */
+    public InputStream open(final InputStream payload) throws IOException {
+        PushbackInputStream in = new PushbackInputStream(payload, PayloadCodec.MAGIC_LENGTH);
+        byte[] header = new byte[PayloadCodec.MAGIC_LENGTH];
+        int n = in.readNBytes(header, 0, header.length);
+        if (n > 0) {
+            in.unread(header, 0, n);
+        }
+        for (PayloadCodec codec : codecs) {
+            if (codec.matches(header, n)) {
+                return codec.wrap(in);
+            }
+        }
+        if (n == 0 || isJsonStart((char) (header[0] & 0xff))) {
+            return in;
+        }
+        in.close();
+        throw new ZipException("Unknown payload format, leading bytes: " + Arrays.toString(Arrays.copyOf(header, n)));
+    }
+
+    public String decodeBase64ToString(final String base64Data) throws IOException {
+        try (InputStream in = openBase64(base64Data)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    public String decodeToString(final InputStream payload) throws IOException {
+        try (InputStream in = open(payload)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static boolean isFormEncodedJson(final String data, final int start, final int end) {
+        if (start >= end) {
+            return false;
+        }
+        int c = data.charAt(start);
+        if (c == '%' && start + 2 < end) {
+            c = PercentDecodingInputStream.unhex(data.charAt(start + 1), data.charAt(start + 2));
+        }
+        return c == '[' || c == '{';
+    }
+
+    private static boolean isJsonStart(final char c) {
+        return c == '[' || c == '{' || isWhitespace(c);
+    }
+
+    private static boolean isWhitespace(final char c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    /**
+     * Byte view over a String holding only ASCII characters (Base64 text), without encoding it into a byte[].
+     */
+    private static final class AsciiInputStream extends InputStream {
+        private final String data;
+        private int pos;
+
+        AsciiInputStream(final String data) {
+            this.data = data;
+        }
+
+        @Override
+        public int read() {
+            return pos < data.length() ? data.charAt(pos++) & 0xff : -1;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) {
+            if (len == 0) {
+                return 0;
+            }
+            int n = Math.min(len, data.length() - pos);
+            if (n <= 0) {
+                return -1;
+            }
+            for (int i = 0; i < n; i++) {
+                b[off + i] = (byte) data.charAt(pos++);
+            }
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return data.length() - pos;
+        }
+    }
+
+    /**
+     * Byte view over an {@code application/x-www-form-urlencoded} value, {@code %XX} escapes are decoded
+     * on the fly instead of building the decoded String first.
+     */
+    private static final class PercentDecodingInputStream extends InputStream {
+        private final String data;
+        private final int end;
+        private final boolean plusAsSpace;
+        private int pos;
+
+        PercentDecodingInputStream(final String data, final int start, final int end, final boolean plusAsSpace) {
+            this.data = data;
+            this.pos = start;
+            this.end = end;
+            this.plusAsSpace = plusAsSpace;
+        }
+
+        static int unhex(final char high, final char low) {
+            int h = Character.digit(high, 16);
+            int l = Character.digit(low, 16);
+            return h < 0 || l < 0 ? -1 : (h << 4) | l;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (pos >= end) {
+                return -1;
+            }
+            char c = data.charAt(pos);
+            if (c == '%') {
+                int b = pos + 2 < end ? unhex(data.charAt(pos + 1), data.charAt(pos + 2)) : -1;
+                if (b < 0) {
+                    throw new IOException("Malformed percent escape at index " + pos);
+                }
+                pos += 3;
+                return b;
+            }
+            if (c >= 0x80) {
+                throw new IOException("Unescaped non-ASCII character at index " + pos);
+            }
+            pos++;
+            return c == '+' && plusAsSpace ? ' ' : c;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            int n = 0;
+            while (n < len) {
+                int c = read();
+                if (c < 0) {
+                    break;
+                }
+                b[off + n++] = (byte) c;
+            }
+            return n == 0 ? -1 : n;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+package software.aws.solution.clickstream.common.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.zip.CRC32;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Inflating stream backed by an {@link InflaterPool} inflater. Handles zlib streams and, with
+ * {@code gzip} framing, the gzip member header/trailer (including concatenated members) the same
+ * way {@link java.util.zip.GZIPInputStream} does.
+ */
+final class PooledInflaterInputStream extends InflaterInputStream {
+    private static final int BUFFER_SIZE = 8192;
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final int GZIP_TRAILER_SIZE = 8;
+    private static final int GZIP_MIN_HEADER_SIZE = 10;
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+    private static final int BYTE_MASK = 0xff;
+    private static final long UINT_MASK = 0xffffffffL;
+    private static final int BYTE_BITS = 8;
+    private static final int SHORT_BITS = 16;
+
+    private final boolean nowrap;
+    private final boolean gzip;
+    private final CRC32 crc;
+    private boolean eos;
+    private boolean closed;
+
+    PooledInflaterInputStream(final InputStream in, final boolean gzip) throws IOException {
+        super(in, InflaterPool.borrow(gzip), BUFFER_SIZE);
+        this.nowrap = gzip;
+        this.gzip = gzip;
+        this.crc = gzip ? new CRC32() : null;
+        if (gzip) {
+            try {
+                readHeader(in);
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (eos) {
+            return -1;
+        }
+        int n = super.read(b, off, len);
+        while (n == -1) {
+            if (!gzip || readTrailer()) {
+                eos = true;
+                return -1;
+            }
+            n = super.read(b, off, len);
+        }
+        if (gzip) {
+            crc.update(b, off, n);
+        }
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            InflaterPool.release(inf, nowrap);
+            super.close();
+        }
+    }
+
+    private int readHeader(final InputStream headerIn) throws IOException {
+        if (readUShort(headerIn) != GZIP_MAGIC) {
+            throw new ZipException("Not in GZIP format");
+        }
+        if (readUByte(headerIn) != BYTE_BITS) {
+            throw new ZipException("Unsupported compression method");
+        }
+        int flags = readUByte(headerIn);
+        skipBytes(headerIn, GZIP_MIN_HEADER_SIZE - 4);
+        int n = GZIP_MIN_HEADER_SIZE;
+        if ((flags & FEXTRA) == FEXTRA) {
+            int extraLength = readUShort(headerIn);
+            skipBytes(headerIn, extraLength);
+            n += extraLength + 2;
+        }
+        if ((flags & FNAME) == FNAME) {
+            n += skipZeroTerminated(headerIn);
+        }
+        if ((flags & FCOMMENT) == FCOMMENT) {
+            n += skipZeroTerminated(headerIn);
+        }
+        if ((flags & FHCRC) == FHCRC) {
+            skipBytes(headerIn, 2);
+            n += 2;
+        }
+        crc.reset();
+        return n;
+    }
+
+    /**
+     * @return true when the end of the last gzip member has been reached
+     */
+    private boolean readTrailer() throws IOException {
+        InputStream trailerIn = this.in;
+        int remaining = inf.getRemaining();
+        if (remaining > 0) {
+            trailerIn = new SequenceInputStream(new ByteArrayInputStream(buf, len - remaining, remaining), this.in);
+        }
+        if (readUInt(trailerIn) != crc.getValue() || readUInt(trailerIn) != (inf.getBytesWritten() & UINT_MASK)) {
+            throw new ZipException("Corrupt GZIP trailer");
+        }
+        if (this.in.available() > 0 || remaining > GZIP_TRAILER_SIZE + GZIP_MIN_HEADER_SIZE + GZIP_TRAILER_SIZE) {
+            int consumed = GZIP_TRAILER_SIZE;
+            try {
+                consumed += readHeader(trailerIn);
+            } catch (IOException e) {
+                return true;
+            }
+            inf.reset();
+            if (remaining > consumed) {
+                inf.setInput(buf, len - remaining + consumed, remaining - consumed);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private static long readUInt(final InputStream in) throws IOException {
+        long low = readUShort(in);
+        return ((long) readUShort(in) << SHORT_BITS) | low;
+    }
+
+    private static int readUShort(final InputStream in) throws IOException {
+        int low = readUByte(in);
+        return (readUByte(in) << BYTE_BITS) | low;
+    }
+
+    private static int readUByte(final InputStream in) throws IOException {
+        int b = in.read();
+        if (b == -1) {
+            throw new EOFException();
+        }
+        return b & BYTE_MASK;
+    }
+
+    private static void skipBytes(final InputStream in, final int n) throws IOException {
+        for (int i = 0; i < n; i++) {
+            readUByte(in);
+        }
+    }
+
+    private static int skipZeroTerminated(final InputStream in) throws IOException {
+        int n = 1;
+        while (readUByte(in) != 0) {
+            n++;
+        }
+        return n;
+    }
+}
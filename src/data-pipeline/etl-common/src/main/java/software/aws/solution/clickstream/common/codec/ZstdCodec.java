@@ -0,0 +1,60 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+package software.aws.solution.clickstream.common.codec;
+
+import com.github.luben.zstd.RecyclingBufferPool;
+import com.github.luben.zstd.ZstdInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Zstandard frames. zstd-jni is provided by the Spark runtime, so this codec only reports a
+ * match when the library is on the classpath.
+ */
+public final class ZstdCodec implements PayloadCodec {
+    private static final byte[] MAGIC = {(byte) 0x28, (byte) 0xb5, (byte) 0x2f, (byte) 0xfd};
+    private static final boolean AVAILABLE = isLibraryPresent();
+
+    @Override
+    public String getName() {
+        return "zstd";
+    }
+
+    @Override
+    public boolean matches(final byte[] header, final int length) {
+        if (!AVAILABLE || length < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (header[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public InputStream wrap(final InputStream in) throws IOException {
+        return new ZstdInputStream(in, RecyclingBufferPool.INSTANCE);
+    }
+
+    private static boolean isLibraryPresent() {
+        try {
+            Class.forName("com.github.luben.zstd.ZstdInputStream", false, ZstdCodec.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
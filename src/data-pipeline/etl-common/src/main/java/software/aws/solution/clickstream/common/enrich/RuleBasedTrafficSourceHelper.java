@@ -17,7 +17,10 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import software.aws.solution.clickstream.common.Cache;
+import software.aws.solution.clickstream.common.CacheKey;
+import software.aws.solution.clickstream.common.EnrichmentContext;
 import software.aws.solution.clickstream.common.RuleConfig;
+import software.aws.solution.clickstream.common.UrlTokenizer;
 import software.aws.solution.clickstream.common.Util;
 import software.aws.solution.clickstream.common.enrich.ts.CategoryTrafficSource;
 import software.aws.solution.clickstream.common.enrich.ts.SourceMedium;
@@ -30,6 +33,7 @@ import software.aws.solution.clickstream.common.enrich.ts.rule.SourceCategoryAnd
 import software.aws.solution.clickstream.common.exception.ExtractDataException;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -61,7 +65,6 @@ public final class RuleBasedTrafficSourceHelper implements TrafficSourceHelper {
     public static final String DISPLAY = "Display";
     public static final String CLID = "clid";
     private static final Map<String, SourceMedium> KNOWN_CLID_TO_MEDIUM_MAP;
-    private static final Map<String, RuleBasedTrafficSourceHelper> INSTANCES = new HashMap<>();
     public static final String NONE = "None";
     public static final String REFERRAL = "Referral";
     public static final String ORGANIC = "Organic";
@@ -71,6 +74,9 @@ public final class RuleBasedTrafficSourceHelper implements TrafficSourceHelper {
 
     public static final String CHANNEL_RULE_FILE = "ts/traffic_source_channel_rule_v0.json";
     public static final String CATEGORY_RULE_FILE = "ts/traffic_source_category_rule_v0.json";
+    public static final String PAGE_TRAFFIC_SOURCE_CACHE = "traffic_source_page";
+    public static final String TRAFFIC_SOURCE_CACHE = "traffic_source";
+    private static final int TRAFFIC_SOURCE_BYTES = 56;
 
     static {
         KNOWN_CLID_TO_MEDIUM_MAP = getKnownClidTypeToSourceMediumMap();
@@ -79,11 +85,12 @@ public final class RuleBasedTrafficSourceHelper implements TrafficSourceHelper {
     private final CategoryListEvaluator categoryListEvaluator;
     private final ChannelListEvaluator channelListEvaluator;
 
-    private final Cache<CategoryTrafficSource> categoryTrafficSourceCache = new Cache<>();
+    private final Cache<CategoryTrafficSource> pageTrafficSourceCache;
+    private final Cache<CategoryTrafficSource> categoryTrafficSourceCache;
     @Getter
     private final String appId;
 
-    private RuleBasedTrafficSourceHelper(final String appId, final RuleConfig ruleConfig) {
+    private RuleBasedTrafficSourceHelper(final String appId, final RuleConfig ruleConfig, final EnrichmentContext enrichmentContext) {
        String categoryRuleFile = CATEGORY_RULE_FILE;
        String channelRuleFile = CHANNEL_RULE_FILE;
 
@@ -95,6 +102,16 @@ public final class RuleBasedTrafficSourceHelper implements TrafficSourceHelper {
             categoryRuleJson = ruleConfig.getOptCategoryRuleJson();
         }
         this.appId = appId;
+        Cache<String> channelCache;
+        if (enrichmentContext == null) {
+            this.pageTrafficSourceCache = new Cache<>(PAGE_TRAFFIC_SOURCE_CACHE, RuleBasedTrafficSourceHelper::estimateBytes);
+            this.categoryTrafficSourceCache = new Cache<>(TRAFFIC_SOURCE_CACHE, RuleBasedTrafficSourceHelper::estimateBytes);
+            channelCache = new Cache<>(ChannelListEvaluator.CHANNEL_CACHE, Cache::stringWeight);
+        } else {
+            this.pageTrafficSourceCache = enrichmentContext.getCache(PAGE_TRAFFIC_SOURCE_CACHE, RuleBasedTrafficSourceHelper::estimateBytes);
+            this.categoryTrafficSourceCache = enrichmentContext.getCache(TRAFFIC_SOURCE_CACHE, RuleBasedTrafficSourceHelper::estimateBytes);
+            channelCache = enrichmentContext.getCache(ChannelListEvaluator.CHANNEL_CACHE, Cache::stringWeight);
+        }
         try {
             if (categoryRuleJson == null) {
                 log.warn("categoryRuleJson is null, loading from file: {}", categoryRuleFile);
@@ -123,20 +140,32 @@ public final class RuleBasedTrafficSourceHelper implements TrafficSourceHelper {
         }
 
         try {
-            this.channelListEvaluator = ChannelListEvaluator.fromJson(channelRuleJson);
+            this.channelListEvaluator = ChannelListEvaluator.fromJson(channelRuleJson, channelCache, appId);
         } catch (JsonProcessingException e) {
             log.error("Failed to load category or channel rules  channelRuleJson: {}, error: {}", channelRuleJson, Util.getStackTrace(e));
             throw new ExtractDataException(e);
         }
     }
 
+    /**
+     * Helper of the app in the default {@link EnrichmentContext}, parsers use the helper of their own context.
+     */
     public static RuleBasedTrafficSourceHelper getInstance(final String appId, final RuleConfig ruleConfig) {
-        if (INSTANCES.containsKey(appId)) {
-            return INSTANCES.get(appId);
-        }
-        RuleBasedTrafficSourceHelper helper = new RuleBasedTrafficSourceHelper(appId, ruleConfig);
-        INSTANCES.put(appId, helper);
-        return INSTANCES.get(appId);
+        return EnrichmentContext.getDefault().getTrafficSourceHelper(appId, ruleConfig);
+    }
+
+    /**
+     * Helper with its own caches, not shared with any {@link EnrichmentContext}.
+     */
+    public static RuleBasedTrafficSourceHelper create(final String appId, final RuleConfig ruleConfig) {
+        return new RuleBasedTrafficSourceHelper(appId, ruleConfig, null);
+    }
+
+    /**
+     * Helper using the caches of the context, shared by the helpers of all apps and keyed by the app id.
+     */
+    public static RuleBasedTrafficSourceHelper create(final String appId, final RuleConfig ruleConfig, final EnrichmentContext enrichmentContext) {
+        return new RuleBasedTrafficSourceHelper(appId, ruleConfig, enrichmentContext);
     }
 
     public static Map<String, SourceMedium> getKnownClidTypeToSourceMediumMap() {
@@ -165,8 +194,19 @@ public final class RuleBasedTrafficSourceHelper implements TrafficSourceHelper {
         return clidMap;
     }
 
+    private static String getParameter(final UrlTokenizer tokens, final Map<String, List<String>> params, final String key) {
+        if (tokens != null) {
+            return tokens.getParameter(key);
+        }
+        return getFirst(params.get(key));
+    }
+
     private static String getFirst(final List<String> list) {
-        return list != null && !list.isEmpty() && !list.get(0).isEmpty()? list.get(0) : null;
+        if (list == null || list.isEmpty()) {
+            return null;
+        }
+        String first = list.get(0);
+        return first != null && !first.isEmpty() ? first : null;
     }
 
     private static boolean isEmpty(final String v, final String emtpyValue) {
@@ -181,11 +221,12 @@ public final class RuleBasedTrafficSourceHelper implements TrafficSourceHelper {
     public CategoryTrafficSource parse(final String pageUrl, final String pageReferrer, final String latestReferrer, final String latestReferrerHost) {
         log.debug("parser() enter pageUrl: {}, pageReferrer: {}, latestReferrer: {}, latestReferrerHost: {}", pageUrl, pageReferrer, latestReferrer, latestReferrerHost);
 
-        String cachedKey = getCachedKey(pageUrl, pageReferrer, latestReferrer);
+        // the page cache and the UTM cache are separate, a loader must not compute into the cache that is calling it
+        return pageTrafficSourceCache.get(CacheKey.of(appId, pageUrl, pageReferrer, latestReferrer),
+                key -> parsePage(pageUrl, pageReferrer, latestReferrer, latestReferrerHost));
+    }
 
-        if (categoryTrafficSourceCache.containsKey(cachedKey)) {
-            return categoryTrafficSourceCache.get(cachedKey);
-        }
+    private CategoryTrafficSource parsePage(final String pageUrl, final String pageReferrer, final String latestReferrer, final String latestReferrerHost) {
         TrafficSourceUtm trafficSourceUtm = new TrafficSourceUtm();
         String pageHostName = null;
         if (pageUrl != null && !pageUrl.isEmpty()) {
@@ -195,9 +236,7 @@ public final class RuleBasedTrafficSourceHelper implements TrafficSourceHelper {
                 pageHostName = r.get().getHostName();
             }
         }
-        CategoryTrafficSource result = parse(trafficSourceUtm, pageHostName, pageReferrer, latestReferrer, latestReferrerHost);
-        categoryTrafficSourceCache.put(cachedKey, result);
-        return result;
+        return parse(trafficSourceUtm, pageHostName, pageReferrer, latestReferrer, latestReferrerHost);
     }
 
     private TrafficSourceUtm getUtmSourceFromUrl(final String urlInput) {
@@ -211,20 +250,25 @@ public final class RuleBasedTrafficSourceHelper implements TrafficSourceHelper {
             url = "http://" + url;
         }
 
-        Map<String, List<String>> params = getUriParams(url);
-        String utmId = getFirst(params.get("utm_id"));
-        String utmSource = getFirst(params.get("utm_source"));
-        String utmMedium = getFirst(params.get("utm_medium"));
-        String utmContent = getFirst(params.get("utm_content"));
-        String utmTerm = getFirst(params.get("utm_term"));
-        String gclid = getFirst(params.get(GCLID));
-        String utmCampaign = getFirst(params.get("utm_campaign"));
-        String utmSourcePlatform = getFirst(params.get("utm_source_platform"));
+        UrlTokenizer tokens = UrlTokenizer.tokenize(url);
+        Map<String, List<String>> params = tokens == null ? getUriParams(url) : null;
+        String utmId = getParameter(tokens, params, "utm_id");
+        String utmSource = getParameter(tokens, params, "utm_source");
+        String utmMedium = getParameter(tokens, params, "utm_medium");
+        String utmContent = getParameter(tokens, params, "utm_content");
+        String utmTerm = getParameter(tokens, params, "utm_term");
+        String gclid = getParameter(tokens, params, GCLID);
+        String utmCampaign = getParameter(tokens, params, "utm_campaign");
+        String utmSourcePlatform = getParameter(tokens, params, "utm_source_platform");
+        if (params == null && gclid == null && tokens.getQuery() != null && tokens.getQuery().contains(CLID)) {
+            // other click ids are matched by key suffix, which needs the parameter map
+            params = tokens.getParameters();
+        }
 
         log.debug("utmSource: {}, utmMedium: {}, utmContent: {}, utmTerm: {}, utmCampaign: {}, utmId: {}, utmSourcePlatform: {}, gclid: {}",
                 utmSource, utmMedium, utmContent, utmTerm, utmCampaign, utmId, utmSourcePlatform, gclid);
 
-        Map<String, String> clidMap = createClidTypeValueMap(gclid, params);
+        Map<String, String> clidMap = createClidTypeValueMap(gclid, params == null ? Collections.emptyMap() : params);
 
         trafficSourceUtm.setSource(utmSource);
         trafficSourceUtm.setMedium(utmMedium);
@@ -326,11 +370,15 @@ public final class RuleBasedTrafficSourceHelper implements TrafficSourceHelper {
         log.debug("parse() enter trafficSourceUtmInput: {}, pageHostName: {}, pageReferrer: {}, latestReferrer: {}, latestReferrerHost: {}",
                 trafficSourceUtmInput, pageHostName, pageReferrer, latestReferrer, latestReferrerHost);
 
-        String cachedKey = getCachedKey(trafficSourceUtmInput, pageReferrer, latestReferrer);
+        return categoryTrafficSourceCache.get(getCachedKey(trafficSourceUtmInput, pageReferrer, latestReferrer),
+                key -> parseUtm(trafficSourceUtmInput, pageHostName, pageReferrer, latestReferrer, latestReferrerHost));
+    }
 
-        if (categoryTrafficSourceCache.containsKey(cachedKey)) {
-            return categoryTrafficSourceCache.get(cachedKey);
-        }
+    private CategoryTrafficSource parseUtm(final TrafficSourceUtm trafficSourceUtmInput,
+                                           final String pageHostName,
+                                           final String pageReferrer,
+                                           final String latestReferrer,
+                                           final String latestReferrerHost) {
         TrafficSourceUtm trafficSourceUtm = normEmptyInTrafficSourceUtm(trafficSourceUtmInput);
 
         if (trafficSourceUtm.getSource() == null) {
@@ -365,30 +413,36 @@ public final class RuleBasedTrafficSourceHelper implements TrafficSourceHelper {
 
         handleUnassignedSource(categoryTrafficSource, pageReferrer, latestReferrer, isInternalReferrer, isInternalLatestReferrer);
 
-        categoryTrafficSourceCache.put(cachedKey, categoryTrafficSource);
-
         return categoryTrafficSource;
     }
 
-    private static String getCachedKey(final TrafficSourceUtm trafficSourceUtmInput, final String pageReferrer, final String latestReferrer) {
-        return String.join("|",
-                trafficSourceUtmInput.getSource() == null ? "1" : "1:" + trafficSourceUtmInput.getSource(),
-                trafficSourceUtmInput.getMedium() == null ? "2" : "2:" + trafficSourceUtmInput.getMedium(),
-                trafficSourceUtmInput.getClid() == null ? "3" : "3:" + trafficSourceUtmInput.getClid(),
-                trafficSourceUtmInput.getContent() == null ? "4" : "4:" + trafficSourceUtmInput.getContent(),
-                trafficSourceUtmInput.getTerm() == null ? "5" : "5:" + trafficSourceUtmInput.getTerm(),
-                trafficSourceUtmInput.getCampaignId() == null ? "6" : "6:" + trafficSourceUtmInput.getCampaignId(),
-                trafficSourceUtmInput.getCampaign() == null ? "7" : "7:" + trafficSourceUtmInput.getCampaign(),
-                trafficSourceUtmInput.getClidPlatform() == null ? "8" : "8:" + trafficSourceUtmInput.getClidPlatform(),
-                pageReferrer == null ? "9" : "9:" + pageReferrer,
-                latestReferrer == null ? "10" : "10:" + latestReferrer);
+    private CacheKey getCachedKey(final TrafficSourceUtm trafficSourceUtmInput, final String pageReferrer, final String latestReferrer) {
+        return CacheKey.of(
+                appId,
+                trafficSourceUtmInput.getSource(),
+                trafficSourceUtmInput.getMedium(),
+                trafficSourceUtmInput.getClid(),
+                trafficSourceUtmInput.getContent(),
+                trafficSourceUtmInput.getTerm(),
+                trafficSourceUtmInput.getCampaignId(),
+                trafficSourceUtmInput.getCampaign(),
+                trafficSourceUtmInput.getClidPlatform(),
+                pageReferrer,
+                latestReferrer);
     }
 
-    private static String getCachedKey(final String pageUrl, final String pageReferrer, final String latestReferrer) {
-      return String.join("|",
-                pageUrl == null ? "1" : "1:" + pageUrl,
-                pageReferrer == null ? "2" : "2:" + pageReferrer,
-                latestReferrer == null ? "3" : "3:" + latestReferrer);
+    static int estimateBytes(final CategoryTrafficSource categoryTrafficSource) {
+        return TRAFFIC_SOURCE_BYTES
+                + Cache.stringWeight(categoryTrafficSource.getSource())
+                + Cache.stringWeight(categoryTrafficSource.getMedium())
+                + Cache.stringWeight(categoryTrafficSource.getCampaign())
+                + Cache.stringWeight(categoryTrafficSource.getContent())
+                + Cache.stringWeight(categoryTrafficSource.getTerm())
+                + Cache.stringWeight(categoryTrafficSource.getCampaignId())
+                + Cache.stringWeight(categoryTrafficSource.getClidPlatform())
+                + Cache.stringWeight(categoryTrafficSource.getClid())
+                + Cache.stringWeight(categoryTrafficSource.getChannelGroup())
+                + Cache.stringWeight(categoryTrafficSource.getCategory());
     }
 
     private void handleUnassignedSource(final CategoryTrafficSource categoryTrafficSource, final String pageReferrer,
@@ -19,6 +19,7 @@ import com.fasterxml.jackson.core.type.*;
 import com.fasterxml.jackson.databind.*;
 import lombok.extern.slf4j.*;
 import software.aws.solution.clickstream.common.Cache;
+import software.aws.solution.clickstream.common.EnrichmentContext;
 import software.aws.solution.clickstream.common.model.*;
 import ua_parser.*;
 
@@ -30,17 +31,23 @@ public final class UAEnrichHelper {
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
     public static final String UA_STRING = "string";
     public static final String BOT = "Bot";
-    private static final Cache<ClickstreamUA> CACHED_UA = new Cache<>();
+    public static final String UA_CACHE = "ua";
+    private static final int UA_MAP_BYTES = 1024;
     private UAEnrichHelper() {
     }
     public static ClickstreamUA parserUA(final String userAgent) {
-        ClickstreamUA clickstreamUA = new ClickstreamUA();
+        return parserUA(userAgent, EnrichmentContext.getDefault().getCache(UA_CACHE, UAEnrichHelper::estimateBytes));
+    }
+
+    public static ClickstreamUA parserUA(final String userAgent, final Cache<ClickstreamUA> cachedUa) {
         if (userAgent == null || userAgent.isEmpty()) {
-            return clickstreamUA;
-        }
-        if (CACHED_UA.containsKey(userAgent)) {
-            return CACHED_UA.get(userAgent);
+            return new ClickstreamUA();
         }
+        return cachedUa.get(userAgent, UAEnrichHelper::parse);
+    }
+
+    private static ClickstreamUA parse(final String userAgent) {
+        ClickstreamUA clickstreamUA = new ClickstreamUA();
         Client client = UA_PARSER.parse(userAgent);
         if (client.userAgent != null) {
             clickstreamUA.setUaBrowser(client.userAgent.family);
@@ -66,11 +73,22 @@ public final class UAEnrichHelper {
         }
         uaMap.put(UA_STRING, userAgent);
         clickstreamUA.setUaMap(uaMap);
-
-        CACHED_UA.put(userAgent, clickstreamUA);
         return clickstreamUA;
     }
 
+    /**
+     * Rough retained size of a parsed UA besides its key: the fields plus the nested parser result map.
+     */
+    public static int estimateBytes(final ClickstreamUA clickstreamUA) {
+        return UA_MAP_BYTES
+                + Cache.stringWeight(clickstreamUA.getUaBrowser())
+                + Cache.stringWeight(clickstreamUA.getUaBrowserVersion())
+                + Cache.stringWeight(clickstreamUA.getUaOs())
+                + Cache.stringWeight(clickstreamUA.getUaOsVersion())
+                + Cache.stringWeight(clickstreamUA.getUaDevice())
+                + Cache.stringWeight(clickstreamUA.getUaDeviceCategory());
+    }
+
     private static String getCategory(final String family) {
         if (family == null) {
             return null;
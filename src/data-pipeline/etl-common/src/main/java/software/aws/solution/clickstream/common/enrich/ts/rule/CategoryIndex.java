@@ -0,0 +1,260 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+
+package software.aws.solution.clickstream.common.enrich.ts.rule;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The category rules indexed by the reversed labels of their host, e.g. {@code news.google.com} is stored
+ * under {@code com -> google -> news}, with the rules that have a path kept at the node of their host.
+ *
+ * <p>A referrer host is resolved by walking its labels from the top-level one. The same walk yields the
+ * node of the host without its {@code www.} label, and a second walk that starts below a country code
+ * suffix such as {@code .co.uk} or {@code .com.br} yields the hosts without the country code.
+ * {@link #lookup} returns the rule of the longest matching candidate, the same rule as looking up each of
+ * {@link CategoryListEvaluator#getCandidateUrls} in turn, without building the candidate strings.
+ *
+ * <p>The country code step keeps the rule of the legacy regex {@link CategoryListEvaluator#HOST_NAME_AND_CONNTRY_PATTERN}
+ * rather than a public suffix list, the rules file is written against those candidates.
+ *
+ * <p>The query parameters of the terms of each rule are deduplicated when the index is built, see {@link #terms}.
+ */
+public final class CategoryIndex {
+    private static final String WWW = "www.";
+    private static final String GOOGLE_COM = "google.com";
+    private static final String GOOGLE_IN_URL = ".google.";
+
+    private final Node root = new Node();
+    private final Map<String, CategoryItem> urlMap;
+    private final CategoryItem googleItem;
+    private final Map<CategoryItem, String[]> termParams = new IdentityHashMap<>();
+
+    private CategoryIndex(final Map<String, CategoryItem> urlMap) {
+        this.urlMap = urlMap;
+        this.googleItem = urlMap.get(GOOGLE_COM);
+    }
+
+    private static final class Node {
+        private Map<String, Node> children;
+        private CategoryItem item;
+        private Map<String, CategoryItem> pathItems;
+
+        private Node child(final String label) {
+            return children == null ? null : children.get(label);
+        }
+
+        private Node addChild(final String label) {
+            if (children == null) {
+                children = new HashMap<>();
+            }
+            return children.computeIfAbsent(label, k -> new Node());
+        }
+    }
+
+    /**
+     * @param categoryItems the category rules, a later rule replaces an earlier one with the same url
+     */
+    public static CategoryIndex build(final Collection<CategoryItem> categoryItems) {
+        Map<String, CategoryItem> urlMap = new HashMap<>();
+        for (CategoryItem categoryItem : categoryItems) {
+            urlMap.put(categoryItem.getUrl(), categoryItem);
+        }
+        CategoryIndex index = new CategoryIndex(urlMap);
+        for (CategoryItem categoryItem : urlMap.values()) {
+            index.add(categoryItem);
+        }
+        return index;
+    }
+
+    private void add(final CategoryItem categoryItem) {
+        List<String> params = categoryItem.getParams();
+        termParams.put(categoryItem, params == null ? new String[0] : new LinkedHashSet<>(params).toArray(new String[0]));
+
+        String url = categoryItem.getUrl();
+        int slash = url.indexOf('/');
+        String host = slash < 0 ? url : url.substring(0, slash);
+
+        Node node = root;
+        int end = host.length();
+        while (end >= 0) {
+            int dot = host.lastIndexOf('.', end - 1);
+            node = node.addChild(host.substring(dot + 1, end));
+            end = dot;
+        }
+        if (slash < 0) {
+            node.item = categoryItem;
+        } else {
+            if (node.pathItems == null) {
+                node.pathItems = new HashMap<>();
+            }
+            node.pathItems.put(url.substring(slash), categoryItem);
+        }
+    }
+
+    /**
+     * The rule of the longest candidate url of the referrer, or null.
+     *
+     * @param theReferrerUrl the referrer url
+     * @param hostNameInput the host of the referrer url, null if it has none
+     * @param pathInput the path of the referrer url, null if it has none
+     */
+    public CategoryItem lookup(final String theReferrerUrl, final String hostNameInput, final String pathInput) {
+        Match match = new Match();
+
+        String url = urlWithoutScheme(theReferrerUrl);
+        match.offer(urlMap.get(url), url.length());
+
+        String hostName = hostNameInput == null ? "" : hostNameInput;
+        String path = null;
+        if (pathInput != null && !pathInput.isEmpty() && !pathInput.equals("/")) {
+            path = pathInput.startsWith("/") ? pathInput : "/" + pathInput;
+        }
+        boolean hasWww = hostName.startsWith(WWW);
+
+        Node[] nodes = walk(hostName, hostName.length(), hasWww);
+        offerNode(match, nodes[0], path, hostName.length());
+        offerNode(match, nodes[1], path, hostName.length() - WWW.length());
+
+        int countryCodeDot = countryCodeDot(hostName);
+        if (countryCodeDot >= 0) {
+            // the regex of the country code applies to the host and, on its own, to the host without www.
+            boolean hasWwwAndCountryCode = hasWww && hostName.lastIndexOf('.', countryCodeDot - 1) >= WWW.length();
+            Node[] countryCodeNodes = walk(hostName, countryCodeDot, hasWwwAndCountryCode);
+            offerNode(match, countryCodeNodes[0], null, countryCodeDot);
+            offerNode(match, countryCodeNodes[1], null, countryCodeDot - WWW.length());
+        }
+
+        if (theReferrerUrl.contains(GOOGLE_IN_URL)) {
+            match.offer(googleItem, GOOGLE_COM.length());
+        }
+        return match.item;
+    }
+
+    /**
+     * The sorted distinct values of the term parameters of the rule joined with commas, or null if the url has none.
+     *
+     * @param categoryItem a rule returned by {@link #lookup}
+     * @param urlParams the query parameters of the referrer url
+     */
+    public String terms(final CategoryItem categoryItem, final Map<String, List<String>> urlParams) {
+        String first = null;
+        Set<String> terms = null;
+        for (String paramKey : termParams.get(categoryItem)) {
+            List<String> values = urlParams.get(paramKey);
+            if (values == null) {
+                continue;
+            }
+            for (String value : values) {
+                if (first == null) {
+                    first = value;
+                } else if (terms != null) {
+                    terms.add(value);
+                } else if (!first.equals(value)) {
+                    terms = new TreeSet<>();
+                    terms.add(first);
+                    terms.add(value);
+                }
+            }
+        }
+        return terms == null ? first : String.join(",", terms);
+    }
+
+    private static void offerNode(final Match match, final Node node, final String path, final int hostLength) {
+        if (node == null) {
+            return;
+        }
+        if (path != null && node.pathItems != null) {
+            match.offer(node.pathItems.get(path), hostLength + path.length());
+        }
+        match.offer(node.item, hostLength);
+    }
+
+    /**
+     * Walks the labels of {@code host[0, end)} from the last one, returns the node of the whole range and,
+     * when {@code withoutWww} is set, the node of the range without its leading {@code www.}.
+     */
+    private Node[] walk(final String host, final int endInput, final boolean withoutWww) {
+        Node[] nodes = new Node[2];
+        Node node = root;
+        int end = endInput;
+        while (end >= 0 && node != null) {
+            int dot = host.lastIndexOf('.', end - 1);
+            node = node.child(host.substring(dot + 1, end));
+            if (withoutWww && dot + 1 == WWW.length()) {
+                nodes[1] = node;
+            }
+            end = dot;
+        }
+        nodes[0] = node;
+        return nodes;
+    }
+
+    /**
+     * The index of the dot before a two-letter country code that follows a two or three letter second level
+     * label, e.g. of {@code .uk} in {@code www.google.co.uk}, or -1. Same as the regex
+     * {@link CategoryListEvaluator#HOST_NAME_AND_CONNTRY_PATTERN}.
+     */
+    static int countryCodeDot(final String host) {
+        int lastDot = host.lastIndexOf('.');
+        if (lastDot < 0 || host.length() - lastDot - 1 != 2 || !isLowerLetters(host, lastDot + 1, host.length())) {
+            return -1;
+        }
+        int secondDot = host.lastIndexOf('.', lastDot - 1);
+        int secondLength = lastDot - secondDot - 1;
+        if (secondDot < 0 || secondLength < 2 || secondLength > 3 || !isLowerLetters(host, secondDot + 1, lastDot)) {
+            return -1;
+        }
+        return lastDot;
+    }
+
+    private static boolean isLowerLetters(final String value, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < 'a' || c > 'z') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String urlWithoutScheme(final String theReferrerUrl) {
+        int schemeEnd = theReferrerUrl.indexOf("://");
+        if (schemeEnd < 0) {
+            return theReferrerUrl;
+        }
+        int start = schemeEnd + 3;
+        int nextSchemeEnd = theReferrerUrl.indexOf("://", start);
+        return theReferrerUrl.substring(start, nextSchemeEnd < 0 ? theReferrerUrl.length() : nextSchemeEnd);
+    }
+
+    private static final class Match {
+        private CategoryItem item;
+        private int length = -1;
+
+        private void offer(final CategoryItem candidate, final int candidateLength) {
+            if (candidate != null && candidateLength > length) {
+                item = candidate;
+                length = candidateLength;
+            }
+        }
+    }
+}
@@ -26,7 +26,6 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -45,9 +44,10 @@ public final class CategoryListEvaluator {
     public static  final  Pattern HOST_NAME_AND_CONNTRY_PATTERN = Pattern.compile("(.*\\.[a-z]{2,3})\\.[a-z]{2}");
 
     public static final String UNASSIGNED = "Unassigned";
-    @Setter
     Map<String, CategoryItem> categoryMap;
 
+    CategoryIndex categoryIndex;
+
     @Setter
     Map<String, String> sourceCategoryMap;
 
@@ -71,7 +71,8 @@ public final class CategoryListEvaluator {
         log.debug("Category rules map size: {}", categoryMap.size());
 
         CategoryListEvaluator categoryListEvaluator = new CategoryListEvaluator();
-        categoryListEvaluator.setCategoryMap(categoryMap);
+        categoryListEvaluator.categoryMap = categoryMap;
+        categoryListEvaluator.categoryIndex = CategoryIndex.build(categoryItems);
         categoryListEvaluator.setSourceCategoryMap(sourceCategoryMap);
         return categoryListEvaluator;
     }
@@ -115,32 +116,12 @@ public final class CategoryListEvaluator {
              urlParams = r.get().getQueryParameters();
         }
 
-        List<String> candidateUrls = getCandidateUrls(theReferrerUrl, hostName, path);
-
-        CategoryItem categoryItem = null;
-        for (String candidateUrl : candidateUrls) {
-            categoryItem = this.categoryMap.get(candidateUrl);
-            if (categoryItem != null) {
-                log.debug("Category found for url: {}", theReferrerUrl);
-                break;
-            }
-        }
+        CategoryItem categoryItem = this.categoryIndex.lookup(theReferrerUrl, hostName, path);
 
         if (categoryItem != null) {
+            log.debug("Category found for url: {}", theReferrerUrl);
             categoryAndTerms.setCategory(categoryItem.getCategory());
-            List<String> terms = new ArrayList<>();
-
-            for (String paramKey : categoryItem.getParams()) {
-                List<String> values = urlParams.get(paramKey);
-                if (values != null) {
-                    terms.addAll(values);
-                }
-            }
-            if (!terms.isEmpty()) {
-                terms = new ArrayList<>(new HashSet<>(terms));
-                terms.sort(Comparator.naturalOrder());
-                categoryAndTerms.setTerms(String.join(",", terms));
-            }
+            categoryAndTerms.setTerms(this.categoryIndex.terms(categoryItem, urlParams));
             categoryAndTerms.setSource(categoryItem.getSource());
         } else {
             categoryAndTerms.setCategory(UNASSIGNED);
@@ -151,6 +132,10 @@ public final class CategoryListEvaluator {
         return categoryAndTerms;
     }
 
+    /**
+     * The urls looked up for a referrer, longest first. {@link CategoryIndex#lookup} resolves the same rule without
+     * building this list.
+     */
    static List<String> getCandidateUrls(final String theReferrerUrl, final String hostNameInput, final String pathInput) {
         List<String> candidateUrls = new ArrayList<>();
         if (theReferrerUrl.contains("://")) {
@@ -19,6 +19,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import software.aws.solution.clickstream.common.Cache;
+import software.aws.solution.clickstream.common.CacheKey;
 
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -31,20 +32,36 @@ import static software.aws.solution.clickstream.common.Util.readTextFile;
 @Slf4j
 public final class ChannelListEvaluator {
     public static final String UNASSIGNED = "Unassigned";
+    public static final String CHANNEL_CACHE = "channel";
     @Getter
     private List<ChannelRule> channelRules;
-    private final Cache<String> channelCached = new Cache<>();
-
-    private ChannelListEvaluator() {
+    private ChannelRuleCompiler.ChannelPredicate[] compiledRules;
+    private final Cache<String> channelCached;
+    private final String cacheScope;
 
+    private ChannelListEvaluator(final Cache<String> channelCached, final String cacheScope) {
+        this.channelCached = channelCached;
+        this.cacheScope = cacheScope;
     }
 
     public static ChannelListEvaluator fromJson(final String jsonArray) throws JsonProcessingException {
+        return fromJson(jsonArray, new Cache<>(CHANNEL_CACHE, Cache::stringWeight), null);
+    }
+
+    /**
+     * Evaluator caching the channels in a cache shared with other evaluators, the scope (e.g. the app id)
+     * is part of the cache key and must identify the rules.
+     */
+    public static ChannelListEvaluator fromJson(final String jsonArray, final Cache<String> channelCache, final String cacheScope) throws JsonProcessingException {
         ObjectMapper objectMapper = new ObjectMapper();
         List<ChannelRule> ruleList = objectMapper.readValue(jsonArray, new TypeReference<List<ChannelRule>>() {
         });
-        ChannelListEvaluator channelListEvaluator = new ChannelListEvaluator();
+        ChannelListEvaluator channelListEvaluator = new ChannelListEvaluator(channelCache, cacheScope);
         channelListEvaluator.channelRules = ruleList;
+        channelListEvaluator.compiledRules = new ChannelRuleCompiler.ChannelPredicate[ruleList.size()];
+        for (int i = 0; i < ruleList.size(); i++) {
+            channelListEvaluator.compiledRules[i] = ChannelRuleCompiler.compileLenient(ruleList.get(i));
+        }
         return channelListEvaluator;
     }
 
@@ -67,21 +84,35 @@ public final class ChannelListEvaluator {
     public String evaluate(final ChannelRuleEvaluatorInput channelRuleEvaluatorInput) {
         log.debug("Evaluating channel rule for: {}", channelRuleEvaluatorInput.toString());
 
-        String cachedKey = channelRuleEvaluatorInput.hashCode() + "";
-        if (channelCached.containsKey(cachedKey)) {
-            return channelCached.get(cachedKey);
-        }
+        return channelCached.get(getCachedKey(channelRuleEvaluatorInput), key -> evaluateRules(channelRuleEvaluatorInput));
+    }
 
+    private String evaluateRules(final ChannelRuleEvaluatorInput channelRuleEvaluatorInput) {
         String channel = UNASSIGNED;
-        ChannelRuleEvaluator evaluator = ChannelRuleEvaluator.getInstance();
+        ChannelRuleCompiler.FieldValues fieldValues = new ChannelRuleCompiler.FieldValues(channelRuleEvaluatorInput);
 
-        for (ChannelRule rule : this.channelRules) {
-            if (evaluator.evaluate(rule, channelRuleEvaluatorInput)) {
-                channel = rule.getChannel();
+        for (int i = 0; i < this.compiledRules.length; i++) {
+            if (this.compiledRules[i].test(fieldValues)) {
+                channel = this.channelRules.get(i).getChannel();
                 break;
             }
         }
-        channelCached.put(cachedKey, channel);
         return channel;
     }
+
+    private CacheKey getCachedKey(final ChannelRuleEvaluatorInput input) {
+        return CacheKey.of(
+                cacheScope,
+                input.getTrafficSourceCategory(),
+                input.getTrafficSourceSource(),
+                input.getTrafficSourceMedium(),
+                input.getTrafficSourceCampaign(),
+                input.getTrafficSourceContent(),
+                input.getTrafficSourceTerm(),
+                input.getTrafficSourceCampaignId(),
+                input.getTrafficSourceClidPlatform(),
+                input.getTrafficSourceClid(),
+                input.getPageViewLatestReferrer(),
+                input.getPageViewLatestReferrerHost());
+    }
 }
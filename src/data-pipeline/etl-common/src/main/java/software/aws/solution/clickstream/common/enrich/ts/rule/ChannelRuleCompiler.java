@@ -0,0 +1,312 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+
+package software.aws.solution.clickstream.common.enrich.ts.rule;
+
+import lombok.extern.slf4j.Slf4j;
+import software.aws.solution.clickstream.common.Constant;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import static software.aws.solution.clickstream.common.enrich.ts.rule.ChannelRuleEvaluator.EMPTY_VALUE_FLAG;
+
+/**
+ * Compiles a {@link ChannelRule} into a tree of {@link ChannelPredicate} once, so the per-event
+ * evaluation does no field-name dispatch, no constant lower-casing and no regex compilation.
+ * Fields are resolved to indexes of {@link FieldValues}.
+ * Validation and error messages are the same as the interpreted {@link ChannelRuleEvaluator}.
+ */
+@Slf4j
+public final class ChannelRuleCompiler {
+
+    private static final List<Function<ChannelRuleEvaluatorInput, String>> FIELD_ACCESSORS = new ArrayList<>();
+    private static final Map<String, Integer> FIELD_INDEXES = new HashMap<>();
+
+    static {
+        addField(Constant.TRAFFIC_SOURCE_CATEGORY, ChannelRuleEvaluatorInput::getTrafficSourceCategory);
+        addField(Constant.TRAFFIC_SOURCE_SOURCE, ChannelRuleEvaluatorInput::getTrafficSourceSource);
+        addField(Constant.TRAFFIC_SOURCE_MEDIUM, ChannelRuleEvaluatorInput::getTrafficSourceMedium);
+        addField(Constant.TRAFFIC_SOURCE_CAMPAIGN, ChannelRuleEvaluatorInput::getTrafficSourceCampaign);
+        addField(Constant.TRAFFIC_SOURCE_CAMPAIGN_ID, ChannelRuleEvaluatorInput::getTrafficSourceCampaignId);
+        addField(Constant.TRAFFIC_SOURCE_CONTENT, ChannelRuleEvaluatorInput::getTrafficSourceContent);
+        addField(Constant.TRAFFIC_SOURCE_TERM, ChannelRuleEvaluatorInput::getTrafficSourceTerm);
+        addField(Constant.TRAFFIC_SOURCE_CLID, ChannelRuleEvaluatorInput::getTrafficSourceClid);
+        addField(Constant.TRAFFIC_SOURCE_CLID_PLATFORM, ChannelRuleEvaluatorInput::getTrafficSourceClidPlatform);
+        addField(Constant.PAGE_VIEW_LATEST_REFERRER, ChannelRuleEvaluatorInput::getPageViewLatestReferrer);
+        addField(Constant.PAGE_VIEW_LATEST_REFERRER_HOST, ChannelRuleEvaluatorInput::getPageViewLatestReferrerHost);
+    }
+
+    private static void addField(final String field, final Function<ChannelRuleEvaluatorInput, String> accessor) {
+        FIELD_INDEXES.put(field, FIELD_ACCESSORS.size());
+        FIELD_ACCESSORS.add(accessor);
+    }
+
+    private ChannelRuleCompiler() {
+    }
+
+    /**
+     * The input fields a rule condition can refer to.
+     */
+    public static Set<String> getFieldNames() {
+        return Collections.unmodifiableSet(FIELD_INDEXES.keySet());
+    }
+
+    /**
+     * A compiled rule condition.
+     */
+    @FunctionalInterface
+    public interface ChannelPredicate {
+        boolean test(FieldValues values);
+
+        default boolean test(final ChannelRuleEvaluatorInput input) {
+            return test(new FieldValues(input));
+        }
+    }
+
+    /**
+     * The lower-cased field values of one input, looked up by field index and lower-cased at most once,
+     * so all rules evaluated for the same input share them.
+     */
+    public static final class FieldValues {
+        private final ChannelRuleEvaluatorInput input;
+        private final String[] lowerValues = new String[FIELD_ACCESSORS.size()];
+        private final boolean[] resolved = new boolean[FIELD_ACCESSORS.size()];
+
+        public FieldValues(final ChannelRuleEvaluatorInput input) {
+            this.input = input;
+        }
+
+        /**
+         * The lower-cased value of the field, or null when the input has no value.
+         */
+        String lower(final int fieldIndex) {
+            if (!resolved[fieldIndex]) {
+                String value = FIELD_ACCESSORS.get(fieldIndex).apply(input);
+                lowerValues[fieldIndex] = value == null ? null : value.toLowerCase();
+                resolved[fieldIndex] = true;
+            }
+            return lowerValues[fieldIndex];
+        }
+
+        String lowerOrEmpty(final int fieldIndex) {
+            String value = lower(fieldIndex);
+            return value == null ? "" : value;
+        }
+    }
+
+    public static ChannelPredicate compile(final ChannelRule channelRule) {
+        return compile(channelRule, false);
+    }
+
+    /**
+     * Compile a rule, deferring a config error of a condition item to the first evaluation that reaches the item,
+     * so an invalid item behind a matching one fails the same way as with the interpreted evaluator.
+     */
+    public static ChannelPredicate compileLenient(final ChannelRule channelRule) {
+        try {
+            return compile(channelRule, true);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid channel rule id: {}, channel: {}, error: {}", channelRule.getId(), channelRule.getChannel(), e.getMessage());
+            return deferred(e);
+        }
+    }
+
+    private static ChannelPredicate compile(final ChannelRule channelRule, final boolean lenient) {
+        List<ChannelRuleConditionItem> andList = channelRule.getCondition().getOpAndList();
+        List<ChannelRuleConditionItem> orList = channelRule.getCondition().getOpOrList();
+
+        if (andList == null && orList == null) {
+            log.error("Channel rule condition is empty");
+            throw new IllegalArgumentException("Channel rule condition is empty");
+        }
+
+        if (andList != null && orList != null) {
+            log.error("Channel rule condition has both AND and OR conditions");
+            throw new IllegalArgumentException("Channel rule condition has both AND and OR conditions");
+        }
+
+        if (andList != null) {
+            return compileAndList(andList, lenient);
+        }
+        return compileOrList(orList, lenient);
+    }
+
+    private static ChannelPredicate deferred(final IllegalArgumentException e) {
+        return fieldValues -> {
+            throw e;
+        };
+    }
+
+    private static ChannelPredicate compileAndList(final List<ChannelRuleConditionItem> andList, final boolean lenient) {
+        ChannelPredicate[] predicates = compileItems(andList, lenient);
+        if (predicates.length == 1) {
+            return predicates[0];
+        }
+        return fieldValues -> {
+            for (ChannelPredicate predicate : predicates) {
+                if (!predicate.test(fieldValues)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    private static ChannelPredicate compileOrList(final List<ChannelRuleConditionItem> orList, final boolean lenient) {
+        ChannelPredicate[] predicates = compileItems(orList, lenient);
+        if (predicates.length == 1) {
+            return predicates[0];
+        }
+        return fieldValues -> {
+            for (ChannelPredicate predicate : predicates) {
+                if (predicate.test(fieldValues)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    private static ChannelPredicate[] compileItems(final List<ChannelRuleConditionItem> items, final boolean lenient) {
+        ChannelPredicate[] predicates = new ChannelPredicate[items.size()];
+        for (int i = 0; i < predicates.length; i++) {
+            predicates[i] = lenient ? compileConditionItemLenient(items.get(i)) : compileConditionItem(items.get(i), false);
+        }
+        return predicates;
+    }
+
+    private static ChannelPredicate compileConditionItemLenient(final ChannelRuleConditionItem item) {
+        try {
+            return compileConditionItem(item, true);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid channel rule condition item: {}, error: {}", item, e.getMessage());
+            return deferred(e);
+        }
+    }
+
+    private static ChannelPredicate compileConditionItem(final ChannelRuleConditionItem item, final boolean lenient) {
+        if (item.getField() == null && item.getOpAndList() == null && item.getOpOrList() == null) {
+            throw new IllegalArgumentException("Channel rule condition item is empty");
+        }
+
+        if (item.getField() != null && item.getOpAndList() != null) {
+            throw new IllegalArgumentException("Channel rule condition item has both field and AND conditions");
+        }
+
+        if (item.getField() != null && item.getOpOrList() != null) {
+            throw new IllegalArgumentException("Channel rule condition item has both field and OR conditions");
+        }
+
+        if (item.getOpAndList() != null && item.getOpOrList() != null) {
+            throw new IllegalArgumentException("Channel rule condition item has both AND and OR conditions");
+        }
+
+        if (item.getField() != null) {
+            return compileConditionItemField(item);
+        }
+
+        if (item.getOpAndList() != null) {
+            return compileAndList(item.getOpAndList(), lenient);
+        }
+
+        return compileOrList(item.getOpOrList(), lenient);
+    }
+
+    private static ChannelPredicate compileConditionItemField(final ChannelRuleConditionItem item) {
+        String field = item.getField();
+        String op = item.getOp();
+        String value = item.getValue();
+        List<String> values = item.getValues();
+
+        validateInput(field, op, value, values);
+
+        Integer fieldIndex = FIELD_INDEXES.get(field);
+        if (fieldIndex == null) {
+            throw new IllegalArgumentException("Config Error::Channel rule condition item field has unknown field: " + field + ", config detail: " + item);
+        }
+
+        if (op.equals(OpEnum.IN.getOp()) || op.equals(OpEnum.NOT_IN.getOp())) {
+            return compileIn(fieldIndex, op, values);
+        }
+        return compileCompare(fieldIndex, op, value);
+    }
+
+    private static void validateInput(final String field, final String op, final String value, final List<String> values) {
+        if (field == null || op == null) {
+            throw new IllegalArgumentException("Channel rule condition item field has no field or operator");
+        }
+
+        if (!(op.equals(OpEnum.IN.getOp()) || op.equals(OpEnum.NOT_IN.getOp())) && value == null) {
+            throw new IllegalArgumentException("Channel rule condition item field has no value, operator " + op);
+        }
+
+        if ((op.equals(OpEnum.IN.getOp()) || op.equals(OpEnum.NOT_IN.getOp())) && (values == null || values.isEmpty())) {
+            throw new IllegalArgumentException("Channel rule condition item field has IN operator but no values");
+        }
+    }
+
+    private static ChannelPredicate compileCompare(final int fieldIndex, final String op, final String valueInput) {
+        String value = EMPTY_VALUE_FLAG.equals(valueInput) ? "" : valueInput.toLowerCase();
+
+        if (op.equals(OpEnum.EQ.getOp())) {
+            return fieldValues -> fieldValues.lowerOrEmpty(fieldIndex).equals(value);
+        } else if (op.equals(OpEnum.NOT_EQ.getOp())) {
+            return fieldValues -> !fieldValues.lowerOrEmpty(fieldIndex).equals(value);
+        } else if (op.equals(OpEnum.CONTAIN.getOp())) {
+            return fieldValues -> fieldValues.lowerOrEmpty(fieldIndex).contains(value);
+        } else if (op.equals(OpEnum.NOT_CONTAIN.getOp())) {
+            return fieldValues -> !fieldValues.lowerOrEmpty(fieldIndex).contains(value);
+        } else if (op.equals(OpEnum.START_WITH.getOp())) {
+            return fieldValues -> fieldValues.lowerOrEmpty(fieldIndex).startsWith(value);
+        } else if (op.equals(OpEnum.NOT_START_WITH.getOp())) {
+            return fieldValues -> !fieldValues.lowerOrEmpty(fieldIndex).startsWith(value);
+        } else if (op.equals(OpEnum.END_WITH.getOp())) {
+            return fieldValues -> fieldValues.lowerOrEmpty(fieldIndex).endsWith(value);
+        } else if (op.equals(OpEnum.NOT_END_WITH.getOp())) {
+            return fieldValues -> !fieldValues.lowerOrEmpty(fieldIndex).endsWith(value);
+        } else if (op.equals(OpEnum.MATCH.getOp())) {
+            Pattern pattern = Pattern.compile(value);
+            return fieldValues -> pattern.matcher(fieldValues.lowerOrEmpty(fieldIndex)).matches();
+        } else if (op.equals(OpEnum.NOT_MATCH.getOp())) {
+            Pattern pattern = Pattern.compile(value);
+            return fieldValues -> !pattern.matcher(fieldValues.lowerOrEmpty(fieldIndex)).matches();
+        }
+        throw new IllegalArgumentException("Channel rule condition item field has unknown operator " + op);
+    }
+
+    private static ChannelPredicate compileIn(final int fieldIndex, final String op, final List<String> values) {
+        Set<String> valueSetLower = new HashSet<>();
+        for (String v : values) {
+            valueSetLower.add(v.toLowerCase());
+        }
+        if (op.equals(OpEnum.IN.getOp())) {
+            return fieldValues -> {
+                String actualValue = fieldValues.lower(fieldIndex);
+                return actualValue != null && valueSetLower.contains(actualValue);
+            };
+        }
+        return fieldValues -> {
+            String actualValue = fieldValues.lower(fieldIndex);
+            return actualValue == null || !valueSetLower.contains(actualValue);
+        };
+    }
+}
@@ -0,0 +1,150 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream.common.filter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Case-insensitive multi-pattern substring matcher for crawler user agents (Aho–Corasick).
+ * <p>
+ * All patterns are compiled into one automaton with a full transition table over ASCII, so a user agent
+ * is scanned once, one table lookup per char, whatever the number of patterns. Chars outside ASCII never
+ * take part in a match. The default matcher is built once per JVM.
+ */
+public final class BotUserAgentMatcher {
+    /**
+     * Crawler tokens that do not show up in browser or app user agents. The parsed UA device category
+     * still catches what is not listed here.
+     */
+    public static final List<String> DEFAULT_PATTERNS = List.of(
+            "googlebot", "adsbot-google", "mediapartners-google", "bingbot", "bingpreview", "msnbot",
+            "yandexbot", "yandexmobilebot", "baiduspider", "duckduckbot", "applebot", "petalbot", "aspiegelbot",
+            "semrushbot", "ahrefsbot", "mj12bot", "dotbot", "bytespider", "yisouspider", "sogou web spider",
+            "seznambot", "ccbot", "gptbot", "amazonbot", "twitterbot", "linkedinbot", "slackbot", "discordbot",
+            "telegrambot", "pinterestbot", "facebookexternalhit", "yahoo! slurp", "ia_archiver",
+            "crawler", "spider", "headlesschrome", "pingdom", "statuscake", "uptimerobot", "scrapy");
+
+    private static final int ALPHABET = 128;
+
+    private final int[][] transitions;
+    private final boolean[] accepting;
+
+    private BotUserAgentMatcher(final int[][] transitions, final boolean[] accepting) {
+        this.transitions = transitions;
+        this.accepting = accepting;
+    }
+
+    public static BotUserAgentMatcher getDefault() {
+        return DefaultHolder.DEFAULT;
+    }
+
+    public static BotUserAgentMatcher compile(final Collection<String> patterns) {
+        List<int[]> trie = new ArrayList<>();
+        List<Boolean> terminal = new ArrayList<>();
+        trie.add(newState());
+        terminal.add(false);
+        for (String pattern : patterns) {
+            String lower = pattern.toLowerCase(Locale.ROOT);
+            if (lower.isEmpty()) {
+                throw new IllegalArgumentException("Config Error::Empty bot user agent pattern");
+            }
+            int state = 0;
+            for (int i = 0; i < lower.length(); i++) {
+                char c = lower.charAt(i);
+                if (c >= ALPHABET) {
+                    throw new IllegalArgumentException("Config Error::Bot user agent pattern must be ASCII: " + pattern);
+                }
+                if (trie.get(state)[c] < 0) {
+                    trie.get(state)[c] = trie.size();
+                    trie.add(newState());
+                    terminal.add(false);
+                }
+                state = trie.get(state)[c];
+            }
+            terminal.set(state, true);
+        }
+
+        int size = trie.size();
+        int[][] transitions = trie.toArray(new int[size][]);
+        boolean[] accepting = new boolean[size];
+        int[] failure = new int[size];
+        for (int s = 0; s < size; s++) {
+            accepting[s] = terminal.get(s);
+        }
+        // breadth first, the failure state of every state is complete before its children are visited
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            if (transitions[0][c] < 0) {
+                transitions[0][c] = 0;
+            } else {
+                queue.add(transitions[0][c]);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            accepting[state] |= accepting[failure[state]];
+            for (int c = 0; c < ALPHABET; c++) {
+                int child = transitions[state][c];
+                if (child < 0) {
+                    transitions[state][c] = transitions[failure[state]][c];
+                } else {
+                    failure[child] = transitions[failure[state]][c];
+                    queue.add(child);
+                }
+            }
+        }
+        return new BotUserAgentMatcher(transitions, accepting);
+    }
+
+    private static int[] newState() {
+        int[] state = new int[ALPHABET];
+        Arrays.fill(state, -1);
+        return state;
+    }
+
+    /**
+     * Whether any pattern occurs in the user agent, ignoring ASCII case. A null user agent never matches.
+     */
+    public boolean matches(final CharSequence userAgent) {
+        if (userAgent == null) {
+            return false;
+        }
+        int state = 0;
+        for (int i = 0; i < userAgent.length(); i++) {
+            char c = userAgent.charAt(i);
+            if (c >= ALPHABET) {
+                state = 0;
+                continue;
+            }
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            }
+            state = transitions[state][c];
+            if (accepting[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class DefaultHolder {
+        private static final BotUserAgentMatcher DEFAULT = compile(DEFAULT_PATTERNS);
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream.common.filter;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Checks of the raw ingest columns that decide whether a row is worth decoding and parsing at all.
+ * The cheap checks run first: the app id against the valid app ids, the ingest time against the oldest
+ * ingest time still accepted, and last the user agent against {@link BotUserAgentMatcher#getDefault()}.
+ */
+public final class IngestFilter implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public enum Reason {
+        APP_ID,
+        STALE_INGEST_TIME,
+        BOT_USER_AGENT
+    }
+
+    private final Set<String> appIds; // NOSONAR
+    private final Long minIngestTime;
+    private final boolean filterBots;
+
+    /**
+     * @param appIds the valid app ids, null accepts any non-empty app id
+     * @param minIngestTime rows ingested before this time (ms) are stale, null disables the check
+     * @param filterBots whether to drop rows of crawler user agents
+     */
+    public IngestFilter(final Collection<String> appIds, final Long minIngestTime, final boolean filterBots) {
+        this.appIds = appIds == null ? null : new HashSet<>(appIds);
+        this.minIngestTime = minIngestTime;
+        this.filterBots = filterBots;
+    }
+
+    /**
+     * The reason to drop the row, or null to keep it. A row without ingest time is not checked for its age.
+     */
+    public Reason check(final String userAgent, final String appId, final Long ingestTime) {
+        if (appId == null || appId.isEmpty() || appIds != null && !appIds.contains(appId)) {
+            return Reason.APP_ID;
+        }
+        if (minIngestTime != null && ingestTime != null && ingestTime < minIngestTime) {
+            return Reason.STALE_INGEST_TIME;
+        }
+        if (filterBots && BotUserAgentMatcher.getDefault().matches(userAgent)) {
+            return Reason.BOT_USER_AGENT;
+        }
+        return null;
+    }
+
+    public boolean isFilterBots() {
+        return filterBots;
+    }
+}
@@ -16,11 +16,16 @@ package software.aws.solution.clickstream.common.gtm;
 import com.fasterxml.jackson.core.*;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import lombok.extern.slf4j.*;
 import software.aws.solution.clickstream.common.*;
+import software.aws.solution.clickstream.common.exception.ExtractDataException;
 import software.aws.solution.clickstream.common.gtm.event.*;
+import software.aws.solution.clickstream.common.json.FieldProjection;
+import software.aws.solution.clickstream.common.json.IngestReaders;
 import software.aws.solution.clickstream.common.model.*;
 
+import java.io.IOException;
 import java.sql.*;
 import java.time.*;
 import java.util.*;
@@ -29,7 +34,6 @@ import java.util.*;
 import static software.aws.solution.clickstream.common.ClickstreamEventParser.EVENT_PAGE_VIEW;
 import static software.aws.solution.clickstream.common.ClickstreamEventParser.EVENT_PROFILE_SET;
 import static software.aws.solution.clickstream.common.ClickstreamEventParser.EVENT_USER_ENGAGEMENT;
-import static software.aws.solution.clickstream.common.Util.convertStringObjectMapToStringEventPropMap;
 import static software.aws.solution.clickstream.common.Util.convertStringObjectMapToStringUserPropMap;
 import static software.aws.solution.clickstream.common.Util.objectToJsonString;
 import static software.aws.solution.clickstream.common.enrich.UAEnrichHelper.UA_STRING;
@@ -39,12 +43,15 @@ import static software.aws.solution.clickstream.common.Util.deCodeUri;
 @Slf4j
 public final class GTMEventParser extends BaseEventParser {
     private static final Map<String, String> EVENT_NAME_MAP = createEventNameMap();
-    private static GTMEventParser instance;
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final ObjectReader EVENT_READER = IngestReaders.readerFor(GTMEvent.class);
+    // client_hints and the system properties are copied into custom parameters as a whole, so they are kept
+    private static final FieldProjection DEFAULT_PROJECTION = FieldProjection.skipping("items.item_list_name");
 
     private final TransformConfig transformConfig;
-    private GTMEventParser(final TransformConfig transformConfig) {
-        this.transformConfig = transformConfig;
+    private GTMEventParser(final EnrichmentContext enrichmentContext) {
+        super(enrichmentContext);
+        this.transformConfig = enrichmentContext.getTransformConfig();
     }
     public static GTMEventParser getInstance() {
         // use default config rule in java resource file
@@ -52,10 +59,7 @@ public final class GTMEventParser extends BaseEventParser {
     }
 
     public static GTMEventParser getInstance(final TransformConfig transformConfig) {
-        if (instance == null) {
-            instance = new GTMEventParser(transformConfig);
-        }
-        return instance;
+        return EnrichmentContext.forConfig(transformConfig).getComponent(GTMEventParser.class, GTMEventParser::new);
     }
 
     public static Map<String, String> createEventNameMap() {
@@ -67,7 +71,7 @@ public final class GTMEventParser extends BaseEventParser {
         return eventNameMap;
     }
     public GTMEvent ingestDataToEvent(final String inputJson) throws JsonProcessingException {
-        return getObjectMapper().readValue(inputJson, GTMEvent.class);
+        return EVENT_READER.readValue(inputJson);
     }
 
     @Override
@@ -84,24 +88,50 @@ public final class GTMEventParser extends BaseEventParser {
     }
 
     @Override
-    public ParseDataResult parseData(final String dataString, final ExtraParams extraParams, final int index) throws JsonProcessingException {
-        ParseDataResult parseDataResult = new ParseDataResult();
-        List<ClickstreamEvent> clickstreamEventList = new ArrayList<>();
-        parseDataResult.setClickstreamEventList(clickstreamEventList);
-        parseDataResult.setClickstreamItemList(new ArrayList<>());
+    protected FieldProjection getDefaultFieldProjection() {
+        return DEFAULT_PROJECTION;
+    }
 
+    @Override
+    protected JsonParser createDataParser(final String ingestDataField) throws IOException {
+        if (ingestDataField == null || ingestDataField.trim().isEmpty()) {
+            return null;
+        }
+        return OBJECT_MAPPER.createParser(ingestDataField);
+    }
+
+    @Override
+    public ParseDataResult parseData(final String dataString, final ExtraParams extraParams, final int index) throws JsonProcessingException {
         log.debug("Parsing data: " + dataString);
         if (dataString == null || dataString.isEmpty()) {
             log.warn("Data field is empty, skipping the row");
-            return parseDataResult;
+            return newParseDataResult();
+        }
+        try (JsonParser jsonParser = OBJECT_MAPPER.createParser(dataString)) {
+            jsonParser.nextToken();
+            return parseEvent(GTMEventReader.read(jsonParser), extraParams, index);
+        } catch (JsonProcessingException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new ExtractDataException(e);
         }
-        GTMEvent gtmEvent = ingestDataToEvent(dataString);
-        if (gtmEvent.getEventName() == null || gtmEvent.getEventName().isEmpty()) {
-            log.warn("Event name is empty, skipping the row, dataString:" + dataString);
+    }
+
+    @Override
+    protected ParseDataResult parseDataElement(final JsonParser jsonParser, final ExtraParams extraParams, final int index) throws IOException {
+        return parseEvent(GTMEventReader.read(jsonParser), extraParams, index);
+    }
+
+    private ParseDataResult parseEvent(final GTMEventReader eventReader, final ExtraParams extraParams, final int index) throws JsonProcessingException {
+        ParseDataResult parseDataResult = newParseDataResult();
+        List<ClickstreamEvent> clickstreamEventList = parseDataResult.getClickstreamEventList();
+        GTMEvent gtmEvent = eventReader == null ? null : eventReader.getEvent();
+        if (gtmEvent == null || gtmEvent.getEventName() == null || gtmEvent.getEventName().isEmpty()) {
+            log.warn("Event name is empty, skipping the row, rid: " + extraParams.getRid() + ", index: " + index);
             return parseDataResult;
         }
 
-        ClickstreamEvent clickstreamEvent = getClickstreamEvent(gtmEvent, index, extraParams);
+        ClickstreamEvent clickstreamEvent = getClickstreamEvent(eventReader, index, extraParams);
         clickstreamEventList.add(clickstreamEvent);
 
         String eventId = clickstreamEvent.getEventId();
@@ -120,22 +150,18 @@ public final class GTMEventParser extends BaseEventParser {
         log.info("isSessionStart: " + isSessionStart);
 
         if (isFirstVisit) {
-            ClickstreamEvent firstVisitEvent = ClickstreamEvent.deepCopy(clickstreamEvent);
-            firstVisitEvent.setEventName("_first_open");
-            firstVisitEvent.setEventId(eventId + "-first-open");
+            ClickstreamEvent firstVisitEvent = ClickstreamEventOverlay.of(clickstreamEvent, "_first_open", eventId + "-first-open");
             clickstreamEventList.add(firstVisitEvent);
         }
 
         if (isSessionStart) {
-            ClickstreamEvent sessionStartEvent = ClickstreamEvent.deepCopy(clickstreamEvent);
-            sessionStartEvent.setEventName("_session_start");
-            sessionStartEvent.setEventId(eventId + "-session-start");
+            ClickstreamEvent sessionStartEvent = ClickstreamEventOverlay.of(clickstreamEvent, "_session_start", eventId + "-session-start");
             clickstreamEventList.add(sessionStartEvent);
         }
 
         ClickstreamUser clickstreamUser = getClickstreamUser(gtmEvent, clickstreamEvent);
 
-        List<ClickstreamItem> clickstreamItemList = getClickstreamItemList(gtmEvent, clickstreamEvent);
+        List<ClickstreamItem> clickstreamItemList = getClickstreamItemList(eventReader, clickstreamEvent);
 
         parseDataResult.setClickstreamEventList(clickstreamEventList);
         parseDataResult.setClickstreamUser(clickstreamUser);
@@ -143,16 +169,14 @@ public final class GTMEventParser extends BaseEventParser {
         return parseDataResult;
     }
 
-    private ClickstreamEvent getClickstreamEvent(final GTMEvent gtmEvent, final int index, final ExtraParams extraParams) throws JsonProcessingException {
+    private ClickstreamEvent getClickstreamEvent(final GTMEventReader eventReader, final int index, final ExtraParams extraParams) throws JsonProcessingException {
+        GTMEvent gtmEvent = eventReader.getEvent();
         ClickstreamEvent clickstreamEvent = new ClickstreamEvent();
 
         clickstreamEvent.setEventTimestamp(new Timestamp(extraParams.getIngestTimestamp()));
 
-        String eventId = String.format("%s-%s-%s-%s",
-                extraParams.getRid(),
-                index,
-                gtmEvent.getGaSessionId(),
-                gtmEvent.getGaSessionNumber() == null ? "x" : gtmEvent.getGaSessionNumber());
+        Long sessionNumber = gtmEvent.getGaSessionNumber();
+        String eventId = extraParams.getRid() + "-" + index + "-" + gtmEvent.getGaSessionId() + "-" + (sessionNumber == null ? "x" : sessionNumber.toString());
 
         clickstreamEvent.setEventId(eventId);
         clickstreamEvent.setEventTimeMsec(clickstreamEvent.getEventTimestamp().getTime());
@@ -171,7 +195,7 @@ public final class GTMEventParser extends BaseEventParser {
         String platform = PLATFORM_WEB;
         if (gtmEvent.getClientHints() != null) {
             if (gtmEvent.getClientHints().getPlatform() != null) {
-                platform = gtmEvent.getClientHints().getPlatform().replaceAll("\\W", "");
+                platform = removeNonWordChars(gtmEvent.getClientHints().getPlatform());
             } else if (gtmEvent.getClientHints().isMobile()) {
                 platform = "Mobile";
             }
@@ -198,7 +222,7 @@ public final class GTMEventParser extends BaseEventParser {
         clickstreamEvent.setUa(gtmEvent.getUserAgent());
 
         // customParameters
-        Map<String, ClickstreamEventPropValue> customParameters = getEventCustomParameters(gtmEvent, clickstreamEvent);
+        Map<String, ClickstreamEventPropValue> customParameters = getEventCustomParameters(eventReader);
         clickstreamEvent.setCustomParameters(customParameters);
 
         // set traffic source
@@ -269,12 +293,10 @@ public final class GTMEventParser extends BaseEventParser {
         }
     }
 
-    private Map<String, ClickstreamEventPropValue> getEventCustomParameters(final GTMEvent gtmEvent, final ClickstreamEvent clickstreamEvent) throws JsonProcessingException {
-        Map<String, ClickstreamEventPropValue> customParameters = new HashMap<>();
-        if (gtmEvent.getUnknownProperties() != null) {
-            customParameters = convertStringObjectMapToStringEventPropMap(gtmEvent.getUnknownProperties());
-            clickstreamEvent.setCustomParameters(customParameters);
-        }
+    private Map<String, ClickstreamEventPropValue> getEventCustomParameters(final GTMEventReader eventReader) throws JsonProcessingException {
+        GTMEvent gtmEvent = eventReader.getEvent();
+        // the unknown fields were converted while streaming the event
+        Map<String, ClickstreamEventPropValue> customParameters = eventReader.getCustomParameters();
         customParameters.put("client_id", new ClickstreamEventPropValue(gtmEvent.getClientId(), ValueType.STRING));
         customParameters.put("ip_override", new ClickstreamEventPropValue(gtmEvent.getIpOverride(), ValueType.STRING));
         customParameters.put("screen_resolution", new ClickstreamEventPropValue(gtmEvent.getScreenResolution(), ValueType.STRING));
@@ -386,36 +408,46 @@ public final class GTMEventParser extends BaseEventParser {
         return clickstreamUser;
     }
 
-    private List<ClickstreamItem> getClickstreamItemList(final GTMEvent gtmEvent, final ClickstreamEvent clickstreamEvent) throws JsonProcessingException {
-        List<Item> items = gtmEvent.getItems();
-        List<ClickstreamItem> clickstreamItems = new ArrayList<>();
-
-        if (items != null && !items.isEmpty()) {
-            for (Item item : items) {
-                if (item.getItemId() == null || item.getItemId().isEmpty()) {
-                   continue;
-                }
-                ClickstreamItem clickstreamItem = new ClickstreamItem();
-                clickstreamItems.add(clickstreamItem);
-                clickstreamItem.setAppId(clickstreamEvent.getAppId());
-                clickstreamItem.setEventTimestamp(clickstreamEvent.getEventTimestamp());
-                clickstreamItem.setEventId(clickstreamEvent.getEventId());
-                clickstreamItem.setEventName(clickstreamEvent.getEventName());
-                clickstreamItem.setPlatform(clickstreamEvent.getPlatform());
-                clickstreamItem.setUserPseudoId(clickstreamEvent.getUserPseudoId());
-                clickstreamItem.setUserId(clickstreamEvent.getUserId());
-                clickstreamItem.setItemId(item.getItemId());
-                clickstreamItem.setName(item.getItemName());
-
-                clickstreamItem.setCurrency(gtmEvent.getCurrency());
-                clickstreamItem.setPrice(item.getPrice());
-
-                Map<String, Object> itemExtraProps = item.getUnknownProperties();
-                if (!itemExtraProps.isEmpty()) {
-                    clickstreamItem.setCustomParameters(convertStringObjectMapToStringEventPropMap(itemExtraProps));
-                }
-            }
+    private List<ClickstreamItem> getClickstreamItemList(final GTMEventReader eventReader, final ClickstreamEvent clickstreamEvent) {
+        // the items were streamed with their own fields, fill in the fields shared with the event
+        List<ClickstreamItem> clickstreamItems = eventReader.getItems();
+        String currency = eventReader.getEvent().getCurrency();
+        for (ClickstreamItem clickstreamItem : clickstreamItems) {
+            clickstreamItem.setAppId(clickstreamEvent.getAppId());
+            clickstreamItem.setEventTimestamp(clickstreamEvent.getEventTimestamp());
+            clickstreamItem.setEventId(clickstreamEvent.getEventId());
+            clickstreamItem.setEventName(clickstreamEvent.getEventName());
+            clickstreamItem.setPlatform(clickstreamEvent.getPlatform());
+            clickstreamItem.setUserPseudoId(clickstreamEvent.getUserPseudoId());
+            clickstreamItem.setUserId(clickstreamEvent.getUserId());
+            clickstreamItem.setCurrency(currency);
         }
         return clickstreamItems;
     }
+
+    /**
+     * Same as {@code value.replaceAll("\\W", "")}, without a regex and without a copy when there is nothing to remove.
+     */
+    static String removeNonWordChars(final String value) {
+        int length = value.length();
+        int i = 0;
+        while (i < length && isWordChar(value.charAt(i))) {
+            i++;
+        }
+        if (i == length) {
+            return value;
+        }
+        StringBuilder sb = new StringBuilder(length - 1).append(value, 0, i);
+        for (i++; i < length; i++) {
+            char c = value.charAt(i);
+            if (isWordChar(c)) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean isWordChar(final char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_';
+    }
 }
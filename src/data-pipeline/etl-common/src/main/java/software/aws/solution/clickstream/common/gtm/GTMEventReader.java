@@ -0,0 +1,259 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+
+package software.aws.solution.clickstream.common.gtm;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.Getter;
+import software.aws.solution.clickstream.common.SafeLongDeserializer;
+import software.aws.solution.clickstream.common.gtm.event.ClientHints;
+import software.aws.solution.clickstream.common.gtm.event.EventLocation;
+import software.aws.solution.clickstream.common.gtm.event.GTMEvent;
+import software.aws.solution.clickstream.common.gtm.event.Item;
+import software.aws.solution.clickstream.common.gtm.event.SstSystemProperties;
+import software.aws.solution.clickstream.common.gtm.event.SystemProperties;
+import software.aws.solution.clickstream.common.gtm.event.UserProperties;
+import software.aws.solution.clickstream.common.json.IngestReaders;
+import software.aws.solution.clickstream.common.json.RawJsonValueDeserializer;
+import software.aws.solution.clickstream.common.model.ClickstreamEventPropValue;
+import software.aws.solution.clickstream.common.model.ClickstreamItem;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static software.aws.solution.clickstream.common.Util.convertStringObjectMapToStringEventPropMap;
+import static software.aws.solution.clickstream.common.Util.toEventPropValue;
+
+/**
+ * Reads one GTM server event with a token loop that dispatches on the field name, instead of binding the whole
+ * {@link GTMEvent} with the bean deserializer.
+ * <p>
+ * Unknown fields go straight into the custom parameters and the {@code items} array is streamed into
+ * {@link ClickstreamItem}s, so neither the unknown property map nor the {@link Item} list is built.
+ * The small nested objects ({@code client_hints}, the system and user properties) are still bound by Jackson.
+ * Fields that are never read, such as {@code items.item_list_name}, are left to the default projection of {@link GTMEventParser}.
+ * Scalars in an unexpected token type fall back to Jackson as well, so coercions and errors stay the same as
+ * {@link GTMEventParser#ingestDataToEvent}.
+ */
+final class GTMEventReader {
+    private static final ObjectReader EVENT_READER = IngestReaders.readerFor(GTMEvent.class);
+    private static final ObjectReader ITEM_READER = IngestReaders.readerFor(Item.class);
+    private static final ObjectReader ITEM_ARRAY_READER = IngestReaders.readerFor(Item[].class);
+    private static final ObjectReader CLIENT_HINTS_READER = IngestReaders.readerFor(ClientHints.class);
+    private static final ObjectReader EVENT_LOCATION_READER = IngestReaders.readerFor(EventLocation.class);
+    private static final ObjectReader USER_PROPERTIES_READER = IngestReaders.readerFor(UserProperties.class);
+    private static final ObjectReader SYSTEM_PROPERTIES_READER = IngestReaders.readerFor(SystemProperties.class);
+    private static final ObjectReader SST_SYSTEM_PROPERTIES_READER = IngestReaders.readerFor(SstSystemProperties.class);
+    private static final ObjectReader STRING_READER = IngestReaders.readerFor(String.class);
+    private static final ObjectReader LONG_READER = IngestReaders.readerFor(Long.class);
+    private static final ObjectReader DOUBLE_READER = IngestReaders.readerFor(double.class);
+    private static final SafeLongDeserializer SAFE_LONG_DESERIALIZER = new SafeLongDeserializer();
+
+    private static final Map<String, FieldReader> EVENT_FIELDS = createEventFields();
+    private static final Map<String, ItemFieldReader> ITEM_FIELDS = createItemFields();
+
+    @Getter
+    private final GTMEvent event;
+    @Getter
+    private final Map<String, ClickstreamEventPropValue> customParameters = new HashMap<>();
+    @Getter
+    private final List<ClickstreamItem> items = new ArrayList<>();
+
+    @FunctionalInterface
+    private interface FieldReader {
+        void read(JsonParser p, GTMEventReader reader) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ItemFieldReader {
+        void read(JsonParser p, ClickstreamItem item) throws IOException;
+    }
+
+    private GTMEventReader(final GTMEvent event) {
+        this.event = event;
+    }
+
+    /**
+     * Read the value at the current token of the parser, returns null for a JSON null.
+     */
+    static GTMEventReader read(final JsonParser p) throws IOException {
+        if (p.currentToken() != JsonToken.START_OBJECT) {
+            GTMEvent bound = EVENT_READER.readValue(p);
+            return bound == null ? null : of(bound);
+        }
+        GTMEventReader reader = new GTMEventReader(new GTMEvent());
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            FieldReader fieldReader = EVENT_FIELDS.get(name);
+            if (fieldReader != null) {
+                fieldReader.read(p, reader);
+            } else {
+                reader.customParameters.put(name, toEventPropValue(RawJsonValueDeserializer.readValue(p)));
+            }
+        }
+        return reader;
+    }
+
+    private static Map<String, FieldReader> createEventFields() {
+        Map<String, FieldReader> fields = new HashMap<>();
+        fields.put("client_hints", (p, r) -> r.event.setClientHints(CLIENT_HINTS_READER.readValue(p)));
+        fields.put("client_id", (p, r) -> r.event.setClientId(readString(p)));
+        fields.put("currency", (p, r) -> r.event.setCurrency(readString(p)));
+        fields.put("engagement_time_msec", (p, r) -> r.event.setEngagementTimeMsec(readLong(p)));
+        fields.put("event_location", (p, r) -> r.event.setEventLocation(EVENT_LOCATION_READER.readValue(p)));
+        fields.put("event_name", (p, r) -> r.event.setEventName(readString(p)));
+        fields.put("ga_session_id", (p, r) -> r.event.setGaSessionId(readString(p)));
+        fields.put("ga_session_number", (p, r) -> r.event.setGaSessionNumber(readSafeLong(p)));
+        fields.put("ip_override", (p, r) -> r.event.setIpOverride(readString(p)));
+        fields.put("item_id", (p, r) -> r.event.setItemId(readString(p)));
+        fields.put("items", GTMEventReader::readItems);
+        fields.put("language", (p, r) -> r.event.setLanguage(readString(p)));
+        fields.put("page_location", (p, r) -> r.event.setPageLocation(readString(p)));
+        fields.put("page_referrer", (p, r) -> r.event.setPageReferrer(readString(p)));
+        fields.put("page_title", (p, r) -> r.event.setPageTitle(readString(p)));
+        fields.put("screen_resolution", (p, r) -> r.event.setScreenResolution(readString(p)));
+        fields.put("user_agent", (p, r) -> r.event.setUserAgent(readString(p)));
+        fields.put("user_id", (p, r) -> r.event.setUserId(readString(p)));
+        fields.put("x-ga-ur", (p, r) -> r.event.setXGaUr(readString(p)));
+        fields.put("value", (p, r) -> r.event.setValue(readDouble(p)));
+        fields.put("x-ga-mp2-user_properties", (p, r) -> r.event.setXGaMp2UserProperties(USER_PROPERTIES_READER.readValue(p)));
+        fields.put("x-ga-system_properties", (p, r) -> r.event.setXGaSystemProperties(SYSTEM_PROPERTIES_READER.readValue(p)));
+        fields.put("x-sst-system_properties", (p, r) -> r.event.setXSstSystemProperties(SST_SYSTEM_PROPERTIES_READER.readValue(p)));
+        return fields;
+    }
+
+    private static Map<String, ItemFieldReader> createItemFields() {
+        Map<String, ItemFieldReader> fields = new HashMap<>();
+        fields.put("item_id", (p, item) -> item.setItemId(readString(p)));
+        fields.put("item_name", (p, item) -> item.setName(readString(p)));
+        fields.put("price", (p, item) -> item.setPrice(readDouble(p)));
+        return fields;
+    }
+
+    private static void readItems(final JsonParser p, final GTMEventReader reader) throws IOException {
+        // a repeated field replaces the earlier value, as with the bean deserializer
+        reader.items.clear();
+        if (p.currentToken() == JsonToken.VALUE_NULL) {
+            return;
+        }
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            Item[] bound = ITEM_ARRAY_READER.readValue(p);
+            reader.addItems(bound == null ? null : Arrays.asList(bound));
+            return;
+        }
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            if (p.currentToken() != JsonToken.START_OBJECT) {
+                Item bound = ITEM_READER.readValue(p);
+                if (bound != null) {
+                    reader.addItem(bound);
+                }
+                continue;
+            }
+            ClickstreamItem item = newItem();
+            Map<String, ClickstreamEventPropValue> itemParameters = new HashMap<>();
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String name = p.currentName();
+                p.nextToken();
+                ItemFieldReader fieldReader = ITEM_FIELDS.get(name);
+                if (fieldReader != null) {
+                    fieldReader.read(p, item);
+                } else {
+                    itemParameters.put(name, toEventPropValue(RawJsonValueDeserializer.readValue(p)));
+                }
+            }
+            reader.addItem(item, itemParameters);
+        }
+    }
+
+    private static ClickstreamItem newItem() {
+        ClickstreamItem item = new ClickstreamItem();
+        // same default as the primitive price of the bound item
+        item.setPrice(0.0);
+        return item;
+    }
+
+    private void addItem(final ClickstreamItem item, final Map<String, ClickstreamEventPropValue> itemParameters) {
+        if (item.getItemId() == null || item.getItemId().isEmpty()) {
+            return;
+        }
+        if (!itemParameters.isEmpty()) {
+            item.setCustomParameters(itemParameters);
+        }
+        items.add(item);
+    }
+
+    private void addItem(final Item bound) throws IOException {
+        ClickstreamItem item = newItem();
+        item.setItemId(bound.getItemId());
+        item.setName(bound.getItemName());
+        item.setPrice(bound.getPrice());
+        addItem(item, convertStringObjectMapToStringEventPropMap(bound.getUnknownProperties()));
+    }
+
+    private void addItems(final List<Item> bound) throws IOException {
+        if (bound == null) {
+            return;
+        }
+        for (Item item : bound) {
+            addItem(item);
+        }
+    }
+
+    private static GTMEventReader of(final GTMEvent bound) throws IOException {
+        GTMEventReader reader = new GTMEventReader(bound);
+        reader.customParameters.putAll(convertStringObjectMapToStringEventPropMap(bound.getUnknownProperties()));
+        reader.addItems(bound.getItems());
+        return reader;
+    }
+
+    private static String readString(final JsonParser p) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_STRING) {
+            return p.getText();
+        }
+        return STRING_READER.readValue(p);
+    }
+
+    private static Long readLong(final JsonParser p) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NUMBER_INT && p.getNumberType() != JsonParser.NumberType.BIG_INTEGER) {
+            return p.getLongValue();
+        }
+        return LONG_READER.readValue(p);
+    }
+
+    private static double readDouble(final JsonParser p) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NUMBER_FLOAT || p.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+            return p.getDoubleValue();
+        }
+        Double value = DOUBLE_READER.readValue(p);
+        return value == null ? 0.0 : value;
+    }
+
+    private static Long readSafeLong(final JsonParser p) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (p.currentToken().isStructStart()) {
+            p.skipChildren();
+            return null;
+        }
+        return SAFE_LONG_DESERIALIZER.deserialize(p, null);
+    }
+}
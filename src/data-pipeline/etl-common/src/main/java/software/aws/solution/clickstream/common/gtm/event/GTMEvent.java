@@ -19,6 +19,7 @@ import com.fasterxml.jackson.databind.annotation.*;
 import lombok.Getter;
 import lombok.Setter;
 import software.aws.solution.clickstream.common.*;
+import software.aws.solution.clickstream.common.json.RawJsonValueDeserializer;
 
 import java.util.*;
 
@@ -98,6 +99,7 @@ public class GTMEvent {
     private SstSystemProperties xSstSystemProperties;
 
     @JsonAnySetter
+    @JsonDeserialize(contentUsing = RawJsonValueDeserializer.class)
     public void setUnknownProperty(final String name, final Object value) {
         unknownProperties.put(name, value);
     }
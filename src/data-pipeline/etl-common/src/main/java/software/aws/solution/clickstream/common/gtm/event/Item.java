@@ -15,7 +15,9 @@
 package software.aws.solution.clickstream.common.gtm.event;
 
 import com.fasterxml.jackson.annotation.*;
+import com.fasterxml.jackson.databind.annotation.*;
 import lombok.*;
+import software.aws.solution.clickstream.common.json.RawJsonValueDeserializer;
 
 import java.util.*;
 
@@ -33,6 +35,7 @@ public class Item {
     @JsonProperty("item_list_name")
     private String itemListName;
     @JsonAnySetter
+    @JsonDeserialize(contentUsing = RawJsonValueDeserializer.class)
     public void setUnknownProperty(final String name, final Object value) {
         unknownProperties.put(name, value);
     }
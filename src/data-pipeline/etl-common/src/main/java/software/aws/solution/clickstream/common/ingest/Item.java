@@ -17,6 +17,7 @@ import com.fasterxml.jackson.annotation.*;
 import com.fasterxml.jackson.databind.annotation.*;
 import lombok.*;
 import software.aws.solution.clickstream.common.*;
+import software.aws.solution.clickstream.common.json.RawJsonValueDeserializer;
 
 import java.util.*;
 
@@ -58,6 +59,7 @@ public class Item {
 
     private final Map<String, Object> customProperties = new HashMap<>();
     @JsonAnySetter
+    @JsonDeserialize(contentUsing = RawJsonValueDeserializer.class)
     public void setCustomProperty(final String name, final Object value) {
         customProperties.put(name, value);
     }
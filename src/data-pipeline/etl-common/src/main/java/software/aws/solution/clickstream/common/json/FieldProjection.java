@@ -0,0 +1,182 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+package software.aws.solution.clickstream.common.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserDelegate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Set of ingest fields that are skipped at the token level, so they are neither bound nor collected into
+ * custom properties. Paths are dot separated property names relative to one event, arrays are transparent,
+ * e.g. {@code "x-sst-system_properties.consent"} or {@code "items.item_list_name"}.
+ * An object can also keep only some of its fields with {@link #keepingOnly}, the other fields of it are skipped.
+ */
+public final class FieldProjection {
+    public static final FieldProjection NONE = new FieldProjection(Collections.emptySet(), Collections.emptyMap());
+
+    private final Set<String> skippedPaths;
+    private final Map<String, Set<String>> keptFields;
+    private final PathNode root;
+
+    private FieldProjection(final Set<String> skippedPaths, final Map<String, Set<String>> keptFields) {
+        this.skippedPaths = Collections.unmodifiableSet(skippedPaths);
+        this.keptFields = Collections.unmodifiableMap(keptFields);
+        this.root = skippedPaths.isEmpty() && keptFields.isEmpty() ? null : PathNode.of(skippedPaths, keptFields);
+    }
+
+    public static FieldProjection skipping(final String... paths) {
+        return new FieldProjection(new LinkedHashSet<>(Arrays.asList(paths)), Collections.emptyMap());
+    }
+
+    /**
+     * Returns a projection that also skips every field of the object at {@code path} except {@code fieldNames}.
+     */
+    public FieldProjection keepingOnly(final String path, final String... fieldNames) {
+        Map<String, Set<String>> kept = new LinkedHashMap<>(keptFields);
+        kept.put(path, new LinkedHashSet<>(Arrays.asList(fieldNames)));
+        return new FieldProjection(new LinkedHashSet<>(skippedPaths), kept);
+    }
+
+    public Set<String> getSkippedPaths() {
+        return skippedPaths;
+    }
+
+    public Map<String, Set<String>> getKeptFields() {
+        return keptFields;
+    }
+
+    /**
+     * Wrap the parser so that skipped subtrees are passed over with {@link JsonParser#skipChildren()}.
+     */
+    public JsonParser apply(final JsonParser jsonParser) {
+        if (root == null) {
+            return jsonParser;
+        }
+        return new ProjectingParser(jsonParser, root);
+    }
+
+    private static final class PathNode {
+        private static final PathNode SKIP = new PathNode();
+        private final Map<String, PathNode> children = new HashMap<>();
+        private Set<String> keptNames;
+
+        static PathNode of(final Set<String> paths, final Map<String, Set<String>> keptFields) {
+            PathNode root = new PathNode();
+            for (String path : paths) {
+                PathNode node = root;
+                String[] names = path.split("\\.");
+                for (int i = 0; i < names.length - 1 && node != SKIP; i++) {
+                    node = node.children.computeIfAbsent(names[i], k -> new PathNode());
+                }
+                if (node != SKIP) {
+                    node.children.put(names[names.length - 1], SKIP);
+                }
+            }
+            for (Map.Entry<String, Set<String>> entry : keptFields.entrySet()) {
+                PathNode node = root;
+                for (String name : entry.getKey().split("\\.")) {
+                    if (node == SKIP) {
+                        break;
+                    }
+                    node = node.children.computeIfAbsent(name, k -> new PathNode());
+                }
+                if (node != SKIP) {
+                    node.keptNames = entry.getValue();
+                }
+            }
+            return root;
+        }
+
+        PathNode child(final String name) {
+            PathNode child = children.get(name);
+            if (child == null && keptNames != null && !keptNames.contains(name)) {
+                return SKIP;
+            }
+            return child;
+        }
+    }
+
+    /**
+     * Keeps one path node per open container, {@code null} meaning the whole container is kept as is.
+     */
+    private static final class ProjectingParser extends JsonParserDelegate {
+        private final PathNode root;
+        private final List<PathNode> containers = new ArrayList<>();
+        private PathNode valueNode;
+
+        ProjectingParser(final JsonParser delegate, final PathNode root) {
+            super(delegate);
+            this.root = root;
+        }
+
+        @Override
+        public JsonToken nextToken() throws IOException {
+            JsonToken token = delegate.nextToken();
+            while (token == JsonToken.FIELD_NAME) {
+                PathNode node = containers.get(containers.size() - 1);
+                PathNode child = node == null ? null : node.child(delegate.currentName());
+                if (child != PathNode.SKIP) {
+                    valueNode = child;
+                    return token;
+                }
+                delegate.nextToken();
+                delegate.skipChildren();
+                token = delegate.nextToken();
+            }
+            if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+                containers.add(nodeForValue());
+            } else if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+                containers.remove(containers.size() - 1);
+            }
+            return token;
+        }
+
+        @Override
+        public JsonToken nextValue() throws IOException {
+            JsonToken token = nextToken();
+            return token == JsonToken.FIELD_NAME ? nextToken() : token;
+        }
+
+        @Override
+        public JsonParser skipChildren() throws IOException {
+            JsonToken token = delegate.currentToken();
+            if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+                delegate.skipChildren();
+                containers.remove(containers.size() - 1);
+            }
+            return this;
+        }
+
+        private PathNode nodeForValue() {
+            if (containers.isEmpty()) {
+                return root;
+            }
+            if (delegate.getParsingContext().getParent().inArray()) {
+                return containers.get(containers.size() - 1);
+            }
+            return valueNode;
+        }
+    }
+}
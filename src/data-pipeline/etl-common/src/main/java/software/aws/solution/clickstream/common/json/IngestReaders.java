@@ -0,0 +1,59 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+package software.aws.solution.clickstream.common.json;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Thread-safe {@link ObjectReader}s for the ingest models, built once per JVM.
+ * <p>
+ * Set the system property {@value #BYTECODE_ACCESS_PROP} to {@code true} to register Jackson Blackbird,
+ * which replaces reflective setter/field access with generated lambdas. The module is looked up at runtime,
+ * when it is not on the classpath the readers keep using reflection.
+ */
+@Slf4j
+public final class IngestReaders {
+    public static final String BYTECODE_ACCESS_PROP = "ingest.json.bytecode.access";
+    static final String BLACKBIRD_MODULE_CLASS = "com.fasterxml.jackson.module.blackbird.BlackbirdModule";
+
+    private static final ObjectMapper MAPPER = createMapper(Boolean.parseBoolean(System.getProperty(BYTECODE_ACCESS_PROP)));
+    private static final ClassValue<ObjectReader> READERS = new ClassValue<ObjectReader>() {
+        @Override
+        protected ObjectReader computeValue(final Class<?> type) {
+            return MAPPER.readerFor(type);
+        }
+    };
+
+    private IngestReaders() {
+    }
+
+    public static ObjectReader readerFor(final Class<?> type) {
+        return READERS.get(type);
+    }
+
+    public static ObjectMapper createMapper(final boolean bytecodeAccess) {
+        ObjectMapper mapper = new ObjectMapper();
+        if (bytecodeAccess) {
+            try {
+                mapper.registerModule((Module) Class.forName(BLACKBIRD_MODULE_CLASS).getDeclaredConstructor().newInstance());
+                log.info("Registered " + BLACKBIRD_MODULE_CLASS + " for ingest data deserialization");
+            } catch (ReflectiveOperationException | LinkageError e) {
+                log.warn("Cannot load " + BLACKBIRD_MODULE_CLASS + ", fall back to reflection based deserialization: " + e.getMessage());
+            }
+        }
+        return mapper;
+    }
+}
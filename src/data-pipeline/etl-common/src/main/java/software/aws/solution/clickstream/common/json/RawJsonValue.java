@@ -0,0 +1,57 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+
+package software.aws.solution.clickstream.common.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import lombok.Getter;
+import software.aws.solution.clickstream.common.model.ValueType;
+
+import java.io.IOException;
+
+/**
+ * A nested JSON object or array captured verbatim (compact form) from the source payload, together with
+ * its value type. It is produced by {@link RawJsonValueDeserializer} so that nested custom property values
+ * are never materialized as a {@code Map}/{@code List} graph only to be serialized back to a string.
+ * <p>
+ * When an ingest model is written out again the captured text is emitted as-is.
+ */
+@Getter
+public final class RawJsonValue implements JsonSerializable {
+    private final String json;
+    private final ValueType valueType;
+
+    public RawJsonValue(final String json, final ValueType valueType) {
+        this.json = json;
+        this.valueType = valueType;
+    }
+
+    @Override
+    public void serialize(final JsonGenerator gen, final SerializerProvider serializers) throws IOException {
+        gen.writeRawValue(json);
+    }
+
+    @Override
+    public void serializeWithType(final JsonGenerator gen, final SerializerProvider serializers, final TypeSerializer typeSer) throws IOException {
+        serialize(gen, serializers);
+    }
+
+    @Override
+    public String toString() {
+        return json;
+    }
+}
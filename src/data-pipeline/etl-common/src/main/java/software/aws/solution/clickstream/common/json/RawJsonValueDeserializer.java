@@ -0,0 +1,79 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+
+package software.aws.solution.clickstream.common.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import software.aws.solution.clickstream.common.model.ValueType;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * Deserializer for the values of {@code @JsonAnySetter} custom properties, registered with {@code @JsonDeserialize(contentUsing = ...)}.
+ * <p>
+ * Scalars are delegated to Jackson's untyped deserializer, so they stay {@code String}/{@code Number}/{@code Boolean}.
+ * Objects and arrays are token-copied into a {@link RawJsonValue} instead of being built into maps and lists,
+ * the compact text is the same as serializing the untyped value with a default {@code ObjectMapper}.
+ */
+public final class RawJsonValueDeserializer extends JsonDeserializer<Object> {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Override
+    public Object deserialize(final JsonParser p, final DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+            return new RawJsonValue(copyStructure(p), ValueType.OBJECT);
+        }
+        return ctxt.findRootValueDeserializer(ctxt.constructType(Object.class)).deserialize(p, ctxt);
+    }
+
+    /**
+     * Same values as {@link #deserialize} with the default deserialization features, for token-streaming readers
+     * that have no {@link DeserializationContext}.
+     */
+    public static Object readValue(final JsonParser p) throws IOException {
+        switch (p.currentToken()) {
+            case START_OBJECT:
+            case START_ARRAY:
+                return new RawJsonValue(copyStructure(p), ValueType.OBJECT);
+            case VALUE_STRING:
+                return p.getText();
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return p.getNumberValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_EMBEDDED_OBJECT:
+                return p.getEmbeddedObject();
+            default:
+                return null;
+        }
+    }
+
+    static String copyStructure(final JsonParser p) throws IOException {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator gen = JSON_FACTORY.createGenerator(writer)) {
+            gen.copyCurrentStructure(p);
+        }
+        return writer.toString();
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream.common.mapping;
+
+import software.aws.solution.clickstream.common.json.RawJsonValue;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.function.Function;
+
+/**
+ * Conversion of a JSON scalar (String, Number, Boolean or {@link RawJsonValue}) to the type of a model property.
+ * Numbers and booleans are read from their text like the Safe* deserializers, a value that does not convert is null.
+ */
+enum Coercion {
+    STRING(String.class, Coercion::toText),
+    LONG(Long.class, Coercion::toLong),
+    INTEGER(Integer.class, v -> {
+        String text = toScalarText(v);
+        try {
+            return text == null ? null : Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }),
+    DOUBLE(Double.class, v -> {
+        if (v instanceof Number) {
+            return ((Number) v).doubleValue();
+        }
+        String text = toScalarText(v);
+        try {
+            return text == null ? null : Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }),
+    BOOLEAN(Boolean.class, v -> {
+        if (v instanceof Boolean) {
+            return v;
+        }
+        String text = toScalarText(v);
+        if (text == null || text.isEmpty() || "null".equals(text)) {
+            return null;
+        }
+        if ("1".equals(text)) {
+            return true;
+        }
+        if ("0".equals(text)) {
+            return false;
+        }
+        return Boolean.parseBoolean(text);
+    }),
+    TIMESTAMP(Timestamp.class, v -> {
+        Long msec = toLong(v);
+        return msec == null ? null : new Timestamp(msec);
+    }),
+    DATE(Date.class, v -> {
+        Long msec = toLong(v);
+        return msec == null ? null : new Date(msec);
+    });
+
+    private final Class<?> type;
+    private final Function<Object, Object> converter;
+
+    Coercion(final Class<?> type, final Function<Object, Object> converter) {
+        this.type = type;
+        this.converter = converter;
+    }
+
+    static Coercion forType(final Class<?> type) {
+        Class<?> boxed = type.isPrimitive() ? box(type) : type;
+        for (Coercion coercion : values()) {
+            if (coercion.type == boxed) {
+                return coercion;
+            }
+        }
+        return null;
+    }
+
+    Object coerce(final Object value) {
+        return value == null ? null : converter.apply(value);
+    }
+
+    private static Class<?> box(final Class<?> type) {
+        if (type == long.class) {
+            return Long.class;
+        } else if (type == int.class) {
+            return Integer.class;
+        } else if (type == double.class) {
+            return Double.class;
+        } else if (type == boolean.class) {
+            return Boolean.class;
+        }
+        return type;
+    }
+
+    private static Object toText(final Object value) {
+        if (value instanceof RawJsonValue) {
+            return ((RawJsonValue) value).getJson();
+        }
+        return value.toString();
+    }
+
+    private static String toScalarText(final Object value) {
+        return value instanceof RawJsonValue ? null : value.toString();
+    }
+
+    private static Long toLong(final Object value) {
+        String text = toScalarText(value);
+        try {
+            return text == null ? null : Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
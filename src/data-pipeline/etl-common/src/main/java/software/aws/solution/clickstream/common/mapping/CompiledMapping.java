@@ -0,0 +1,317 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream.common.mapping;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.extern.slf4j.Slf4j;
+import software.aws.solution.clickstream.common.Util;
+import software.aws.solution.clickstream.common.json.RawJsonValueDeserializer;
+import software.aws.solution.clickstream.common.model.ClickstreamEvent;
+import software.aws.solution.clickstream.common.model.ClickstreamEventPropValue;
+import software.aws.solution.clickstream.common.model.ClickstreamItem;
+import software.aws.solution.clickstream.common.model.ClickstreamUser;
+import software.aws.solution.clickstream.common.model.ClickstreamUserPropValue;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link MappingSpec} compiled into a tree of field-name dispatch tables, one level per JSON object.
+ * <p>
+ * Reading an element is a single pass over its tokens: each field name is looked up in the table of the
+ * current object, mapped values go through the pre-resolved setter {@link MethodHandle}s of the model, the
+ * fields of parameter objects are collected and everything else is skipped without being bound.
+ * Spec errors (unknown columns, unsupported types, conflicting paths) fail the compilation, not the parsing.
+ */
+@Slf4j
+public final class CompiledMapping {
+    private static final int EVENT_SLOT = 0;
+    private static final int USER_SLOT = 1;
+    private static final int ITEM_SLOT = 0;
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final int MAX_COMPILED = 16;
+    private static final Map<String, CompiledMapping> COMPILED = Caffeine.newBuilder()
+            .maximumSize(MAX_COMPILED)
+            .<String, CompiledMapping>build()
+            .asMap();
+
+    private final Node root = new Node();
+    private final Node itemRoot = new Node();
+    private final Target[] eventTargets;
+    private final Target[] itemTargets;
+
+    private CompiledMapping(final MappingSpec spec) {
+        List<Target> targets = new ArrayList<>();
+        addTargets(root, spec.getEventFields(), ClickstreamEvent.class, EVENT_SLOT, targets);
+        addTargets(root, spec.getUserFields(), ClickstreamUser.class, USER_SLOT, targets);
+        this.eventTargets = targets.toArray(new Target[0]);
+
+        targets = new ArrayList<>();
+        addTargets(itemRoot, spec.getItemFields(), ClickstreamItem.class, ITEM_SLOT, targets);
+        this.itemTargets = targets.toArray(new Target[0]);
+
+        if (spec.getItemsPath() != null && !spec.getItemsPath().isEmpty()) {
+            root.path(spec.getItemsPath()).items = true;
+        }
+        if (spec.getEventParameterPaths() != null) {
+            spec.getEventParameterPaths().forEach(path -> root.path(path).eventParameters = true);
+        }
+        if (spec.getUserPropertyPaths() != null) {
+            spec.getUserPropertyPaths().forEach(path -> root.path(path).userProperties = true);
+        }
+        if (spec.getItemParameterPaths() != null) {
+            spec.getItemParameterPaths().forEach(path -> itemRoot.path(path).eventParameters = true);
+        }
+        root.freeze("");
+        itemRoot.freeze("");
+    }
+
+    public static CompiledMapping compile(final MappingSpec spec) {
+        return new CompiledMapping(spec);
+    }
+
+    /**
+     * The compiled mapping of the spec, compiled once per JVM. The last {@value #MAX_COMPILED} specs used are kept.
+     */
+    public static CompiledMapping forSpec(final String specJson) {
+        CompiledMapping mapping = COMPILED.get(specJson);
+        if (mapping != null) {
+            return mapping;
+        }
+        return COMPILED.computeIfAbsent(specJson, k -> {
+            log.info("Compiling field mapping spec");
+            return compile(MappingSpec.fromJson(k));
+        });
+    }
+
+    /**
+     * Read the element at the current token of the parser, the parser is left on its last token.
+     */
+    MappedElement read(final JsonParser p) throws IOException {
+        MappedElement element = new MappedElement();
+        Object[] slots = {element.getEvent(), element.getUser()};
+        boolean[] assigned = new boolean[eventTargets.length];
+        if (p.currentToken() == JsonToken.START_OBJECT) {
+            readObject(p, root, slots, assigned, element.getEventParameters(), element.getUserProperties(), element.getItems());
+        } else {
+            p.skipChildren();
+        }
+        applyDefaults(eventTargets, slots, assigned);
+        return element;
+    }
+
+    private void readObject(final JsonParser p, final Node node, final Object[] slots, final boolean[] assigned,
+                            final Map<String, ClickstreamEventPropValue> parameters,
+                            final Map<String, ClickstreamUserPropValue> userProperties,
+                            final List<ClickstreamItem> items) throws IOException {
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            JsonToken token = p.nextToken();
+            Node child = node.children.get(name);
+            if (child == null) {
+                if (node.eventParameters || node.userProperties) {
+                    Object value = RawJsonValueDeserializer.readValue(p);
+                    if (node.eventParameters) {
+                        parameters.put(name, Util.toEventPropValue(value));
+                    }
+                    if (node.userProperties) {
+                        userProperties.put(name, Util.toUserPropValue(value));
+                    }
+                } else {
+                    p.skipChildren();
+                }
+            } else if (child.items) {
+                readItems(p, items);
+            } else if (child.targets.length > 0) {
+                Object value = RawJsonValueDeserializer.readValue(p);
+                for (Target target : child.targets) {
+                    target.assign(slots, assigned, value);
+                }
+            } else if (token == JsonToken.START_OBJECT) {
+                readObject(p, child, slots, assigned, parameters, userProperties, items);
+            } else {
+                p.skipChildren();
+            }
+        }
+    }
+
+    private void readItems(final JsonParser p, final List<ClickstreamItem> items) throws IOException {
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return;
+        }
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            if (p.currentToken() != JsonToken.START_OBJECT) {
+                p.skipChildren();
+                continue;
+            }
+            ClickstreamItem item = new ClickstreamItem();
+            Object[] slots = {item};
+            boolean[] assigned = new boolean[itemTargets.length];
+            Map<String, ClickstreamEventPropValue> parameters = new HashMap<>();
+            readObject(p, itemRoot, slots, assigned, parameters, null, null);
+            applyDefaults(itemTargets, slots, assigned);
+            if (!parameters.isEmpty()) {
+                item.setCustomParameters(parameters);
+            }
+            items.add(item);
+        }
+    }
+
+    private static void applyDefaults(final Target[] targets, final Object[] slots, final boolean[] assigned) {
+        for (Target target : targets) {
+            if (!assigned[target.index] && target.defaultValue != null) {
+                target.set(slots, target.defaultValue);
+            }
+        }
+    }
+
+    private static void addTargets(final Node scope, final List<FieldMapping> mappings, final Class<?> type, final int slot,
+                                   final List<Target> targets) {
+        if (mappings == null) {
+            return;
+        }
+        for (FieldMapping mapping : mappings) {
+            Target target = resolveTarget(mapping, type, slot, targets.size());
+            targets.add(target);
+            if (mapping.getSource() != null && !mapping.getSource().isEmpty()) {
+                scope.path(mapping.getSource()).targetList.add(target);
+            }
+        }
+    }
+
+    private static Target resolveTarget(final FieldMapping mapping, final Class<?> type, final int slot, final int index) {
+        Field field = findField(type, mapping.getTarget());
+        if (field == null) {
+            throw new IllegalArgumentException("Config Error::Unknown " + type.getSimpleName() + " column in field mapping: " + mapping);
+        }
+        Coercion coercion = Coercion.forType(field.getType());
+        if (coercion == null) {
+            throw new IllegalArgumentException("Config Error::Column of type " + field.getType().getSimpleName()
+                    + " cannot be mapped: " + mapping);
+        }
+        Object defaultValue = coercion.coerce(mapping.getDefaultValue());
+        if (mapping.getDefaultValue() != null && defaultValue == null) {
+            throw new IllegalArgumentException("Config Error::Default value does not convert to "
+                    + field.getType().getSimpleName() + ": " + mapping);
+        }
+        String name = field.getName();
+        try {
+            Method setter = type.getMethod("set" + Character.toUpperCase(name.charAt(0)) + name.substring(1), field.getType());
+            MethodHandle handle = MethodHandles.publicLookup().unreflect(setter).asType(SETTER_TYPE);
+            return new Target(mapping.getTarget(), slot, index, handle, coercion, defaultValue);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException("Config Error::No public setter for column in field mapping: " + mapping, e);
+        }
+    }
+
+    private static Field findField(final Class<?> type, final String target) {
+        if (target == null) {
+            return null;
+        }
+        for (Field field : type.getDeclaredFields()) {
+            JsonProperty property = field.getAnnotation(JsonProperty.class);
+            if (target.equals(field.getName()) || property != null && target.equals(property.value())) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Dispatch table of one JSON object, mutable while compiling and frozen afterwards.
+     */
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private final List<Target> targetList = new ArrayList<>();
+        private Target[] targets;
+        private boolean eventParameters;
+        private boolean userProperties;
+        private boolean items;
+
+        Node path(final String path) {
+            Node node = this;
+            if (path.isEmpty()) {
+                return node;
+            }
+            for (String name : path.split("\\.")) {
+                node = node.children.computeIfAbsent(name, k -> new Node());
+            }
+            return node;
+        }
+
+        void freeze(final String path) {
+            targets = targetList.toArray(new Target[0]);
+            if (targets.length > 0 && (!children.isEmpty() || items)) {
+                throw new IllegalArgumentException("Config Error::Field mapping path is mapped both as a value and as an object: " + path);
+            }
+            if (items && (!children.isEmpty() || eventParameters || userProperties)) {
+                throw new IllegalArgumentException("Config Error::Field mapping items path cannot have other mappings: " + path);
+            }
+            for (Map.Entry<String, Node> entry : children.entrySet()) {
+                entry.getValue().freeze(path.isEmpty() ? entry.getKey() : path + "." + entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * A model property with its pre-resolved setter, {@code index} tracks whether it was set for the defaults.
+     */
+    private static final class Target {
+        private final String name;
+        private final int slot;
+        private final int index;
+        private final MethodHandle setter;
+        private final Coercion coercion;
+        private final Object defaultValue;
+
+        Target(final String name, final int slot, final int index, final MethodHandle setter, final Coercion coercion, final Object defaultValue) {
+            this.name = name;
+            this.slot = slot;
+            this.index = index;
+            this.setter = setter;
+            this.coercion = coercion;
+            this.defaultValue = defaultValue;
+        }
+
+        void assign(final Object[] slots, final boolean[] assigned, final Object value) {
+            Object coerced = coercion.coerce(value);
+            if (coerced != null) {
+                set(slots, coerced);
+                assigned[index] = true;
+            }
+        }
+
+        void set(final Object[] slots, final Object value) {
+            try {
+                setter.invokeExact(slots[slot], value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Cannot set mapped column " + name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream.common.mapping;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * One entry of a {@link MappingSpec}: the value at {@code source} is coerced to the type of the {@code target} column.
+ * <p>
+ * {@code source} is a dot separated path of JSON field names, {@code target} is a column name of the model
+ * ({@code event_name}) or its property name ({@code eventName}). {@code default} is used when the source is
+ * missing or cannot be coerced, a mapping without {@code source} only sets the default.
+ */
+@Getter
+@Setter
+@ToString
+public class FieldMapping {
+    @JsonProperty("source")
+    private String source;
+
+    @JsonProperty(required = true, value = "target")
+    private String target;
+
+    @JsonProperty("default")
+    private String defaultValue;
+
+    public FieldMapping() {
+    }
+
+    public FieldMapping(final String source, final String target, final String defaultValue) {
+        this.source = source;
+        this.target = target;
+        this.defaultValue = defaultValue;
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream.common.mapping;
+
+import lombok.Getter;
+import software.aws.solution.clickstream.common.model.ClickstreamEvent;
+import software.aws.solution.clickstream.common.model.ClickstreamEventPropValue;
+import software.aws.solution.clickstream.common.model.ClickstreamItem;
+import software.aws.solution.clickstream.common.model.ClickstreamUser;
+import software.aws.solution.clickstream.common.model.ClickstreamUserPropValue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What {@link CompiledMapping} read from one data element, before the parser adds the request fields.
+ */
+@Getter
+final class MappedElement {
+    private final ClickstreamEvent event = new ClickstreamEvent();
+    private final ClickstreamUser user = new ClickstreamUser();
+    private final Map<String, ClickstreamEventPropValue> eventParameters = new HashMap<>();
+    private final Map<String, ClickstreamUserPropValue> userProperties = new HashMap<>();
+    private final List<ClickstreamItem> items = new ArrayList<>();
+}
@@ -0,0 +1,233 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream.common.mapping;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import lombok.extern.slf4j.Slf4j;
+import software.aws.solution.clickstream.common.BaseEventParser;
+import software.aws.solution.clickstream.common.EnrichmentContext;
+import software.aws.solution.clickstream.common.ExtraParams;
+import software.aws.solution.clickstream.common.ParseDataResult;
+import software.aws.solution.clickstream.common.TransformConfig;
+import software.aws.solution.clickstream.common.exception.ExtractDataException;
+import software.aws.solution.clickstream.common.model.ClickstreamEvent;
+import software.aws.solution.clickstream.common.model.ClickstreamItem;
+import software.aws.solution.clickstream.common.model.ClickstreamUser;
+
+import java.io.IOException;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static software.aws.solution.clickstream.common.enrich.UAEnrichHelper.UA_STRING;
+
+/**
+ * Event parser generated from a {@link MappingSpec}, for SDK formats that do not need a hand-written parser.
+ * <p>
+ * The spec maps the element fields, this parser adds what every parser takes from the ingest request
+ * (app, project, ip, ua, ingest time and process info) and fills the user and items from the event the
+ * same way the built-in parsers do. An element without an event name is skipped.
+ */
+@Slf4j
+public final class MappingEventParser extends BaseEventParser {
+    private final CompiledMapping mapping;
+    private final TransformConfig transformConfig;
+
+    private MappingEventParser(final EnrichmentContext enrichmentContext, final CompiledMapping mapping) {
+        super(enrichmentContext);
+        this.mapping = mapping;
+        this.transformConfig = enrichmentContext.getTransformConfig();
+    }
+
+    /**
+     * The parser of the {@link TransformConfig#getMappingSpecJson() mapping spec} in the config, one per enrichment context.
+     */
+    public static MappingEventParser getInstance(final TransformConfig transformConfig) {
+        if (transformConfig == null || transformConfig.getMappingSpecJson() == null) {
+            throw new IllegalArgumentException("Config Error::Mapping spec is not set");
+        }
+        return EnrichmentContext.forConfig(transformConfig).getComponent(MappingEventParser.class,
+                context -> new MappingEventParser(context, CompiledMapping.forSpec(transformConfig.getMappingSpecJson())));
+    }
+
+    /**
+     * The parser of the spec with the rules of the config, shared like {@link #getInstance(TransformConfig)}.
+     */
+    public static MappingEventParser getInstance(final String specJson, final TransformConfig transformConfig) {
+        TransformConfig specConfig = new TransformConfig();
+        if (transformConfig != null) {
+            specConfig.setAppRuleConfig(transformConfig.getAppRuleConfig());
+            specConfig.setTrafficSourceEnrichmentDisabled(transformConfig.isTrafficSourceEnrichmentDisabled());
+            specConfig.setEnricherClassNames(transformConfig.getEnricherClassNames());
+        }
+        specConfig.setMappingSpecJson(specJson);
+        return getInstance(specConfig);
+    }
+
+    /**
+     * A parser of the compiled mapping that is not shared.
+     */
+
+    public static MappingEventParser getInstance(final CompiledMapping mapping, final TransformConfig transformConfig) {
+        return new MappingEventParser(EnrichmentContext.forConfig(transformConfig), mapping);
+    }
+
+    @Override
+    public ParseDataResult parseData(final String dataString, final ExtraParams extraParams, final int index) throws JsonProcessingException {
+        if (dataString == null || dataString.isEmpty()) {
+            log.warn("Data field is empty, skipping the row");
+            return newParseDataResult();
+        }
+        try (JsonParser jsonParser = getObjectMapper().createParser(dataString)) {
+            jsonParser.nextToken();
+            return parseDataElement(jsonParser, extraParams, index);
+        } catch (JsonProcessingException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new ExtractDataException(e);
+        }
+    }
+
+    @Override
+    protected ParseDataResult parseDataElement(final JsonParser jsonParser, final ExtraParams extraParams, final int index) throws IOException {
+        MappedElement element = mapping.read(jsonParser);
+        ParseDataResult parseDataResult = newParseDataResult();
+        ClickstreamEvent clickstreamEvent = element.getEvent();
+        if (clickstreamEvent.getEventName() == null || clickstreamEvent.getEventName().isEmpty()) {
+            log.warn("Event name is empty, skipping the row, rid: " + extraParams.getRid() + ", index: " + index);
+            return parseDataResult;
+        }
+        completeEvent(element, extraParams, index);
+        parseDataResult.getClickstreamEventList().add(clickstreamEvent);
+        parseDataResult.setClickstreamUser(completeUser(element));
+        parseDataResult.getClickstreamItemList().addAll(completeItems(element));
+        return parseDataResult;
+    }
+
+    @Override
+    protected TransformConfig getTransformConfig() {
+        return this.transformConfig;
+    }
+
+    private void completeEvent(final MappedElement element, final ExtraParams extraParams, final int index) {
+        ClickstreamEvent clickstreamEvent = element.getEvent();
+        if (clickstreamEvent.getEventTimestamp() == null) {
+            clickstreamEvent.setEventTimestamp(new Timestamp(extraParams.getIngestTimestamp()));
+        }
+        if (clickstreamEvent.getEventTimeMsec() == null) {
+            clickstreamEvent.setEventTimeMsec(clickstreamEvent.getEventTimestamp().getTime());
+        }
+        if (clickstreamEvent.getEventId() == null) {
+            clickstreamEvent.setEventId(extraParams.getRid() + "-" + index + "-" + clickstreamEvent.getUserPseudoId());
+        }
+        clickstreamEvent.setIngestTimeMsec(extraParams.getIngestTimestamp());
+        clickstreamEvent.setAppId(extraParams.getAppId());
+        clickstreamEvent.setProjectId(extraParams.getProjectId());
+        if (clickstreamEvent.getIp() == null) {
+            clickstreamEvent.setIp(extraParams.getIp());
+        }
+        if (clickstreamEvent.getUa() == null) {
+            clickstreamEvent.setUa(extraParams.getUa());
+        }
+        Map<String, Object> deviceUaMap = new HashMap<>();
+        deviceUaMap.put(UA_STRING, clickstreamEvent.getUa());
+        clickstreamEvent.setDeviceUa(deviceUaMap);
+        if (!element.getEventParameters().isEmpty()) {
+            clickstreamEvent.setCustomParameters(element.getEventParameters());
+        }
+
+        String url = clickstreamEvent.getPageViewPageUrl();
+        setPageViewUrl(clickstreamEvent, url);
+        if (isDisableTrafficSourceEnrichment()) {
+            log.info("Traffic source enrichment is disabled");
+        } else if (url != null) {
+            setTrafficSourceBySourceParser(url, clickstreamEvent.getPageViewPageReferrer(),
+                    clickstreamEvent.getPageViewLatestReferrer(), null, clickstreamEvent);
+        }
+
+        Map<String, String> processInfo = new HashMap<>();
+        processInfo.put("rid", extraParams.getRid());
+        processInfo.put("ingest_time", Instant.ofEpochMilli(extraParams.getIngestTimestamp()).toString());
+        processInfo.put(INPUT_FILE_NAME, extraParams.getInputFileName());
+        clickstreamEvent.setProcessInfo(processInfo);
+    }
+
+    private static ClickstreamUser completeUser(final MappedElement element) {
+        ClickstreamEvent clickstreamEvent = element.getEvent();
+        ClickstreamUser clickstreamUser = element.getUser();
+        clickstreamUser.setAppId(clickstreamEvent.getAppId());
+        clickstreamUser.setEventTimestamp(clickstreamEvent.getEventTimestamp());
+        clickstreamUser.setEventName(clickstreamEvent.getEventName());
+        if (clickstreamUser.getUserPseudoId() == null) {
+            clickstreamUser.setUserPseudoId(clickstreamEvent.getUserPseudoId());
+        }
+        if (clickstreamUser.getUserId() == null) {
+            clickstreamUser.setUserId(clickstreamEvent.getUserId());
+        }
+        if (clickstreamUser.getFirstTouchTimeMsec() == null) {
+            clickstreamUser.setFirstTouchTimeMsec(clickstreamEvent.getEventTimestamp().getTime());
+        }
+        if (clickstreamUser.getFirstVisitDate() == null) {
+            clickstreamUser.setFirstVisitDate(new Date(clickstreamUser.getFirstTouchTimeMsec()));
+        }
+        if (clickstreamUser.getFirstReferrer() == null) {
+            clickstreamUser.setFirstReferrer(clickstreamEvent.getPageViewPageReferrer() != null
+                    ? clickstreamEvent.getPageViewPageReferrer() : clickstreamEvent.getPageViewLatestReferrer());
+        }
+        if (clickstreamUser.getFirstTrafficSource() == null) {
+            clickstreamUser.setFirstTrafficSource(clickstreamEvent.getTrafficSourceSource());
+            clickstreamUser.setFirstTrafficMedium(clickstreamEvent.getTrafficSourceMedium());
+            clickstreamUser.setFirstTrafficCampaign(clickstreamEvent.getTrafficSourceCampaign());
+            clickstreamUser.setFirstTrafficContent(clickstreamEvent.getTrafficSourceContent());
+            clickstreamUser.setFirstTrafficTerm(clickstreamEvent.getTrafficSourceTerm());
+            clickstreamUser.setFirstTrafficCampaignId(clickstreamEvent.getTrafficSourceCampaignId());
+            clickstreamUser.setFirstTrafficClidPlatform(clickstreamEvent.getTrafficSourceClidPlatform());
+            clickstreamUser.setFirstTrafficClid(clickstreamEvent.getTrafficSourceClid());
+            clickstreamUser.setFirstTrafficChannelGroup(clickstreamEvent.getTrafficSourceChannelGroup());
+            clickstreamUser.setFirstTrafficCategory(clickstreamEvent.getTrafficSourceCategory());
+        }
+        if (clickstreamUser.getFirstAppInstallSource() == null) {
+            clickstreamUser.setFirstAppInstallSource(clickstreamEvent.getAppInstallSource());
+        }
+        if (!element.getUserProperties().isEmpty()) {
+            clickstreamUser.setUserProperties(element.getUserProperties());
+        }
+        return clickstreamUser;
+    }
+
+    private static List<ClickstreamItem> completeItems(final MappedElement element) {
+        ClickstreamEvent clickstreamEvent = element.getEvent();
+        List<ClickstreamItem> items = element.getItems();
+        for (Iterator<ClickstreamItem> it = items.iterator(); it.hasNext();) {
+            ClickstreamItem clickstreamItem = it.next();
+            if (clickstreamItem.getItemId() == null || clickstreamItem.getItemId().isEmpty()) {
+                it.remove();
+                continue;
+            }
+            clickstreamItem.setAppId(clickstreamEvent.getAppId());
+            clickstreamItem.setEventTimestamp(clickstreamEvent.getEventTimestamp());
+            clickstreamItem.setEventId(clickstreamEvent.getEventId());
+            clickstreamItem.setEventName(clickstreamEvent.getEventName());
+            clickstreamItem.setPlatform(clickstreamEvent.getPlatform());
+            clickstreamItem.setUserPseudoId(clickstreamEvent.getUserPseudoId());
+            clickstreamItem.setUserId(clickstreamEvent.getUserId());
+        }
+        return items;
+    }
+}
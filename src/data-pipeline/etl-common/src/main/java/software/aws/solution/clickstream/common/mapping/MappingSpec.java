@@ -0,0 +1,78 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream.common.mapping;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Declarative mapping of a third-party SDK format to the clickstream model, for example:
+ * <pre>
+ * {
+ *   "event": [{"source": "event", "target": "event_name"}, {"source": "lib.$lib", "target": "platform", "default": "Web"}],
+ *   "user": [{"source": "properties.$first_visit_time", "target": "first_touch_time_msec"}],
+ *   "items": "items",
+ *   "item": [{"source": "item_id", "target": "item_id"}],
+ *   "event_parameters": ["", "properties"],
+ *   "user_properties": ["properties"],
+ *   "item_parameters": [""]
+ * }
+ * </pre>
+ * The parameter and property lists name the objects whose unmapped fields become custom parameters or
+ * user properties, {@code ""} being the element itself. Item paths are relative to an item of the {@code items} array.
+ * <p>
+ * A job has one spec, the {@code event_mapping_spec.json} found in the rule config directory, applied to the data of all apps,
+ * apps sending different formats need their own pipeline.
+ */
+@Getter
+@Setter
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class MappingSpec {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @JsonProperty("event")
+    private List<FieldMapping> eventFields;
+
+    @JsonProperty("user")
+    private List<FieldMapping> userFields;
+
+    @JsonProperty("items")
+    private String itemsPath;
+
+    @JsonProperty("item")
+    private List<FieldMapping> itemFields;
+
+    @JsonProperty("event_parameters")
+    private List<String> eventParameterPaths;
+
+    @JsonProperty("user_properties")
+    private List<String> userPropertyPaths;
+
+    @JsonProperty("item_parameters")
+    private List<String> itemParameterPaths;
+
+    public static MappingSpec fromJson(final String specJson) {
+        try {
+            return OBJECT_MAPPER.readValue(specJson, MappingSpec.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Config Error::Invalid field mapping spec: " + e.getOriginalMessage(), e);
+        }
+    }
+}
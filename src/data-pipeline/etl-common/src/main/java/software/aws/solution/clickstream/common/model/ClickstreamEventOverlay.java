@@ -0,0 +1,1043 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+
+package software.aws.solution.clickstream.common.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.Map;
+
+/**
+ * Copy-on-write view of another {@link ClickstreamEvent} for the synthetic events ({@code _first_open},
+ * {@code _session_start}) derived from it. Only the event id, name and timestamp are held by the overlay,
+ * every other getter reads through to the source event, so no field or map is copied. The screen and viewport
+ * sizes are not carried over by {@code deepCopy} either, they are the overlay's own (initially null) fields.
+ * <p>
+ * Setting any other field first detaches the overlay with {@link ClickstreamEvent#deepCopy(ClickstreamEvent)},
+ * the source event is never modified through the overlay. Maps returned by the getters belong to the source
+ * event while the overlay is attached and must not be modified in place, call {@link #detach()} first.
+ * <p>
+ * A field added to {@link ClickstreamEvent} needs a getter and setter pair here too, ClickstreamEventOverlayTest
+ * fails for any property that is not delegated.
+ */
+public final class ClickstreamEventOverlay extends ClickstreamEvent {
+    private ClickstreamEvent source;
+    private boolean detached;
+
+    private ClickstreamEventOverlay(final ClickstreamEvent source) {
+        this.source = source;
+    }
+
+    /**
+     * An overlay of {@code source} with its own event name and id, an attached overlay is never stacked on another one.
+     */
+    public static ClickstreamEventOverlay of(final ClickstreamEvent source, final String eventName, final String eventId) {
+        ClickstreamEvent base = source;
+        if (source instanceof ClickstreamEventOverlay && !((ClickstreamEventOverlay) source).detached) {
+            base = ((ClickstreamEventOverlay) source).source;
+        }
+        ClickstreamEventOverlay overlay = new ClickstreamEventOverlay(base);
+        overlay.setEventTimestamp(source.getEventTimestamp());
+        overlay.setEventTimeMsec(source.getEventTimeMsec());
+        overlay.setEventName(eventName);
+        overlay.setEventId(eventId);
+        return overlay;
+    }
+
+    @JsonIgnore
+    public ClickstreamEvent getSourceEvent() {
+        return source;
+    }
+
+    @JsonIgnore
+    public boolean isDetached() {
+        return detached;
+    }
+
+    /**
+     * Detach the overlay from its source event, afterwards its maps can be modified in place.
+     */
+    public ClickstreamEventOverlay detach() {
+        writable();
+        return this;
+    }
+
+    private ClickstreamEvent writable() {
+        if (!detached) {
+            source = ClickstreamEvent.deepCopy(source);
+            detached = true;
+        }
+        return source;
+    }
+
+    @Override
+    public Double getEventValue() {
+        return source.getEventValue();
+    }
+
+    @Override
+    public void setEventValue(final Double value) {
+        writable().setEventValue(value);
+    }
+
+    @Override
+    public String getEventValueCurrency() {
+        return source.getEventValueCurrency();
+    }
+
+    @Override
+    public void setEventValueCurrency(final String value) {
+        writable().setEventValueCurrency(value);
+    }
+
+    @Override
+    public Long getEventBundleSequenceId() {
+        return source.getEventBundleSequenceId();
+    }
+
+    @Override
+    public void setEventBundleSequenceId(final Long value) {
+        writable().setEventBundleSequenceId(value);
+    }
+
+    @Override
+    public Long getIngestTimeMsec() {
+        return source.getIngestTimeMsec();
+    }
+
+    @Override
+    public void setIngestTimeMsec(final Long value) {
+        writable().setIngestTimeMsec(value);
+    }
+
+    @Override
+    public String getDeviceMobileBrandName() {
+        return source.getDeviceMobileBrandName();
+    }
+
+    @Override
+    public void setDeviceMobileBrandName(final String value) {
+        writable().setDeviceMobileBrandName(value);
+    }
+
+    @Override
+    public String getDeviceMobileModelName() {
+        return source.getDeviceMobileModelName();
+    }
+
+    @Override
+    public void setDeviceMobileModelName(final String value) {
+        writable().setDeviceMobileModelName(value);
+    }
+
+    @Override
+    public String getDeviceManufacturer() {
+        return source.getDeviceManufacturer();
+    }
+
+    @Override
+    public void setDeviceManufacturer(final String value) {
+        writable().setDeviceManufacturer(value);
+    }
+
+    @Override
+    public String getDeviceCarrier() {
+        return source.getDeviceCarrier();
+    }
+
+    @Override
+    public void setDeviceCarrier(final String value) {
+        writable().setDeviceCarrier(value);
+    }
+
+    @Override
+    public String getDeviceNetworkType() {
+        return source.getDeviceNetworkType();
+    }
+
+    @Override
+    public void setDeviceNetworkType(final String value) {
+        writable().setDeviceNetworkType(value);
+    }
+
+    @Override
+    public String getDeviceOperatingSystem() {
+        return source.getDeviceOperatingSystem();
+    }
+
+    @Override
+    public void setDeviceOperatingSystem(final String value) {
+        writable().setDeviceOperatingSystem(value);
+    }
+
+    @Override
+    public String getDeviceOperatingSystemVersion() {
+        return source.getDeviceOperatingSystemVersion();
+    }
+
+    @Override
+    public void setDeviceOperatingSystemVersion(final String value) {
+        writable().setDeviceOperatingSystemVersion(value);
+    }
+
+    @Override
+    public String getDeviceVendorId() {
+        return source.getDeviceVendorId();
+    }
+
+    @Override
+    public void setDeviceVendorId(final String value) {
+        writable().setDeviceVendorId(value);
+    }
+
+    @Override
+    public String getDeviceAdvertisingId() {
+        return source.getDeviceAdvertisingId();
+    }
+
+    @Override
+    public void setDeviceAdvertisingId(final String value) {
+        writable().setDeviceAdvertisingId(value);
+    }
+
+    @Override
+    public String getDeviceSystemLanguage() {
+        return source.getDeviceSystemLanguage();
+    }
+
+    @Override
+    public void setDeviceSystemLanguage(final String value) {
+        writable().setDeviceSystemLanguage(value);
+    }
+
+    @Override
+    public Integer getDeviceTimeZoneOffsetSeconds() {
+        return source.getDeviceTimeZoneOffsetSeconds();
+    }
+
+    @Override
+    public void setDeviceTimeZoneOffsetSeconds(final Integer value) {
+        writable().setDeviceTimeZoneOffsetSeconds(value);
+    }
+
+    @Override
+    public String getDeviceUaBrowser() {
+        return source.getDeviceUaBrowser();
+    }
+
+    @Override
+    public void setDeviceUaBrowser(final String value) {
+        writable().setDeviceUaBrowser(value);
+    }
+
+    @Override
+    public String getDeviceUaBrowserVersion() {
+        return source.getDeviceUaBrowserVersion();
+    }
+
+    @Override
+    public void setDeviceUaBrowserVersion(final String value) {
+        writable().setDeviceUaBrowserVersion(value);
+    }
+
+    @Override
+    public String getDeviceUaOs() {
+        return source.getDeviceUaOs();
+    }
+
+    @Override
+    public void setDeviceUaOs(final String value) {
+        writable().setDeviceUaOs(value);
+    }
+
+    @Override
+    public String getDeviceUaOsVersion() {
+        return source.getDeviceUaOsVersion();
+    }
+
+    @Override
+    public void setDeviceUaOsVersion(final String value) {
+        writable().setDeviceUaOsVersion(value);
+    }
+
+    @Override
+    public String getDeviceUaDevice() {
+        return source.getDeviceUaDevice();
+    }
+
+    @Override
+    public void setDeviceUaDevice(final String value) {
+        writable().setDeviceUaDevice(value);
+    }
+
+    @Override
+    public String getDeviceUaDeviceCategory() {
+        return source.getDeviceUaDeviceCategory();
+    }
+
+    @Override
+    public void setDeviceUaDeviceCategory(final String value) {
+        writable().setDeviceUaDeviceCategory(value);
+    }
+
+    @Override
+    public Map<String, Object> getDeviceUa() {
+        return source.getDeviceUa();
+    }
+
+    @Override
+    public void setDeviceUa(final Map<String, Object> value) {
+        writable().setDeviceUa(value);
+    }
+
+    @Override
+    public String getGeoContinent() {
+        return source.getGeoContinent();
+    }
+
+    @Override
+    public void setGeoContinent(final String value) {
+        writable().setGeoContinent(value);
+    }
+
+    @Override
+    public String getGeoSubContinent() {
+        return source.getGeoSubContinent();
+    }
+
+    @Override
+    public void setGeoSubContinent(final String value) {
+        writable().setGeoSubContinent(value);
+    }
+
+    @Override
+    public String getGeoCountry() {
+        return source.getGeoCountry();
+    }
+
+    @Override
+    public void setGeoCountry(final String value) {
+        writable().setGeoCountry(value);
+    }
+
+    @Override
+    public String getGeoRegion() {
+        return source.getGeoRegion();
+    }
+
+    @Override
+    public void setGeoRegion(final String value) {
+        writable().setGeoRegion(value);
+    }
+
+    @Override
+    public String getGeoMetro() {
+        return source.getGeoMetro();
+    }
+
+    @Override
+    public void setGeoMetro(final String value) {
+        writable().setGeoMetro(value);
+    }
+
+    @Override
+    public String getGeoCity() {
+        return source.getGeoCity();
+    }
+
+    @Override
+    public void setGeoCity(final String value) {
+        writable().setGeoCity(value);
+    }
+
+    @Override
+    public String getGeoLocale() {
+        return source.getGeoLocale();
+    }
+
+    @Override
+    public void setGeoLocale(final String value) {
+        writable().setGeoLocale(value);
+    }
+
+    @Override
+    public String getTrafficSourceSource() {
+        return source.getTrafficSourceSource();
+    }
+
+    @Override
+    public void setTrafficSourceSource(final String value) {
+        writable().setTrafficSourceSource(value);
+    }
+
+    @Override
+    public String getTrafficSourceMedium() {
+        return source.getTrafficSourceMedium();
+    }
+
+    @Override
+    public void setTrafficSourceMedium(final String value) {
+        writable().setTrafficSourceMedium(value);
+    }
+
+    @Override
+    public String getTrafficSourceCampaign() {
+        return source.getTrafficSourceCampaign();
+    }
+
+    @Override
+    public void setTrafficSourceCampaign(final String value) {
+        writable().setTrafficSourceCampaign(value);
+    }
+
+    @Override
+    public String getTrafficSourceContent() {
+        return source.getTrafficSourceContent();
+    }
+
+    @Override
+    public void setTrafficSourceContent(final String value) {
+        writable().setTrafficSourceContent(value);
+    }
+
+    @Override
+    public String getTrafficSourceTerm() {
+        return source.getTrafficSourceTerm();
+    }
+
+    @Override
+    public void setTrafficSourceTerm(final String value) {
+        writable().setTrafficSourceTerm(value);
+    }
+
+    @Override
+    public String getTrafficSourceCampaignId() {
+        return source.getTrafficSourceCampaignId();
+    }
+
+    @Override
+    public void setTrafficSourceCampaignId(final String value) {
+        writable().setTrafficSourceCampaignId(value);
+    }
+
+    @Override
+    public String getTrafficSourceClidPlatform() {
+        return source.getTrafficSourceClidPlatform();
+    }
+
+    @Override
+    public void setTrafficSourceClidPlatform(final String value) {
+        writable().setTrafficSourceClidPlatform(value);
+    }
+
+    @Override
+    public String getTrafficSourceClid() {
+        return source.getTrafficSourceClid();
+    }
+
+    @Override
+    public void setTrafficSourceClid(final String value) {
+        writable().setTrafficSourceClid(value);
+    }
+
+    @Override
+    public String getTrafficSourceChannelGroup() {
+        return source.getTrafficSourceChannelGroup();
+    }
+
+    @Override
+    public void setTrafficSourceChannelGroup(final String value) {
+        writable().setTrafficSourceChannelGroup(value);
+    }
+
+    @Override
+    public String getTrafficSourceCategory() {
+        return source.getTrafficSourceCategory();
+    }
+
+    @Override
+    public void setTrafficSourceCategory(final String value) {
+        writable().setTrafficSourceCategory(value);
+    }
+
+    @Override
+    public Long getUserFirstTouchTimeMsec() {
+        return source.getUserFirstTouchTimeMsec();
+    }
+
+    @Override
+    public void setUserFirstTouchTimeMsec(final Long value) {
+        writable().setUserFirstTouchTimeMsec(value);
+    }
+
+    @Override
+    public String getAppPackageId() {
+        return source.getAppPackageId();
+    }
+
+    @Override
+    public void setAppPackageId(final String value) {
+        writable().setAppPackageId(value);
+    }
+
+    @Override
+    public String getAppVersion() {
+        return source.getAppVersion();
+    }
+
+    @Override
+    public void setAppVersion(final String value) {
+        writable().setAppVersion(value);
+    }
+
+    @Override
+    public String getAppTitle() {
+        return source.getAppTitle();
+    }
+
+    @Override
+    public void setAppTitle(final String value) {
+        writable().setAppTitle(value);
+    }
+
+    @Override
+    public String getAppInstallSource() {
+        return source.getAppInstallSource();
+    }
+
+    @Override
+    public void setAppInstallSource(final String value) {
+        writable().setAppInstallSource(value);
+    }
+
+    @Override
+    public String getPlatform() {
+        return source.getPlatform();
+    }
+
+    @Override
+    public void setPlatform(final String value) {
+        writable().setPlatform(value);
+    }
+
+    @Override
+    public String getProjectId() {
+        return source.getProjectId();
+    }
+
+    @Override
+    public void setProjectId(final String value) {
+        writable().setProjectId(value);
+    }
+
+    @Override
+    public String getAppId() {
+        return source.getAppId();
+    }
+
+    @Override
+    public void setAppId(final String value) {
+        writable().setAppId(value);
+    }
+
+    @Override
+    public String getScreenViewScreenName() {
+        return source.getScreenViewScreenName();
+    }
+
+    @Override
+    public void setScreenViewScreenName(final String value) {
+        writable().setScreenViewScreenName(value);
+    }
+
+    @Override
+    public String getScreenViewScreenId() {
+        return source.getScreenViewScreenId();
+    }
+
+    @Override
+    public void setScreenViewScreenId(final String value) {
+        writable().setScreenViewScreenId(value);
+    }
+
+    @Override
+    public String getScreenViewScreenUniqueId() {
+        return source.getScreenViewScreenUniqueId();
+    }
+
+    @Override
+    public void setScreenViewScreenUniqueId(final String value) {
+        writable().setScreenViewScreenUniqueId(value);
+    }
+
+    @Override
+    public String getScreenViewPreviousScreenName() {
+        return source.getScreenViewPreviousScreenName();
+    }
+
+    @Override
+    public void setScreenViewPreviousScreenName(final String value) {
+        writable().setScreenViewPreviousScreenName(value);
+    }
+
+    @Override
+    public String getScreenViewPreviousScreenId() {
+        return source.getScreenViewPreviousScreenId();
+    }
+
+    @Override
+    public void setScreenViewPreviousScreenId(final String value) {
+        writable().setScreenViewPreviousScreenId(value);
+    }
+
+    @Override
+    public String getScreenViewPreviousScreenUniqueId() {
+        return source.getScreenViewPreviousScreenUniqueId();
+    }
+
+    @Override
+    public void setScreenViewPreviousScreenUniqueId(final String value) {
+        writable().setScreenViewPreviousScreenUniqueId(value);
+    }
+
+    @Override
+    public Long getScreenViewPreviousTimeMsec() {
+        return source.getScreenViewPreviousTimeMsec();
+    }
+
+    @Override
+    public void setScreenViewPreviousTimeMsec(final Long value) {
+        writable().setScreenViewPreviousTimeMsec(value);
+    }
+
+    @Override
+    public Long getScreenViewEngagementTimeMsec() {
+        return source.getScreenViewEngagementTimeMsec();
+    }
+
+    @Override
+    public void setScreenViewEngagementTimeMsec(final Long value) {
+        writable().setScreenViewEngagementTimeMsec(value);
+    }
+
+    @Override
+    public Boolean getScreenViewEntrances() {
+        return source.getScreenViewEntrances();
+    }
+
+    @Override
+    public void setScreenViewEntrances(final Boolean value) {
+        writable().setScreenViewEntrances(value);
+    }
+
+    @Override
+    public String getPageViewPageReferrer() {
+        return source.getPageViewPageReferrer();
+    }
+
+    @Override
+    public void setPageViewPageReferrer(final String value) {
+        writable().setPageViewPageReferrer(value);
+    }
+
+    @Override
+    public String getPageViewPageReferrerTitle() {
+        return source.getPageViewPageReferrerTitle();
+    }
+
+    @Override
+    public void setPageViewPageReferrerTitle(final String value) {
+        writable().setPageViewPageReferrerTitle(value);
+    }
+
+    @Override
+    public Long getPageViewPreviousTimeMsec() {
+        return source.getPageViewPreviousTimeMsec();
+    }
+
+    @Override
+    public void setPageViewPreviousTimeMsec(final Long value) {
+        writable().setPageViewPreviousTimeMsec(value);
+    }
+
+    @Override
+    public Long getPageViewEngagementTimeMsec() {
+        return source.getPageViewEngagementTimeMsec();
+    }
+
+    @Override
+    public void setPageViewEngagementTimeMsec(final Long value) {
+        writable().setPageViewEngagementTimeMsec(value);
+    }
+
+    @Override
+    public String getPageViewPageTitle() {
+        return source.getPageViewPageTitle();
+    }
+
+    @Override
+    public void setPageViewPageTitle(final String value) {
+        writable().setPageViewPageTitle(value);
+    }
+
+    @Override
+    public String getPageViewPageUrl() {
+        return source.getPageViewPageUrl();
+    }
+
+    @Override
+    public void setPageViewPageUrl(final String value) {
+        writable().setPageViewPageUrl(value);
+    }
+
+    @Override
+    public String getPageViewPageUrlPath() {
+        return source.getPageViewPageUrlPath();
+    }
+
+    @Override
+    public void setPageViewPageUrlPath(final String value) {
+        writable().setPageViewPageUrlPath(value);
+    }
+
+    @Override
+    public Map<String, String> getPageViewPageUrlQueryParameters() {
+        return source.getPageViewPageUrlQueryParameters();
+    }
+
+    @Override
+    public void setPageViewPageUrlQueryParameters(final Map<String, String> value) {
+        writable().setPageViewPageUrlQueryParameters(value);
+    }
+
+    @Override
+    public String getPageViewHostname() {
+        return source.getPageViewHostname();
+    }
+
+    @Override
+    public void setPageViewHostname(final String value) {
+        writable().setPageViewHostname(value);
+    }
+
+    @Override
+    public String getPageViewLatestReferrer() {
+        return source.getPageViewLatestReferrer();
+    }
+
+    @Override
+    public void setPageViewLatestReferrer(final String value) {
+        writable().setPageViewLatestReferrer(value);
+    }
+
+    @Override
+    public String getPageViewLatestReferrerHost() {
+        return source.getPageViewLatestReferrerHost();
+    }
+
+    @Override
+    public void setPageViewLatestReferrerHost(final String value) {
+        writable().setPageViewLatestReferrerHost(value);
+    }
+
+    @Override
+    public Boolean getPageViewEntrances() {
+        return source.getPageViewEntrances();
+    }
+
+    @Override
+    public void setPageViewEntrances(final Boolean value) {
+        writable().setPageViewEntrances(value);
+    }
+
+    @Override
+    public Boolean getAppStartIsFirstTime() {
+        return source.getAppStartIsFirstTime();
+    }
+
+    @Override
+    public void setAppStartIsFirstTime(final Boolean value) {
+        writable().setAppStartIsFirstTime(value);
+    }
+
+    @Override
+    public String getUpgradePreviousAppVersion() {
+        return source.getUpgradePreviousAppVersion();
+    }
+
+    @Override
+    public void setUpgradePreviousAppVersion(final String value) {
+        writable().setUpgradePreviousAppVersion(value);
+    }
+
+    @Override
+    public String getUpgradePreviousOsVersion() {
+        return source.getUpgradePreviousOsVersion();
+    }
+
+    @Override
+    public void setUpgradePreviousOsVersion(final String value) {
+        writable().setUpgradePreviousOsVersion(value);
+    }
+
+    @Override
+    public String getSearchKey() {
+        return source.getSearchKey();
+    }
+
+    @Override
+    public void setSearchKey(final String value) {
+        writable().setSearchKey(value);
+    }
+
+    @Override
+    public String getSearchTerm() {
+        return source.getSearchTerm();
+    }
+
+    @Override
+    public void setSearchTerm(final String value) {
+        writable().setSearchTerm(value);
+    }
+
+    @Override
+    public String getOutboundLinkClasses() {
+        return source.getOutboundLinkClasses();
+    }
+
+    @Override
+    public void setOutboundLinkClasses(final String value) {
+        writable().setOutboundLinkClasses(value);
+    }
+
+    @Override
+    public String getOutboundLinkDomain() {
+        return source.getOutboundLinkDomain();
+    }
+
+    @Override
+    public void setOutboundLinkDomain(final String value) {
+        writable().setOutboundLinkDomain(value);
+    }
+
+    @Override
+    public String getOutboundLinkId() {
+        return source.getOutboundLinkId();
+    }
+
+    @Override
+    public void setOutboundLinkId(final String value) {
+        writable().setOutboundLinkId(value);
+    }
+
+    @Override
+    public String getOutboundLinkUrl() {
+        return source.getOutboundLinkUrl();
+    }
+
+    @Override
+    public void setOutboundLinkUrl(final String value) {
+        writable().setOutboundLinkUrl(value);
+    }
+
+    @Override
+    public Boolean getOutboundLink() {
+        return source.getOutboundLink();
+    }
+
+    @Override
+    public void setOutboundLink(final Boolean value) {
+        writable().setOutboundLink(value);
+    }
+
+    @Override
+    public Long getUserEngagementTimeMsec() {
+        return source.getUserEngagementTimeMsec();
+    }
+
+    @Override
+    public void setUserEngagementTimeMsec(final Long value) {
+        writable().setUserEngagementTimeMsec(value);
+    }
+
+    @Override
+    public String getUserId() {
+        return source.getUserId();
+    }
+
+    @Override
+    public void setUserId(final String value) {
+        writable().setUserId(value);
+    }
+
+    @Override
+    public String getUserPseudoId() {
+        return source.getUserPseudoId();
+    }
+
+    @Override
+    public void setUserPseudoId(final String value) {
+        writable().setUserPseudoId(value);
+    }
+
+    @Override
+    public String getSessionId() {
+        return source.getSessionId();
+    }
+
+    @Override
+    public void setSessionId(final String value) {
+        writable().setSessionId(value);
+    }
+
+    @Override
+    public Long getSessionStartTimeMsec() {
+        return source.getSessionStartTimeMsec();
+    }
+
+    @Override
+    public void setSessionStartTimeMsec(final Long value) {
+        writable().setSessionStartTimeMsec(value);
+    }
+
+    @Override
+    public Long getSessionDuration() {
+        return source.getSessionDuration();
+    }
+
+    @Override
+    public void setSessionDuration(final Long value) {
+        writable().setSessionDuration(value);
+    }
+
+    @Override
+    public Long getSessionNumber() {
+        return source.getSessionNumber();
+    }
+
+    @Override
+    public void setSessionNumber(final Long value) {
+        writable().setSessionNumber(value);
+    }
+
+    @Override
+    public Long getScrollEngagementTimeMsec() {
+        return source.getScrollEngagementTimeMsec();
+    }
+
+    @Override
+    public void setScrollEngagementTimeMsec(final Long value) {
+        writable().setScrollEngagementTimeMsec(value);
+    }
+
+    @Override
+    public String getSdkErrorCode() {
+        return source.getSdkErrorCode();
+    }
+
+    @Override
+    public void setSdkErrorCode(final String value) {
+        writable().setSdkErrorCode(value);
+    }
+
+    @Override
+    public String getSdkErrorMessage() {
+        return source.getSdkErrorMessage();
+    }
+
+    @Override
+    public void setSdkErrorMessage(final String value) {
+        writable().setSdkErrorMessage(value);
+    }
+
+    @Override
+    public String getSdkVersion() {
+        return source.getSdkVersion();
+    }
+
+    @Override
+    public void setSdkVersion(final String value) {
+        writable().setSdkVersion(value);
+    }
+
+    @Override
+    public String getSdkName() {
+        return source.getSdkName();
+    }
+
+    @Override
+    public void setSdkName(final String value) {
+        writable().setSdkName(value);
+    }
+
+    @Override
+    public String getAppExceptionMessage() {
+        return source.getAppExceptionMessage();
+    }
+
+    @Override
+    public void setAppExceptionMessage(final String value) {
+        writable().setAppExceptionMessage(value);
+    }
+
+    @Override
+    public String getAppExceptionStack() {
+        return source.getAppExceptionStack();
+    }
+
+    @Override
+    public void setAppExceptionStack(final String value) {
+        writable().setAppExceptionStack(value);
+    }
+
+    @Override
+    public Map<String, ClickstreamEventPropValue> getCustomParameters() {
+        return source.getCustomParameters();
+    }
+
+    @Override
+    public void setCustomParameters(final Map<String, ClickstreamEventPropValue> value) {
+        writable().setCustomParameters(value);
+    }
+
+    @Override
+    public Map<String, String> getProcessInfo() {
+        return source.getProcessInfo();
+    }
+
+    @Override
+    public void setProcessInfo(final Map<String, String> value) {
+        writable().setProcessInfo(value);
+    }
+
+    @Override
+    public String getUa() {
+        return source.getUa();
+    }
+
+    @Override
+    public void setUa(final String value) {
+        writable().setUa(value);
+    }
+
+    @Override
+    public String getIp() {
+        return source.getIp();
+    }
+
+    @Override
+    public void setIp(final String value) {
+        writable().setIp(value);
+    }
+}
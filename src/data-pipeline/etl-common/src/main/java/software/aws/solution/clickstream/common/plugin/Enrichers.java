@@ -0,0 +1,152 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream.common.plugin;
+
+import lombok.extern.slf4j.Slf4j;
+import software.aws.solution.clickstream.common.ExtraParams;
+import software.aws.solution.clickstream.common.ParseDataResult;
+import software.aws.solution.clickstream.common.TransformConfig;
+import software.aws.solution.clickstream.common.model.ClickstreamEvent;
+import software.aws.solution.clickstream.common.model.ClickstreamEventOverlay;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * The enrichers of a {@link TransformConfig}: every {@link EventEnricher} and {@link UserEnricher} registered for
+ * {@link ServiceLoader} plus the classes named in the config. A class implementing both interfaces gets one instance.
+ * Built once per {@link software.aws.solution.clickstream.common.EnrichmentContext} and shared by its parsers.
+ */
+@Slf4j
+public final class Enrichers {
+    private final List<EventEnricher> eventEnrichers;
+    private final List<UserEnricher> userEnrichers;
+
+    private Enrichers(final List<EventEnricher> eventEnrichers, final List<UserEnricher> userEnrichers) {
+        this.eventEnrichers = Collections.unmodifiableList(eventEnrichers);
+        this.userEnrichers = Collections.unmodifiableList(userEnrichers);
+    }
+
+    public static Enrichers load(final TransformConfig transformConfig) {
+        return load(transformConfig, defaultClassLoader());
+    }
+
+    public static Enrichers load(final TransformConfig transformConfig, final ClassLoader classLoader) {
+        Map<String, Object> instances = new LinkedHashMap<>();
+        for (EventEnricher enricher : ServiceLoader.load(EventEnricher.class, classLoader)) {
+            instances.putIfAbsent(enricher.getClass().getName(), enricher);
+        }
+        for (UserEnricher enricher : ServiceLoader.load(UserEnricher.class, classLoader)) {
+            instances.putIfAbsent(enricher.getClass().getName(), enricher);
+        }
+        if (transformConfig != null && transformConfig.getEnricherClassNames() != null) {
+            for (String className : transformConfig.getEnricherClassNames()) {
+                instances.computeIfAbsent(className, k -> newInstance(k, classLoader));
+            }
+        }
+
+        List<EventEnricher> eventEnrichers = new ArrayList<>();
+        List<UserEnricher> userEnrichers = new ArrayList<>();
+        for (Object instance : instances.values()) {
+            if (instance instanceof EventEnricher) {
+                ((EventEnricher) instance).config(transformConfig);
+                eventEnrichers.add((EventEnricher) instance);
+            } else {
+                ((UserEnricher) instance).config(transformConfig);
+            }
+            if (instance instanceof UserEnricher) {
+                userEnrichers.add((UserEnricher) instance);
+            }
+        }
+        if (!instances.isEmpty()) {
+            log.info("Loaded enrichers: {}", instances.keySet());
+        }
+        return new Enrichers(eventEnrichers, userEnrichers);
+    }
+
+    /**
+     * Whether the class is an {@link EventEnricher} or a {@link UserEnricher}, false if it cannot be loaded.
+     */
+    public static boolean isEnricherClass(final String className) {
+        try {
+            Class<?> clazz = Class.forName(className, false, defaultClassLoader());
+            return EventEnricher.class.isAssignableFrom(clazz) || UserEnricher.class.isAssignableFrom(clazz);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static ClassLoader defaultClassLoader() {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        return classLoader != null ? classLoader : Enrichers.class.getClassLoader();
+    }
+
+    private static Object newInstance(final String className, final ClassLoader classLoader) {
+        Class<?> clazz;
+        try {
+            clazz = Class.forName(className, true, classLoader);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Config Error::Enricher class not found: " + className, e);
+        }
+        if (!EventEnricher.class.isAssignableFrom(clazz) && !UserEnricher.class.isAssignableFrom(clazz)) {
+            throw new IllegalArgumentException("Config Error::Class is neither an EventEnricher nor a UserEnricher: " + className);
+        }
+        try {
+            return clazz.getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Config Error::Cannot create enricher: " + className, e);
+        }
+    }
+
+    public boolean isEmpty() {
+        return eventEnrichers.isEmpty() && userEnrichers.isEmpty();
+    }
+
+    public List<EventEnricher> getEventEnrichers() {
+        return eventEnrichers;
+    }
+
+    public List<UserEnricher> getUserEnrichers() {
+        return userEnrichers;
+    }
+
+    /**
+     * Run the enrichers on the events and the user of one parsed element. Synthetic events sharing the maps of
+     * their source event are detached first, so every event can be modified in place.
+     */
+    public void enrich(final ParseDataResult result, final ExtraParams extraParams) {
+        if (!eventEnrichers.isEmpty() && result.getClickstreamEventList() != null) {
+            // enrichers may modify the maps in place, detach the synthetic events before the source event is enriched
+            for (ClickstreamEvent event : result.getClickstreamEventList()) {
+                if (event instanceof ClickstreamEventOverlay) {
+                    ((ClickstreamEventOverlay) event).detach();
+                }
+            }
+            for (ClickstreamEvent event : result.getClickstreamEventList()) {
+                for (EventEnricher enricher : eventEnrichers) {
+                    enricher.enrich(event, extraParams);
+                }
+            }
+        }
+        if (result.getClickstreamUser() != null) {
+            for (UserEnricher enricher : userEnrichers) {
+                enricher.enrich(result.getClickstreamUser(), extraParams);
+            }
+        }
+    }
+}
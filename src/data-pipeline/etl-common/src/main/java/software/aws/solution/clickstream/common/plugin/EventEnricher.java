@@ -0,0 +1,37 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream.common.plugin;
+
+import software.aws.solution.clickstream.common.ExtraParams;
+import software.aws.solution.clickstream.common.TransformConfig;
+import software.aws.solution.clickstream.common.model.ClickstreamEvent;
+
+/**
+ * Enrich each event inside the parse loop, before its row is built.
+ * <p>
+ * Implementations are discovered with {@link java.util.ServiceLoader} or named in {@link TransformConfig#getEnricherClassNames()},
+ * they need a public no-arg constructor. One instance serves all tasks of an executor and must be thread safe.
+ * The event and its maps belong to the row being parsed, shared maps are detached before the enrichers run,
+ * so they can be modified in place or replaced through the setters.
+ */
+public interface EventEnricher {
+
+    /**
+     * Called once after the enricher is created.
+     */
+    default void config(final TransformConfig transformConfig) {
+    }
+
+    void enrich(ClickstreamEvent event, ExtraParams extraParams);
+}
@@ -0,0 +1,32 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream.common.plugin;
+
+import software.aws.solution.clickstream.common.ExtraParams;
+import software.aws.solution.clickstream.common.TransformConfig;
+import software.aws.solution.clickstream.common.model.ClickstreamUser;
+
+/**
+ * Enrich the user of each parsed element inside the parse loop, see {@link EventEnricher} for the contract.
+ */
+public interface UserEnricher {
+
+    /**
+     * Called once after the enricher is created.
+     */
+    default void config(final TransformConfig transformConfig) {
+    }
+
+    void enrich(ClickstreamUser user, ExtraParams extraParams);
+}
@@ -13,16 +13,23 @@
 
 package software.aws.solution.clickstream.common.sensors;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import lombok.extern.slf4j.Slf4j;
 import software.aws.solution.clickstream.common.BaseEventParser;
+import software.aws.solution.clickstream.common.EnrichmentContext;
 import software.aws.solution.clickstream.common.ExtraParams;
 import software.aws.solution.clickstream.common.ParseDataResult;
 import software.aws.solution.clickstream.common.TransformConfig;
 import software.aws.solution.clickstream.common.Util;
+import software.aws.solution.clickstream.common.codec.PayloadDecoder;
+import software.aws.solution.clickstream.common.json.FieldProjection;
+import software.aws.solution.clickstream.common.json.IngestReaders;
 import software.aws.solution.clickstream.common.model.ClickstreamEvent;
+import software.aws.solution.clickstream.common.model.ClickstreamEventOverlay;
 import software.aws.solution.clickstream.common.model.ClickstreamEventPropValue;
 import software.aws.solution.clickstream.common.model.ClickstreamItem;
 import software.aws.solution.clickstream.common.model.ClickstreamUser;
@@ -31,11 +38,10 @@ import software.aws.solution.clickstream.common.model.ValueType;
 import software.aws.solution.clickstream.common.sensors.event.Item;
 import software.aws.solution.clickstream.common.sensors.event.SensorsEvent;
 
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -46,7 +52,6 @@ import static software.aws.solution.clickstream.common.ClickstreamEventParser.EV
 import static software.aws.solution.clickstream.common.Util.convertStringObjectMapToStringEventPropMap;
 import static software.aws.solution.clickstream.common.Util.convertStringObjectMapToStringUserPropMap;
 import static software.aws.solution.clickstream.common.Util.deCodeUri;
-import static software.aws.solution.clickstream.common.Util.decompress;
 import static software.aws.solution.clickstream.common.Util.getStackTrace;
 import static software.aws.solution.clickstream.common.enrich.UAEnrichHelper.UA_STRING;
 
@@ -54,14 +59,18 @@ import static software.aws.solution.clickstream.common.enrich.UAEnrichHelper.UA_
 @Slf4j
 public final class SensorsEventParser extends BaseEventParser {
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final ObjectReader EVENT_READER = IngestReaders.readerFor(SensorsEvent.class);
+    // only the android and login ids of the identities are read, the other identities were bound and then dropped
+    private static final FieldProjection DEFAULT_PROJECTION = FieldProjection.skipping("items.$item_list_name")
+            .keepingOnly("identities", "$identity_android_id", "$identity_login_id");
     private static final Map<String, String> EVENT_NAME_MAP = createEventNameMap();
     private static final String GZIP_DATA_LIST = "data_list=";
     private static final String GZIP_DATA = "data=";
-    private static SensorsEventParser instance;
     private final TransformConfig transformConfig;
 
-    private SensorsEventParser(final TransformConfig transformConfig) {
-        this.transformConfig = transformConfig;
+    private SensorsEventParser(final EnrichmentContext enrichmentContext) {
+        super(enrichmentContext);
+        this.transformConfig = enrichmentContext.getTransformConfig();
     }
 
     public static SensorsEventParser getInstance() {
@@ -69,10 +78,7 @@ public final class SensorsEventParser extends BaseEventParser {
     }
 
     public static SensorsEventParser getInstance(final TransformConfig transformConfig) {
-        if (instance == null) {
-            instance = new SensorsEventParser(transformConfig);
-        }
-        return instance;
+        return EnrichmentContext.forConfig(transformConfig).getComponent(SensorsEventParser.class, SensorsEventParser::new);
     }
 
 
@@ -89,37 +95,30 @@ public final class SensorsEventParser extends BaseEventParser {
         return EVENT_NAME_MAP.getOrDefault(sensorsEvent.getEvent(), sensorsEvent.getEvent());
     }
 
-    private static String tryDecompress(final byte[] bytes) {
-        String rawStringData = null;
-        char firstC = (char) bytes[0];
-        char lastC = (char) bytes[bytes.length - 1];
-        if ((firstC == '[' && lastC == ']') || (firstC == '{' && lastC == '}')) {
-            rawStringData = new String(bytes, StandardCharsets.UTF_8);
-        } else {
-            rawStringData = decompress(bytes);
-        }
-        return rawStringData;
-    }
-
     public SensorsEvent ingestDataToEvent(final String inputJson) throws JsonProcessingException {
-        return getObjectMapper().readValue(inputJson, SensorsEvent.class);
+        return EVENT_READER.readValue(inputJson);
     }
 
     @Override
     public ParseDataResult parseData(final String dataString, final ExtraParams extraParams, final int index) throws JsonProcessingException {
-        ParseDataResult parseDataResult = new ParseDataResult();
-        List<ClickstreamEvent> clickstreamEventList = new ArrayList<>();
-        parseDataResult.setClickstreamEventList(clickstreamEventList);
-        parseDataResult.setClickstreamItemList(new ArrayList<>());
-
         log.debug("Parsing data: " + dataString);
         if (dataString == null || dataString.isEmpty()) {
             log.warn("Data field is empty, skipping the row");
-            return parseDataResult;
+            return newParseDataResult();
         }
-        SensorsEvent sensorsEvent = ingestDataToEvent(dataString);
-        if (sensorsEvent.getEvent() == null || sensorsEvent.getEvent().isEmpty()) {
-            log.warn("Event name is empty, skipping the row, dataString:" + dataString);
+        return parseEvent(ingestDataToEvent(dataString), extraParams, index);
+    }
+
+    @Override
+    protected ParseDataResult parseDataElement(final JsonParser jsonParser, final ExtraParams extraParams, final int index) throws IOException {
+        return parseEvent(EVENT_READER.readValue(jsonParser), extraParams, index);
+    }
+
+    private ParseDataResult parseEvent(final SensorsEvent sensorsEvent, final ExtraParams extraParams, final int index) throws JsonProcessingException {
+        ParseDataResult parseDataResult = newParseDataResult();
+        List<ClickstreamEvent> clickstreamEventList = parseDataResult.getClickstreamEventList();
+        if (sensorsEvent == null || sensorsEvent.getEvent() == null || sensorsEvent.getEvent().isEmpty()) {
+            log.warn("Event name is empty, skipping the row, rid: " + extraParams.getRid() + ", index: " + index);
             return parseDataResult;
         }
 
@@ -136,9 +135,7 @@ public final class SensorsEventParser extends BaseEventParser {
         log.info("isFirstVisit: " + isFirstVisit);
 
         if (isFirstVisit) {
-            ClickstreamEvent firstVisitEvent = ClickstreamEvent.deepCopy(clickstreamEvent);
-            firstVisitEvent.setEventName("_first_open");
-            firstVisitEvent.setEventId(eventId + "-first-open");
+            ClickstreamEvent firstVisitEvent = ClickstreamEventOverlay.of(clickstreamEvent, "_first_open", eventId + "-first-open");
             clickstreamEventList.add(firstVisitEvent);
         }
 
@@ -154,44 +151,72 @@ public final class SensorsEventParser extends BaseEventParser {
 
     @Override
     public JsonNode getData(final String ingestDataField) throws JsonProcessingException {
-        try {
-            String rawStringData = ingestDataField.trim();
-            if (!rawStringData.startsWith("[") && !rawStringData.startsWith("{")) {
-                String base64Data = getBase64Data(rawStringData);
-                byte[] bytes = Base64.getDecoder().decode(base64Data);
-                rawStringData = tryDecompress(bytes);
-            }
-            return OBJECT_MAPPER.readTree(rawStringData);
+        try (JsonParser jsonParser = createDataParser(ingestDataField)) {
+            return jsonParser == null ? null : OBJECT_MAPPER.readTree(jsonParser);
         } catch (Exception e) {
             log.error("Failed to parse data: " + ingestDataField + ", error:" + getStackTrace(e));
             return null;
         }
     }
 
+    /**
+     * Inline JSON is parsed as is, otherwise the {@code data_list=} / {@code data=} form value is unescaped,
+     * Base64 decoded and decompressed as a stream without copying it out of the ingest field.
+     * A form value that is not valid Base64 or gzip throws, so the row is counted as corrupt instead of empty.
+     */
+    @Override
+    protected JsonParser createDataParser(final String ingestDataField) throws IOException {
+        String rawStringData = ingestDataField.trim();
+        if (PayloadDecoder.isPlainJson(rawStringData)) {
+            return OBJECT_MAPPER.createParser(rawStringData);
+        }
+        int start = findFormValue(rawStringData);
+        if (start < 0) {
+            log.warn("No gzip data " + GZIP_DATA_LIST + " or " + GZIP_DATA + " found in the input data: " + rawStringData);
+            return null;
+        }
+        int end = rawStringData.indexOf('&', start);
+        return OBJECT_MAPPER.createParser(PayloadDecoder.getDefault().openFormValue(rawStringData, start, end < 0 ? rawStringData.length() : end));
+    }
+
     @Override
     protected TransformConfig getTransformConfig() {
         return this.transformConfig;
     }
 
+    @Override
+    protected FieldProjection getDefaultFieldProjection() {
+        return DEFAULT_PROJECTION;
+    }
+
     public String getBase64Data(final String data) {
-        String b64Data = null;
+        int start = findFormValue(data);
+        if (start < 0) {
+            log.warn("No gzip data " + GZIP_DATA_LIST + " or " + GZIP_DATA + " found in the input data: " + data);
+            return null;
+        }
+        int end = data.indexOf('&', start);
+        return Util.deCodeUri(data.substring(start, end < 0 ? data.length() : end));
+    }
 
-        for (String dataItem : data.split("&")) {
-            if (dataItem.startsWith(GZIP_DATA_LIST)) {
-                b64Data = Util.deCodeUri(dataItem.substring(GZIP_DATA_LIST.length()));
+    /**
+     * @return the index where the value of the first {@code data_list=} or {@code data=} form field starts, or -1
+     */
+    static int findFormValue(final String data) {
+        int fieldStart = 0;
+        while (true) {
+            if (data.startsWith(GZIP_DATA_LIST, fieldStart)) {
+                return fieldStart + GZIP_DATA_LIST.length();
             }
-            if (dataItem.startsWith(GZIP_DATA)) {
-                b64Data = Util.deCodeUri(dataItem.substring(GZIP_DATA.length()));
+            if (data.startsWith(GZIP_DATA, fieldStart)) {
+                return fieldStart + GZIP_DATA.length();
             }
-            if (b64Data != null) {
-                break;
+            int amp = data.indexOf('&', fieldStart);
+            if (amp < 0) {
+                return -1;
             }
+            fieldStart = amp + 1;
         }
-
-        if (b64Data == null) {
-            log.warn("No gzip data " + GZIP_DATA_LIST + " or " + GZIP_DATA + " found in the input data: " + data);
-        }
-        return b64Data;
     }
 
     private ClickstreamEvent getClickstreamEvent(final SensorsEvent sensorsEvent, final int index, final ExtraParams extraParams) throws JsonProcessingException {
@@ -17,8 +17,10 @@ package software.aws.solution.clickstream.common.sensors.event;
 import com.fasterxml.jackson.annotation.JsonAnyGetter;
 import com.fasterxml.jackson.annotation.JsonAnySetter;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.Getter;
 import lombok.Setter;
+import software.aws.solution.clickstream.common.json.RawJsonValueDeserializer;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -44,6 +46,7 @@ public class Item {
     private String itemListName;
 
     @JsonAnySetter
+    @JsonDeserialize(contentUsing = RawJsonValueDeserializer.class)
     public void setUnknownProperty(final String name, final Object value) {
         unknownProperties.put(name, value);
     }
@@ -18,8 +18,10 @@ package software.aws.solution.clickstream.common.sensors.event;
 import com.fasterxml.jackson.annotation.JsonAnyGetter;
 import com.fasterxml.jackson.annotation.JsonAnySetter;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.Getter;
 import lombok.Setter;
+import software.aws.solution.clickstream.common.json.RawJsonValueDeserializer;
 
 import java.util.HashMap;
 import java.util.List;
@@ -54,6 +56,7 @@ public class SensorsEvent {
     private List<Item> items;
 
     @JsonAnySetter
+    @JsonDeserialize(contentUsing = RawJsonValueDeserializer.class)
     public void setUnknownProperty(final String name, final Object value) {
         unknownProperties.put(name, value);
     }
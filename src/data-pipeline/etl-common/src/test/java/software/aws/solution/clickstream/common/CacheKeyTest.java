@@ -0,0 +1,72 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+
+package software.aws.solution.clickstream.common;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class CacheKeyTest {
+
+    @Test
+    public void test_equal_parts_give_equal_keys() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.CacheKeyTest.test_equal_parts_give_equal_keys
+        CacheKey key1 = CacheKey.of("https://example.com/a?utm_source=x", null, "");
+        CacheKey key2 = CacheKey.of(new String("https://example.com/a?utm_source=x"), null, "");
+        Assertions.assertEquals(key1, key2);
+        Assertions.assertEquals(key1.hashCode(), key2.hashCode());
+        Assertions.assertEquals(key1.getHigh(), key2.getHigh());
+        Assertions.assertEquals(key1.getLow(), key2.getLow());
+    }
+
+    @Test
+    public void test_part_boundaries_and_nulls_are_distinct() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.CacheKeyTest.test_part_boundaries_and_nulls_are_distinct
+        Set<CacheKey> keys = new HashSet<>();
+        keys.add(CacheKey.of("a|b", null));
+        keys.add(CacheKey.of("a", "b|"));
+        keys.add(CacheKey.of("a", "|b"));
+        keys.add(CacheKey.of("a|b", ""));
+        keys.add(CacheKey.of("a|b"));
+        keys.add(CacheKey.of(null, "a|b"));
+        keys.add(CacheKey.of("", "a|b"));
+        keys.add(CacheKey.of("abcd", "efgh"));
+        keys.add(CacheKey.of("abcdefgh"));
+        Assertions.assertEquals(9, keys.size());
+
+        Set<Long> highs = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            highs.add(CacheKey.of("ua-" + i, null).getHigh());
+        }
+        Assertions.assertEquals(100_000, highs.size());
+    }
+
+    @Test
+    public void test_hash_collision_is_verified_by_parts() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.CacheKeyTest.test_hash_collision_is_verified_by_parts
+        CacheKey key1 = new CacheKey(new String[]{"a"}, 1L, 2L);
+        CacheKey key2 = new CacheKey(new String[]{"b"}, 1L, 2L);
+        Assertions.assertEquals(key1.hashCode(), key2.hashCode());
+        Assertions.assertNotEquals(key1, key2);
+
+        Cache<String> cache = new Cache<>("cache_key_test", 1024 * 1024, Cache::stringWeight);
+        cache.put(key1, "v1");
+        Assertions.assertNull(cache.get(key2));
+        Assertions.assertEquals("v2", cache.get(key2, key -> "v2"));
+        Assertions.assertEquals("v1", cache.get(key1));
+    }
+}
@@ -16,6 +16,8 @@ package software.aws.solution.clickstream.common;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class CacheTest {
@@ -53,4 +55,48 @@ class CacheTest {
     void shouldReturnNullWhenKeyDoesNotExist() {
         assertNull(cache.get("nonexistentKey"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldComputeOnceAndCountHitsAndMisses() {
+        Cache<String> named = new Cache<>("cache_test_compute", 1024 * 1024, Cache::stringWeight);
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals("v1", named.get(CacheKey.of("a", null), key -> "v" + loads.incrementAndGet()));
+        assertEquals("v1", named.get(CacheKey.of("a", null), key -> "v" + loads.incrementAndGet()));
+        assertEquals(1, loads.get());
+
+        Cache.Stats stats = named.getStats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, Cache.getStats("cache_test_compute").getMissCount());
+        assertTrue(Cache.getNames().contains("cache_test_compute"));
+    }
+
+    @Test
+    void shouldEvictByWeight() {
+        long maxBytes = 64 * 1024;
+        Cache<String> named = new Cache<>("cache_test_weight", maxBytes, Cache::stringWeight);
+        String value = "x".repeat(1000);
+        for (int i = 0; i < 1000; i++) {
+            named.put("key" + i, value);
+        }
+        named.cleanUp();
+
+        Cache.Stats stats = named.getStats();
+        assertTrue(stats.getEvictionCount() > 0);
+        assertTrue(stats.getWeightedSize() <= maxBytes);
+        assertEquals(maxBytes, stats.getMaxBytes());
+    }
+
+    @Test
+    void shouldReadByteBudgetFromProperty() {
+        System.setProperty("clickstream.cache.cache_test_budget.max.bytes", "2048");
+        try {
+            assertEquals(2048, new Cache<String>("cache_test_budget", Cache::stringWeight).getMaxBytes());
+            assertEquals(Cache.DEFAULT_MAX_BYTES, Cache.maxBytesOf("cache_test_other"));
+            System.setProperty("clickstream.cache.cache_test_budget.max.bytes", "2k");
+            assertThrows(IllegalArgumentException.class, () -> Cache.maxBytesOf("cache_test_budget"));
+        } finally {
+            System.clearProperty("clickstream.cache.cache_test_budget.max.bytes");
+        }
+    }
+}
@@ -26,7 +26,9 @@ import software.aws.solution.clickstream.common.ingest.*;
 import software.aws.solution.clickstream.common.model.*;
 
 import java.io.*;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static software.aws.solution.clickstream.common.Util.objectToJsonString;
@@ -318,6 +320,88 @@ public class ClickstreamEventParserTest extends BaseTest {
         setEnableEventTimeShift(true);
     }
 
+    @Test
+    void test_parse_rows_batch() throws IOException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.ClickstreamEventParserTest.test_parse_rows_batch
+        setEnableEventTimeShift(false);
+        ClickstreamEventParser clickstreamEventParser = getClickstreamEventParser();
+        String projectId = "test_project_id";
+        String fileName = "batch.json";
+        String itemsLine = resourceFileContent("/original_data_with_items.json");
+        String pageUrlLine = resourceFileContent("/original_data_page_url.json");
+
+        List<ClickstreamIngestRow> ingestRows = new ArrayList<>();
+        ingestRows.add(clickstreamEventParser.ingestLineToRow(itemsLine));
+        ingestRows.add(clickstreamEventParser.ingestLineToRow("{\"data\":\"\"}"));
+        ingestRows.add(clickstreamEventParser.ingestLineToRow("{\"data\":\"not json, not base64 %%\"}"));
+        ingestRows.add(clickstreamEventParser.ingestLineToRow(pageUrlLine));
+
+        List<ClickstreamEvent> events = new ArrayList<>();
+        List<ClickstreamItem> items = new ArrayList<>();
+        List<ClickstreamUser> users = new ArrayList<>();
+        List<ClickstreamIngestRow> failed = new ArrayList<>();
+        ParseSink sink = new ParseSink() {
+            private final ParseSink delegate = ParseSink.of(events::add, items::add, users::add);
+
+            @Override
+            public void acceptElement(final ParseDataResult result) {
+                delegate.acceptElement(result);
+            }
+
+            @Override
+            public void acceptError(final ClickstreamIngestRow ingestRow, final Exception e) {
+                failed.add(ingestRow);
+            }
+        };
+        ParseBatchStats stats = clickstreamEventParser.parseRows(ingestRows, projectId, fileName, sink);
+
+        ParseRowResult expected = clickstreamEventParser.parseLineToDBRow(itemsLine, projectId, fileName);
+        ParseRowResult expected2 = clickstreamEventParser.parseLineToDBRow(pageUrlLine, projectId, fileName);
+        Assertions.assertEquals(4, stats.getRows());
+        Assertions.assertEquals(1, stats.getEmptyRows());
+        Assertions.assertEquals(1, stats.getFailedRows());
+        Assertions.assertEquals(1, failed.size());
+        Assertions.assertSame(ingestRows.get(2), failed.get(0));
+        Assertions.assertEquals(expected.getClickstreamEventList().size() + expected2.getClickstreamEventList().size(), stats.getEvents());
+        Assertions.assertEquals(stats.getEvents(), events.size());
+        Assertions.assertEquals(expected.getClickstreamItemList().size() + expected2.getClickstreamItemList().size(), stats.getItems());
+        Assertions.assertEquals(stats.getItems(), items.size());
+        Assertions.assertEquals(stats.getElements(), users.size());
+        Assertions.assertEquals(expected.getClickstreamItemList().get(0).toJson(), items.get(0).toJson());
+        Assertions.assertEquals(expected2.getClickstreamUserList().get(0).toJson(), users.get(users.size() - 1).toJson());
+
+        ParseRowResult failFast = new ParseRowResult();
+        Assertions.assertThrows(RuntimeException.class, () -> clickstreamEventParser.parseRows(ingestRows, projectId, fileName, failFast));
+        setEnableEventTimeShift(true);
+    }
+
+    @Test
+    void test_parse_failed_row_counts_no_elements() throws IOException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.ClickstreamEventParserTest.test_parse_failed_row_counts_no_elements
+        setEnableEventTimeShift(false);
+        ClickstreamEventParser clickstreamEventParser = getClickstreamEventParser();
+        ClickstreamIngestRow row = clickstreamEventParser.ingestLineToRow(resourceFileContent("/original_data_page_url.json"));
+        JsonNode data0 = clickstreamEventParser.getData(row.getData());
+        String element = (data0.isArray() ? data0.get(0) : data0).toString();
+        // the first element parses, the second one is cut off
+        String data = "[" + element + "," + element.substring(0, element.length() / 2);
+
+        List<ClickstreamEvent> events = new ArrayList<>();
+        ParseBatchStats stats = new ParseBatchStats();
+        ExtraParams extraParams = ExtraParams.builder().projectId("test_project_id").inputFileName("failed.json")
+                .ua(row.getUa()).ip(row.getIp()).rid(row.getRid()).uri(row.getUri()).appId(row.getAppId())
+                .ingestTimestamp(row.getIngestTime()).uploadTimestamp(row.getUploadTimestamp()).build();
+        Assertions.assertThrows(IOException.class, () -> clickstreamEventParser.parseDataElements(data, extraParams,
+                ParseSink.of(events::add, item -> { }, user -> { }), stats));
+
+        Assertions.assertFalse(events.isEmpty());
+        Assertions.assertEquals(1, stats.getRows());
+        Assertions.assertEquals(1, stats.getFailedRows());
+        Assertions.assertEquals(0, stats.getElements());
+        Assertions.assertEquals(0, stats.getEvents());
+        setEnableEventTimeShift(true);
+    }
+
     @Test
     void test_parse_empty_data() throws IOException {
         // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.ClickstreamEventParserTest.test_parse_empty_data
@@ -538,4 +622,43 @@ public class ClickstreamEventParserTest extends BaseTest {
         Assertions.assertEquals(1, rowResult.getClickstreamEventList().size());
         Assertions.assertEquals(1, rowResult.getClickstreamUserList().size());
     }
+
+    @Test
+    void test_parse_data_elements_same_as_parse_data() throws IOException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.ClickstreamEventParserTest.test_parse_data_elements_same_as_parse_data
+        setEnableEventTimeShift(false);
+        String dataString = resourceFileContent("/one_line.json");
+        ObjectMapper objectMapper = new ObjectMapper();
+        String data = objectMapper.readTree(dataString).get("data").asText();
+        ClickstreamEventParser clickstreamEventParser = getClickstreamEventParser();
+
+        ExtraParams params = ExtraParams.builder()
+                .appId("test")
+                .projectId("test_project_id")
+                .ingestTimestamp(1682319109447L)
+                .ua("test")
+                .ip("9.9.9.9")
+                .rid("test_rid")
+                .uri("test_uri")
+                .inputFileName("test_file")
+                .build();
+
+        List<ParseDataResult> streamResults = new ArrayList<>();
+        int count = clickstreamEventParser.parseDataElements(data, params, streamResults::add);
+
+        JsonNode ingestionData = clickstreamEventParser.getData(data);
+        Assertions.assertEquals(ingestionData.size(), count);
+        Assertions.assertEquals(count, streamResults.size());
+
+        int index = 0;
+        for (JsonNode element : ingestionData) {
+            ParseDataResult expected = clickstreamEventParser.parseData(element.toString(), params, index);
+            ParseDataResult actual = streamResults.get(index);
+            Assertions.assertEquals(prettyJson(expected.getClickstreamEventList().get(0).toJson()),
+                    prettyJson(actual.getClickstreamEventList().get(0).toJson()));
+            Assertions.assertEquals(prettyJson(expected.getClickstreamUser().toJson()),
+                    prettyJson(actual.getClickstreamUser().toJson()));
+            index++;
+        }
+    }
 }
@@ -0,0 +1,63 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream.common;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import software.aws.solution.clickstream.BaseTest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ColumnLimitsTest extends BaseTest {
+
+    @Test
+    void test_truncate_by_utf8_bytes() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.ColumnLimitsTest.test_truncate_by_utf8_bytes
+        String shortValue = "abc";
+        Assertions.assertSame(shortValue, ColumnLimits.truncate(shortValue, 32));
+        Assertions.assertNull(ColumnLimits.truncate(null, 32));
+        String exact = "a".repeat(32);
+        Assertions.assertSame(exact, ColumnLimits.truncate(exact, 32));
+        Assertions.assertEquals("a".repeat(32), ColumnLimits.truncate("a".repeat(40), 32));
+
+        // 3 bytes per char, the last char does not fit in 32 bytes
+        String chinese = "中".repeat(20);
+        Assertions.assertEquals("中".repeat(10), ColumnLimits.truncate(chinese, 32));
+        // 4 bytes per emoji, a surrogate pair is never split
+        String emoji = "a" + "😀".repeat(10);
+        String truncated = ColumnLimits.truncate(emoji, 32);
+        Assertions.assertEquals("a" + "😀".repeat(7), truncated);
+        Assertions.assertTrue(truncated.getBytes(StandardCharsets.UTF_8).length <= 32);
+    }
+
+    @Test
+    void test_limits_table_and_marker() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.ColumnLimitsTest.test_limits_table_and_marker
+        Assertions.assertEquals(ColumnLimits.MAX_STRING_VALUE_LEN_32, ColumnLimits.getEventLimits().get(Constant.EVENT_VALUE_CURRENCY));
+        Assertions.assertEquals(ColumnLimits.MAX_STRING_VALUE_LEN_255, ColumnLimits.getEventLimits().get(Constant.EVENT_ID));
+        Assertions.assertEquals(ColumnLimits.MAX_STRING_VALUE_LEN_2K, ColumnLimits.getEventLimits().get(Constant.PAGE_VIEW_PAGE_TITLE));
+        Assertions.assertEquals(ColumnLimits.MAX_STRING_VALUE_LEN_MAX, ColumnLimits.getEventLimits().get(Constant.CUSTOM_PARAMETERS_JSON_STR));
+        Assertions.assertEquals(ColumnLimits.MAX_STRING_VALUE_LEN_255, ColumnLimits.getItemLimits().get(Constant.CUSTOM_PARAMETERS_JSON_STR));
+        Assertions.assertEquals(ColumnLimits.MAX_STRING_VALUE_LEN_MAX, ColumnLimits.getUserLimits().get(Constant.USER_PROPERTIES_JSON_STR));
+
+        Map<String, String> processInfo = new HashMap<>();
+        processInfo.put("rid", "rid1");
+        Map<String, String> marked = ColumnLimits.markTruncated(processInfo, "event_id,ip");
+        Assertions.assertEquals("event_id,ip", marked.get(ColumnLimits.TRUNCATED_FIELDS));
+        Assertions.assertEquals("rid1", marked.get("rid"));
+        Assertions.assertFalse(processInfo.containsKey(ColumnLimits.TRUNCATED_FIELDS));
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+package software.aws.solution.clickstream.common;
+
+import org.junit.jupiter.api.Test;
+import software.aws.solution.clickstream.common.enrich.RuleBasedTrafficSourceHelper;
+import software.aws.solution.clickstream.common.enrich.ts.rule.ChannelListEvaluator;
+import software.aws.solution.clickstream.common.gtm.GTMEventParser;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EnrichmentContextTest {
+
+    private static TransformConfig createConfig(final String channelRuleJson) {
+        RuleConfig ruleConfig = new RuleConfig();
+        ruleConfig.setOptChannelRuleJson(channelRuleJson);
+        Map<String, RuleConfig> appRuleConfig = new HashMap<>();
+        appRuleConfig.put("app1", ruleConfig);
+        TransformConfig transformConfig = new TransformConfig();
+        transformConfig.setAppRuleConfig(appRuleConfig);
+        return transformConfig;
+    }
+
+    @Test
+    void test_context_keyed_by_config_fingerprint() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.EnrichmentContextTest.test_context_keyed_by_config_fingerprint
+        TransformConfig config1 = createConfig("[]");
+        TransformConfig config1Copy = createConfig("[]");
+        TransformConfig config2 = createConfig("[{}]");
+
+        assertEquals(config1.getFingerprint(), config1Copy.getFingerprint());
+        assertNotEquals(config1.getFingerprint(), config2.getFingerprint());
+
+        assertSame(ClickstreamEventParser.getInstance(config1), ClickstreamEventParser.getInstance(config1Copy));
+        assertNotSame(ClickstreamEventParser.getInstance(config1), ClickstreamEventParser.getInstance(config2));
+        assertSame(config2, ClickstreamEventParser.getInstance(config2).getTransformConfig());
+        assertSame(GTMEventParser.getInstance(), GTMEventParser.getInstance(null));
+
+        String fingerprint = config1.getFingerprint();
+        config1.setTrafficSourceEnrichmentDisabled(true);
+        assertNotEquals(fingerprint, config1.getFingerprint());
+    }
+
+    @Test
+    void test_concurrent_lookup_builds_once() throws Exception {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.EnrichmentContextTest.test_concurrent_lookup_builds_once
+        TransformConfig config = createConfig("[{\"id\":\"concurrent\"}]");
+        AtomicInteger builds = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Callable<Object>> tasks = IntStream.range(0, 64).<Callable<Object>>mapToObj(i -> () ->
+                    EnrichmentContext.forConfig(createConfig("[{\"id\":\"concurrent\"}]")).getComponent(StringBuilder.class, ctx -> {
+                        builds.incrementAndGet();
+                        return new StringBuilder(ctx.getFingerprint());
+                    })).collect(Collectors.toList());
+            List<Object> results = executor.invokeAll(tasks).stream().map(f -> {
+                try {
+                    return f.get();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }).collect(Collectors.toList());
+            assertEquals(1, builds.get());
+            assertTrue(results.stream().allMatch(r -> r == results.get(0)));
+            assertEquals(config.getFingerprint(), results.get(0).toString());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void test_close_releases_components() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.EnrichmentContextTest.test_close_releases_components
+        TransformConfig config = createConfig("[{\"id\":\"close\"}]");
+        EnrichmentContext context = EnrichmentContext.forConfig(config);
+        AtomicInteger closed = new AtomicInteger();
+        context.getComponent(AutoCloseable.class, ctx -> closed::incrementAndGet);
+        context.getCache("test").put("k", "v");
+
+        context.close();
+        assertTrue(context.isClosed());
+        assertEquals(1, closed.get());
+        EnrichmentContext rebuilt = EnrichmentContext.forConfig(config);
+        assertNotSame(context, rebuilt);
+        assertEquals(null, rebuilt.getCache("test").get("k"));
+        rebuilt.close();
+    }
+
+    @Test
+    void test_traffic_source_helpers_share_caches() throws Exception {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.EnrichmentContextTest.test_traffic_source_helpers_share_caches
+        RuleConfig ruleConfig1 = new RuleConfig();
+        ruleConfig1.setOptCategoryRuleJson(Util.readResourceFile("ts/traffic_source_category_rule_v0.json"));
+        ruleConfig1.setOptChannelRuleJson(Util.readResourceFile("ts/traffic_source_channel_rule_v0.json"));
+        RuleConfig ruleConfig2 = new RuleConfig();
+        ruleConfig2.setOptCategoryRuleJson(ruleConfig1.getOptCategoryRuleJson());
+        ruleConfig2.setOptChannelRuleJson("[{\"id\":\"rule#1\",\"channel\":\"Custom\","
+                + "\"condition\":{\"op::and\":[{\"field\":\"traffic_source_source\",\"op\":\"eq\",\"value\":\"google\"}]}}]");
+
+        EnrichmentContext context = EnrichmentContext.forConfig(createConfig("[{\"id\":\"shared_cache\"}]"));
+        RuleBasedTrafficSourceHelper helper1 = context.getTrafficSourceHelper("app1", ruleConfig1);
+        RuleBasedTrafficSourceHelper helper2 = context.getTrafficSourceHelper("app2", ruleConfig2);
+        assertNotSame(helper1, helper2);
+
+        String pageUrl = "https://www.example.com/?utm_source=google&utm_medium=cpc&utm_campaign=shared";
+        assertEquals("Paid Other", helper1.parse(pageUrl, null, null, null).getChannelGroup());
+        assertEquals("Custom", helper2.parse(pageUrl, null, null, null).getChannelGroup());
+        assertEquals("Paid Other", helper1.parse(pageUrl, null, null, null).getChannelGroup());
+
+        Cache<Object> pageCache = context.getCache(RuleBasedTrafficSourceHelper.PAGE_TRAFFIC_SOURCE_CACHE);
+        Cache<Object> channelCache = context.getCache(ChannelListEvaluator.CHANNEL_CACHE);
+        assertEquals(2, pageCache.getStats().getEstimatedSize());
+        assertEquals(2, channelCache.getStats().getEstimatedSize());
+        assertEquals(2, context.getCache(RuleBasedTrafficSourceHelper.TRAFFIC_SOURCE_CACHE).getStats().getEstimatedSize());
+    }
+}
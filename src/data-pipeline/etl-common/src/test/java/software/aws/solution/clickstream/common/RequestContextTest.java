@@ -0,0 +1,107 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+
+package software.aws.solution.clickstream.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import software.aws.solution.clickstream.BaseTest;
+import software.aws.solution.clickstream.common.model.ClickstreamEvent;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class RequestContextTest extends BaseTest {
+
+    @Test
+    void test_uri_values_computed_once() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.RequestContextTest.test_uri_values_computed_once
+        ExtraParams params = ExtraParams.builder()
+                .ingestTimestamp(1682319109447L)
+                .rid("test_rid")
+                .ip("9.9.9.9")
+                .inputFileName("test_file")
+                .uri("/collect?appId=uba-app&event_bundle_sequence_id=111&upload_timestamp=1682319109400")
+                .build();
+        RequestContext context = params.getRequestContext();
+
+        Assertions.assertSame(context, params.getRequestContext());
+        Assertions.assertSame(context.getUriParams(), context.getUriParams());
+        Assertions.assertEquals(111L, context.getEventBundleSequenceId());
+
+        Map<String, String> first = context.newProcessInfo();
+        Map<String, String> second = context.newProcessInfo();
+        Assertions.assertNotSame(first, second);
+        Assertions.assertEquals(first, second);
+        Assertions.assertEquals("test_rid", first.get("rid"));
+        Assertions.assertEquals("2023-04-24T06:51:49.447Z", first.get("ingest_time"));
+        Assertions.assertFalse(first.containsKey("upload_time"));
+
+        // the URI upload timestamp is only taken once the time shift needs it, and from then on shows in process_info
+        Assertions.assertNull(context.getUploadTimestamp());
+        Assertions.assertEquals(1682319109400L, context.resolveUploadTimestamp());
+        Assertions.assertEquals(1682319109400L, context.getUploadTimestamp());
+        Assertions.assertEquals("2023-04-24T06:51:49.400Z", context.newProcessInfo().get("upload_time"));
+        Assertions.assertNull(params.getUploadTimestamp());
+    }
+
+    @Test
+    void test_invalid_uri_values() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.RequestContextTest.test_invalid_uri_values
+        ExtraParams params = ExtraParams.builder()
+                .ingestTimestamp(1682319109447L)
+                .uploadTimestamp(1682319109000L)
+                .uri("/collect?event_bundle_sequence_id=abc&upload_timestamp=xyz")
+                .build();
+        RequestContext context = params.getRequestContext();
+
+        Assertions.assertNull(context.getEventBundleSequenceId());
+        Assertions.assertEquals(1682319109000L, context.resolveUploadTimestamp());
+        Assertions.assertNull(ExtraParams.builder().build().getRequestContext().getEventBundleSequenceId());
+        Assertions.assertTrue(ExtraParams.builder().build().getRequestContext().getUriParams().isEmpty());
+    }
+
+    @Test
+    void test_events_of_request_share_context() throws IOException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.RequestContextTest.test_events_of_request_share_context
+        String data = new ObjectMapper().readTree(resourceFileContent("/one_line.json")).get("data").asText();
+        ExtraParams params = ExtraParams.builder()
+                .appId("test")
+                .projectId("test_project_id")
+                .ingestTimestamp(1682319109447L)
+                .ua("test")
+                .ip("9.9.9.9")
+                .rid("test_rid")
+                .uri("/collect?event_bundle_sequence_id=111")
+                .inputFileName("test_file")
+                .build();
+
+        List<ClickstreamEvent> events = new ArrayList<>();
+        ClickstreamEventParser.getInstance(new TransformConfig()).parseDataElements(data, params, result -> events.addAll(result.getClickstreamEventList()));
+
+        Assertions.assertTrue(events.size() > 1);
+        for (int i = 0; i < events.size(); i++) {
+            ClickstreamEvent event = events.get(i);
+            Assertions.assertEquals(111L, event.getEventBundleSequenceId());
+            Assertions.assertEquals("test_rid", event.getProcessInfo().get("rid"));
+            if (i > 0) {
+                // every event gets its own process_info map
+                Assertions.assertNotSame(events.get(0).getProcessInfo(), event.getProcessInfo());
+            }
+        }
+    }
+}
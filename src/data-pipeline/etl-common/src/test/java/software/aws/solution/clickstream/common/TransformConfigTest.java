@@ -15,10 +15,16 @@ package software.aws.solution.clickstream.common;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.HashMap;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -57,4 +63,28 @@ public class TransformConfigTest {
         assertNull(transformConfig.getAppRuleConfig().get("nonExistentRule"));
         assertFalse(transformConfig.isTrafficSourceEnrichmentDisabled());
     }
+
+    @Test
+    public void shouldSerializeComputedFingerprint() throws IOException, ClassNotFoundException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.TransformConfigTest.shouldSerializeComputedFingerprint
+        TransformConfig transformConfig = new TransformConfig();
+        HashMap<String, RuleConfig> ruleConfigMap = new HashMap<>();
+        ruleConfigMap.put("app1", new RuleConfig());
+        transformConfig.setAppRuleConfig(ruleConfigMap);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(transformConfig);
+        }
+        TransformConfig copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (TransformConfig) in.readObject();
+        }
+
+        // the copy carries the fingerprint of the original instead of hashing its rules again
+        copy.getAppRuleConfig().put("app2", new RuleConfig());
+        assertEquals(transformConfig.getFingerprint(), copy.getFingerprint());
+        copy.setAppRuleConfig(copy.getAppRuleConfig());
+        assertNotEquals(transformConfig.getFingerprint(), copy.getFingerprint());
+    }
 }
@@ -0,0 +1,108 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+
+package software.aws.solution.clickstream.common;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import software.aws.solution.clickstream.BaseTest;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.List;
+
+public class UrlTokenizerTest extends BaseTest {
+
+    private static final List<String> PLAIN_URLS = Arrays.asList(
+            "https://www.example.com",
+            "https://www.example.com/",
+            "https://www.example.com:8443/a/b.html?utm_source=google&utm_medium=cpc#top",
+            "http://example.com.?",
+            "http://example.com?&",
+            "http://example.com?a=1&&b=&=c&d&a=2&",
+            "http://example.com/query?x=http://a.com/b?c=d;e=f",
+            "HTTP://Example.COM/Path/(1)/*!~'$,@:;",
+            "/collect?appId=uba-app&compression=gzip&event_bundle_sequence_id=111",
+            "?upload_timestamp=1682319109400",
+            "test_uri",
+            "",
+            "app-1.example.com/a/b/c#f?x=1",
+            "http://x1.y2-z.example/path?gclid=abc123&utm_id=7"
+    );
+
+    @Test
+    void test_same_as_uri() throws URISyntaxException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.UrlTokenizerTest.test_same_as_uri
+        for (String url : PLAIN_URLS) {
+            UrlTokenizer tokens = UrlTokenizer.tokenize(url);
+            Assertions.assertNotNull(tokens, url);
+            URI uri = new URI(url);
+            Assertions.assertEquals(uri.getScheme(), tokens.getScheme(), url);
+            Assertions.assertEquals(uri.getHost(), tokens.getHost(), url);
+            Assertions.assertEquals(uri.getPath(), tokens.getPath(), url);
+            Assertions.assertEquals(Util.deCodeUri(uri.getQuery()), tokens.getQuery(), url);
+            Assertions.assertEquals(Util.getUriParams(uri), tokens.getParameters(), url);
+        }
+    }
+
+    @Test
+    void test_get_parameter() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.UrlTokenizerTest.test_get_parameter
+        UrlTokenizer tokens = UrlTokenizer.tokenize("https://example.com/p?utm_source=google&utm_source=bing&utm=x&gclid&utm_medium=&_=1#utm_term=t");
+        Assertions.assertEquals("google", tokens.getParameter("utm_source"));
+        Assertions.assertEquals("x", tokens.getParameter("utm"));
+        Assertions.assertEquals("1", tokens.getParameter("_"));
+        Assertions.assertNull(tokens.getParameter("gclid"));
+        Assertions.assertNull(tokens.getParameter("utm_medium"));
+        Assertions.assertNull(tokens.getParameter("utm_term"));
+        Assertions.assertNull(tokens.getParameter("utm_s"));
+        Assertions.assertNull(UrlTokenizer.tokenize("https://example.com/p").getParameter("utm_source"));
+    }
+
+    @Test
+    void test_not_plain_urls() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.UrlTokenizerTest.test_not_plain_urls
+        List<String> urls = Arrays.asList(
+                null,
+                "https://example.com/a?q=a%20b",
+                "https://example.com/a?q=a+b",
+                "https://example.com/a b",
+                "https://example.com/#a#b",
+                "https://user@example.com/",
+                "https://192.168.0.1/",
+                "https://my_host.com/",
+                "https://example.com:/",
+                "https://example.com:123456/",
+                "https://-example.com/",
+                "https://example.123/",
+                "https://例子.com/",
+                "mailto:someone@example.com",
+                "//example.com/a",
+                "https://[::1]/"
+        );
+        for (String url : urls) {
+            Assertions.assertNull(UrlTokenizer.tokenize(url), url);
+        }
+    }
+
+    @Test
+    void test_parse_url_uses_tokenizer() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.UrlTokenizerTest.test_parse_url_uses_tokenizer
+        Assertions.assertEquals("www.example.com", Util.parseUrl("www.example.com/a?b=c").get().getHostName());
+        Assertions.assertEquals("/a", Util.parseUrl("www.example.com/a?b=c").get().getPath());
+        Assertions.assertEquals("c", Util.parseUrl("www.example.com/a?b=c").get().getQueryParameters().get("b").get(0));
+        Assertions.assertEquals("a b", Util.parseUrl("www.example.com/a?b=a%20b").get().getQueryParameters().get("b").get(0));
+    }
+}
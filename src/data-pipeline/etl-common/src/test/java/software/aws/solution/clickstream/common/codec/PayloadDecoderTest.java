@@ -0,0 +1,119 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+package software.aws.solution.clickstream.common.codec;
+
+import com.github.luben.zstd.Zstd;
+import org.junit.jupiter.api.Test;
+import software.aws.solution.clickstream.BaseTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PayloadDecoderTest extends BaseTest {
+    private static final String JSON = "[{\"event_type\":\"_page_view\",\n\"app_id\":\"app1\"},\n{\"event_type\":\"_click\"}]";
+
+    @Test
+    void test_decode_gzip_keeps_newlines() throws IOException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.codec.PayloadDecoderTest.test_decode_gzip_keeps_newlines
+        String base64 = Base64.getEncoder().encodeToString(gzip(JSON));
+        assertEquals(JSON, PayloadDecoder.getDefault().decodeBase64ToString(base64));
+        // inflater is returned to the pool and reused for the next row
+        assertEquals(JSON, PayloadDecoder.getDefault().decodeBase64ToString(base64));
+    }
+
+    @Test
+    void test_decode_concatenated_gzip_members() throws IOException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.codec.PayloadDecoderTest.test_decode_concatenated_gzip_members
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(gzip("[{\"a\":1},"));
+        out.write(gzip("{\"b\":2}]"));
+        assertEquals("[{\"a\":1},{\"b\":2}]", PayloadDecoder.getDefault().decodeToString(new ByteArrayInputStream(out.toByteArray())));
+    }
+
+    @Test
+    void test_decode_deflate_zstd_and_plain() throws IOException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.codec.PayloadDecoderTest.test_decode_deflate_zstd_and_plain
+        ByteArrayOutputStream deflated = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(deflated)) {
+            out.write(JSON.getBytes(StandardCharsets.UTF_8));
+        }
+        PayloadDecoder decoder = PayloadDecoder.getDefault();
+        assertEquals(JSON, decoder.decodeBase64ToString(Base64.getEncoder().encodeToString(deflated.toByteArray())));
+
+        byte[] zstd = Zstd.compress(JSON.getBytes(StandardCharsets.UTF_8));
+        assertEquals(JSON, decoder.decodeBase64ToString(Base64.getEncoder().encodeToString(zstd)));
+
+        assertEquals(JSON, decoder.decodeBase64ToString(Base64.getEncoder().encodeToString(JSON.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    void test_decode_unknown_and_corrupt_payload() throws IOException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.codec.PayloadDecoderTest.test_decode_unknown_and_corrupt_payload
+        PayloadDecoder decoder = PayloadDecoder.getDefault();
+        assertThrows(ZipException.class, () -> decoder.decodeToString(new ByteArrayInputStream("ab".getBytes(StandardCharsets.UTF_8))));
+
+        byte[] truncated = gzip(JSON);
+        String base64 = Base64.getEncoder().encodeToString(Arrays.copyOf(truncated, truncated.length - 4));
+        assertThrows(IOException.class, () -> decoder.decodeBase64ToString(base64));
+        // pool still hands out a working inflater after a failure
+        assertEquals(JSON, decoder.decodeBase64ToString(Base64.getEncoder().encodeToString(gzip(JSON))));
+    }
+
+    @Test
+    void test_is_plain_json() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.codec.PayloadDecoderTest.test_is_plain_json
+        assertTrue(PayloadDecoder.isPlainJson("[{}]"));
+        assertTrue(PayloadDecoder.isPlainJson("  \n{\"a\":1}"));
+        assertFalse(PayloadDecoder.isPlainJson("H4sIAAAAAAAA"));
+        assertFalse(PayloadDecoder.isPlainJson(""));
+    }
+
+    @Test
+    void test_open_form_value() throws IOException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.codec.PayloadDecoderTest.test_open_form_value
+        PayloadDecoder decoder = PayloadDecoder.getDefault();
+        String base64 = Base64.getEncoder().encodeToString(gzip(JSON));
+        String escaped = base64.replace("+", "%2B").replace("/", "%2F").replace("=", "%3D");
+        String form = "crc=123&data_list=" + escaped + "&gzip=1";
+        int start = form.indexOf("data_list=") + "data_list=".length();
+        int end = form.indexOf("&gzip");
+        assertEquals(JSON, new String(decoder.openFormValue(form, start, end).readAllBytes(), StandardCharsets.UTF_8));
+        // unescaped '+' in a Base64 value still means '+'
+        assertEquals(JSON, new String(decoder.openFormValue(base64, 0, base64.length()).readAllBytes(), StandardCharsets.UTF_8));
+
+        String json = "%5B%7B%22a%22%3A%22x+y%22%7D%5D";
+        assertEquals("[{\"a\":\"x y\"}]", new String(decoder.openFormValue(json, 0, json.length()).readAllBytes(), StandardCharsets.UTF_8));
+
+        assertThrows(IOException.class, () -> decoder.openFormValue("H4s%G", 0, 5).readAllBytes());
+    }
+
+    private static byte[] gzip(final String data) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bos)) {
+            out.write(data.getBytes(StandardCharsets.UTF_8));
+        }
+        return bos.toByteArray();
+    }
+}
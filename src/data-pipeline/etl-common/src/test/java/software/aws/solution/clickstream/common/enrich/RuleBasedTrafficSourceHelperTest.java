@@ -97,6 +97,22 @@ public class RuleBasedTrafficSourceHelperTest extends BaseTest {
 
     }
 
+    @Test
+    void testParseValuelessParameterOnUriFallback() {
+        //./gradlew clean test --info --tests software.aws.solution.clickstream.common.enrich.RuleBasedTrafficSourceHelperTest.testParseValuelessParameterOnUriFallback
+        RuleBasedTrafficSourceHelper parser = RuleBasedTrafficSourceHelper.getInstance("testApp", null);
+        // the escaped path is not tokenized, so the parameters come from java.net.URI
+        CategoryTrafficSource fallback = parser.parse("https://www.example.com/a%20b?utm_source=source&utm_medium&xclid",
+                null, null, null);
+        CategoryTrafficSource tokenized = parser.parse("https://www.example.com/ab?utm_source=source&utm_medium&xclid",
+                null, null, null);
+
+        Assertions.assertEquals("source", fallback.getSource());
+        Assertions.assertEquals(tokenized.getSource(), fallback.getSource());
+        Assertions.assertEquals(tokenized.getMedium(), fallback.getMedium());
+        Assertions.assertEquals(tokenized.getClid(), fallback.getClid());
+    }
+
     @Test
     void testParseWithoutProtocol() throws IOException {
         //./gradlew clean test --info --tests software.aws.solution.clickstream.common.enrich.RuleBasedTrafficSourceHelperTest.testParseWithoutProtocol
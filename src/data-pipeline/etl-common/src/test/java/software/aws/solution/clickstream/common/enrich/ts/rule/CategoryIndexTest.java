@@ -0,0 +1,96 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+
+package software.aws.solution.clickstream.common.enrich.ts.rule;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import software.aws.solution.clickstream.common.Util;
+import software.aws.solution.clickstream.common.enrich.UrlParseResult;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+public class CategoryIndexTest {
+
+    @Test
+    void shouldResolveSameRuleAsCandidateUrls() throws IOException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.enrich.ts.rule.CategoryIndexTest.shouldResolveSameRuleAsCandidateUrls
+        CategoryListEvaluator evaluator = CategoryListEvaluator.fromJsonFile("ts/traffic_source_category_rule_v0.json");
+
+        List<String> referrers = new ArrayList<>(Arrays.asList(
+                "https://www.google.com.hk/search?q=hello&query=world",
+                "https://www.google.co.uk/",
+                "https://mail.google.com/mail/u/0/",
+                "https://www.bing.com/images/search?q=a",
+                "https://search.yahoo.co.jp/search?p=a",
+                "android-app://com.google.android.googlequicksearchbox/https/www.google.com",
+                "www.baidu.com/s?wd=a",
+                "https://www.co.uk/",
+                "https://www./x",
+                "https://example.com",
+                "not a url"
+        ));
+        for (String url : evaluator.getCategoryMap().keySet()) {
+            referrers.add("https://" + url);
+            referrers.add("https://www." + url + "/search?q=a");
+            referrers.add("http://" + url + ".br/path");
+            referrers.add("https://m." + url);
+            referrers.add(url + "?q=x");
+        }
+
+        for (String referrer : referrers) {
+            UrlParseResult parsed = Util.parseUrl(referrer).orElseGet(UrlParseResult::new);
+            CategoryItem expected = null;
+            for (String candidateUrl : CategoryListEvaluator.getCandidateUrls(referrer, parsed.getHostName(), parsed.getPath())) {
+                expected = evaluator.getCategoryMap().get(candidateUrl);
+                if (expected != null) {
+                    break;
+                }
+            }
+            Assertions.assertSame(expected, evaluator.getCategoryIndex().lookup(referrer, parsed.getHostName(), parsed.getPath()), referrer);
+        }
+        Assertions.assertNull(evaluator.getCategoryIndex().lookup("https://", null, null));
+    }
+
+    @Test
+    void shouldMatchCountryCodeLikeRegex() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.enrich.ts.rule.CategoryIndexTest.shouldMatchCountryCodeLikeRegex
+        for (String host : new String[]{"google.co.uk", "www.google.com.br", ".co.uk", "co.uk", "google.com", "a.abcd.uk", "a.CO.uk", "a.co.u", "a.co.usa", "", "."}) {
+            int dot = CategoryIndex.countryCodeDot(host);
+            boolean matches = CategoryListEvaluator.HOST_NAME_AND_CONNTRY_PATTERN.matcher(host).matches();
+            Assertions.assertEquals(matches, dot >= 0, host);
+            if (matches) {
+                Assertions.assertEquals(host.substring(0, host.lastIndexOf('.')), host.substring(0, dot), host);
+            }
+        }
+    }
+
+    @Test
+    void shouldJoinSortedDistinctTerms() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.enrich.ts.rule.CategoryIndexTest.shouldJoinSortedDistinctTerms
+        CategoryItem item = new CategoryItem();
+        item.setUrl("search.example.com");
+        item.setParams(Arrays.asList("q", "query", "q"));
+        CategoryIndex index = CategoryIndex.build(Collections.singletonList(item));
+
+        Assertions.assertNull(index.terms(item, new HashMap<>()));
+        Assertions.assertEquals("a", index.terms(item, Util.parseUrl("https://search.example.com/?q=a&query=a").get().getQueryParameters()));
+        Assertions.assertEquals("a,b,c", index.terms(item, Util.parseUrl("https://search.example.com/?query=c&q=b&q=a&q=c").get().getQueryParameters()));
+    }
+}
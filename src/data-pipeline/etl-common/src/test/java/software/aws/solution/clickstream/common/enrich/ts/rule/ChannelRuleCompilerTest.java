@@ -0,0 +1,117 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+
+package software.aws.solution.clickstream.common.enrich.ts.rule;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.PatternSyntaxException;
+
+public class ChannelRuleCompilerTest {
+
+    private static ChannelRule rule(final String json) throws JsonProcessingException {
+        return new ObjectMapper().readValue(json, ChannelRule.class);
+    }
+
+    @Test
+    void shouldEvaluateCompiledOperators() throws JsonProcessingException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.enrich.ts.rule.ChannelRuleCompilerTest.shouldEvaluateCompiledOperators
+        ChannelRule rule = rule("{\"channel\": \"Paid Search\", \"condition\": {\"op::and\": ["
+                + "{\"field\": \"traffic_source_category\", \"op\": \"in\", \"values\": [\"Search\", \"Shopping\"]},"
+                + "{\"op::or\": [{\"field\": \"traffic_source_medium\", \"op\": \"match\", \"value\": \"^(.*cp.*|ppc|PAID.*)$\"},"
+                + "{\"field\": \"traffic_source_clid\", \"op\": \"not_eq\", \"value\": \"__empty__\"}]}]}}");
+        ChannelRuleCompiler.ChannelPredicate predicate = ChannelRuleCompiler.compile(rule);
+
+        ChannelRuleEvaluatorInput input = new ChannelRuleEvaluatorInput();
+        input.setTrafficSourceCategory("SEARCH");
+        input.setTrafficSourceMedium("Paid_Search");
+        Assertions.assertTrue(predicate.test(input));
+
+        input.setTrafficSourceMedium("organic");
+        Assertions.assertFalse(predicate.test(input));
+
+        input.setTrafficSourceClid("abc");
+        Assertions.assertTrue(predicate.test(input));
+
+        input.setTrafficSourceCategory(null);
+        Assertions.assertFalse(predicate.test(input));
+    }
+
+    @Test
+    void shouldHandleNullActualValue() throws JsonProcessingException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.enrich.ts.rule.ChannelRuleCompilerTest.shouldHandleNullActualValue
+        ChannelRuleEvaluatorInput input = new ChannelRuleEvaluatorInput();
+        Assertions.assertTrue(ChannelRuleCompiler.compile(rule("{\"channel\": \"c\", \"condition\": {\"op::and\": ["
+                + "{\"field\": \"traffic_source_source\", \"op\": \"not_in\", \"values\": [\"a\"]},"
+                + "{\"field\": \"traffic_source_source\", \"op\": \"eq\", \"value\": \"__empty__\"},"
+                + "{\"field\": \"traffic_source_source\", \"op\": \"not_contain\", \"value\": \"a\"}]}}")).test(input));
+        Assertions.assertFalse(ChannelRuleCompiler.compile(rule("{\"channel\": \"c\", \"condition\": {\"op::or\": ["
+                + "{\"field\": \"traffic_source_source\", \"op\": \"in\", \"values\": [\"a\"]},"
+                + "{\"field\": \"traffic_source_source\", \"op\": \"start_with\", \"value\": \"a\"}]}}")).test(input));
+    }
+
+    @Test
+    void shouldDeferInvalidRuleErrorToEvaluation() throws JsonProcessingException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.enrich.ts.rule.ChannelRuleCompilerTest.shouldDeferInvalidRuleErrorToEvaluation
+        ChannelRule unknownField = rule("{\"channel\": \"c\", \"condition\": {\"op::and\": [{\"field\": \"unknown\", \"op\": \"eq\", \"value\": \"a\"}]}}");
+        IllegalArgumentException e = Assertions.assertThrows(IllegalArgumentException.class, () -> ChannelRuleCompiler.compile(unknownField));
+        Assertions.assertTrue(e.getMessage().startsWith("Config Error::Channel rule condition item field has unknown field: unknown"));
+
+        ChannelRule badRegex = rule("{\"channel\": \"c\", \"condition\": {\"op::and\": [{\"field\": \"traffic_source_source\", \"op\": \"match\", \"value\": \"(\"}]}}");
+        Assertions.assertThrows(PatternSyntaxException.class, () -> ChannelRuleCompiler.compile(badRegex));
+
+        ChannelRuleCompiler.ChannelPredicate lenient = ChannelRuleCompiler.compileLenient(unknownField);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> lenient.test(new ChannelRuleEvaluatorInput()));
+
+        String rules = "[{\"channel\": \"Direct\", \"condition\": {\"op::and\": [{\"field\": \"traffic_source_source\", \"op\": \"eq\", \"value\": \"direct\"}]}},"
+                + "{\"channel\": \"c\", \"condition\": {\"op::and\": [{\"field\": \"unknown\", \"op\": \"eq\", \"value\": \"a\"}]}}]";
+        ChannelListEvaluator channelListEvaluator = ChannelListEvaluator.fromJson(rules);
+        ChannelRuleEvaluatorInput input = new ChannelRuleEvaluatorInput();
+        input.setTrafficSourceSource("Direct");
+        Assertions.assertEquals("Direct", channelListEvaluator.evaluate(input));
+        input.setTrafficSourceSource("google");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> channelListEvaluator.evaluate(input));
+    }
+
+    @Test
+    void shouldDeferInvalidConditionItemErrorToEvaluation() throws JsonProcessingException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.enrich.ts.rule.ChannelRuleCompilerTest.shouldDeferInvalidConditionItemErrorToEvaluation
+        String rules = "[{\"channel\": \"Direct\", \"condition\": {\"op::or\": ["
+                + "{\"field\": \"traffic_source_source\", \"op\": \"eq\", \"value\": \"direct\"},"
+                + "{\"field\": \"unknown\", \"op\": \"eq\", \"value\": \"a\"}]}},"
+                + "{\"channel\": \"Organic\", \"condition\": {\"op::and\": ["
+                + "{\"field\": \"traffic_source_medium\", \"op\": \"eq\", \"value\": \"organic\"},"
+                + "{\"op::or\": [{\"field\": \"traffic_source_source\", \"op\": \"eq\", \"value\": \"google\"},"
+                + "{\"field\": \"traffic_source_source\", \"op\": \"match\", \"value\": \"(\"}]}]}}]";
+        ChannelListEvaluator channelListEvaluator = ChannelListEvaluator.fromJson(rules);
+        ChannelRuleEvaluatorInput input = new ChannelRuleEvaluatorInput();
+        input.setTrafficSourceSource("Direct");
+        Assertions.assertEquals("Direct", channelListEvaluator.evaluate(input));
+
+        input.setTrafficSourceSource("google");
+        input.setTrafficSourceMedium("organic");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> channelListEvaluator.evaluate(input));
+
+        ChannelRuleCompiler.ChannelPredicate nested = ChannelRuleCompiler.compileLenient(rule("{\"channel\": \"Organic\", \"condition\": {\"op::and\": ["
+                + "{\"field\": \"traffic_source_medium\", \"op\": \"eq\", \"value\": \"organic\"},"
+                + "{\"op::or\": [{\"field\": \"traffic_source_source\", \"op\": \"eq\", \"value\": \"google\"},"
+                + "{\"field\": \"traffic_source_source\", \"op\": \"match\", \"value\": \"(\"}]}]}}"));
+        Assertions.assertTrue(nested.test(input));
+        input.setTrafficSourceMedium("cpc");
+        Assertions.assertFalse(nested.test(input));
+    }
+}
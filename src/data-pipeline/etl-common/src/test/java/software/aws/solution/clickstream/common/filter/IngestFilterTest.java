@@ -0,0 +1,81 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream.common.filter;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class IngestFilterTest {
+
+    @Test
+    void test_default_bot_user_agents() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.filter.IngestFilterTest.test_default_bot_user_agents
+        BotUserAgentMatcher matcher = BotUserAgentMatcher.getDefault();
+        Assertions.assertSame(matcher, BotUserAgentMatcher.getDefault());
+        for (String ua : new String[]{
+                "Mozilla/5.0 (compatible; Googlebot/2.1; +http://www.google.com/bot.html)",
+                "Mozilla/5.0 (compatible; bingbot/2.0; +http://www.bing.com/bingbot.htm)",
+                "Mozilla/5.0 (compatible; Baiduspider/2.0; +http://www.baidu.com/search/spider.html)",
+                "Mozilla/5.0 (compatible; Yahoo! Slurp; http://help.yahoo.com/help/us/ysearch/slurp)",
+                "facebookexternalhit/1.1 (+http://www.facebook.com/externalhit_uatext.php)",
+                "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) HeadlessChrome/120.0.0.0 Safari/537.36",
+                "Mozilla/5.0 (Linux; Android 7.0;) AppleWebKit/537.36 (KHTML, like Gecko) Mobile Safari/537.36 (compatible; PetalBot;+https://webmaster.petalsearch.com/site/petalbot)",
+        }) {
+            Assertions.assertTrue(matcher.matches(ua), ua);
+        }
+        for (String ua : new String[]{
+                "Mozilla/5.0 (iPhone; CPU iPhone OS 17_1 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.1 Mobile/15E148 Safari/604.1",
+                "Mozilla/5.0 (Linux; Android 10; CUBOT X30) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Mobile Safari/537.36",
+                "Apache-HttpClient/4.5.12 (Java/11.0.15)",
+                "Mozilla/5.0 (Windows NT 10.0; Win64; x64) 中文 Chrome/120.0.0.0",
+                "",
+        }) {
+            Assertions.assertFalse(matcher.matches(ua), ua);
+        }
+        Assertions.assertFalse(matcher.matches(null));
+    }
+
+    @Test
+    void test_overlapping_patterns() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.filter.IngestFilterTest.test_overlapping_patterns
+        BotUserAgentMatcher matcher = BotUserAgentMatcher.compile(List.of("he", "she", "his", "hers"));
+        Assertions.assertTrue(matcher.matches("uSHErs"));
+        Assertions.assertTrue(matcher.matches("ahishers"));
+        Assertions.assertTrue(matcher.matches("sHi his"));
+        Assertions.assertFalse(matcher.matches("shi s-h-e"));
+        Assertions.assertFalse(matcher.matches("h中e"));
+
+        IllegalArgumentException e = Assertions.assertThrows(IllegalArgumentException.class, () -> BotUserAgentMatcher.compile(List.of("机器人")));
+        Assertions.assertTrue(e.getMessage().startsWith("Config Error::"));
+    }
+
+    @Test
+    void test_ingest_filter_reasons() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.filter.IngestFilterTest.test_ingest_filter_reasons
+        String crawler = "Mozilla/5.0 (compatible; Googlebot/2.1; +http://www.google.com/bot.html)";
+        IngestFilter filter = new IngestFilter(List.of("app1"), 1000L, true);
+        Assertions.assertNull(filter.check("Mozilla/5.0", "app1", 1000L));
+        Assertions.assertNull(filter.check(null, "app1", null));
+        Assertions.assertEquals(IngestFilter.Reason.APP_ID, filter.check(crawler, "app2", 1L));
+        Assertions.assertEquals(IngestFilter.Reason.APP_ID, filter.check(null, "", 1000L));
+        Assertions.assertEquals(IngestFilter.Reason.STALE_INGEST_TIME, filter.check(crawler, "app1", 999L));
+        Assertions.assertEquals(IngestFilter.Reason.BOT_USER_AGENT, filter.check(crawler, "app1", 1000L));
+
+        IngestFilter noChecks = new IngestFilter(null, null, false);
+        Assertions.assertNull(noChecks.check(crawler, "any", 1L));
+        Assertions.assertEquals(IngestFilter.Reason.APP_ID, noChecks.check(crawler, null, 1L));
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream.common.gtm;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import software.aws.solution.clickstream.BaseTest;
+import software.aws.solution.clickstream.common.Util;
+import software.aws.solution.clickstream.common.gtm.event.GTMEvent;
+import software.aws.solution.clickstream.common.gtm.event.Item;
+import software.aws.solution.clickstream.common.ingest.ClickstreamIngestRow;
+import software.aws.solution.clickstream.common.model.ClickstreamItem;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static software.aws.solution.clickstream.common.Util.objectToJsonString;
+
+public class GTMEventReaderTest extends BaseTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    void test_stream_same_as_bound_event() throws IOException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.gtm.GTMEventReaderTest.test_stream_same_as_bound_event
+        GTMEventParser parser = GTMEventParser.getInstance();
+        List<String> dataList = new ArrayList<>();
+        for (String file : new String[]{"/gtm-server/server-single.json", "/gtm-server/server-items.json",
+                "/gtm-server/server-session-start.json", "/gtm-server/server-user-props.json"}) {
+            for (String line : resourceFileContent(file).split("\n")) {
+                if (!line.trim().isEmpty()) {
+                    ClickstreamIngestRow row = parser.ingestLineToRow(line);
+                    JsonNode data = MAPPER.readTree(row.getData());
+                    if (data.isArray()) {
+                        data.forEach(element -> dataList.add(element.toString()));
+                    } else {
+                        dataList.add(row.getData());
+                    }
+                }
+            }
+        }
+        dataList.add("{\"event_name\":\"add_to_cart\",\"ga_session_number\":\"3\",\"value\":\"12.5\",\"engagement_time_msec\":12,"
+                + "\"nested\":{\"a\":[1,2.50,{\"b\":null}]},\"flag\":true,\"n\":null,\"big\":12345678901234567890,"
+                + "\"items\":[{\"item_id\":\"i1\",\"price\":\"3\",\"color\":\"red\",\"size\":{\"w\":1}},{\"item_name\":\"no id\"},"
+                + "{\"item_id\":\"i2\",\"item_name\":\"two\",\"quantity\":2}],"
+                + "\"client_hints\":{\"platform\":\"Mac OS\",\"mobile\":false},\"x-ga-system_properties\":{\"fv\":\"1\",\"ss\":\"1\"}}");
+
+        for (String data : dataList) {
+            assertSameAsBound(parser, data);
+        }
+    }
+
+    @Test
+    void test_stream_null_event() throws IOException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.gtm.GTMEventReaderTest.test_stream_null_event
+        try (JsonParser jsonParser = MAPPER.createParser("null")) {
+            jsonParser.nextToken();
+            assertNull(GTMEventReader.read(jsonParser));
+        }
+    }
+
+    @Test
+    void test_remove_non_word_chars() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.gtm.GTMEventReaderTest.test_remove_non_word_chars
+        String plain = "macOS_14";
+        assertSame(plain, GTMEventParser.removeNonWordChars(plain));
+        for (String value : new String[]{"", "\"macOS\"", "Chrome OS", "-a-b-", "é中文x", "Windows 11 (x64)", "___"}) {
+            assertEquals(value.replaceAll("\\W", ""), GTMEventParser.removeNonWordChars(value));
+        }
+    }
+
+    private static void assertSameAsBound(final GTMEventParser parser, final String data) throws IOException {
+        GTMEvent bound = parser.ingestDataToEvent(data);
+        GTMEventReader streamed;
+        try (JsonParser jsonParser = parser.getFieldProjection().apply(MAPPER.createParser(data))) {
+            jsonParser.nextToken();
+            streamed = GTMEventReader.read(jsonParser);
+        }
+
+        assertEquals(objectToJsonString(new TreeMap<>(Util.convertStringObjectMapToStringEventPropMap(bound.getUnknownProperties()))),
+                objectToJsonString(new TreeMap<>(streamed.getCustomParameters())));
+
+        List<ClickstreamItem> expectedItems = new ArrayList<>();
+        if (bound.getItems() != null) {
+            for (Item item : bound.getItems()) {
+                if (item.getItemId() == null || item.getItemId().isEmpty()) {
+                    continue;
+                }
+                ClickstreamItem expected = new ClickstreamItem();
+                expected.setItemId(item.getItemId());
+                expected.setName(item.getItemName());
+                expected.setPrice(item.getPrice());
+                if (!item.getUnknownProperties().isEmpty()) {
+                    expected.setCustomParameters(Util.convertStringObjectMapToStringEventPropMap(item.getUnknownProperties()));
+                }
+                expectedItems.add(expected);
+            }
+        }
+        assertEquals(expectedItems.size(), streamed.getItems().size());
+        for (int i = 0; i < expectedItems.size(); i++) {
+            assertEquals(expectedItems.get(i).toJson(), streamed.getItems().get(i).toJson());
+        }
+
+        bound.setItems(null);
+        bound.getUnknownProperties().clear();
+        assertEquals(objectToJsonString(bound), objectToJsonString(streamed.getEvent()));
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+package software.aws.solution.clickstream.common.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.junit.jupiter.api.Test;
+import software.aws.solution.clickstream.BaseTest;
+import software.aws.solution.clickstream.common.ingest.Event;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IngestReadersTest extends BaseTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    void test_blackbird_reader_same_as_reflection() throws IOException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.json.IngestReadersTest.test_blackbird_reader_same_as_reflection
+        String json = resourceFileAsString("/event_deser_input.json");
+        assertSame(IngestReaders.readerFor(Event.class), IngestReaders.readerFor(Event.class));
+
+        ObjectReader blackbirdReader = IngestReaders.createMapper(true).readerFor(Event.class);
+        assertTrue(IngestReaders.createMapper(true).getRegisteredModuleIds().stream()
+                .anyMatch(id -> id.toString().contains("Blackbird")));
+
+        Event expected = MAPPER.readValue(json, Event.class);
+        Event actual = blackbirdReader.readValue(json);
+        assertEquals(MAPPER.writeValueAsString(expected), MAPPER.writeValueAsString(actual));
+        assertEquals(MAPPER.writeValueAsString(expected), MAPPER.writeValueAsString(IngestReaders.readerFor(Event.class).readValue(json)));
+    }
+
+    @Test
+    void test_projection_skips_fields() throws IOException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.json.IngestReadersTest.test_projection_skips_fields
+        String json = "[{\"a\":1,\"skip\":{\"x\":[1,2]},\"attributes\":{\"drop\":\"v\",\"keep\":\"k\"},"
+                + "\"only\":{\"drop\":1},\"items\":[{\"id\":\"i1\",\"drop\":2},{\"drop\":3}]},{\"a\":2}]";
+        FieldProjection projection = FieldProjection.skipping("skip", "attributes.drop", "only.drop", "items.drop");
+        try (JsonParser parser = projection.apply(MAPPER.createParser(json))) {
+            JsonNode node = MAPPER.readTree(parser);
+            assertEquals(2, node.size());
+            JsonNode first = node.get(0);
+            assertEquals(1, first.get("a").asInt());
+            assertNull(first.get("skip"));
+            assertFalse(first.get("attributes").has("drop"));
+            assertEquals("k", first.get("attributes").get("keep").asText());
+            assertNotNull(first.get("only"));
+            assertEquals(0, first.get("only").size());
+            assertEquals("{\"id\":\"i1\"}", first.get("items").get(0).toString());
+            assertEquals("{}", first.get("items").get(1).toString());
+            assertEquals(2, node.get(1).get("a").asInt());
+        }
+        try (JsonParser parser = FieldProjection.NONE.apply(MAPPER.createParser(json))) {
+            assertEquals(MAPPER.readTree(json), MAPPER.readTree(parser));
+        }
+    }
+
+    @Test
+    void test_projection_keeps_only_fields() throws IOException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.json.IngestReadersTest.test_projection_keeps_only_fields
+        String json = "{\"identities\":{\"$id_a\":\"a\",\"$id_b\":{\"x\":[1]},\"$id_c\":\"c\"},\"other\":{\"$id_b\":\"b\"},"
+                + "\"items\":[{\"id\":\"i1\",\"drop\":1}]}";
+        FieldProjection projection = FieldProjection.skipping("items.drop").keepingOnly("identities", "$id_a", "$id_c");
+        try (JsonParser parser = projection.apply(MAPPER.createParser(json))) {
+            JsonNode node = MAPPER.readTree(parser);
+            assertEquals("{\"$id_a\":\"a\",\"$id_c\":\"c\"}", node.get("identities").toString());
+            assertEquals("{\"$id_b\":\"b\"}", node.get("other").toString());
+            assertEquals("[{\"id\":\"i1\"}]", node.get("items").toString());
+        }
+        assertEquals(1, projection.getKeptFields().size());
+        assertEquals(1, projection.getSkippedPaths().size());
+    }
+}
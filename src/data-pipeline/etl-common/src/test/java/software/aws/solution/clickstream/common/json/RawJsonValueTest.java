@@ -0,0 +1,75 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream.common.json;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import software.aws.solution.clickstream.BaseTest;
+import software.aws.solution.clickstream.common.Util;
+import software.aws.solution.clickstream.common.ingest.Event;
+import software.aws.solution.clickstream.common.model.ClickstreamEventPropValue;
+import software.aws.solution.clickstream.common.model.ClickstreamUserPropValue;
+import software.aws.solution.clickstream.common.model.ValueType;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class RawJsonValueTest extends BaseTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String CUSTOM_PROPS = "{\"s\":\"v\",\"i\":12,\"l\":12345678901234,\"d\":1.50,\"b\":true,\"n\":null,"
+            + "\"obj\":{ \"k\" : [1, 2.0, 1e3, \"x\\\"y\", {\"z\":null}], \"big\":123456789012345678901234567890, \"u\":\"\\u00e9\\n\"},"
+            + "\"arr\":[ ],\"emptyObj\":{}}";
+
+    @Test
+    void test_nested_values_captured_as_raw_json() throws IOException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.json.RawJsonValueTest.test_nested_values_captured_as_raw_json
+        Event event = IngestReaders.readerFor(Event.class).readValue(CUSTOM_PROPS);
+        Map<String, Object> untyped = MAPPER.readValue(CUSTOM_PROPS, new TypeReference<Map<String, Object>>() { });
+        Map<String, Object> custom = event.getCustomProperties();
+
+        assertEquals("v", custom.get("s"));
+        assertEquals(12, custom.get("i"));
+        assertEquals(12345678901234L, custom.get("l"));
+        assertEquals(1.5, custom.get("d"));
+        assertEquals(true, custom.get("b"));
+        assertNull(custom.get("n"));
+        for (String key : new String[]{"obj", "arr", "emptyObj"}) {
+            RawJsonValue raw = assertInstanceOf(RawJsonValue.class, custom.get(key));
+            assertEquals(ValueType.OBJECT, raw.getValueType());
+            assertEquals(MAPPER.writeValueAsString(untyped.get(key)), raw.getJson());
+        }
+        assertEquals(MAPPER.writeValueAsString(new TreeMap<>(untyped)), MAPPER.writeValueAsString(new TreeMap<>(custom)));
+    }
+
+    @Test
+    void test_prop_maps_same_as_object_graph() throws IOException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.json.RawJsonValueTest.test_prop_maps_same_as_object_graph
+        Event event = IngestReaders.readerFor(Event.class).readValue(CUSTOM_PROPS);
+        Map<String, Object> untyped = MAPPER.readValue(CUSTOM_PROPS, new TypeReference<Map<String, Object>>() { });
+
+        Map<String, ClickstreamEventPropValue> expectedEventProps = Util.convertStringObjectMapToStringEventPropMap(untyped);
+        Map<String, ClickstreamEventPropValue> actualEventProps = Util.convertStringObjectMapToStringEventPropMap(event.getCustomProperties());
+        assertEquals(MAPPER.writeValueAsString(new TreeMap<>(expectedEventProps)), MAPPER.writeValueAsString(new TreeMap<>(actualEventProps)));
+
+        Map<String, ClickstreamUserPropValue> expectedUserProps = Util.convertStringObjectMapToStringUserPropMap(untyped);
+        Map<String, ClickstreamUserPropValue> actualUserProps = Util.convertStringObjectMapToStringUserPropMap(event.getCustomProperties());
+        assertEquals(MAPPER.writeValueAsString(new TreeMap<>(expectedUserProps)), MAPPER.writeValueAsString(new TreeMap<>(actualUserProps)));
+    }
+}
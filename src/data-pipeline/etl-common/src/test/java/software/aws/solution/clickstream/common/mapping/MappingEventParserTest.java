@@ -0,0 +1,149 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream.common.mapping;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import software.aws.solution.clickstream.BaseTest;
+import software.aws.solution.clickstream.common.ExtraParams;
+import software.aws.solution.clickstream.common.ParseDataResult;
+import software.aws.solution.clickstream.common.ParseRowResult;
+import software.aws.solution.clickstream.common.TransformConfig;
+import software.aws.solution.clickstream.common.model.ClickstreamEvent;
+import software.aws.solution.clickstream.common.model.ClickstreamItem;
+import software.aws.solution.clickstream.common.model.ValueType;
+import software.aws.solution.clickstream.common.sensors.SensorsEventParser;
+
+import java.io.IOException;
+
+public class MappingEventParserTest extends BaseTest {
+
+    @Test
+    void test_sensors_mapping_same_as_sensors_parser() throws IOException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.mapping.MappingEventParserTest.test_sensors_mapping_same_as_sensors_parser
+        String line = resourceFileContent("/sensors-data/unzip-item-data.json").split("\n")[0];
+        MappingEventParser mappingParser = MappingEventParser.getInstance(resourceFileContent("/mapping/sensors-mapping.json"), null);
+        ParseRowResult expected = SensorsEventParser.getInstance().parseLineToDBRow(line, "test_project_id", "unzip-item-data.json");
+        ParseRowResult actual = mappingParser.parseLineToDBRow(line, "test_project_id", "unzip-item-data.json");
+
+        Assertions.assertEquals(1, actual.getClickstreamEventList().size());
+        ClickstreamEvent expectedEvent = expected.getClickstreamEventList().get(0);
+        ClickstreamEvent event = actual.getClickstreamEventList().get(0);
+        Assertions.assertEquals(expectedEvent.getEventId(), event.getEventId());
+        Assertions.assertEquals(expectedEvent.getEventName(), event.getEventName());
+        Assertions.assertEquals(expectedEvent.getEventTimestamp(), event.getEventTimestamp());
+        Assertions.assertEquals(expectedEvent.getUserPseudoId(), event.getUserPseudoId());
+        Assertions.assertEquals(expectedEvent.getUserId(), event.getUserId());
+        Assertions.assertEquals(expectedEvent.getPlatform(), event.getPlatform());
+        Assertions.assertEquals(expectedEvent.getDeviceScreenWidth(), event.getDeviceScreenWidth());
+        Assertions.assertEquals(expectedEvent.getDeviceScreenHeight(), event.getDeviceScreenHeight());
+        Assertions.assertEquals(expectedEvent.getGeoCountry(), event.getGeoCountry());
+        Assertions.assertEquals(expectedEvent.getAppTitle(), event.getAppTitle());
+        Assertions.assertEquals(expectedEvent.getSessionStartTimeMsec(), event.getSessionStartTimeMsec());
+        Assertions.assertEquals(expectedEvent.getIp(), event.getIp());
+        Assertions.assertEquals(expectedEvent.getAppId(), event.getAppId());
+        Assertions.assertEquals(expectedEvent.getProjectId(), event.getProjectId());
+        Assertions.assertEquals(expectedEvent.getProcessInfo(), event.getProcessInfo());
+        for (String key : new String[]{"product_id", "product_name", "product_price", "item_price", "$ip", "project", "type"}) {
+            Assertions.assertEquals(expectedEvent.getCustomParameters().get(key).getValue(), event.getCustomParameters().get(key).getValue(), key);
+            Assertions.assertEquals(expectedEvent.getCustomParameters().get(key).getType(), event.getCustomParameters().get(key).getType(), key);
+        }
+
+        Assertions.assertEquals(expected.getClickstreamUserList().get(0).getFirstTouchTimeMsec(), actual.getClickstreamUserList().get(0).getFirstTouchTimeMsec());
+        Assertions.assertEquals(expected.getClickstreamUserList().get(0).getUserPseudoId(), actual.getClickstreamUserList().get(0).getUserPseudoId());
+
+        Assertions.assertEquals(expected.getClickstreamItemList().size(), actual.getClickstreamItemList().size());
+        ClickstreamItem expectedItem = expected.getClickstreamItemList().get(0);
+        ClickstreamItem item = actual.getClickstreamItemList().get(0);
+        Assertions.assertEquals(expectedItem.getItemId(), item.getItemId());
+        Assertions.assertEquals(expectedItem.getPrice(), item.getPrice());
+        Assertions.assertEquals(expectedItem.getEventId(), item.getEventId());
+    }
+
+    @Test
+    void test_mapping_coercion_and_defaults() throws IOException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.mapping.MappingEventParserTest.test_mapping_coercion_and_defaults
+        String spec = "{\"event\": ["
+                + "{\"source\": \"name\", \"target\": \"event_name\"},"
+                + "{\"source\": \"ts\", \"target\": \"event_timestamp\"},"
+                + "{\"source\": \"ctx.width\", \"target\": \"deviceScreenWidth\"},"
+                + "{\"source\": \"ctx.ok\", \"target\": \"app_id\"},"
+                + "{\"source\": \"ctx.obj\", \"target\": \"device_ua_browser\"},"
+                + "{\"source\": \"ctx.platform\", \"target\": \"platform\", \"default\": \"Web\"},"
+                + "{\"target\": \"app_version\", \"default\": \"1.0\"}],"
+                + "\"items\": \"products\","
+                + "\"item\": [{\"source\": \"id\", \"target\": \"item_id\"}, {\"source\": \"qty\", \"target\": \"quantity\", \"default\": \"1\"}],"
+                + "\"event_parameters\": [\"ctx.extra\"], \"item_parameters\": [\"\"]}";
+        String data = "{\"name\": \"_click\", \"ts\": \"1700000000000\", \"skipped\": {\"a\": [1, 2]},"
+                + "\"ctx\": {\"width\": \"not a number\", \"ok\": true, \"obj\": {\"b\": [1]}, \"platform\": null, \"extra\": {\"k\": 1.5, \"n\": {\"x\": 1}}},"
+                + "\"products\": [{\"id\": \"p1\", \"qty\": \"3\", \"color\": \"red\"}, {\"qty\": 2}, {\"id\": \"p2\"}]}";
+        ExtraParams extraParams = ExtraParams.builder().rid("rid").appId("app").ingestTimestamp(1L).inputFileName("f").build();
+        ParseDataResult result = MappingEventParser.getInstance(spec, null).parseData(data, extraParams, 0);
+
+        ClickstreamEvent event = result.getClickstreamEventList().get(0);
+        Assertions.assertEquals("_click", event.getEventName());
+        Assertions.assertEquals(1700000000000L, event.getEventTimestamp().getTime());
+        Assertions.assertEquals(1700000000000L, event.getEventTimeMsec());
+        Assertions.assertNull(event.getDeviceScreenWidth());
+        Assertions.assertEquals("app", event.getAppId());
+        Assertions.assertEquals("{\"b\":[1]}", event.getDeviceUaBrowser());
+        Assertions.assertEquals("Web", event.getPlatform());
+        Assertions.assertEquals("1.0", event.getAppVersion());
+        Assertions.assertEquals(2, event.getCustomParameters().size());
+        Assertions.assertEquals("1.5", event.getCustomParameters().get("k").getValue());
+        Assertions.assertEquals(ValueType.OBJECT, event.getCustomParameters().get("n").getType());
+
+        Assertions.assertEquals(2, result.getClickstreamItemList().size());
+        ClickstreamItem item = result.getClickstreamItemList().get(0);
+        Assertions.assertEquals("p1", item.getItemId());
+        Assertions.assertEquals(3.0, item.getQuantity());
+        Assertions.assertEquals("red", item.getCustomParameters().get("color").getValue());
+        Assertions.assertEquals(1.0, result.getClickstreamItemList().get(1).getQuantity());
+        Assertions.assertEquals("rid-0-null", item.getEventId());
+        Assertions.assertNull(result.getClickstreamUser().getUserProperties());
+
+        Assertions.assertEquals(0, MappingEventParser.getInstance(spec, null)
+                .parseData("{\"ctx\": {\"width\": 1}}", extraParams, 1).getClickstreamEventList().size());
+    }
+
+    @Test
+    void test_mapping_spec_errors() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.mapping.MappingEventParserTest.test_mapping_spec_errors
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> CompiledMapping.compile(MappingSpec.fromJson("{\"event\": [{\"source\": \"a\", \"target\": \"no_such_column\"}]}")));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> CompiledMapping.compile(MappingSpec.fromJson("{\"event\": [{\"source\": \"a\", \"target\": \"custom_parameters\"}]}")));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> CompiledMapping.compile(MappingSpec.fromJson("{\"event\": [{\"source\": \"a\", \"target\": \"event_time_msec\", \"default\": \"x\"}]}")));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> CompiledMapping.compile(MappingSpec.fromJson("{\"event\": [{\"source\": \"a\", \"target\": \"event_name\"},"
+                        + "{\"source\": \"a.b\", \"target\": \"event_id\"}]}")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> MappingSpec.fromJson("{\"event\": ["));
+    }
+
+    @Test
+    void test_mapping_parser_from_transform_config() throws IOException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.mapping.MappingEventParserTest.test_mapping_parser_from_transform_config
+        TransformConfig transformConfig = new TransformConfig();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> MappingEventParser.getInstance(transformConfig));
+
+        transformConfig.setMappingSpecJson(resourceFileContent("/mapping/sensors-mapping.json"));
+        MappingEventParser parser = MappingEventParser.getInstance(transformConfig);
+        Assertions.assertSame(parser, MappingEventParser.getInstance(transformConfig));
+        Assertions.assertSame(parser, MappingEventParser.getInstance(transformConfig.getMappingSpecJson(), transformConfig));
+
+        String line = resourceFileContent("/sensors-data/unzip-item-data.json").split("\n")[0];
+        Assertions.assertEquals(1, parser.parseLineToDBRow(line, "test_project_id", "unzip-item-data.json").getClickstreamEventList().size());
+    }
+}
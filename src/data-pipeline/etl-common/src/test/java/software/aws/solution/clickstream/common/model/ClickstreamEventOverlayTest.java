@@ -0,0 +1,178 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+
+package software.aws.solution.clickstream.common.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import software.aws.solution.clickstream.BaseTest;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+public class ClickstreamEventOverlayTest extends BaseTest {
+
+    @Test
+    void test_overlay_reads_through_source() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.model.ClickstreamEventOverlayTest.test_overlay_reads_through_source
+        ClickstreamEvent source = newSourceEvent();
+        ClickstreamEventOverlay overlay = ClickstreamEventOverlay.of(source, "_first_open", "event-1-first-open");
+
+        Assertions.assertEquals("_first_open", overlay.getEventName());
+        Assertions.assertEquals("event-1-first-open", overlay.getEventId());
+        Assertions.assertEquals(source.getEventTimestamp(), overlay.getEventTimestamp());
+        Assertions.assertEquals(source.getEventTimeMsec(), overlay.getEventTimeMsec());
+        Assertions.assertEquals("sessionId", overlay.getSessionId());
+        Assertions.assertEquals("1.2.3.4", overlay.getIp());
+        Assertions.assertSame(source.getProcessInfo(), overlay.getProcessInfo());
+        Assertions.assertFalse(overlay.isDetached());
+
+        ClickstreamEvent copy = ClickstreamEvent.deepCopy(source);
+        copy.setEventName("_first_open");
+        copy.setEventId("event-1-first-open");
+        Assertions.assertEquals(copy.toJson(), overlay.toJson());
+        Assertions.assertEquals("event_1", source.getEventName());
+    }
+
+    @Test
+    void test_overlay_detaches_on_write() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.model.ClickstreamEventOverlayTest.test_overlay_detaches_on_write
+        ClickstreamEvent source = newSourceEvent();
+        ClickstreamEventOverlay overlay = ClickstreamEventOverlay.of(source, "_session_start", "event-1-session-start");
+
+        overlay.setSessionId("otherSessionId");
+
+        Assertions.assertTrue(overlay.isDetached());
+        Assertions.assertEquals("otherSessionId", overlay.getSessionId());
+        Assertions.assertEquals("sessionId", source.getSessionId());
+        Assertions.assertNotSame(source.getProcessInfo(), overlay.getProcessInfo());
+        Assertions.assertEquals(source.getProcessInfo(), overlay.getProcessInfo());
+        Assertions.assertEquals("_session_start", overlay.getEventName());
+    }
+
+    @Test
+    void test_overlay_of_overlay_uses_source() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.model.ClickstreamEventOverlayTest.test_overlay_of_overlay_uses_source
+        ClickstreamEvent source = newSourceEvent();
+        ClickstreamEventOverlay first = ClickstreamEventOverlay.of(source, "_first_open", "event-1-first-open");
+        ClickstreamEventOverlay second = ClickstreamEventOverlay.of(first, "_session_start", "event-1-session-start");
+
+        Assertions.assertSame(source, second.getSourceEvent());
+        Assertions.assertEquals("_session_start", second.getEventName());
+        Assertions.assertEquals("_first_open", first.getEventName());
+    }
+
+    @Test
+    void test_overlay_delegates_every_property() throws Exception {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.model.ClickstreamEventOverlayTest.test_overlay_delegates_every_property
+        Set<String> ownProperties = new HashSet<>(Arrays.asList("eventId", "eventName", "eventTimestamp", "eventTimeMsec",
+                "deviceScreenWidth", "deviceScreenHeight", "deviceViewportWidth", "deviceViewportHeight"));
+        Set<String> names = new HashSet<>();
+        for (PropertyDescriptor property : eventProperties()) {
+            String name = property.getName();
+            names.add(name);
+            Method getter = property.getReadMethod();
+            Method setter = property.getWriteMethod();
+            Assertions.assertNotNull(setter, name);
+            if (ownProperties.contains(name)) {
+                continue;
+            }
+            Assertions.assertEquals(ClickstreamEventOverlay.class,
+                    ClickstreamEventOverlay.class.getMethod(getter.getName()).getDeclaringClass(), getter.getName() + " is not overridden");
+            Assertions.assertEquals(ClickstreamEventOverlay.class,
+                    ClickstreamEventOverlay.class.getMethod(setter.getName(), setter.getParameterTypes()).getDeclaringClass(), setter.getName() + " is not overridden");
+
+            ClickstreamEvent source = new ClickstreamEvent();
+            setter.invoke(source, sampleValue(setter.getParameterTypes()[0], 1));
+            ClickstreamEventOverlay overlay = ClickstreamEventOverlay.of(source, "_first_open", "event-1-first-open");
+            Assertions.assertEquals(sampleValue(setter.getParameterTypes()[0], 1), getter.invoke(overlay), name + " is not read from the source");
+
+            setter.invoke(overlay, sampleValue(setter.getParameterTypes()[0], 2));
+            Assertions.assertEquals(sampleValue(setter.getParameterTypes()[0], 2), getter.invoke(overlay), name + " is not written to the overlay");
+            Assertions.assertEquals(sampleValue(setter.getParameterTypes()[0], 1), getter.invoke(source), name + " is written to the source");
+            Assertions.assertTrue(overlay.isDetached(), name);
+        }        Assertions.assertTrue(names.containsAll(ownProperties), ownProperties.toString());
+    }
+
+    @Test
+    void test_overlay_own_properties_are_not_shared() throws Exception {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.model.ClickstreamEventOverlayTest.test_overlay_own_properties_are_not_shared
+        for (PropertyDescriptor property : eventProperties()) {
+            Method getter = property.getReadMethod();
+            Method setter = property.getWriteMethod();
+            ClickstreamEvent source = new ClickstreamEvent();
+            setter.invoke(source, sampleValue(setter.getParameterTypes()[0], 1));
+            ClickstreamEventOverlay overlay = ClickstreamEventOverlay.of(source, "_first_open", "event-1-first-open");
+            setter.invoke(overlay, sampleValue(setter.getParameterTypes()[0], 2));
+            Assertions.assertEquals(sampleValue(setter.getParameterTypes()[0], 2), getter.invoke(overlay), property.getName());
+            Assertions.assertEquals(sampleValue(setter.getParameterTypes()[0], 1), getter.invoke(source), property.getName());
+        }
+    }
+
+    private static PropertyDescriptor[] eventProperties() throws IntrospectionException {
+        BeanInfo beanInfo = Introspector.getBeanInfo(ClickstreamEvent.class, Object.class);
+        PropertyDescriptor[] properties = beanInfo.getPropertyDescriptors();
+        Assertions.assertTrue(properties.length > 100);
+        return properties;
+    }
+
+    private static Object sampleValue(final Class<?> type, final int seed) {
+        if (type == String.class) {
+            return "value" + seed;
+        } else if (type == Long.class) {
+            return (long) seed;
+        } else if (type == Integer.class) {
+            return seed;
+        } else if (type == Double.class) {
+            return (double) seed;
+        } else if (type == Boolean.class) {
+            return seed % 2 == 0;
+        } else if (type == Timestamp.class) {
+            return new Timestamp(seed);
+        } else if (type == Map.class) {
+            Map<String, Object> map = new HashMap<>();
+            map.put("key", "value" + seed);
+            return map;
+        }
+        throw new IllegalArgumentException("No sample value for " + type);
+    }
+
+    private static ClickstreamEvent newSourceEvent() {
+        ClickstreamEvent source = new ClickstreamEvent();
+        source.setEventId("event-1");
+        source.setEventName("event_1");
+        source.setDeviceScreenWidth(1440);
+        source.setDeviceScreenHeight(900);
+        source.setEventTimeMsec(1682319109447L);
+        source.setEventTimestamp(new Timestamp(1682319109447L));
+        source.setSessionId("sessionId");
+        source.setIp("1.2.3.4");
+        Map<String, String> processInfo = new HashMap<>();
+        processInfo.put("rid", "test_rid");
+        source.setProcessInfo(processInfo);
+        Map<String, ClickstreamEventPropValue> customParameters = new HashMap<>();
+        customParameters.put("key", new ClickstreamEventPropValue("value", ValueType.STRING));
+        source.setCustomParameters(customParameters);
+        return source;
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream.common.plugin;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.aws.solution.clickstream.BaseTest;
+import software.aws.solution.clickstream.common.ExtraParams;
+import software.aws.solution.clickstream.common.ParseDataResult;
+import software.aws.solution.clickstream.common.ParseRowResult;
+import software.aws.solution.clickstream.common.TransformConfig;
+import software.aws.solution.clickstream.common.model.ClickstreamEvent;
+import software.aws.solution.clickstream.common.model.ClickstreamEventOverlay;
+import software.aws.solution.clickstream.common.model.ClickstreamEventPropValue;
+import software.aws.solution.clickstream.common.model.ClickstreamUser;
+import software.aws.solution.clickstream.common.model.ClickstreamUserPropValue;
+import software.aws.solution.clickstream.common.model.ValueType;
+import software.aws.solution.clickstream.common.sensors.SensorsEventParser;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EnrichersTest extends BaseTest {
+    private static final AtomicInteger CONFIG_CALLS = new AtomicInteger();
+
+    @Test
+    void test_named_enrichers_run_in_parse_loop() throws IOException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.plugin.EnrichersTest.test_named_enrichers_run_in_parse_loop
+        String firstLine = resourceFileContent("/sensors-data/gzip-raw-data.json").split("\n")[0];
+        TransformConfig transformConfig = new TransformConfig();
+        transformConfig.setEnricherClassNames(List.of(RidEnricher.class.getName()));
+
+        CONFIG_CALLS.set(0);
+        SensorsEventParser parser = SensorsEventParser.getInstance(transformConfig);
+        ParseRowResult rowResult = parser.parseLineToDBRow(firstLine, "test_project_id", "enrich.json");
+
+        Assertions.assertFalse(rowResult.getClickstreamEventList().isEmpty());
+        for (ClickstreamEvent event : rowResult.getClickstreamEventList()) {
+            ClickstreamEventPropValue value = event.getCustomParameters().get(RidEnricher.KEY);
+            Assertions.assertNotNull(value, event.getEventName());
+            Assertions.assertEquals(event.getProcessInfo().get("rid"), value.getValue());
+        }
+        ClickstreamUser user = rowResult.getClickstreamUserList().get(0);
+        Assertions.assertEquals(ValueType.STRING, user.getUserProperties().get(RidEnricher.KEY).getType());
+
+        // one instance for both interfaces, configured once
+        Enrichers enrichers = parser.getEnrichers();
+        Assertions.assertSame(enrichers.getEventEnrichers().get(0), enrichers.getUserEnrichers().get(0));
+        Assertions.assertEquals(1, CONFIG_CALLS.get());
+        Assertions.assertTrue(Enrichers.load(null).isEmpty());
+    }
+
+    @Test
+    void test_service_loader_enrichers(@TempDir final Path dir) throws IOException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.plugin.EnrichersTest.test_service_loader_enrichers
+        Path services = Files.createDirectories(dir.resolve("META-INF/services"));
+        Files.write(services.resolve(EventEnricher.class.getName()), RidEnricher.class.getName().getBytes(StandardCharsets.UTF_8));
+        Files.write(services.resolve(UserEnricher.class.getName()), NoopUserEnricher.class.getName().getBytes(StandardCharsets.UTF_8));
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{dir.toUri().toURL()}, getClass().getClassLoader())) {
+            TransformConfig transformConfig = new TransformConfig();
+            transformConfig.setEnricherClassNames(List.of(RidEnricher.class.getName()));
+            Enrichers enrichers = Enrichers.load(transformConfig, classLoader);
+            Assertions.assertEquals(1, enrichers.getEventEnrichers().size());
+            Assertions.assertEquals(2, enrichers.getUserEnrichers().size());
+            Assertions.assertInstanceOf(RidEnricher.class, enrichers.getUserEnrichers().get(0));
+            Assertions.assertInstanceOf(NoopUserEnricher.class, enrichers.getUserEnrichers().get(1));
+        }
+    }
+
+    @Test
+    void test_invalid_enricher_config() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.plugin.EnrichersTest.test_invalid_enricher_config
+        Assertions.assertTrue(Enrichers.isEnricherClass(RidEnricher.class.getName()));
+        Assertions.assertTrue(Enrichers.isEnricherClass(NoopUserEnricher.class.getName()));
+        Assertions.assertFalse(Enrichers.isEnricherClass(String.class.getName()));
+        Assertions.assertFalse(Enrichers.isEnricherClass("com.example.NotExist"));
+
+        for (String className : new String[]{String.class.getName(), "com.example.NotExist"}) {
+            TransformConfig transformConfig = new TransformConfig();
+            transformConfig.setEnricherClassNames(List.of(className));
+            IllegalArgumentException e = Assertions.assertThrows(IllegalArgumentException.class, () -> Enrichers.load(transformConfig));
+            Assertions.assertTrue(e.getMessage().startsWith("Config Error::"), e.getMessage());
+        }
+    }
+
+    @Test
+    void test_in_place_enricher_does_not_modify_source_of_synthetic_events() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.plugin.EnrichersTest.test_in_place_enricher_does_not_modify_source_of_synthetic_events
+        TransformConfig transformConfig = new TransformConfig();
+        transformConfig.setEnricherClassNames(List.of(EventNameEnricher.class.getName()));
+        Enrichers enrichers = Enrichers.load(transformConfig);
+
+        ClickstreamEvent source = new ClickstreamEvent();
+        source.setEventName("page_view");
+        source.setEventId("event-1");
+        source.setCustomParameters(new HashMap<>());
+        ClickstreamEventOverlay firstOpen = ClickstreamEventOverlay.of(source, "_first_open", "event-1-first-open");
+        ClickstreamEventOverlay sessionStart = ClickstreamEventOverlay.of(source, "_session_start", "event-1-session-start");
+        ParseDataResult result = new ParseDataResult();
+        result.setClickstreamEventList(new ArrayList<>(List.of(source, firstOpen, sessionStart)));
+
+        enrichers.enrich(result, ExtraParams.builder().rid("rid").build());
+
+        for (ClickstreamEvent event : result.getClickstreamEventList()) {
+            Assertions.assertEquals(1, event.getCustomParameters().size(), event.getEventName());
+            Assertions.assertEquals(event.getEventName(), event.getCustomParameters().get(EventNameEnricher.KEY).getValue());
+        }
+        Assertions.assertTrue(firstOpen.isDetached());
+        Assertions.assertTrue(sessionStart.isDetached());
+    }
+
+    public static class RidEnricher implements EventEnricher, UserEnricher {
+        static final String KEY = "enriched_rid";
+
+        @Override
+        public void config(final TransformConfig transformConfig) {
+            CONFIG_CALLS.incrementAndGet();
+        }
+
+        @Override
+        public void enrich(final ClickstreamEvent event, final ExtraParams extraParams) {
+            Map<String, ClickstreamEventPropValue> customParameters = new HashMap<>();
+            if (event.getCustomParameters() != null) {
+                customParameters.putAll(event.getCustomParameters());
+            }
+            customParameters.put(KEY, new ClickstreamEventPropValue(extraParams.getRid(), ValueType.STRING));
+            event.setCustomParameters(customParameters);
+        }
+
+        @Override
+        public void enrich(final ClickstreamUser user, final ExtraParams extraParams) {
+            Map<String, ClickstreamUserPropValue> userProperties = new HashMap<>();
+            if (user.getUserProperties() != null) {
+                userProperties.putAll(user.getUserProperties());
+            }
+            userProperties.put(KEY, new ClickstreamUserPropValue(extraParams.getRid(), ValueType.STRING, null));
+            user.setUserProperties(userProperties);
+        }
+    }
+
+    public static class NoopUserEnricher implements UserEnricher {
+        @Override
+        public void enrich(final ClickstreamUser user, final ExtraParams extraParams) {
+            // nothing to enrich
+        }
+    }
+
+    public static class EventNameEnricher implements EventEnricher {
+        static final String KEY = "enriched_event_name";
+
+        @Override
+        public void enrich(final ClickstreamEvent event, final ExtraParams extraParams) {
+            event.getCustomParameters().put(KEY, new ClickstreamEventPropValue(event.getEventName(), ValueType.STRING));
+        }
+    }
+}
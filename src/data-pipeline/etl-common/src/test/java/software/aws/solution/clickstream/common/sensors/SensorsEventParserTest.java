@@ -22,6 +22,7 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import software.aws.solution.clickstream.BaseTest;
 import software.aws.solution.clickstream.common.ExtraParams;
+import software.aws.solution.clickstream.common.ParseBatchStats;
 import software.aws.solution.clickstream.common.ParseDataResult;
 import software.aws.solution.clickstream.common.ParseRowResult;
 import software.aws.solution.clickstream.common.ingest.ClickstreamIngestRow;
@@ -29,7 +30,15 @@ import software.aws.solution.clickstream.common.model.ClickstreamEvent;
 import software.aws.solution.clickstream.common.model.ClickstreamUser;
 import software.aws.solution.clickstream.common.sensors.event.SensorsEvent;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 import static software.aws.solution.clickstream.common.Util.objectToJsonString;
 
@@ -205,6 +214,27 @@ public class SensorsEventParserTest extends BaseTest {
         Assertions.assertNull(r.getClickstreamUser());
     }
 
+    @Test
+    void test_parse_malformed_payload_is_corrupt() throws IOException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.sensors.SensorsEventParserTest.test_parse_malformed_payload_is_corrupt
+
+        SensorsEventParser eventParser = SensorsEventParser.getInstance();
+        ExtraParams extraParams = ExtraParams.builder().build();
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(resourceFileContent("/sensors-data/unzip-data.json").getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] bytes = gzipped.toByteArray();
+        String truncatedGzip = Base64.getEncoder().encodeToString(Arrays.copyOf(bytes, bytes.length / 2));
+        for (String data : new String[]{"data_list=" + truncatedGzip, "data=%%%not-base64%%%&gzip=1"}) {
+            ParseBatchStats stats = new ParseBatchStats();
+            Assertions.assertThrows(Exception.class, () -> eventParser.parseDataElements(data, extraParams, new ParseRowResult(), stats), data);
+            Assertions.assertEquals(1, stats.getFailedRows(), data);
+            Assertions.assertEquals(0, stats.getEmptyRows(), data);
+        }
+        Assertions.assertNull(eventParser.getData("data_list=" + truncatedGzip));
+    }
+
     @Test
     void test_parse_web_ua_data() throws IOException {
       //    ./gradlew clean test --info --tests software.aws.solution.clickstream.common.sensors.SensorsEventParserTest.test_parse_web_ua_data
@@ -226,4 +256,36 @@ public class SensorsEventParserTest extends BaseTest {
         }
     }
 
+
+    @Test
+    void test_find_form_value() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.sensors.SensorsEventParserTest.test_find_form_value
+        Assertions.assertEquals(10, SensorsEventParser.findFormValue("data_list=abc&gzip=1"));
+        Assertions.assertEquals(12, SensorsEventParser.findFormValue("gzip=1&data=abc"));
+        Assertions.assertEquals(-1, SensorsEventParser.findFormValue("gzip=1&crc=2"));
+        Assertions.assertEquals("a+b", SensorsEventParser.getInstance().getBase64Data("gzip=1&data_list=a%2Bb&crc=2"));
+    }
+
+    @Test
+    void test_parse_form_encoded_json_data() throws IOException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.sensors.SensorsEventParserTest.test_parse_form_encoded_json_data
+        SensorsEventParser sensorsEventParser = SensorsEventParser.getInstance();
+        String json = "[{\"event\":\"page_view\",\"distinct_id\":\"d1\",\"properties\":{\"$title\":\"a b\"}}]";
+        String form = "gzip=0&data_list=" + URLEncoder.encode(json, StandardCharsets.UTF_8);
+        Assertions.assertEquals(sensorsEventParser.getData(json), sensorsEventParser.getData(form));
+    }
+
+    @Test
+    void test_parse_data_elements_keeps_wifi() throws IOException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.common.sensors.SensorsEventParserTest.test_parse_data_elements_keeps_wifi
+        SensorsEventParser sensorsEventParser = SensorsEventParser.getInstance();
+        String json = "[{\"type\":\"track\",\"event\":\"page_view\",\"distinct_id\":\"d1\",\"time\":1690249850031,\"properties\":{\"$wifi\":true}},"
+                + "{\"type\":\"track\",\"event\":\"page_view\",\"distinct_id\":\"d1\",\"time\":1690249850031,\"properties\":{\"$wifi\":false}}]";
+        ExtraParams params = ExtraParams.builder().appId("test").projectId("test_project_id").ingestTimestamp(1690249851000L).build();
+        List<ClickstreamEvent> events = new ArrayList<>();
+        sensorsEventParser.parseDataElements(json, params, result -> events.addAll(result.getClickstreamEventList()));
+
+        Assertions.assertEquals("WIFI", events.get(0).getDeviceNetworkType());
+        Assertions.assertEquals("CELLULAR", events.get(events.size() - 1).getDeviceNetworkType());
+    }
 }
@@ -19,7 +19,9 @@ import com.google.common.base.Preconditions;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.core.config.Configurator;
+import org.apache.spark.SparkConf;
 import org.apache.spark.sql.SparkSession;
+import software.aws.solution.clickstream.common.EnrichmentContext;
 import software.aws.solution.clickstream.util.*;
 
 import java.util.Arrays;
@@ -124,6 +126,8 @@ public final class DataProcessor {
                             "com.amazonaws.glue.catalog.metastore.AWSGlueDataCatalogHiveClientFactory")
                     .config("spark.sql.warehouse.dir", ContextUtil.getWarehouseDir())
                     .config("spark.sql.mapKeyDedupPolicy", "LAST_WIN")
+                    .config("spark.plugins", ContextUtil.withSparkPlugin(
+                            CacheMetricsPlugin.withPlugin(new SparkConf().get("spark.plugins", "")), EnrichmentContextPlugin.class))
                     .enableHiveSupport().appName(APP_NAME).getOrCreate();
         }
 
@@ -133,6 +137,8 @@ public final class DataProcessor {
 
         ETLRunner etlRunner = new ETLRunner(spark, runnerConfig);
         etlRunner.run();
+        CacheMetricsPlugin.logStats();
+        EnrichmentContext.closeAll();
         spark.stop();
     }
 }
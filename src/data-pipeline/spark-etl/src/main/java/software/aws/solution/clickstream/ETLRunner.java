@@ -31,6 +31,7 @@ import org.sparkproject.guava.annotations.VisibleForTesting;
 import software.aws.solution.clickstream.common.Constant;
 import software.aws.solution.clickstream.common.RuleConfig;
 import software.aws.solution.clickstream.common.TransformConfig;
+import software.aws.solution.clickstream.common.plugin.Enrichers;
 import software.aws.solution.clickstream.exception.ExecuteTransformerException;
 import software.aws.solution.clickstream.util.*;
 
@@ -77,9 +78,14 @@ public class ETLRunner {
     public static final String EVENT_DATE = "event_date";
     public static final String CONFIG_METHOD = "config";
     public static final String APP_ID_EVENT_DATE = "app_id_event_date";
+    /**
+     * the field mapping spec of the {@link software.aws.solution.clickstream.mapping.MappingDataTransformer}, read from the rule config dir
+     */
+    public static final String MAPPING_SPEC_FILE_NAME = "event_mapping_spec.json";
     private final SparkSession spark;
     private final ETLRunnerConfig runConfig;
     private TableName eventTableName = null;
+    private final DistinctKeyEnricher distinctKeyEnricher = new DistinctKeyEnricher();
 
     @Getter
     private TransformConfig transformConfig;
@@ -102,6 +108,7 @@ public class ETLRunner {
                 .as(Encoders.bean(PathContent.class)).collectAsList();
 
         Map<String, RuleConfig> appRuleConfig = new HashMap<>();
+        String mappingSpecJson = null;
         for (PathContent pathContent : configFileList) {
             log.info("path: " + pathContent.getPath());
 
@@ -114,6 +121,11 @@ public class ETLRunner {
                 continue;
             }
             String fileName = pathParts[pathParts.length - 1];
+            if (MAPPING_SPEC_FILE_NAME.equalsIgnoreCase(fileName)) {
+                log.info("mapping spec length: " + content.length());
+                mappingSpecJson = content;
+                continue;
+            }
             String appId = pathParts[pathParts.length - 2];
 
             RuleConfig ruleConfig = null;
@@ -139,6 +151,7 @@ public class ETLRunner {
 
         TransformConfig transformRuleConfig = new TransformConfig();
         transformRuleConfig.setAppRuleConfig(appRuleConfig);
+        transformRuleConfig.setMappingSpecJson(mappingSpecJson);
         transformRuleConfig.setTrafficSourceEnrichmentDisabled(false);
         if (runConfig.getRunFlag() != null && runConfig.getRunFlag().contains(DISABLE_TRAFFIC_SOURCE_ENRICHMENT)) {
             transformRuleConfig.setTrafficSourceEnrichmentDisabled(true);
@@ -234,6 +247,7 @@ public class ETLRunner {
 
         long resultCount = writeResultEventDataset(dataset2);
         log.info(new ETLMetric(resultCount, SINK).toString());
+        this.distinctKeyEnricher.unpersist();
     }
 
     private Dataset<Row> rePartitionInputDataset(final Dataset<Row> dataset) {
@@ -340,13 +354,51 @@ public class ETLRunner {
     @VisibleForTesting
     public Dataset<Row> executeTransformers(final Dataset<Row> dataset,
                                             final @NotEmpty List<String> transformerClassNames) {
+        List<String> datasetTransformerClassNames = configEnrichers(transformerClassNames);
         Dataset<Row> result = dataset;
         int ind = 0;
-        for (String transformerClassName : transformerClassNames) {
+        for (String transformerClassName : datasetTransformerClassNames) {
             log.info("executeTransformer: " + transformerClassName);
             result = executeTransformer(result, transformerClassName, ind++);
         }
-        return execPostTransform(result, transformerClassNames.get(0));
+        return execPostTransform(result, datasetTransformerClassNames.get(0));
+    }
+
+    /**
+     * Enricher plugins run inside the parse loop of the transformers, they are handed over with the transform config
+     * instead of being executed as dataset transformers. Returns the remaining dataset transformers, a class that is
+     * both an enricher and a dataset transformer is rejected.
+     */
+    private List<String> configEnrichers(final List<String> transformerClassNames) {
+        List<String> datasetTransformerClassNames = new ArrayList<>();
+        List<String> enricherClassNames = new ArrayList<>();
+        for (String className : transformerClassNames) {
+            if (Enrichers.isEnricherClass(className)) {
+                if (isDatasetTransformerClass(className)) {
+                    throw new IllegalArgumentException("Config Error::" + className + " is both an enricher and a dataset transformer, split it into two classes");
+                }
+                enricherClassNames.add(className);
+            } else {
+                datasetTransformerClassNames.add(className);
+            }
+        }
+        if (datasetTransformerClassNames.isEmpty()) {
+            throw new IllegalArgumentException("Config Error::No transformer in: " + transformerClassNames);
+        }
+        if (!enricherClassNames.isEmpty()) {
+            log.info("enrichers: " + enricherClassNames);
+            this.transformConfig.setEnricherClassNames(enricherClassNames);
+        }
+        return datasetTransformerClassNames;
+    }
+
+    private static boolean isDatasetTransformerClass(final String className) {
+        try {
+            Class.forName(className).getMethod(TRANSFORM_METHOD_NAME, Dataset.class);
+            return true;
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            return false;
+        }
     }
 
     @SuppressWarnings("unchecked")
@@ -374,6 +426,7 @@ public class ETLRunner {
                 eventDataset = transformedDatasets.get(TableName.EVENT_V2);
                 saveTransformedDatasets(transformedDatasets);
             } else {
+                configDistinctKeyEnricher(aClass, instance);
                 eventDataset = (Dataset<Row>) transform.invoke(instance, dataset);
                 if (ind == 0) {
                     this.eventTableName = TableName.ODS_EVENTS;
@@ -398,6 +451,15 @@ public class ETLRunner {
             configMethod.invoke(instance, this.transformConfig);
     }
 
+    private void configDistinctKeyEnricher(final Class<?> aClass, final Object instance) throws IllegalAccessException, InvocationTargetException {
+        try {
+            Method configMethod = aClass.getMethod(CONFIG_METHOD, DistinctKeyEnricher.class);
+            configMethod.invoke(instance, this.distinctKeyEnricher);
+        } catch (NoSuchMethodException ignored) {
+            log.info("transformClass: {}, did not find method {}({})", aClass, CONFIG_METHOD, DistinctKeyEnricher.class.getSimpleName());
+        }
+    }
+
     private void saveTransformedDatasets(final List<Dataset<Row>> transformedDatasets) {
         if (transformedDatasets.size() != 4) {
             return;
@@ -30,9 +30,13 @@ import org.apache.spark.sql.expressions.UserDefinedFunction;
 import org.apache.spark.sql.types.DataTypes;
 import org.apache.spark.sql.types.StructField;
 import software.aws.solution.clickstream.common.Cache;
+import software.aws.solution.clickstream.common.CacheKey;
+import software.aws.solution.clickstream.common.EnrichmentContext;
 import software.aws.solution.clickstream.util.*;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.InetAddress;
 import java.util.Map;
 import java.util.Optional;
@@ -46,7 +50,9 @@ import static software.aws.solution.clickstream.ETLRunner.DEBUG_LOCAL_PATH;
 
 @Slf4j
 public class IPEnrichment {
-    private static final Cache<Row> CACHED_IP = new Cache<>();
+    public static final String IP_CACHE = "ip";
+    private static final String GEO_DB_FILE = "GeoLite2-City.mmdb";
+    private static final int ROW_BYTES = 80;
     public Dataset<Row> transform(final Dataset<Row> dataset) {
         UserDefinedFunction udfEnrichIP = udf(enrich(), DataTypes.createStructType(
                 new StructField[]{
@@ -74,36 +80,58 @@ public class IPEnrichment {
 
     static UDF2<String, String, Row> enrich() {
         return (ipValue, localeValue) -> {
-            if (CACHED_IP.containsKey(ipValue)) {
-                return CACHED_IP.get(ipValue);
-            }
-            GenericRow defaultRow = new GenericRow(
-                    new Object[]{null, null, null, null, null, null, localeValue}
-            );
-            GenericRow resultRow = defaultRow;
-            try (Reader reader = new Reader(new File(SparkFiles.get("GeoLite2-City.mmdb")),
-                    new CHMCache(1024 * 128))) {
-                InetAddress address = InetAddress.getByName(ipValue);
-                LookupResult result = reader.get(address, LookupResult.class);
-                resultRow = Optional.ofNullable(result)
-                        .map(geo -> new GenericRow(new Object[]{
-                                Optional.ofNullable(geo.getCity()).map(LookupResult.City::getName).orElse(null),
-                                Optional.ofNullable(geo.getContinent()).map(LookupResult.Continent::getName).orElse(null),
-                                Optional.ofNullable(geo.getCountry()).map(LookupResult.Country::getName).orElse(null),
-                                null,
-                                null,
-                                null,
-                                localeValue
-                        }))
-                        .orElse(defaultRow);
-            } catch (Exception e) {
-                log.warn("failed to enrich IP: " + ipValue + ", " + getStackTrace(e));
-            }
-            CACHED_IP.put(ipValue, resultRow);
-            return resultRow;
+            EnrichmentContext context = EnrichmentContext.getDefault();
+            Cache<Row> cachedIp = context.getCache(IP_CACHE, IPEnrichment::estimateBytes);
+            // the cached row carries the locale, so the locale is part of the key
+            return cachedIp.get(CacheKey.of(ipValue, localeValue), key -> lookup(context, ipValue, localeValue));
         };
     }
 
+    private static Row lookup(final EnrichmentContext context, final String ipValue, final String localeValue) {
+        GenericRow defaultRow = new GenericRow(
+                new Object[]{null, null, null, null, null, null, localeValue}
+        );
+        GenericRow resultRow = defaultRow;
+        try {
+            Reader reader = context.getComponent(Reader.class, IPEnrichment::openGeoDatabase);
+            InetAddress address = InetAddress.getByName(ipValue);
+            LookupResult result = reader.get(address, LookupResult.class);
+            resultRow = Optional.ofNullable(result)
+                    .map(geo -> new GenericRow(new Object[]{
+                            Optional.ofNullable(geo.getCity()).map(LookupResult.City::getName).orElse(null),
+                            Optional.ofNullable(geo.getContinent()).map(LookupResult.Continent::getName).orElse(null),
+                            Optional.ofNullable(geo.getCountry()).map(LookupResult.Country::getName).orElse(null),
+                            null,
+                            null,
+                            null,
+                            localeValue
+                    }))
+                    .orElse(defaultRow);
+        } catch (Exception e) {
+            log.warn("failed to enrich IP: " + ipValue + ", " + getStackTrace(e));
+        }
+        return resultRow;
+    }
+
+    static int estimateBytes(final Row row) {
+        int bytes = ROW_BYTES;
+        for (int i = 0; i < row.length(); i++) {
+            bytes += Cache.stringWeight((String) row.get(i));
+        }
+        return bytes;
+    }
+
+    /**
+     * One reader per executor, shared by all task threads and closed with the enrichment context.
+     */
+    private static Reader openGeoDatabase(final EnrichmentContext context) {
+        try {
+            return new Reader(new File(SparkFiles.get(GEO_DB_FILE)), new CHMCache(1024 * 128));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     public static class LookupResult {
 
         @Getter
@@ -28,6 +28,15 @@ import static software.aws.solution.clickstream.ETLRunner.*;
 public class IPEnrichmentV2 {
     public static final String IP_ENRICH_OUT = "ip_enrich_out";
 
+    private DistinctKeyEnricher distinctKeyEnricher = new DistinctKeyEnricher();
+
+    /**
+     * Called by {@link ETLRunner}, the run unpersists the enriched keys after the result is written.
+     */
+    public void config(final DistinctKeyEnricher distinctKeyEnricher) {
+        this.distinctKeyEnricher = distinctKeyEnricher;
+    }
+
     public Dataset<Row> transform(final Dataset<Row> dataset) {
         UserDefinedFunction udfEnrichIP = udf(IPEnrichment.enrich(), DataTypes.createStructType(
                 new StructField[]{
@@ -41,11 +50,9 @@ public class IPEnrichmentV2 {
                         DataTypes.createStructField("locale", DataTypes.StringType, true),
                 }
         ));
-        Dataset<Row> ipEnrichDataset = dataset.withColumn(IP_ENRICH_OUT,
-                udfEnrichIP.apply(
-                        split(col(Constant.IP), ",").getItem(0),
-                        col(Constant.GEO_LOCALE)
-                ))
+        Dataset<Row> ipEnrichDataset = distinctKeyEnricher.enrich(dataset, udfEnrichIP, IP_ENRICH_OUT,
+                split(col(Constant.IP), ",").getItem(0),
+                col(Constant.GEO_LOCALE))
                 .withColumn(Constant.GEO_CITY, coalesce(col(IP_ENRICH_OUT).getField("city"), col(Constant.GEO_CITY)))
                 .withColumn(Constant.GEO_CONTINENT, coalesce(col(IP_ENRICH_OUT).getField("continent"), col(Constant.GEO_CONTINENT)))
                 .withColumn(Constant.GEO_COUNTRY, coalesce(col(IP_ENRICH_OUT).getField("country"), col(Constant.GEO_COUNTRY)))
@@ -26,6 +26,7 @@ import software.aws.solution.clickstream.transformer.BaseTransformerV3;
 import software.aws.solution.clickstream.transformer.Cleaner;
 import software.aws.solution.clickstream.udfconverter.ClickstreamDataConverterV3;
 import software.aws.solution.clickstream.udfconverter.DatasetConverter;
+import software.aws.solution.clickstream.udfconverter.PartitionDataConverter;
 import software.aws.solution.clickstream.common.TransformConfig;
 import software.aws.solution.clickstream.transformer.TransformerNameEnum;
 import software.aws.solution.clickstream.util.ContextUtil;
@@ -252,7 +253,7 @@ public class TransformerV3 extends BaseTransformerV3 {
         if (this.getTransformConfig() == null) {
             throw new ExecuteTransformerException("Transform config is not set");
         }
-        return new ClickstreamDataConverterV3(this.transformConfig);
+        return PartitionDataConverter.select(new ClickstreamDataConverterV3(this.transformConfig));
     }
 
 
@@ -49,6 +49,15 @@ public class UAEnrichmentV2 {
         };
     }
 
+    private DistinctKeyEnricher distinctKeyEnricher = new DistinctKeyEnricher();
+
+    /**
+     * Called by {@link ETLRunner}, the run unpersists the enriched keys after the result is written.
+     */
+    public void config(final DistinctKeyEnricher distinctKeyEnricher) {
+        this.distinctKeyEnricher = distinctKeyEnricher;
+    }
+
     public Dataset<Row> transform(final Dataset<Row> dataset) {
         UserDefinedFunction udfEnrichUserAgent = udf(enrich(), DataTypes.createStructType(
                 new StructField[]{
@@ -64,7 +73,7 @@ public class UAEnrichmentV2 {
                         DataTypes.createStructField(Constant.DEVICE_UA, STR_TO_STR_MAP_TYPE, true),
                 }
         ));
-        Dataset<Row> datasetUa = dataset.withColumn(UA_ENRICH, udfEnrichUserAgent.apply(col(Constant.UA)));
+        Dataset<Row> datasetUa = distinctKeyEnricher.enrich(dataset, udfEnrichUserAgent, UA_ENRICH, col(Constant.UA));
 
         Dataset<Row> enrichedDataset = datasetUa
                 .withColumn(Constant.DEVICE_UA_BROWSER, col(UA_ENRICH).getField(Constant.DEVICE_UA_BROWSER))
@@ -18,6 +18,7 @@ import software.aws.solution.clickstream.common.TransformConfig;
 import software.aws.solution.clickstream.exception.ExecuteTransformerException;
 import software.aws.solution.clickstream.transformer.BaseThirdPartyTransformer;
 import software.aws.solution.clickstream.udfconverter.DatasetConverter;
+import software.aws.solution.clickstream.udfconverter.PartitionDataConverter;
 import software.aws.solution.clickstream.transformer.TransformerNameEnum;
 
 import static software.aws.solution.clickstream.transformer.TransformerNameEnum.GTM_SERVER_DATA;
@@ -37,7 +38,7 @@ public class GTMServerDataTransformerV2 extends BaseThirdPartyTransformer {
         if (this.transformConfig == null) {
             throw new ExecuteTransformerException("Transform config is not set");
         }
-        return new ServerDataConverterV2(this.transformConfig);
+        return PartitionDataConverter.select(new ServerDataConverterV2(this.transformConfig));
     }
 
     @Override
@@ -214,11 +214,7 @@ public class ServerDataConverter {
             sessionNumber = 0L;
         }
 
-        String eventId = String.format("%s-%s-%s",
-                index,
-                sessionId,
-                sessionNum
-        );
+        String eventId = index + "-" + sessionId + "-" + sessionNum;
 
         result.attrMap.put(SESSION_DURATION, JsonNodeFactory.instance.numberNode(0));
 
@@ -278,7 +274,7 @@ public class ServerDataConverter {
 
         int eventIndex = 0;
         if (firstVisit) {
-            String eventId2 = String.format("%s-%s", eventId, ++eventIndex);
+            String eventId2 = eventId + "-" + ++eventIndex;
             GenericRow firstVisitEvent = createGenericRowFromResult(
                     new EventParams(EVENT_FIRST_OPEN, gtmId, gtmVersion, eventId2, uc),
                     result,
@@ -289,7 +285,7 @@ public class ServerDataConverter {
         }
 
         if (seesionStart) {
-            String eventId3 = String.format("%s-%s", eventId, ++eventIndex);
+            String eventId3 = eventId + "-" + ++eventIndex;
             GenericRow sessionStartEvent = createGenericRowFromResult(
                     new EventParams(EVENT_SESSION_START, gtmId, gtmVersion, eventId3, uc),
                     result,
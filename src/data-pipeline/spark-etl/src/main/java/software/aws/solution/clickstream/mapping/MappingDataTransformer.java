@@ -0,0 +1,55 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream.mapping;
+
+import software.aws.solution.clickstream.common.TransformConfig;
+import software.aws.solution.clickstream.common.mapping.CompiledMapping;
+import software.aws.solution.clickstream.exception.ExecuteTransformerException;
+import software.aws.solution.clickstream.transformer.BaseThirdPartyTransformer;
+import software.aws.solution.clickstream.transformer.TransformerNameEnum;
+import software.aws.solution.clickstream.udfconverter.DatasetConverter;
+import software.aws.solution.clickstream.udfconverter.PartitionDataConverter;
+
+import static software.aws.solution.clickstream.transformer.TransformerNameEnum.MAPPING;
+
+/**
+ * Transformer for SDK formats described by a {@link software.aws.solution.clickstream.common.mapping.MappingSpec},
+ * the spec is read from the {@code event_mapping_spec.json} file in the rule config dir.
+ */
+public class MappingDataTransformer extends BaseThirdPartyTransformer {
+    private TransformConfig transformConfig;
+
+    @Override
+    public TransformerNameEnum getName() {
+        return MAPPING;
+    }
+
+    @Override
+    public DatasetConverter getDatasetTransformer() {
+        if (this.transformConfig == null) {
+            throw new ExecuteTransformerException("Transform config is not set");
+        }
+        return PartitionDataConverter.select(new MappingDataConverter(this.transformConfig));
+    }
+
+    @Override
+    public void config(final TransformConfig transformConfig) {
+        if (transformConfig == null || transformConfig.getMappingSpecJson() == null) {
+            throw new IllegalArgumentException("Config Error::Mapping spec is not set");
+        }
+        // compile on the driver so a bad spec fails the job before any task runs
+        CompiledMapping.forSpec(transformConfig.getMappingSpecJson());
+        this.transformConfig = transformConfig;
+    }
+}
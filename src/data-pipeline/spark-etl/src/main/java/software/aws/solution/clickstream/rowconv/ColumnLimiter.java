@@ -0,0 +1,117 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream.rowconv;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.spark.sql.types.StructType;
+import org.apache.spark.unsafe.types.UTF8String;
+import software.aws.solution.clickstream.common.ColumnLimits;
+import software.aws.solution.clickstream.common.Constant;
+import software.aws.solution.clickstream.model.ModelV2;
+import software.aws.solution.clickstream.util.ContextUtil;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static software.aws.solution.clickstream.util.ContextUtil.DISABLE_MAX_LENGTH_CHECK;
+
+/**
+ * {@link ColumnLimits} resolved to the field ordinals of one table, applied to the values of a row while it is built.
+ * With the {@code disable.max.length.check} run flag the limiters keep every value as is.
+ */
+@Slf4j
+final class ColumnLimiter {
+    static final ColumnLimiter EVENT = forTable(ModelV2.EVENT_TYPE, ColumnLimits.getEventLimits());
+    static final ColumnLimiter ITEM = forTable(ModelV2.ITEM_TYPE, ColumnLimits.getItemLimits());
+    static final ColumnLimiter USER = forTable(ModelV2.USER_TYPE, ColumnLimits.getUserLimits());
+
+    private final int[] ordinals;
+    private final int[] limits;
+    private final String[] names;
+    private final int processInfoOrdinal;
+
+    private ColumnLimiter(final StructType type, final Map<String, Integer> columnLimits) {
+        ordinals = new int[columnLimits.size()];
+        limits = new int[ordinals.length];
+        names = new String[ordinals.length];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : columnLimits.entrySet()) {
+            ordinals[i] = type.fieldIndex(entry.getKey());
+            limits[i] = entry.getValue();
+            names[i] = entry.getKey();
+            i++;
+        }
+        processInfoOrdinal = type.fieldIndex(Constant.PROCESS_INFO);
+    }
+
+    static ColumnLimiter forTable(final StructType type, final Map<String, Integer> columnLimits) {
+        if (ContextUtil.getEtlRunFlag().contains(DISABLE_MAX_LENGTH_CHECK)) {
+            log.info("disable.max.length.check is set, ignore column limits of {}", type.simpleString());
+            return new ColumnLimiter(type, Collections.emptyMap());
+        }
+        return new ColumnLimiter(type, columnLimits);
+    }
+
+    int getProcessInfoOrdinal() {
+        return processInfoOrdinal;
+    }
+
+    /**
+     * Truncate the {@link String} or {@link UTF8String} values over their limit in place.
+     *
+     * @return the comma separated names of the truncated columns, null if nothing was truncated
+     */
+    String limit(final Object[] values) {
+        StringBuilder truncated = null;
+        for (int i = 0; i < ordinals.length; i++) {
+            Object value = values[ordinals[i]];
+            Object limited = value;
+            if (value instanceof UTF8String) {
+                UTF8String utf8 = (UTF8String) value;
+                if (utf8.numBytes() > limits[i]) {
+                    limited = UTF8String.fromString(ColumnLimits.truncate(utf8.toString(), limits[i]));
+                }
+            } else if (value instanceof String) {
+                limited = ColumnLimits.truncate((String) value, limits[i]);
+            }
+            if (limited != value) {
+                values[ordinals[i]] = limited;
+                truncated = truncated == null ? new StringBuilder(names[i]) : truncated.append(',').append(names[i]);
+            }
+        }
+        return truncated == null ? null : truncated.toString();
+    }
+
+    /**
+     * Limit the values of a {@code GenericRow}, the process info column gets the truncated columns.
+     */
+    Object[] limitExternal(final Object[] values, final Map<String, String> processInfo) {
+        String truncated = limit(values);
+        if (truncated != null) {
+            values[processInfoOrdinal] = ColumnLimits.markTruncated(processInfo, truncated);
+        }
+        return values;
+    }
+
+    /**
+     * Limit the values of an {@code InternalRow}, the process info column gets the truncated columns.
+     */
+    Object[] limitInternal(final Object[] values, final Map<String, String> processInfo) {
+        String truncated = limit(values);
+        if (truncated != null) {
+            values[processInfoOrdinal] = InternalRowConverter.stringMapToMapData(ColumnLimits.markTruncated(processInfo, truncated));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+
+package software.aws.solution.clickstream.rowconv;
+
+import software.aws.solution.clickstream.common.model.ClickstreamEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-task pool of {@link EventRow}s. Rows handed out by {@link #next(ClickstreamEvent)} stay valid until
+ * {@link #reset()}, after which they are refilled for the following events; callers reset only once every row
+ * handed out so far has been consumed (projected or copied) downstream.
+ */
+public final class EventArena {
+    private final List<EventRow> rows = new ArrayList<>();
+    private final StringInterner interner;
+    private int used;
+
+    public EventArena() {
+        this(new StringInterner());
+    }
+
+    public EventArena(final StringInterner interner) {
+        this.interner = interner;
+    }
+
+    public EventRow next(final ClickstreamEvent event) {
+        EventRow row;
+        if (used < rows.size()) {
+            row = rows.get(used);
+        } else {
+            row = new EventRow();
+            rows.add(row);
+        }
+        used++;
+        row.fill(event, interner);
+        return row;
+    }
+
+    public void reset() {
+        for (int i = 0; i < used; i++) {
+            rows.get(i).clear();
+        }
+        used = 0;
+    }
+
+    /**
+     * Number of rows allocated so far, the high-water mark of rows in use between two resets.
+     */
+    public int capacity() {
+        return rows.size();
+    }
+
+    public StringInterner getInterner() {
+        return interner;
+    }
+}
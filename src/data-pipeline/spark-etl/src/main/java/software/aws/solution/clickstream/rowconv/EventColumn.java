@@ -0,0 +1,209 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+package software.aws.solution.clickstream.rowconv;
+
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.MapType;
+import software.aws.solution.clickstream.common.Constant;
+import software.aws.solution.clickstream.common.model.ClickstreamEvent;
+import software.aws.solution.clickstream.model.ModelV2;
+
+import java.util.Map;
+import java.util.function.Function;
+
+import static software.aws.solution.clickstream.common.Util.convertStringObjectMapToStringStringMap;
+
+/**
+ * The columns of {@code ModelV2.EVENT_TYPE} in schema order, with the {@link ClickstreamEvent} getter each one is read from.
+ * {@link EventGenericRowConverter}, {@link InternalRowConverter} and {@link EventRow} all build event rows from this one table,
+ * its names and types are checked against the schema when the class is loaded.
+ */
+enum EventColumn {
+    EVENT_TIMESTAMP(Constant.EVENT_TIMESTAMP, Kind.TIMESTAMP, ClickstreamEvent::getEventTimestamp),
+    EVENT_ID(Constant.EVENT_ID, Kind.STRING, ClickstreamEvent::getEventId),
+    EVENT_TIME_MSEC(Constant.EVENT_TIME_MSEC, Kind.LONG, ClickstreamEvent::getEventTimeMsec),
+    EVENT_NAME(Constant.EVENT_NAME, Kind.INTERNED_STRING, ClickstreamEvent::getEventName),
+    EVENT_VALUE(Constant.EVENT_VALUE, Kind.DOUBLE, ClickstreamEvent::getEventValue),
+    EVENT_VALUE_CURRENCY(Constant.EVENT_VALUE_CURRENCY, Kind.INTERNED_STRING, ClickstreamEvent::getEventValueCurrency),
+    EVENT_BUNDLE_SEQUENCE_ID(Constant.EVENT_BUNDLE_SEQUENCE_ID, Kind.LONG, ClickstreamEvent::getEventBundleSequenceId),
+    INGEST_TIME_MSEC(Constant.INGEST_TIME_MSEC, Kind.LONG, ClickstreamEvent::getIngestTimeMsec),
+    DEVICE_MOBILE_BRAND_NAME(Constant.DEVICE_MOBILE_BRAND_NAME, Kind.INTERNED_STRING, ClickstreamEvent::getDeviceMobileBrandName),
+    DEVICE_MOBILE_MODEL_NAME(Constant.DEVICE_MOBILE_MODEL_NAME, Kind.STRING, ClickstreamEvent::getDeviceMobileModelName),
+    DEVICE_MANUFACTURER(Constant.DEVICE_MANUFACTURER, Kind.INTERNED_STRING, ClickstreamEvent::getDeviceManufacturer),
+    DEVICE_CARRIER(Constant.DEVICE_CARRIER, Kind.INTERNED_STRING, ClickstreamEvent::getDeviceCarrier),
+    DEVICE_NETWORK_TYPE(Constant.DEVICE_NETWORK_TYPE, Kind.INTERNED_STRING, ClickstreamEvent::getDeviceNetworkType),
+    DEVICE_OPERATING_SYSTEM(Constant.DEVICE_OPERATING_SYSTEM, Kind.INTERNED_STRING, ClickstreamEvent::getDeviceOperatingSystem),
+    DEVICE_OPERATING_SYSTEM_VERSION(Constant.DEVICE_OPERATING_SYSTEM_VERSION, Kind.INTERNED_STRING, ClickstreamEvent::getDeviceOperatingSystemVersion),
+    DEVICE_VENDOR_ID(Constant.DEVICE_VENDOR_ID, Kind.STRING, ClickstreamEvent::getDeviceVendorId),
+    DEVICE_ADVERTISING_ID(Constant.DEVICE_ADVERTISING_ID, Kind.STRING, ClickstreamEvent::getDeviceAdvertisingId),
+    DEVICE_SYSTEM_LANGUAGE(Constant.DEVICE_SYSTEM_LANGUAGE, Kind.INTERNED_STRING, ClickstreamEvent::getDeviceSystemLanguage),
+    DEVICE_TIME_ZONE_OFFSET_SECONDS(Constant.DEVICE_TIME_ZONE_OFFSET_SECONDS, Kind.INT, ClickstreamEvent::getDeviceTimeZoneOffsetSeconds),
+    DEVICE_UA_BROWSER(Constant.DEVICE_UA_BROWSER, Kind.INTERNED_STRING, ClickstreamEvent::getDeviceUaBrowser),
+    DEVICE_UA_BROWSER_VERSION(Constant.DEVICE_UA_BROWSER_VERSION, Kind.STRING, ClickstreamEvent::getDeviceUaBrowserVersion),
+    DEVICE_UA_OS(Constant.DEVICE_UA_OS, Kind.INTERNED_STRING, ClickstreamEvent::getDeviceUaOs),
+    DEVICE_UA_OS_VERSION(Constant.DEVICE_UA_OS_VERSION, Kind.STRING, ClickstreamEvent::getDeviceUaOsVersion),
+    DEVICE_UA_DEVICE(Constant.DEVICE_UA_DEVICE, Kind.STRING, ClickstreamEvent::getDeviceUaDevice),
+    DEVICE_UA_DEVICE_CATEGORY(Constant.DEVICE_UA_DEVICE_CATEGORY, Kind.INTERNED_STRING, ClickstreamEvent::getDeviceUaDeviceCategory),
+    DEVICE_UA(Constant.DEVICE_UA, Kind.STRING_MAP, event -> convertStringObjectMapToStringStringMap(event.getDeviceUa())),
+    DEVICE_SCREEN_WIDTH(Constant.DEVICE_SCREEN_WIDTH, Kind.INT, ClickstreamEvent::getDeviceScreenWidth),
+    DEVICE_SCREEN_HEIGHT(Constant.DEVICE_SCREEN_HEIGHT, Kind.INT, ClickstreamEvent::getDeviceScreenHeight),
+    DEVICE_VIEWPORT_WIDTH(Constant.DEVICE_VIEWPORT_WIDTH, Kind.INT, ClickstreamEvent::getDeviceViewportWidth),
+    DEVICE_VIEWPORT_HEIGHT(Constant.DEVICE_VIEWPORT_HEIGHT, Kind.INT, ClickstreamEvent::getDeviceViewportHeight),
+    GEO_CONTINENT(Constant.GEO_CONTINENT, Kind.INTERNED_STRING, ClickstreamEvent::getGeoContinent),
+    GEO_SUB_CONTINENT(Constant.GEO_SUB_CONTINENT, Kind.INTERNED_STRING, ClickstreamEvent::getGeoSubContinent),
+    GEO_COUNTRY(Constant.GEO_COUNTRY, Kind.INTERNED_STRING, ClickstreamEvent::getGeoCountry),
+    GEO_REGION(Constant.GEO_REGION, Kind.STRING, ClickstreamEvent::getGeoRegion),
+    GEO_METRO(Constant.GEO_METRO, Kind.STRING, ClickstreamEvent::getGeoMetro),
+    GEO_CITY(Constant.GEO_CITY, Kind.STRING, ClickstreamEvent::getGeoCity),
+    GEO_LOCALE(Constant.GEO_LOCALE, Kind.INTERNED_STRING, ClickstreamEvent::getGeoLocale),
+    TRAFFIC_SOURCE_SOURCE(Constant.TRAFFIC_SOURCE_SOURCE, Kind.STRING, ClickstreamEvent::getTrafficSourceSource),
+    TRAFFIC_SOURCE_MEDIUM(Constant.TRAFFIC_SOURCE_MEDIUM, Kind.INTERNED_STRING, ClickstreamEvent::getTrafficSourceMedium),
+    TRAFFIC_SOURCE_CAMPAIGN(Constant.TRAFFIC_SOURCE_CAMPAIGN, Kind.STRING, ClickstreamEvent::getTrafficSourceCampaign),
+    TRAFFIC_SOURCE_CONTENT(Constant.TRAFFIC_SOURCE_CONTENT, Kind.STRING, ClickstreamEvent::getTrafficSourceContent),
+    TRAFFIC_SOURCE_TERM(Constant.TRAFFIC_SOURCE_TERM, Kind.STRING, ClickstreamEvent::getTrafficSourceTerm),
+    TRAFFIC_SOURCE_CAMPAIGN_ID(Constant.TRAFFIC_SOURCE_CAMPAIGN_ID, Kind.STRING, ClickstreamEvent::getTrafficSourceCampaignId),
+    TRAFFIC_SOURCE_CLID_PLATFORM(Constant.TRAFFIC_SOURCE_CLID_PLATFORM, Kind.INTERNED_STRING, ClickstreamEvent::getTrafficSourceClidPlatform),
+    TRAFFIC_SOURCE_CLID(Constant.TRAFFIC_SOURCE_CLID, Kind.STRING, ClickstreamEvent::getTrafficSourceClid),
+    TRAFFIC_SOURCE_CHANNEL_GROUP(Constant.TRAFFIC_SOURCE_CHANNEL_GROUP, Kind.INTERNED_STRING, ClickstreamEvent::getTrafficSourceChannelGroup),
+    TRAFFIC_SOURCE_CATEGORY(Constant.TRAFFIC_SOURCE_CATEGORY, Kind.INTERNED_STRING, ClickstreamEvent::getTrafficSourceCategory),
+    USER_FIRST_TOUCH_TIME_MSEC(Constant.USER_FIRST_TOUCH_TIME_MSEC, Kind.LONG, ClickstreamEvent::getUserFirstTouchTimeMsec),
+    APP_PACKAGE_ID(Constant.APP_PACKAGE_ID, Kind.INTERNED_STRING, ClickstreamEvent::getAppPackageId),
+    APP_VERSION(Constant.APP_VERSION, Kind.INTERNED_STRING, ClickstreamEvent::getAppVersion),
+    APP_TITLE(Constant.APP_TITLE, Kind.STRING, ClickstreamEvent::getAppTitle),
+    APP_INSTALL_SOURCE(Constant.APP_INSTALL_SOURCE, Kind.INTERNED_STRING, ClickstreamEvent::getAppInstallSource),
+    PLATFORM(Constant.PLATFORM, Kind.INTERNED_STRING, ClickstreamEvent::getPlatform),
+    PROJECT_ID(Constant.PROJECT_ID, Kind.INTERNED_STRING, ClickstreamEvent::getProjectId),
+    APP_ID(Constant.APP_ID, Kind.INTERNED_STRING, ClickstreamEvent::getAppId),
+    SCREEN_VIEW_SCREEN_NAME(Constant.SCREEN_VIEW_SCREEN_NAME, Kind.STRING, ClickstreamEvent::getScreenViewScreenName),
+    SCREEN_VIEW_SCREEN_ID(Constant.SCREEN_VIEW_SCREEN_ID, Kind.STRING, ClickstreamEvent::getScreenViewScreenId),
+    SCREEN_VIEW_SCREEN_UNIQUE_ID(Constant.SCREEN_VIEW_SCREEN_UNIQUE_ID, Kind.STRING, ClickstreamEvent::getScreenViewScreenUniqueId),
+    SCREEN_VIEW_PREVIOUS_SCREEN_NAME(Constant.SCREEN_VIEW_PREVIOUS_SCREEN_NAME, Kind.STRING, ClickstreamEvent::getScreenViewPreviousScreenName),
+    SCREEN_VIEW_PREVIOUS_SCREEN_ID(Constant.SCREEN_VIEW_PREVIOUS_SCREEN_ID, Kind.STRING, ClickstreamEvent::getScreenViewPreviousScreenId),
+    SCREEN_VIEW_PREVIOUS_SCREEN_UNIQUE_ID(Constant.SCREEN_VIEW_PREVIOUS_SCREEN_UNIQUE_ID, Kind.STRING, ClickstreamEvent::getScreenViewPreviousScreenUniqueId),
+    SCREEN_VIEW_PREVIOUS_TIME_MSEC(Constant.SCREEN_VIEW_PREVIOUS_TIME_MSEC, Kind.LONG, ClickstreamEvent::getScreenViewPreviousTimeMsec),
+    SCREEN_VIEW_ENGAGEMENT_TIME_MSEC(Constant.SCREEN_VIEW_ENGAGEMENT_TIME_MSEC, Kind.LONG, ClickstreamEvent::getScreenViewEngagementTimeMsec),
+    SCREEN_VIEW_ENTRANCES(Constant.SCREEN_VIEW_ENTRANCES, Kind.BOOLEAN, ClickstreamEvent::getScreenViewEntrances),
+    PAGE_VIEW_PAGE_REFERRER(Constant.PAGE_VIEW_PAGE_REFERRER, Kind.STRING, ClickstreamEvent::getPageViewPageReferrer),
+    PAGE_VIEW_PAGE_REFERRER_TITLE(Constant.PAGE_VIEW_PAGE_REFERRER_TITLE, Kind.STRING, ClickstreamEvent::getPageViewPageReferrerTitle),
+    PAGE_VIEW_PREVIOUS_TIME_MSEC(Constant.PAGE_VIEW_PREVIOUS_TIME_MSEC, Kind.LONG, ClickstreamEvent::getPageViewPreviousTimeMsec),
+    PAGE_VIEW_ENGAGEMENT_TIME_MSEC(Constant.PAGE_VIEW_ENGAGEMENT_TIME_MSEC, Kind.LONG, ClickstreamEvent::getPageViewEngagementTimeMsec),
+    PAGE_VIEW_PAGE_TITLE(Constant.PAGE_VIEW_PAGE_TITLE, Kind.STRING, ClickstreamEvent::getPageViewPageTitle),
+    PAGE_VIEW_PAGE_URL(Constant.PAGE_VIEW_PAGE_URL, Kind.STRING, ClickstreamEvent::getPageViewPageUrl),
+    PAGE_VIEW_PAGE_URL_PATH(Constant.PAGE_VIEW_PAGE_URL_PATH, Kind.STRING, ClickstreamEvent::getPageViewPageUrlPath),
+    PAGE_VIEW_PAGE_URL_QUERY_PARAMETERS(Constant.PAGE_VIEW_PAGE_URL_QUERY_PARAMETERS, Kind.STRING_MAP, ClickstreamEvent::getPageViewPageUrlQueryParameters),
+    PAGE_VIEW_HOSTNAME(Constant.PAGE_VIEW_HOSTNAME, Kind.STRING, ClickstreamEvent::getPageViewHostname),
+    PAGE_VIEW_LATEST_REFERRER(Constant.PAGE_VIEW_LATEST_REFERRER, Kind.STRING, ClickstreamEvent::getPageViewLatestReferrer),
+    PAGE_VIEW_LATEST_REFERRER_HOST(Constant.PAGE_VIEW_LATEST_REFERRER_HOST, Kind.STRING, ClickstreamEvent::getPageViewLatestReferrerHost),
+    PAGE_VIEW_ENTRANCES(Constant.PAGE_VIEW_ENTRANCES, Kind.BOOLEAN, ClickstreamEvent::getPageViewEntrances),
+    APP_START_IS_FIRST_TIME(Constant.APP_START_IS_FIRST_TIME, Kind.BOOLEAN, ClickstreamEvent::getAppStartIsFirstTime),
+    UPGRADE_PREVIOUS_APP_VERSION(Constant.UPGRADE_PREVIOUS_APP_VERSION, Kind.STRING, ClickstreamEvent::getUpgradePreviousAppVersion),
+    UPGRADE_PREVIOUS_OS_VERSION(Constant.UPGRADE_PREVIOUS_OS_VERSION, Kind.STRING, ClickstreamEvent::getUpgradePreviousOsVersion),
+    SEARCH_KEY(Constant.SEARCH_KEY, Kind.STRING, ClickstreamEvent::getSearchKey),
+    SEARCH_TERM(Constant.SEARCH_TERM, Kind.STRING, ClickstreamEvent::getSearchTerm),
+    OUTBOUND_LINK_CLASSES(Constant.OUTBOUND_LINK_CLASSES, Kind.STRING, ClickstreamEvent::getOutboundLinkClasses),
+    OUTBOUND_LINK_DOMAIN(Constant.OUTBOUND_LINK_DOMAIN, Kind.STRING, ClickstreamEvent::getOutboundLinkDomain),
+    OUTBOUND_LINK_ID(Constant.OUTBOUND_LINK_ID, Kind.STRING, ClickstreamEvent::getOutboundLinkId),
+    OUTBOUND_LINK_URL(Constant.OUTBOUND_LINK_URL, Kind.STRING, ClickstreamEvent::getOutboundLinkUrl),
+    OUTBOUND_LINK(Constant.OUTBOUND_LINK, Kind.BOOLEAN, ClickstreamEvent::getOutboundLink),
+    USER_ENGAGEMENT_TIME_MSEC(Constant.USER_ENGAGEMENT_TIME_MSEC, Kind.LONG, ClickstreamEvent::getUserEngagementTimeMsec),
+    USER_ID(Constant.USER_ID, Kind.STRING, ClickstreamEvent::getUserId),
+    USER_PSEUDO_ID(Constant.USER_PSEUDO_ID, Kind.STRING, ClickstreamEvent::getUserPseudoId),
+    SESSION_ID(Constant.SESSION_ID, Kind.STRING, ClickstreamEvent::getSessionId),
+    SESSION_START_TIME_MSEC(Constant.SESSION_START_TIME_MSEC, Kind.LONG, ClickstreamEvent::getSessionStartTimeMsec),
+    SESSION_DURATION(Constant.SESSION_DURATION, Kind.LONG, ClickstreamEvent::getSessionDuration),
+    SESSION_NUMBER(Constant.SESSION_NUMBER, Kind.LONG, ClickstreamEvent::getSessionNumber),
+    SCROLL_ENGAGEMENT_TIME_MSEC(Constant.SCROLL_ENGAGEMENT_TIME_MSEC, Kind.LONG, ClickstreamEvent::getScrollEngagementTimeMsec),
+    SDK_ERROR_CODE(Constant.SDK_ERROR_CODE, Kind.STRING, ClickstreamEvent::getSdkErrorCode),
+    SDK_ERROR_MESSAGE(Constant.SDK_ERROR_MESSAGE, Kind.STRING, ClickstreamEvent::getSdkErrorMessage),
+    SDK_VERSION(Constant.SDK_VERSION, Kind.INTERNED_STRING, ClickstreamEvent::getSdkVersion),
+    SDK_NAME(Constant.SDK_NAME, Kind.INTERNED_STRING, ClickstreamEvent::getSdkName),
+    APP_EXCEPTION_MESSAGE(Constant.APP_EXCEPTION_MESSAGE, Kind.STRING, ClickstreamEvent::getAppExceptionMessage),
+    APP_EXCEPTION_STACK(Constant.APP_EXCEPTION_STACK, Kind.STRING, ClickstreamEvent::getAppExceptionStack),
+    CUSTOM_PARAMETERS_JSON_STR(Constant.CUSTOM_PARAMETERS_JSON_STR, Kind.CUSTOM_PARAMETERS_JSON, ClickstreamEvent::getCustomParameters),
+    CUSTOM_PARAMETERS(Constant.CUSTOM_PARAMETERS, Kind.CUSTOM_PARAMETERS_MAP, ClickstreamEvent::getCustomParameters),
+    PROCESS_INFO(Constant.PROCESS_INFO, Kind.STRING_MAP, ClickstreamEvent::getProcessInfo),
+    UA(Constant.UA, Kind.STRING, ClickstreamEvent::getUa),
+    IP(Constant.IP, Kind.STRING, ClickstreamEvent::getIp);
+
+    /**
+     * How a column is read and encoded, strings of the {@code INTERNED_STRING} columns have a low cardinality.
+     * The custom parameters columns come from one {@link PropertiesEncoder} pass over the parameters map.
+     */
+    enum Kind {
+        TIMESTAMP, STRING, INTERNED_STRING, LONG, INT, DOUBLE, BOOLEAN, STRING_MAP, CUSTOM_PARAMETERS_JSON, CUSTOM_PARAMETERS_MAP
+    }
+
+    static final EventColumn[] COLUMNS = values();
+
+    static {
+        if (COLUMNS.length != ModelV2.EVENT_TYPE.size()) {
+            throw new IllegalStateException("event columns " + COLUMNS.length + " do not match the event schema size " + ModelV2.EVENT_TYPE.size());
+        }
+        for (EventColumn column : COLUMNS) {
+            String schemaName = ModelV2.EVENT_TYPE.fields()[column.ordinal()].name();
+            DataType schemaType = ModelV2.EVENT_TYPE.fields()[column.ordinal()].dataType();
+            if (!schemaName.equals(column.columnName) || !column.accepts(schemaType)) {
+                throw new IllegalStateException("event column " + column.ordinal() + " " + column.columnName + " " + column.kind
+                        + " does not match " + schemaName + " " + schemaType.simpleString());
+            }
+        }
+    }
+
+    private final String columnName;
+    private final Kind kind;
+    private final Function<ClickstreamEvent, Object> getter;
+
+    EventColumn(final String name, final Kind kind, final Function<ClickstreamEvent, Object> getter) {
+        this.columnName = name;
+        this.kind = kind;
+        this.getter = getter;
+    }
+
+    String getColumnName() {
+        return columnName;
+    }
+
+    Kind getKind() {
+        return kind;
+    }
+
+    Object get(final ClickstreamEvent event) {
+        return getter.apply(event);
+    }
+
+    @SuppressWarnings("unchecked")
+    Map<String, String> getStringMap(final ClickstreamEvent event) {
+        return (Map<String, String>) getter.apply(event);
+    }
+
+    private boolean accepts(final DataType type) {
+        switch (kind) {
+            case TIMESTAMP:
+                return type == DataTypes.TimestampType;
+            case LONG:
+                return type == DataTypes.LongType;
+            case INT:
+                return type == DataTypes.IntegerType;
+            case DOUBLE:
+                return type == DataTypes.DoubleType;
+            case BOOLEAN:
+                return type == DataTypes.BooleanType;
+            case STRING_MAP:
+            case CUSTOM_PARAMETERS_MAP:
+                return type instanceof MapType;
+            default:
+                return type == DataTypes.StringType;
+        }
+    }
+}
@@ -0,0 +1,379 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+
+package software.aws.solution.clickstream.rowconv;
+
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.expressions.GenericInternalRow;
+import org.apache.spark.sql.catalyst.util.ArrayData;
+import org.apache.spark.sql.catalyst.util.DateTimeUtils;
+import org.apache.spark.sql.catalyst.util.MapData;
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.Decimal;
+import org.apache.spark.unsafe.types.CalendarInterval;
+import org.apache.spark.unsafe.types.UTF8String;
+import software.aws.solution.clickstream.common.ColumnLimits;
+import software.aws.solution.clickstream.common.model.ClickstreamEvent;
+import software.aws.solution.clickstream.model.ModelV2;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+
+import static software.aws.solution.clickstream.rowconv.InternalRowConverter.stringMapToMapData;
+
+/**
+ * Reusable, primitive-specialized event row with the layout of {@code ModelV2.EVENT_TYPE}:
+ * numeric, boolean and timestamp fields are kept unboxed in one {@code long[]} (doubles as raw bits),
+ * strings and maps in an {@code Object[]}, and nulls in a bitset, all indexed by the field ordinal.
+ * Low-cardinality strings go through the task's {@link StringInterner}.
+ * The row is filled from an already parsed {@link ClickstreamEvent}, it replaces the {@code GenericRow} and the
+ * external-to-internal conversion of the event, not the boxed event model the parsers build.
+ *
+ * <p>Instances are owned by an {@link EventArena} and refilled in place, so they must be projected or
+ * {@link #copy() copied} before the arena is reset.
+ */
+public final class EventRow extends InternalRow {
+    private static final long serialVersionUID = 1L;
+    private static final int NUM_FIELDS = ModelV2.EVENT_TYPE.size();
+    private static final byte KIND_REF = 0;
+    private static final byte KIND_LONG = 1;
+    private static final byte KIND_INT = 2;
+    private static final byte KIND_DOUBLE = 3;
+    private static final byte KIND_BOOLEAN = 4;
+    private static final byte[] KINDS = new byte[NUM_FIELDS];
+
+    static {
+        for (int i = 0; i < NUM_FIELDS; i++) {
+            DataType type = ModelV2.EVENT_TYPE.fields()[i].dataType();
+            if (type == DataTypes.LongType || type == DataTypes.TimestampType) {
+                KINDS[i] = KIND_LONG;
+            } else if (type == DataTypes.IntegerType) {
+                KINDS[i] = KIND_INT;
+            } else if (type == DataTypes.DoubleType) {
+                KINDS[i] = KIND_DOUBLE;
+            } else if (type == DataTypes.BooleanType) {
+                KINDS[i] = KIND_BOOLEAN;
+            } else {
+                KINDS[i] = KIND_REF;
+            }
+        }
+    }
+
+    private final long[] primitives = new long[NUM_FIELDS];
+    private final Object[] refs = new Object[NUM_FIELDS];
+    private final long[] nullBits = new long[(NUM_FIELDS + 63) >>> 6];
+    private transient StringInterner interner;
+    private int cursor;
+
+    EventRow() {
+        clear();
+    }
+
+    /**
+     * Overwrites every field with the values of {@code event}, in the {@link EventColumn} order of {@code ModelV2.EVENT_TYPE}.
+     * Strings over their column limit are truncated and listed in the process info.
+     */
+    public EventRow fill(final ClickstreamEvent event, final StringInterner stringInterner) {
+        this.interner = stringInterner;
+        this.cursor = 0;
+        Arrays.fill(nullBits, -1L);
+        InternalRowConverter.EncodedProperties customParameters = InternalRowConverter.EncodedProperties.ofEvent(event.getCustomParameters());
+        for (EventColumn column : EventColumn.COLUMNS) {
+            put(column, event, customParameters);
+        }
+        String truncated = ColumnLimiter.EVENT.limit(refs);
+        if (truncated != null) {
+            cursor = ColumnLimiter.EVENT.getProcessInfoOrdinal();
+            putRef(stringMapToMapData(ColumnLimits.markTruncated(event.getProcessInfo(), truncated)));
+        }
+        return this;
+    }
+
+    private void put(final EventColumn column, final ClickstreamEvent event, final InternalRowConverter.EncodedProperties customParameters) {
+        switch (column.getKind()) {
+            case TIMESTAMP:
+                putTimestamp((Timestamp) column.get(event));
+                break;
+            case STRING:
+                putString((String) column.get(event));
+                break;
+            case INTERNED_STRING:
+                putInterned((String) column.get(event));
+                break;
+            case LONG:
+                putLong((Long) column.get(event));
+                break;
+            case INT:
+                putInt((Integer) column.get(event));
+                break;
+            case DOUBLE:
+                putDouble((Double) column.get(event));
+                break;
+            case BOOLEAN:
+                putBoolean((Boolean) column.get(event));
+                break;
+            case STRING_MAP:
+                putRef(stringMapToMapData(column.getStringMap(event)));
+                break;
+            case CUSTOM_PARAMETERS_JSON:
+                putRef(customParameters.json);
+                break;
+            case CUSTOM_PARAMETERS_MAP:
+                putRef(customParameters.map);
+                break;
+            default:
+                throw new IllegalStateException("unknown event column kind " + column.getKind());
+        }
+    }
+
+    /**
+     * Marks all fields null and drops the references to the last event's strings and maps.
+     */
+    public void clear() {
+        Arrays.fill(nullBits, -1L);
+        Arrays.fill(refs, null);
+    }
+
+    private void putLong(final Long value) {
+        if (value == null) {
+            cursor++;
+        } else {
+            setLong(cursor++, value);
+        }
+    }
+
+    private void putTimestamp(final Timestamp value) {
+        if (value == null) {
+            cursor++;
+        } else {
+            setLong(cursor++, DateTimeUtils.fromJavaTimestamp(value));
+        }
+    }
+
+    private void putInt(final Integer value) {
+        if (value == null) {
+            cursor++;
+        } else {
+            setInt(cursor++, value);
+        }
+    }
+
+    private void putDouble(final Double value) {
+        if (value == null) {
+            cursor++;
+        } else {
+            setDouble(cursor++, value);
+        }
+    }
+
+    private void putBoolean(final Boolean value) {
+        if (value == null) {
+            cursor++;
+        } else {
+            setBoolean(cursor++, value);
+        }
+    }
+
+    private void putString(final String value) {
+        putRef(value == null ? null : UTF8String.fromString(value));
+    }
+
+    private void putInterned(final String value) {
+        putRef(interner.intern(value));
+    }
+
+    private void putRef(final Object value) {
+        if (value == null) {
+            refs[cursor++] = null;
+        } else {
+            refs[cursor] = value;
+            markNotNull(cursor++);
+        }
+    }
+
+    private void markNotNull(final int ordinal) {
+        nullBits[ordinal >>> 6] &= ~(1L << ordinal);
+    }
+
+    @Override
+    public int numFields() {
+        return NUM_FIELDS;
+    }
+
+    @Override
+    public boolean isNullAt(final int ordinal) {
+        return (nullBits[ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+
+    @Override
+    public void setNullAt(final int ordinal) {
+        nullBits[ordinal >>> 6] |= 1L << ordinal;
+        refs[ordinal] = null;
+    }
+
+    @Override
+    public void setLong(final int ordinal, final long value) {
+        primitives[ordinal] = value;
+        markNotNull(ordinal);
+    }
+
+    @Override
+    public void setInt(final int ordinal, final int value) {
+        primitives[ordinal] = value;
+        markNotNull(ordinal);
+    }
+
+    @Override
+    public void setDouble(final int ordinal, final double value) {
+        primitives[ordinal] = Double.doubleToRawLongBits(value);
+        markNotNull(ordinal);
+    }
+
+    @Override
+    public void setBoolean(final int ordinal, final boolean value) {
+        primitives[ordinal] = value ? 1L : 0L;
+        markNotNull(ordinal);
+    }
+
+    @Override
+    public void update(final int ordinal, final Object value) {
+        if (value == null) {
+            setNullAt(ordinal);
+            return;
+        }
+        switch (KINDS[ordinal]) {
+            case KIND_LONG:
+                setLong(ordinal, (Long) value);
+                break;
+            case KIND_INT:
+                setInt(ordinal, (Integer) value);
+                break;
+            case KIND_DOUBLE:
+                setDouble(ordinal, (Double) value);
+                break;
+            case KIND_BOOLEAN:
+                setBoolean(ordinal, (Boolean) value);
+                break;
+            default:
+                refs[ordinal] = value;
+                markNotNull(ordinal);
+        }
+    }
+
+    /**
+     * Detached {@link GenericInternalRow} with the current values, safe to keep after the arena is reset.
+     */
+    @Override
+    public InternalRow copy() {
+        Object[] values = new Object[NUM_FIELDS];
+        for (int i = 0; i < NUM_FIELDS; i++) {
+            values[i] = getBoxed(i);
+        }
+        return new GenericInternalRow(values);
+    }
+
+    private Object getBoxed(final int ordinal) {
+        if (isNullAt(ordinal)) {
+            return null;
+        }
+        switch (KINDS[ordinal]) {
+            case KIND_LONG:
+                return primitives[ordinal];
+            case KIND_INT:
+                return (int) primitives[ordinal];
+            case KIND_DOUBLE:
+                return Double.longBitsToDouble(primitives[ordinal]);
+            case KIND_BOOLEAN:
+                return primitives[ordinal] != 0;
+            default:
+                return refs[ordinal];
+        }
+    }
+
+    @Override
+    public boolean getBoolean(final int ordinal) {
+        return primitives[ordinal] != 0;
+    }
+
+    @Override
+    public byte getByte(final int ordinal) {
+        return (byte) primitives[ordinal];
+    }
+
+    @Override
+    public short getShort(final int ordinal) {
+        return (short) primitives[ordinal];
+    }
+
+    @Override
+    public int getInt(final int ordinal) {
+        return (int) primitives[ordinal];
+    }
+
+    @Override
+    public long getLong(final int ordinal) {
+        return primitives[ordinal];
+    }
+
+    @Override
+    public float getFloat(final int ordinal) {
+        return (float) getDouble(ordinal);
+    }
+
+    @Override
+    public double getDouble(final int ordinal) {
+        return Double.longBitsToDouble(primitives[ordinal]);
+    }
+
+    @Override
+    public Decimal getDecimal(final int ordinal, final int precision, final int scale) {
+        return (Decimal) refs[ordinal];
+    }
+
+    @Override
+    public UTF8String getUTF8String(final int ordinal) {
+        return (UTF8String) refs[ordinal];
+    }
+
+    @Override
+    public byte[] getBinary(final int ordinal) {
+        return (byte[]) refs[ordinal];
+    }
+
+    @Override
+    public CalendarInterval getInterval(final int ordinal) {
+        return (CalendarInterval) refs[ordinal];
+    }
+
+    @Override
+    public InternalRow getStruct(final int ordinal, final int numFields) {
+        return (InternalRow) refs[ordinal];
+    }
+
+    @Override
+    public ArrayData getArray(final int ordinal) {
+        return (ArrayData) refs[ordinal];
+    }
+
+    @Override
+    public MapData getMap(final int ordinal) {
+        return (MapData) refs[ordinal];
+    }
+
+    @Override
+    public Object get(final int ordinal, final DataType dataType) {
+        return getBoxed(ordinal);
+    }
+}
@@ -0,0 +1,215 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream.rowconv;
+
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.expressions.GenericInternalRow;
+import org.apache.spark.sql.catalyst.util.ArrayBasedMapData;
+import org.apache.spark.sql.catalyst.util.DateTimeUtils;
+import org.apache.spark.sql.catalyst.util.GenericArrayData;
+import org.apache.spark.sql.catalyst.util.MapData;
+import org.apache.spark.unsafe.types.UTF8String;
+import software.aws.solution.clickstream.common.model.ClickstreamEvent;
+import software.aws.solution.clickstream.common.model.ClickstreamEventPropValue;
+import software.aws.solution.clickstream.common.model.ClickstreamItem;
+import software.aws.solution.clickstream.common.model.ClickstreamUser;
+import software.aws.solution.clickstream.common.model.ClickstreamUserPropValue;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.Map;
+
+/**
+ * Writes the parsed models straight into Catalyst's internal representation
+ * ({@link UTF8String}, microsecond timestamps, epoch-day dates and {@link ArrayBasedMapData}),
+ * so the rows can be handed to Spark without going through {@code GenericRow}
+ * and the external-to-internal type converters.
+ * Field order follows {@code ModelV2.EVENT_TYPE} (through {@link EventColumn}), {@code ModelV2.ITEM_TYPE} and {@code ModelV2.USER_TYPE},
+ * string columns are truncated to their {@link software.aws.solution.clickstream.common.ColumnLimits} on the way.
+ */
+public final class InternalRowConverter {
+    private InternalRowConverter() {
+    }
+
+    public static InternalRow toInternalRow(final ClickstreamEvent event) {
+        EncodedProperties customParameters = EncodedProperties.ofEvent(event.getCustomParameters());
+        Object[] values = new Object[EventColumn.COLUMNS.length];
+        for (EventColumn column : EventColumn.COLUMNS) {
+            values[column.ordinal()] = toInternal(column, event, customParameters);
+        }
+        return new GenericInternalRow(ColumnLimiter.EVENT.limitInternal(values, event.getProcessInfo()));
+    }
+
+    private static Object toInternal(final EventColumn column, final ClickstreamEvent event, final EncodedProperties customParameters) {
+        switch (column.getKind()) {
+            case TIMESTAMP:
+                return micros((Timestamp) column.get(event));
+            case STRING:
+            case INTERNED_STRING:
+                return utf8((String) column.get(event));
+            case STRING_MAP:
+                return stringMapToMapData(column.getStringMap(event));
+            case CUSTOM_PARAMETERS_JSON:
+                return customParameters.json;
+            case CUSTOM_PARAMETERS_MAP:
+                return customParameters.map;
+            default:
+                return column.get(event);
+        }
+    }
+
+    public static InternalRow toInternalRow(final ClickstreamItem item) {
+        EncodedProperties customParameters = EncodedProperties.ofEvent(item.getCustomParameters());
+        return new GenericInternalRow(ColumnLimiter.ITEM.limitInternal(new Object[]{
+                micros(item.getEventTimestamp()),
+                utf8(item.getEventId()),
+                utf8(item.getEventName()),
+                utf8(item.getPlatform()),
+                utf8(item.getUserPseudoId()),
+                utf8(item.getUserId()),
+                utf8(item.getItemId()),
+                utf8(item.getName()),
+                utf8(item.getBrand()),
+                utf8(item.getCurrency()),
+                item.getPrice(),
+                item.getQuantity(),
+                utf8(item.getCreativeName()),
+                utf8(item.getCreativeSlot()),
+                utf8(item.getLocationId()),
+                utf8(item.getCategory()),
+                utf8(item.getCategory2()),
+                utf8(item.getCategory3()),
+                utf8(item.getCategory4()),
+                utf8(item.getCategory5()),
+                customParameters.json,
+                customParameters.map,
+                stringMapToMapData(item.getProcessInfo()),
+                utf8(item.getAppId())
+        }, item.getProcessInfo()));
+    }
+
+    public static InternalRow toInternalRow(final ClickstreamUser user) {
+        EncodedProperties userProperties = EncodedProperties.ofUser(user.getUserProperties());
+        return new GenericInternalRow(ColumnLimiter.USER.limitInternal(new Object[]{
+                micros(user.getEventTimestamp()),
+                utf8(user.getUserPseudoId()),
+                utf8(user.getUserId()),
+                userProperties.map,
+                userProperties.json,
+                user.getFirstTouchTimeMsec(),
+                days(user.getFirstVisitDate()),
+                utf8(user.getFirstReferrer()),
+                utf8(user.getFirstTrafficSource()),
+                utf8(user.getFirstTrafficMedium()),
+                utf8(user.getFirstTrafficCampaign()),
+                utf8(user.getFirstTrafficContent()),
+                utf8(user.getFirstTrafficTerm()),
+                utf8(user.getFirstTrafficCampaignId()),
+                utf8(user.getFirstTrafficClidPlatform()),
+                utf8(user.getFirstTrafficClid()),
+                utf8(user.getFirstTrafficChannelGroup()),
+                utf8(user.getFirstTrafficCategory()),
+                utf8(user.getFirstAppInstallSource()),
+                stringMapToMapData(user.getProcessInfo()),
+                utf8(user.getAppId()),
+                utf8(user.getEventName()),
+        }, user.getProcessInfo()));
+    }
+
+    public static MapData eventParametersToMapData(final Map<String, ClickstreamEventPropValue> customParameters) {
+        return EncodedProperties.ofEvent(customParameters).map;
+    }
+
+    public static MapData userPropertiesToMapData(final Map<String, ClickstreamUserPropValue> userProperties) {
+        return EncodedProperties.ofUser(userProperties).map;
+    }
+
+    /**
+     * JSON string and map column of one properties map, built in one pass by {@link PropertiesEncoder}.
+     */
+    static final class EncodedProperties {
+        private static final EncodedProperties EMPTY = new EncodedProperties(null, null);
+        final UTF8String json;
+        final MapData map;
+
+        private EncodedProperties(final UTF8String json, final MapData map) {
+            this.json = json;
+            this.map = map;
+        }
+
+        static EncodedProperties ofEvent(final Map<String, ClickstreamEventPropValue> properties) {
+            if (properties == null || properties.isEmpty()) {
+                return EMPTY;
+            }
+            Object[] keys = new Object[properties.size()];
+            Object[] values = new Object[keys.length];
+            String json = PropertiesEncoder.encodeEventProperties(properties, (index, key, value) -> {
+                keys[index] = UTF8String.fromString(key);
+                values[index] = new GenericInternalRow(new Object[]{
+                        utf8(value.getValue()),
+                        utf8(value.getType().getTypeName())
+                });
+            });
+            return new EncodedProperties(utf8(json), new ArrayBasedMapData(new GenericArrayData(keys), new GenericArrayData(values)));
+        }
+
+        static EncodedProperties ofUser(final Map<String, ClickstreamUserPropValue> properties) {
+            if (properties == null || properties.isEmpty()) {
+                return EMPTY;
+            }
+            Object[] keys = new Object[properties.size()];
+            Object[] values = new Object[keys.length];
+            String json = PropertiesEncoder.encodeUserProperties(properties, (index, key, value) -> {
+                keys[index] = UTF8String.fromString(key);
+                values[index] = new GenericInternalRow(new Object[]{
+                        utf8(value.getValue()),
+                        utf8(value.getType().getTypeName()),
+                        value.getSetTimemsec()
+                });
+            });
+            return new EncodedProperties(utf8(json), new ArrayBasedMapData(new GenericArrayData(keys), new GenericArrayData(values)));
+        }
+    }
+
+    public static MapData stringMapToMapData(final Map<String, String> map) {
+        if (map == null) {
+            return null;
+        }
+        Object[] keys = new Object[map.size()];
+        Object[] values = new Object[keys.length];
+        int i = 0;
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            keys[i] = UTF8String.fromString(entry.getKey());
+            values[i] = utf8(entry.getValue());
+            i++;
+        }
+        return new ArrayBasedMapData(new GenericArrayData(keys), new GenericArrayData(values));
+    }
+
+    public static UTF8String utf8(final String value) {
+        return value == null ? null : UTF8String.fromString(value);
+    }
+
+    /**
+     * Same conversion Spark applies to {@link Timestamp} values returned from a UDF,
+     * including the Julian/Gregorian rebase for very old timestamps.
+     */
+    public static Long micros(final Timestamp timestamp) {
+        return timestamp == null ? null : DateTimeUtils.fromJavaTimestamp(timestamp);
+    }
+
+    public static Integer days(final Date date) {
+        return date == null ? null : DateTimeUtils.fromJavaDate(date);
+    }
+}
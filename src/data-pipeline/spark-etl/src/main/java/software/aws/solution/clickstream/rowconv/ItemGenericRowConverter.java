@@ -16,11 +16,16 @@ package software.aws.solution.clickstream.rowconv;
 import org.apache.spark.sql.catalyst.expressions.*;
 import software.aws.solution.clickstream.common.model.*;
 
+import java.util.*;
+
 public final class ItemGenericRowConverter {
     private ItemGenericRowConverter() {
     }
     public static GenericRow toGenericRow(final ClickstreamItem item) {
-        return new GenericRow(new Object[]{
+        Map<String, GenericRow> customParameters = new HashMap<>();
+        String customParametersJson = PropertiesEncoder.encodeEventProperties(item.getCustomParameters(),
+                (index, key, value) -> customParameters.put(key, EventGenericRowConverter.toGenericRow(value)));
+        return new GenericRow(ColumnLimiter.ITEM.limitExternal(new Object[]{
                 item.getEventTimestamp(),
                 item.getEventId(),
                 item.getEventName(),
@@ -41,10 +46,10 @@ public final class ItemGenericRowConverter {
                 item.getCategory3(),
                 item.getCategory4(),
                 item.getCategory5(),
-                EventGenericRowConverter.eventParametersToJsonString(item.getCustomParameters()),
-                EventGenericRowConverter.eventParametersToGenericRowMap(item.getCustomParameters()),
+                customParametersJson,
+                customParametersJson == null ? null : customParameters,
                 item.getProcessInfo(),
                 item.getAppId()
-        });
+        }, item.getProcessInfo()));
     }
 }
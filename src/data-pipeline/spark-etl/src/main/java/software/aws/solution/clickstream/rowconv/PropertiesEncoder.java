@@ -0,0 +1,133 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream.rowconv;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import lombok.extern.slf4j.Slf4j;
+import software.aws.solution.clickstream.common.model.ClickstreamEventPropValue;
+import software.aws.solution.clickstream.common.model.ClickstreamEventPropValueSerializer;
+import software.aws.solution.clickstream.common.model.ClickstreamUserPropValue;
+import software.aws.solution.clickstream.common.model.ClickstreamUserPropValueSerializer;
+import software.aws.solution.clickstream.exception.ExecuteTransformerException;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Map;
+
+import static software.aws.solution.clickstream.common.Util.getStackTrace;
+
+/**
+ * Writes {@code custom_parameters_json_str} / {@code user_properties_json_str} and hands every entry to a
+ * {@link PropertySink} in the same walk over the properties, so the map column is filled without a second pass.
+ * The values are written by {@link ClickstreamEventPropValueSerializer} and {@link ClickstreamUserPropValueSerializer}
+ * through the same generator, so the output is the same as serializing the map.
+ *
+ * <p>Each thread keeps one generator over a reusable buffer.
+ */
+@Slf4j
+public final class PropertiesEncoder {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final ThreadLocal<PropertiesEncoder> ENCODERS = ThreadLocal.withInitial(PropertiesEncoder::new);
+    private static final ClickstreamEventPropValueSerializer EVENT_VALUE_SERIALIZER = new ClickstreamEventPropValueSerializer();
+    private static final ClickstreamUserPropValueSerializer USER_VALUE_SERIALIZER = new ClickstreamUserPropValueSerializer();
+
+    private final StringWriter writer = new StringWriter();
+    private JsonGenerator generator;
+
+    private PropertiesEncoder() {
+    }
+
+    /**
+     * Receives the entries in the order they are written to the JSON string, {@code index} counts from 0.
+     */
+    @FunctionalInterface
+    public interface PropertySink<V> {
+        void accept(int index, String key, V value);
+    }
+
+    /**
+     * @return the JSON string, null if there is no property
+     */
+    public static String encodeEventProperties(final Map<String, ClickstreamEventPropValue> properties,
+                                               final PropertySink<ClickstreamEventPropValue> sink) {
+        if (properties == null || properties.isEmpty()) {
+            return null;
+        }
+        PropertiesEncoder encoder = ENCODERS.get();
+        try {
+            JsonGenerator gen = encoder.start();
+            int index = 0;
+            for (Map.Entry<String, ClickstreamEventPropValue> entry : properties.entrySet()) {
+                gen.writeFieldName(entry.getKey());
+                EVENT_VALUE_SERIALIZER.serialize(entry.getValue(), gen, null);
+                sink.accept(index++, entry.getKey(), entry.getValue());
+            }
+            return encoder.finish();
+        } catch (IOException | RuntimeException e) {
+            encoder.reset();
+            log.error("Failed to serialize customParameters to JSON string {}", getStackTrace(e));
+            throw new ExecuteTransformerException(e);
+        }
+    }
+
+    /**
+     * @return the JSON string, null if there is no property
+     */
+    public static String encodeUserProperties(final Map<String, ClickstreamUserPropValue> properties,
+                                              final PropertySink<ClickstreamUserPropValue> sink) {
+        if (properties == null || properties.isEmpty()) {
+            return null;
+        }
+        PropertiesEncoder encoder = ENCODERS.get();
+        try {
+            JsonGenerator gen = encoder.start();
+            int index = 0;
+            for (Map.Entry<String, ClickstreamUserPropValue> entry : properties.entrySet()) {
+                gen.writeFieldName(entry.getKey());
+                USER_VALUE_SERIALIZER.serialize(entry.getValue(), gen, null);
+                sink.accept(index++, entry.getKey(), entry.getValue());
+            }
+            return encoder.finish();
+        } catch (IOException | RuntimeException e) {
+            encoder.reset();
+            log.error("Failed to serialize userProperties to JSON string {}", getStackTrace(e));
+            throw new ExecuteTransformerException(e);
+        }
+    }
+
+    private JsonGenerator start() throws IOException {
+        if (generator == null) {
+            generator = JSON_FACTORY.createGenerator(writer);
+            // one root object per call, no separator between them
+            generator.setRootValueSeparator(null);
+        }
+        generator.writeStartObject();
+        return generator;
+    }
+
+    private String finish() throws IOException {
+        generator.writeEndObject();
+        generator.flush();
+        String json = writer.toString();
+        writer.getBuffer().setLength(0);
+        return json;
+    }
+
+    private void reset() {
+        // the generator is left in the middle of an object, start over with a new one
+        generator = null;
+        writer.getBuffer().setLength(0);
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+
+package software.aws.solution.clickstream.rowconv;
+
+import org.apache.spark.unsafe.types.UTF8String;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shares one {@link UTF8String} per distinct value of low-cardinality columns (event name, platform, app id, sdk name, ...),
+ * so repeated values are neither re-encoded nor re-allocated for every event.
+ * The pool stops growing at its capacity and long values are never pooled; both fall back to a fresh {@link UTF8String}.
+ * Not thread-safe, one instance is owned by one task.
+ */
+public final class StringInterner {
+    public static final int DEFAULT_CAPACITY = 4096;
+    public static final int MAX_LENGTH = 128;
+
+    private final Map<String, UTF8String> pool = new HashMap<>();
+    private final int capacity;
+    private long hits;
+    private long misses;
+
+    public StringInterner() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public StringInterner(final int capacity) {
+        this.capacity = capacity;
+    }
+
+    public UTF8String intern(final String value) {
+        if (value == null) {
+            return null;
+        }
+        if (value.length() > MAX_LENGTH) {
+            misses++;
+            return UTF8String.fromString(value);
+        }
+        UTF8String interned = pool.get(value);
+        if (interned != null) {
+            hits++;
+            return interned;
+        }
+        misses++;
+        interned = UTF8String.fromString(value);
+        if (pool.size() < capacity) {
+            pool.put(value, interned);
+        }
+        return interned;
+    }
+
+    public int size() {
+        return pool.size();
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+}
@@ -13,19 +13,12 @@
 
 package software.aws.solution.clickstream.rowconv;
 
-import com.fasterxml.jackson.core.*;
-import com.fasterxml.jackson.databind.*;
-import com.fasterxml.jackson.databind.module.*;
-import lombok.extern.slf4j.*;
 import org.apache.spark.sql.catalyst.expressions.*;
 import software.aws.solution.clickstream.common.model.*;
-import software.aws.solution.clickstream.exception.ExecuteTransformerException;
 
 import java.util.*;
 
-import static software.aws.solution.clickstream.common.Util.getStackTrace;
 
-@Slf4j
 public final class UserGenericRowConverter {
     private UserGenericRowConverter() {
     }
@@ -42,28 +35,19 @@ public final class UserGenericRowConverter {
     }
 
     public static String userPropertiesToJsonString(final Map<String, ClickstreamUserPropValue> userProperties) {
-        if (userProperties == null || userProperties.isEmpty()) {
-            return null;
-        }
-        ObjectMapper objectMapper = new ObjectMapper();
-        // ClickstreamUserPropValueSerializer is used to serialize ClickstreamUserPropValue to JSON
-        objectMapper.registerModule(new SimpleModule().addSerializer(ClickstreamUserPropValue.class, new ClickstreamUserPropValueSerializer()));
-
-        try {
-            return objectMapper.writeValueAsString(userProperties);
-        } catch (JsonProcessingException e) {
-            log.error("Failed to serialize userProperties to JSON string {}", getStackTrace(e));
-            throw new ExecuteTransformerException(e);
-        }
+        return PropertiesEncoder.encodeUserProperties(userProperties, (index, key, value) -> { });
     }
 
     public static GenericRow toGenericRow(final ClickstreamUser user) {
-        return new GenericRow(new Object[]{
+        Map<String, GenericRow> userProperties = new HashMap<>();
+        String userPropertiesJson = PropertiesEncoder.encodeUserProperties(user.getUserProperties(),
+                (index, key, value) -> userProperties.put(key, toGenericRow(value)));
+        return new GenericRow(ColumnLimiter.USER.limitExternal(new Object[]{
                 user.getEventTimestamp(),
                 user.getUserPseudoId(),
                 user.getUserId(),
-                userPropertiesToGenericRowMap(user.getUserProperties()),
-                userPropertiesToJsonString(user.getUserProperties()),
+                userPropertiesJson == null ? null : userProperties,
+                userPropertiesJson,
                 user.getFirstTouchTimeMsec(),
                 user.getFirstVisitDate(),
                 user.getFirstReferrer(),
@@ -81,7 +65,7 @@ public final class UserGenericRowConverter {
                 user.getProcessInfo(),
                 user.getAppId(),
                 user.getEventName(),
-        });
+        }, user.getProcessInfo()));
     }
 
     public static GenericRow toGenericRow(final ClickstreamUserPropValue userPropValue) {
@@ -18,6 +18,7 @@ import software.aws.solution.clickstream.exception.ExecuteTransformerException;
 import software.aws.solution.clickstream.transformer.BaseThirdPartyTransformer;
 import software.aws.solution.clickstream.transformer.TransformerNameEnum;
 import software.aws.solution.clickstream.udfconverter.DatasetConverter;
+import software.aws.solution.clickstream.udfconverter.PartitionDataConverter;
 
 import static software.aws.solution.clickstream.transformer.TransformerNameEnum.SENSORS_DATA;
 
@@ -34,7 +35,7 @@ public class SensorsDataTransformerV2 extends BaseThirdPartyTransformer {
         if (this.transformConfig == null) {
             throw new ExecuteTransformerException("Transform config is not set");
         }
-        return new SensorsDataConverterV2(this.transformConfig);
+        return PartitionDataConverter.select(new SensorsDataConverterV2(this.transformConfig));
     }
 
     @Override
@@ -188,8 +188,8 @@ public abstract class BaseThirdPartyTransformer extends BaseTransformerV3 {
             datasetWithFileName = dataset.withColumn(INPUT_FILE_NAME, input_file_name());
         }
 
-        Dataset<Row> convertedDataset = getDatasetTransformer().transform(datasetWithFileName);
-        convertedDataset.cache();
+        Dataset<Row> convertedDataset = getDatasetTransformer().transform(datasetWithFileName, getRequiredOutputs());
+        // the converter keeps the converted rows cached, the extracts below read them without parsing again
         log.info("convertedDataset count:" + convertedDataset.count());
 
         Dataset<Row> eventDataset = extractEvent(convertedDataset);
@@ -22,6 +22,7 @@ import org.apache.spark.sql.types.DataTypes;
 import software.aws.solution.clickstream.TransformerInterfaceV3;
 import software.aws.solution.clickstream.common.Constant;
 import software.aws.solution.clickstream.udfconverter.DatasetConverter;
+import software.aws.solution.clickstream.udfconverter.UDFHelper;
 import software.aws.solution.clickstream.model.ModelV2;
 import software.aws.solution.clickstream.util.ContextUtil;
 import software.aws.solution.clickstream.util.DatasetUtil;
@@ -48,8 +49,6 @@ import static org.apache.spark.sql.functions.when;
 import static software.aws.solution.clickstream.TransformerV3.CLIENT_TIMESTAMP;
 import static software.aws.solution.clickstream.common.BaseEventParser.UPLOAD_TIMESTAMP;
 import static software.aws.solution.clickstream.model.ModelV2.toColumnArray;
-import static software.aws.solution.clickstream.transformer.MaxLengthTransformerV2.runMaxLengthTransformerForEventV2;
-import static software.aws.solution.clickstream.transformer.MaxLengthTransformerV2.runMaxLengthTransformerForItemV2;
 import static software.aws.solution.clickstream.transformer.MaxLengthTransformerV2.runMaxLengthTransformerForSession;
 import static software.aws.solution.clickstream.util.DatasetUtil.EVENT_APP_END;
 import static software.aws.solution.clickstream.util.DatasetUtil.EVENT_PAGE_VIEW;
@@ -88,7 +87,8 @@ public abstract class BaseTransformerV3 implements TransformerInterfaceV3 {
         Dataset<Row> eventDataset = convertedDataset.select(explode(expr("dataOut.events")).alias("event"))
                 .select("event.*")
                 .select(toColumnArray(allFields));
-        return addProcessInfo(runMaxLengthTransformerForEventV2(eventDataset));
+        // the row converters already truncated the strings to their column limits
+        return addProcessInfo(eventDataset);
     }
 
     public Dataset<Row> extractItem(final Dataset<Row> convertedDataset) {
@@ -99,14 +99,19 @@ public abstract class BaseTransformerV3 implements TransformerInterfaceV3 {
                 .select("item.*")
                 .select(toColumnArray(allFields));
         Dataset<Row> deDupitemDataset = deDupDataset(itemDataset, keyFields, allFields);
-        return addProcessInfo(runMaxLengthTransformerForItemV2(deDupitemDataset));
+        return addProcessInfo(deDupitemDataset);
     }
 
     @Override
     public Map<TableName, Dataset<Row>> transform(final Dataset<Row> dataset) {
-        Dataset<Row> cleanedDataset = getCleanedDataset(dataset);
+        // drop rows on their raw columns before anything is decoded, the stage counts them while the cleaned rows are cached
+        IngestFilterStage ingestFilterStage = IngestFilterStage.fromContext(dataset.sparkSession());
+        Dataset<Row> filteredDataset = ingestFilterStage.apply(dataset);
+
+        Dataset<Row> cleanedDataset = getCleanedDataset(filteredDataset);
         ContextUtil.cacheDataset(cleanedDataset);
         log.info(new ETLMetric(cleanedDataset, "after clean").toString());
+        ingestFilterStage.logCounters();
 
         log.debug(cleanedDataset.schema().prettyJson());
 
@@ -116,9 +121,8 @@ public abstract class BaseTransformerV3 implements TransformerInterfaceV3 {
             cleanedDataset = cleanedDataset.withColumn(UPLOAD_TIMESTAMP, lit(null).cast(DataTypes.LongType));
         }
 
-        Dataset<Row> convertedDataset = getDatasetTransformer().transform(cleanedDataset);
-
-        convertedDataset.cache();
+        Dataset<Row> convertedDataset = getDatasetTransformer().transform(cleanedDataset, getRequiredOutputs());
+        // the converter keeps the converted rows cached, the extracts below read them without parsing again
         log.info("convertedDataset count:" + convertedDataset.count());
 
         Dataset<Row> eventDataset = extractEvent(convertedDataset);
@@ -238,6 +242,14 @@ public abstract class BaseTransformerV3 implements TransformerInterfaceV3 {
 
     public abstract DatasetConverter getDatasetTransformer();
 
+    /**
+     * The {@code dataOut} fields read by {@link #extractEvent}, {@link #extractItem} and {@link #extractUser},
+     * the converter leaves the others null. A transformer that does not extract one of them drops its bit.
+     */
+    protected int getRequiredOutputs() {
+        return UDFHelper.OUTPUT_ALL;
+    }
+
     public String getUserPropsTableName() {
         return ("etl_" + this.getName() + "_user_props").toLowerCase();
     }
@@ -0,0 +1,169 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+
+package software.aws.solution.clickstream.transformer;
+
+import org.apache.spark.sql.Column;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import software.aws.solution.clickstream.common.Constant;
+import software.aws.solution.clickstream.common.enrich.ts.rule.CategoryListEvaluator;
+import software.aws.solution.clickstream.common.enrich.ts.rule.ChannelListEvaluator;
+import software.aws.solution.clickstream.common.enrich.ts.rule.ChannelRule;
+import software.aws.solution.clickstream.common.enrich.ts.rule.ChannelRuleCompiler;
+import software.aws.solution.clickstream.common.enrich.ts.rule.ChannelRuleConditionItem;
+import software.aws.solution.clickstream.common.enrich.ts.rule.OpEnum;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.apache.spark.sql.functions.coalesce;
+import static org.apache.spark.sql.functions.col;
+import static org.apache.spark.sql.functions.lit;
+import static org.apache.spark.sql.functions.lower;
+import static org.apache.spark.sql.functions.not;
+import static org.apache.spark.sql.functions.regexp_replace;
+import static org.apache.spark.sql.functions.when;
+import static software.aws.solution.clickstream.common.enrich.ts.rule.ChannelRuleEvaluator.EMPTY_VALUE_FLAG;
+
+/**
+ * Translates the channel rules into one {@code CASE WHEN} {@link Column}, the first matching rule gives the
+ * channel and {@link ChannelListEvaluator#UNASSIGNED} is the default, so the channel of a dataset can be
+ * computed by Spark with whole-stage codegen instead of the JVM rule evaluator.
+ *
+ * <p>The expression has the same result as {@link ChannelListEvaluator#evaluate}: values are compared
+ * lower-cased, a null value compares as an empty string except for {@code in}/{@code not_in}, and
+ * {@code match} matches the whole value. Invalid rules are rejected when compiling, with the errors of
+ * {@link ChannelRuleCompiler}.
+ *
+ * <p>The transformers still compute the channel in the event parsers, with the rules of each app, this class only
+ * provides the expression for a dataset whose events share one rule list.
+ */
+public final class ChannelRuleSqlCompiler {
+
+    private ChannelRuleSqlCompiler() {
+    }
+
+    /**
+     * Compile the rules over the event columns, see {@link #eventInputColumn}.
+     */
+    public static Column compile(final List<ChannelRule> channelRules) {
+        return compile(channelRules, ChannelRuleSqlCompiler::eventInputColumn);
+    }
+
+    /**
+     * @param fieldColumns the column of each rule field
+     */
+    public static Column compile(final List<ChannelRule> channelRules, final Function<String, Column> fieldColumns) {
+        Column channel = null;
+        for (ChannelRule channelRule : channelRules) {
+            // validate the rule the same way as the JVM evaluator
+            ChannelRuleCompiler.compile(channelRule);
+
+            List<ChannelRuleConditionItem> andList = channelRule.getCondition().getOpAndList();
+            Column condition = andList != null
+                    ? compileList(andList, true, fieldColumns)
+                    : compileList(channelRule.getCondition().getOpOrList(), false, fieldColumns);
+            channel = channel == null ? when(condition, lit(channelRule.getChannel())) : channel.when(condition, lit(channelRule.getChannel()));
+        }
+        if (channel == null) {
+            return lit(ChannelListEvaluator.UNASSIGNED);
+        }
+        return channel.otherwise(lit(ChannelListEvaluator.UNASSIGNED));
+    }
+
+    /**
+     * Add the column {@link Constant#TRAFFIC_SOURCE_CHANNEL_GROUP} computed by the rules from the event columns.
+     */
+    public static Dataset<Row> classify(final Dataset<Row> dataset, final List<ChannelRule> channelRules) {
+        return dataset.withColumn(Constant.TRAFFIC_SOURCE_CHANNEL_GROUP, compile(channelRules));
+    }
+
+    /**
+     * The event column of a rule field, prepared like {@code ChannelRuleEvaluatorInput.from}: the category
+     * {@link CategoryListEvaluator#UNASSIGNED} is no category and the parentheses are removed from the medium.
+     */
+    public static Column eventInputColumn(final String field) {
+        if (Constant.TRAFFIC_SOURCE_CATEGORY.equals(field)) {
+            return when(col(field).notEqual(CategoryListEvaluator.UNASSIGNED), col(field));
+        }
+        if (Constant.TRAFFIC_SOURCE_MEDIUM.equals(field)) {
+            return regexp_replace(col(field), "[()]", "");
+        }
+        return col(field);
+    }
+
+    private static Column compileList(final List<ChannelRuleConditionItem> items, final boolean isAnd,
+                                      final Function<String, Column> fieldColumns) {
+        Column condition = null;
+        for (ChannelRuleConditionItem item : items) {
+            Column itemCondition = compileItem(item, fieldColumns);
+            if (condition == null) {
+                condition = itemCondition;
+            } else {
+                condition = isAnd ? condition.and(itemCondition) : condition.or(itemCondition);
+            }
+        }
+        return condition;
+    }
+
+    private static Column compileItem(final ChannelRuleConditionItem item, final Function<String, Column> fieldColumns) {
+        if (item.getOpAndList() != null) {
+            return compileList(item.getOpAndList(), true, fieldColumns);
+        }
+        if (item.getOpOrList() != null) {
+            return compileList(item.getOpOrList(), false, fieldColumns);
+        }
+
+        String op = item.getOp();
+        Column actual = fieldColumns.apply(item.getField());
+        if (op.equals(OpEnum.IN.getOp()) || op.equals(OpEnum.NOT_IN.getOp())) {
+            Object[] values = item.getValues().stream().map(String::toLowerCase).toArray();
+            Column isIn = coalesce(lower(actual).isin(values), lit(false));
+            return op.equals(OpEnum.IN.getOp()) ? isIn : not(isIn);
+        }
+
+        Column actualLower = lower(coalesce(actual, lit("")));
+        String value = EMPTY_VALUE_FLAG.equals(item.getValue()) ? "" : item.getValue().toLowerCase();
+        if (op.equals(OpEnum.EQ.getOp())) {
+            return actualLower.equalTo(value);
+        } else if (op.equals(OpEnum.NOT_EQ.getOp())) {
+            return actualLower.notEqual(value);
+        } else if (op.equals(OpEnum.CONTAIN.getOp())) {
+            return actualLower.contains(value);
+        } else if (op.equals(OpEnum.NOT_CONTAIN.getOp())) {
+            return not(actualLower.contains(value));
+        } else if (op.equals(OpEnum.START_WITH.getOp())) {
+            return actualLower.startsWith(value);
+        } else if (op.equals(OpEnum.NOT_START_WITH.getOp())) {
+            return not(actualLower.startsWith(value));
+        } else if (op.equals(OpEnum.END_WITH.getOp())) {
+            return actualLower.endsWith(value);
+        } else if (op.equals(OpEnum.NOT_END_WITH.getOp())) {
+            return not(actualLower.endsWith(value));
+        } else if (op.equals(OpEnum.MATCH.getOp())) {
+            return actualLower.rlike(wholeMatch(value));
+        } else if (op.equals(OpEnum.NOT_MATCH.getOp())) {
+            return not(actualLower.rlike(wholeMatch(value)));
+        }
+        throw new IllegalArgumentException("Channel rule condition item field has unknown operator " + op);
+    }
+
+    /**
+     * rlike finds the regex in the value, {@link String#matches} matches the whole value.
+     */
+    private static String wholeMatch(final String regex) {
+        return "\\A(?:" + regex + ")\\z";
+    }
+}
@@ -36,7 +36,6 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Arrays;
-import java.util.Base64;
 import java.util.List;
 import java.util.Map;
 
@@ -63,7 +62,7 @@ import static software.aws.solution.clickstream.util.DatasetUtil.EVENT_FIRST_VIS
 import static software.aws.solution.clickstream.util.DatasetUtil.EVENT_PROFILE_SET;
 import static software.aws.solution.clickstream.util.DatasetUtil.JOB_NAME_COL;
 import static software.aws.solution.clickstream.ETLRunner.DEBUG_LOCAL_PATH;
-import static software.aws.solution.clickstream.common.Util.decompress;
+import static software.aws.solution.clickstream.common.Util.decompressBase64;
 import static software.aws.solution.clickstream.util.DatasetUtil.hasColumn;
 
 
@@ -85,8 +84,7 @@ public class Cleaner {
                 return dataTrim;
             }
             try {
-                byte[] binGzipData = Base64.getDecoder().decode(data);
-                return decompress(binGzipData);
+                return decompressBase64(data);
             } catch (Exception e) {
                 log.error("extractData error:" + e.getMessage());
                 return "[\"error: extractData error"
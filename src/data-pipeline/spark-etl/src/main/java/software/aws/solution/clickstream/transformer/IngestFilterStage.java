@@ -0,0 +1,132 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream.transformer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.logging.log4j.util.Strings;
+import org.apache.spark.sql.Column;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.SparkSession;
+import org.apache.spark.sql.api.java.UDF3;
+import org.apache.spark.sql.expressions.UserDefinedFunction;
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.util.LongAccumulator;
+import software.aws.solution.clickstream.common.filter.IngestFilter;
+import software.aws.solution.clickstream.util.ETLMetric;
+
+import java.io.Serializable;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.apache.spark.sql.functions.col;
+import static org.apache.spark.sql.functions.lit;
+import static org.apache.spark.sql.functions.udf;
+import static software.aws.solution.clickstream.udfconverter.BaseDataConverter.INGEST_APPID;
+import static software.aws.solution.clickstream.util.ContextUtil.DATA_FRESHNESS_HOUR_PROP;
+import static software.aws.solution.clickstream.util.ContextUtil.FILTER_BOT_BY_UA_PROP;
+import static software.aws.solution.clickstream.util.ContextUtil.INGEST_START_TIMESTAMP_PROP;
+import static software.aws.solution.clickstream.util.DatasetUtil.hasColumn;
+
+/**
+ * Drops ingest rows on their raw {@code ua}, {@code appId} and {@code ingest_time} columns before any
+ * Base64/gzip/JSON work, see {@link IngestFilter}. The filter only reads these columns, the data column is
+ * not touched for the dropped rows.
+ *
+ * <p>The kept rows and the dropped rows per reason are counted in accumulators, their values are only complete
+ * after an action and add up when the filtered dataset is evaluated more than once.
+ */
+@Slf4j
+public final class IngestFilterStage implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final String UA = "ua";
+    private static final String INGEST_TIME = "ingest_time";
+
+    private final IngestFilter ingestFilter;
+    private final Map<IngestFilter.Reason, LongAccumulator> dropped = new EnumMap<>(IngestFilter.Reason.class); // NOSONAR
+    private final LongAccumulator kept; // NOSONAR
+
+    public IngestFilterStage(final SparkSession spark, final IngestFilter ingestFilter) {
+        this.ingestFilter = ingestFilter;
+        this.kept = spark.sparkContext().longAccumulator("ingest.filter.kept");
+        for (IngestFilter.Reason reason : IngestFilter.Reason.values()) {
+            dropped.put(reason, spark.sparkContext().longAccumulator("ingest.filter." + reason.name().toLowerCase()));
+        }
+    }
+
+    /**
+     * Build the stage from the job properties: the bot filter flag, off unless set to true since the parsed UA
+     * device category still drops the bots later, and, when the start of the ingest window is known, the data
+     * freshness before that start. The raw {@code appId} column is only checked for being
+     * non-empty, the valid app ids apply to the {@code app_id} of the events and stay in {@link Cleaner}.
+     */
+    public static IngestFilterStage fromContext(final SparkSession spark) {
+        String filterBotByUA = System.getProperty(FILTER_BOT_BY_UA_PROP);
+        String ingestStart = System.getProperty(INGEST_START_TIMESTAMP_PROP);
+        Long minIngestTime = null;
+        if (Strings.isNotBlank(ingestStart)) {
+            long dataFreshnessInHour = Long.parseLong(System.getProperty(DATA_FRESHNESS_HOUR_PROP, "72"));
+            minIngestTime = Long.parseLong(ingestStart) - dataFreshnessInHour * 60 * 60 * 1000L;
+        }
+        IngestFilter ingestFilter = new IngestFilter(
+                null,
+                minIngestTime,
+                Boolean.parseBoolean(filterBotByUA));
+        log.info("ingest filter, minIngestTime: {}, filterBots: {}", minIngestTime, ingestFilter.isFilterBots());
+        return new IngestFilterStage(spark, ingestFilter);
+    }
+
+    public Dataset<Row> apply(final Dataset<Row> dataset) {
+        UserDefinedFunction keepUdf = udf(keep(), DataTypes.BooleanType).asNondeterministic();
+        return dataset.filter(keepUdf.apply(
+                column(dataset, UA, DataTypes.StringType),
+                column(dataset, INGEST_APPID, DataTypes.StringType),
+                column(dataset, INGEST_TIME, DataTypes.LongType)));
+    }
+
+    private static Column column(final Dataset<Row> dataset, final String name, final DataType type) {
+        return hasColumn(dataset, name) ? col(name).cast(type) : lit(null).cast(type);
+    }
+
+    private UDF3<String, String, Long, Boolean> keep() {
+        IngestFilter filter = this.ingestFilter;
+        Map<IngestFilter.Reason, LongAccumulator> counters = this.dropped;
+        LongAccumulator keptCounter = this.kept;
+        return (userAgent, appId, ingestTime) -> {
+            IngestFilter.Reason reason = filter.check(userAgent, appId, ingestTime);
+            if (reason == null) {
+                keptCounter.add(1);
+                return true;
+            }
+            counters.get(reason).add(1);
+            return false;
+        };
+    }
+
+    public long getDropped(final IngestFilter.Reason reason) {
+        return dropped.get(reason).value();
+    }
+
+    public long getKept() {
+        return kept.value();
+    }
+
+    public void logCounters() {
+        log.info(new ETLMetric(kept.value(), "after ingest filter").toString());
+        for (Map.Entry<IngestFilter.Reason, LongAccumulator> entry : dropped.entrySet()) {
+            log.info(new ETLMetric(entry.getValue().value(), "filtered before parse by " + entry.getKey().name().toLowerCase()).toString());
+        }
+    }
+}
@@ -14,5 +14,5 @@
 package software.aws.solution.clickstream.transformer;
 
 public enum TransformerNameEnum {
-    CLICKSTREAM, GTM_SERVER_DATA, SENSORS_DATA;
+    CLICKSTREAM, GTM_SERVER_DATA, SENSORS_DATA, MAPPING;
 }
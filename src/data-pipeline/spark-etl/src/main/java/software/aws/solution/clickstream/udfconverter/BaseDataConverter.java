@@ -20,8 +20,10 @@ import org.apache.spark.sql.SaveMode;
 import org.apache.spark.sql.expressions.UserDefinedFunction;
 import org.apache.spark.sql.functions;
 import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.storage.StorageLevel;
 import software.aws.solution.clickstream.transformer.TransformConfigurable;
 import software.aws.solution.clickstream.transformer.TransformerNameEnum;
+import software.aws.solution.clickstream.util.ContextUtil;
 import software.aws.solution.clickstream.util.DatasetUtil;
 
 import static org.apache.spark.sql.functions.col;
@@ -46,20 +48,42 @@ public abstract class BaseDataConverter implements DatasetConverter, TransformCo
 
     @Override
     public Dataset<Row> transform(final Dataset<Row> dataset) {
+        return transform(dataset, UDFHelper.OUTPUT_ALL);
+    }
 
-        Dataset<Row> convertedDataset = convertByUDF(dataset);
+    /**
+     * The converted rows are persisted and the corrupt records are counted from them, so each input row is parsed once.
+     * Once materialized they replace the input as the dataset cached by {@link ContextUtil#cacheDataset}.
+     */
+    @Override
+    public Dataset<Row> transform(final Dataset<Row> dataset, final int requiredOutputs) {
+        Dataset<Row> convertedDataset = convert(dataset, requiredOutputs).persist(StorageLevel.MEMORY_AND_DISK());
 
         boolean debugLocal = Boolean.parseBoolean(System.getProperty(DEBUG_LOCAL_PROP));
         if (debugLocal) {
             convertedDataset.write().mode(SaveMode.Overwrite).json(DEBUG_LOCAL_PATH + "/" + getName());
         }
-        Dataset<Row> okDataset = convertedDataset.filter(col(DATA_OUT).getField(CORRUPT_RECORD).isNull());
         Dataset<Row> corruptDataset = convertedDataset.filter(col(DATA_OUT).getField(CORRUPT_RECORD).isNotNull());
         long corruptDatasetCount = corruptDataset.count();
         if (corruptDatasetCount > 0) {
             DatasetUtil.saveCorruptDataset(corruptDataset, corruptDatasetCount, "etl_corrupted_json_" + getName().toString().toLowerCase());
         }
-        return okDataset;
+        ContextUtil.cacheDataset(convertedDataset);
+        return convertedDataset.filter(col(DATA_OUT).getField(CORRUPT_RECORD).isNull());
+    }
+
+    /**
+     * Returns the filtered input with the {@code dataOut} column, one row per parsed data element.
+     */
+    public Dataset<Row> convert(final Dataset<Row> dataset) {
+        return convert(dataset, UDFHelper.OUTPUT_ALL);
+    }
+
+    /**
+     * Only the {@code dataOut} fields selected by {@code requiredOutputs} are built, the others are null.
+     */
+    public Dataset<Row> convert(final Dataset<Row> dataset, final int requiredOutputs) {
+        return convertByExpression(dataset, requiredOutputs);
     }
 
     public Dataset<Row> convertByUDF(final Dataset<Row> dataset) {
@@ -71,6 +95,19 @@ public abstract class BaseDataConverter implements DatasetConverter, TransformCo
                 ));
     }
 
+    public Dataset<Row> convertByExpression(final Dataset<Row> dataset) {
+        return convertByExpression(dataset, UDFHelper.OUTPUT_ALL);
+    }
+
+    /**
+     * Only the {@code dataOut} fields selected by {@code requiredOutputs} are built, the others are null.
+     */
+    public Dataset<Row> convertByExpression(final Dataset<Row> dataset, final int requiredOutputs) {
+        return filterEmptyAppId(dataset)
+                .withColumn(DATA_OUT, explode(ParseClickstream.parseClickstream(this.getName(), this.getTransformConfig(),
+                        requiredOutputs, getUDFParamsColumns(dataset))));
+    }
+
     public Column[] getUDFParamsColumns(final Dataset<Row> dataset) {
         String projectId = System.getProperty(PROJECT_ID_PROP);
         Column[] columns = new Column[]{
@@ -19,4 +19,12 @@ import org.apache.spark.sql.Row;
 
 public interface DatasetConverter {
     Dataset<Row> transform(Dataset<Row> dataset);
+
+    /**
+     * Convert building only the {@code dataOut} fields selected by {@code requiredOutputs}
+     * ({@link UDFHelper#OUTPUT_EVENTS}, {@link UDFHelper#OUTPUT_USER}, {@link UDFHelper#OUTPUT_ITEMS}).
+     */
+    default Dataset<Row> transform(final Dataset<Row> dataset, final int requiredOutputs) {
+        return transform(dataset);
+    }
 }
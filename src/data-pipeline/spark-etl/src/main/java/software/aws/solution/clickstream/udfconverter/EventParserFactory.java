@@ -16,6 +16,7 @@ package software.aws.solution.clickstream.udfconverter;
 import software.aws.solution.clickstream.common.ClickstreamEventParser;
 import software.aws.solution.clickstream.common.EventParser;
 import software.aws.solution.clickstream.common.gtm.GTMEventParser;
+import software.aws.solution.clickstream.common.mapping.MappingEventParser;
 import software.aws.solution.clickstream.exception.ExecuteTransformerException;
 import software.aws.solution.clickstream.common.sensors.SensorsEventParser;
 import software.aws.solution.clickstream.transformer.TransformerNameEnum;
@@ -33,6 +34,8 @@ public final class EventParserFactory {
                 return SensorsEventParser.getInstance(transformConfig);
             case CLICKSTREAM:
                 return ClickstreamEventParser.getInstance(transformConfig);
+            case MAPPING:
+                return MappingEventParser.getInstance(transformConfig);
             default:
                 throw new ExecuteTransformerException("Unknown parser name: " + parserName);
         }
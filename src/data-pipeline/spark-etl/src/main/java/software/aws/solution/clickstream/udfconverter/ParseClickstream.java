@@ -0,0 +1,255 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream.udfconverter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.spark.sql.Column;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.expressions.Expression;
+import org.apache.spark.sql.catalyst.expressions.codegen.CodeBlock;
+import org.apache.spark.sql.catalyst.expressions.codegen.CodeGenerator;
+import org.apache.spark.sql.catalyst.expressions.codegen.CodegenContext;
+import org.apache.spark.sql.catalyst.expressions.codegen.ExprCode;
+import org.apache.spark.sql.catalyst.expressions.codegen.FalseLiteral$;
+import org.apache.spark.sql.catalyst.expressions.codegen.JavaCode;
+import org.apache.spark.sql.catalyst.util.ArrayData;
+import org.apache.spark.sql.catalyst.util.GenericArrayData;
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.unsafe.types.UTF8String;
+import scala.collection.immutable.IndexedSeq;
+import scala.collection.immutable.Seq;
+import scala.jdk.javaapi.CollectionConverters;
+import software.aws.solution.clickstream.common.EventParser;
+import software.aws.solution.clickstream.common.ExtraParams;
+import software.aws.solution.clickstream.common.TransformConfig;
+import software.aws.solution.clickstream.transformer.TransformerNameEnum;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import static software.aws.solution.clickstream.common.Util.ERROR_LOG;
+import static software.aws.solution.clickstream.common.Util.VALUE_LOG;
+import static software.aws.solution.clickstream.common.Util.getStackTrace;
+
+/**
+ * Catalyst expression doing the work of {@link UDFHelper#getConvertDataUdf}: it reads the ten ingest
+ * columns in their internal form ({@code UTF8String}/{@code long}) and returns the {@code dataOut} array
+ * already as internal rows, so no external-type conversion happens on either side.
+ * The generated code evaluates the children inline and calls {@link #parse(Object[])} on the expression instance.
+ *
+ * <p>{@code requiredOutputs} selects which of {@code events}, {@code user} and {@code items} are built,
+ * the pruned fields stay null. The transformers pass the fields their extract methods read through
+ * {@link DatasetConverter#transform(org.apache.spark.sql.Dataset, int)}.
+ */
+@Slf4j
+public class ParseClickstream extends Expression implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final DataType[] INPUT_TYPES = {
+            DataTypes.StringType, // data
+            DataTypes.LongType, // ingest_time
+            DataTypes.LongType, // upload_timestamp
+            DataTypes.StringType, // rid
+            DataTypes.StringType, // uri
+            DataTypes.StringType, // ua
+            DataTypes.StringType, // ip
+            DataTypes.StringType, // project id
+            DataTypes.StringType, // input file name
+            DataTypes.StringType, // app id
+    };
+
+    private final Seq<Expression> inputs;
+    private final TransformerNameEnum parserName;
+    private final TransformConfig transformConfig;
+    private final int requiredOutputs;
+    private transient EventParser eventParser;
+
+    public ParseClickstream(final Seq<Expression> inputs, final TransformerNameEnum parserName,
+                            final TransformConfig transformConfig, final int requiredOutputs) {
+        if (inputs.size() != INPUT_TYPES.length) {
+            throw new IllegalArgumentException("parse_clickstream expects " + INPUT_TYPES.length + " inputs, got " + inputs.size());
+        }
+        this.inputs = inputs;
+        this.parserName = parserName;
+        this.transformConfig = transformConfig;
+        this.requiredOutputs = requiredOutputs;
+    }
+
+    public static Column parseClickstream(final TransformerNameEnum parserName, final TransformConfig transformConfig, final Column... columns) {
+        return parseClickstream(parserName, transformConfig, UDFHelper.OUTPUT_ALL, columns);
+    }
+
+    /**
+     * Inputs are in the order of {@code BaseDataConverter.getUDFParamsColumns} and are cast to the expected types,
+     * the casts are no-ops for the usual ingest schema.
+     */
+    public static Column parseClickstream(final TransformerNameEnum parserName, final TransformConfig transformConfig,
+                                          final int requiredOutputs, final Column... columns) {
+        List<Expression> children = new ArrayList<>();
+        for (int i = 0; i < columns.length; i++) {
+            children.add(i < INPUT_TYPES.length ? columns[i].cast(INPUT_TYPES[i]).expr() : columns[i].expr());
+        }
+        return new Column(new ParseClickstream(CollectionConverters.asScala(children).toList(), parserName, transformConfig, requiredOutputs));
+    }
+
+    public static DataType getInputType(final int index) {
+        return INPUT_TYPES[index];
+    }
+
+    public int getRequiredOutputs() {
+        return requiredOutputs;
+    }
+
+    private EventParser getEventParser() {
+        if (eventParser == null) {
+            eventParser = EventParserFactory.getEventParser(parserName, transformConfig);
+        }
+        return eventParser;
+    }
+
+    /**
+     * Called from the generated code and from {@link #eval(InternalRow)} with the evaluated inputs.
+     */
+    public ArrayData parse(final Object[] values) {
+        String value = string(values[0]);
+        try {
+            List<InternalRow> rows = UDFHelper.getInternalRowList(value, ExtraParams.builder()
+                    .ingestTimestamp((Long) values[1])
+                    .uploadTimestamp((Long) values[2])
+                    .rid(string(values[3]))
+                    .uri(string(values[4]))
+                    .ua(string(values[5]))
+                    .ip(string(values[6]))
+                    .projectId(string(values[7]))
+                    .inputFileName(string(values[8]))
+                    .appId(string(values[9]))
+                    .build(), getEventParser(), requiredOutputs);
+            return new GenericArrayData(rows.toArray());
+        } catch (Exception e) {
+            log.error("cannot convert data to ClickstreamEvent"
+                    + ERROR_LOG + e.getMessage() + VALUE_LOG + value);
+            log.error(getStackTrace(e));
+            return new GenericArrayData(new Object[]{UDFHelper.getCorruptInternalRow(value, e)});
+        }
+    }
+
+    /**
+     * The string inputs are evaluated as {@link UTF8String}, decoded once for the parser.
+     */
+    private static String string(final Object value) {
+        return value == null ? null : ((UTF8String) value).toString();
+    }
+
+    @Override
+    public Object eval(final InternalRow input) {
+        Object[] values = new Object[INPUT_TYPES.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = inputs.apply(i).eval(input);
+        }
+        return parse(values);
+    }
+
+    @Override
+    public ExprCode doGenCode(final CodegenContext ctx, final ExprCode ev) {
+        String self = ctx.addReferenceObj("parseClickstream", this, ParseClickstream.class.getName());
+        String values = ctx.freshName("values");
+        StringBuilder code = new StringBuilder();
+        code.append("Object[] ").append(values).append(" = new Object[").append(INPUT_TYPES.length).append("];\n");
+        for (int i = 0; i < INPUT_TYPES.length; i++) {
+            ExprCode input = inputs.apply(i).genCode(ctx);
+            code.append(input.code()).append('\n')
+                    .append("if (!").append(input.isNull()).append(") {\n")
+                    .append("  ").append(values).append('[').append(i).append("] = ")
+                    .append('(').append(CodeGenerator.boxedType(inputs.apply(i).dataType())).append(") ")
+                    .append(input.value()).append(";\n")
+                    .append("}\n");
+        }
+        code.append(CodeGenerator.javaType(dataType())).append(' ').append(ev.value())
+                .append(" = ").append(self).append(".parse(").append(values).append(");\n");
+        return ev.copy(new CodeBlock(CollectionConverters.asScala(Collections.singletonList(code.toString())).toList(),
+                CollectionConverters.asScala(Collections.<JavaCode>emptyList()).toList()), FalseLiteral$.MODULE$, ev.value());
+    }
+
+    @Override
+    public boolean nullable() {
+        return false;
+    }
+
+    @Override
+    public DataType dataType() {
+        return UDFHelper.getUdfOutput();
+    }
+
+    @Override
+    public String prettyName() {
+        return "parse_clickstream";
+    }
+
+    @Override
+    public Seq<Expression> children() {
+        return inputs;
+    }
+
+    @Override
+    public Expression withNewChildrenInternal(final IndexedSeq<Expression> newChildren) {
+        return new ParseClickstream(newChildren, parserName, transformConfig, requiredOutputs);
+    }
+
+    @Override
+    public int productArity() {
+        return 4;
+    }
+
+    @Override
+    public Object productElement(final int n) {
+        switch (n) {
+            case 0:
+                return inputs;
+            case 1:
+                return parserName;
+            case 2:
+                return transformConfig;
+            case 3:
+                return requiredOutputs;
+            default:
+                throw new IndexOutOfBoundsException(String.valueOf(n));
+        }
+    }
+
+    @Override
+    public boolean canEqual(final Object that) {
+        return that instanceof ParseClickstream;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ParseClickstream)) {
+            return false;
+        }
+        ParseClickstream that = (ParseClickstream) o;
+        return requiredOutputs == that.requiredOutputs && parserName == that.parserName
+                && inputs.equals(that.inputs) && Objects.equals(transformConfig, that.transformConfig);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(inputs, parserName, requiredOutputs);
+    }
+}
@@ -0,0 +1,321 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream.udfconverter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.spark.api.java.function.FlatMapFunction;
+import org.apache.spark.rdd.RDD;
+import org.apache.spark.sql.Column;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.SparkSession;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.expressions.GenericInternalRow;
+import org.apache.spark.sql.catalyst.expressions.JoinedRow;
+import org.apache.spark.sql.catalyst.expressions.UnsafeProjection;
+import org.apache.spark.sql.types.StructType;
+import org.apache.spark.util.LongAccumulator;
+import software.aws.solution.clickstream.common.EventParser;
+import software.aws.solution.clickstream.common.ExtraParams;
+import software.aws.solution.clickstream.common.ParseBatchStats;
+import software.aws.solution.clickstream.common.ParseDataResult;
+import software.aws.solution.clickstream.common.ParseSink;
+import software.aws.solution.clickstream.common.TransformConfig;
+import software.aws.solution.clickstream.common.model.ClickstreamEvent;
+import software.aws.solution.clickstream.rowconv.EventArena;
+import software.aws.solution.clickstream.transformer.TransformerNameEnum;
+import software.aws.solution.clickstream.util.ContextUtil;
+import software.aws.solution.clickstream.util.ETLMetric;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.apache.spark.sql.functions.col;
+import static software.aws.solution.clickstream.common.ClickstreamEventParser.EVENT_TIMESTAMP_ADJUSTED;
+import static software.aws.solution.clickstream.common.Util.ERROR_LOG;
+import static software.aws.solution.clickstream.common.Util.VALUE_LOG;
+import static software.aws.solution.clickstream.common.Util.getStackTrace;
+import static software.aws.solution.clickstream.util.DatasetUtil.DATA_OUT;
+
+/**
+ * Converts through {@code mapPartitions} on the internal rows instead of evaluating the convert function per row.
+ * The parser, the input projection and the output buffer are set up once per partition, output rows are flushed
+ * in batches of {@link #FLUSH_ROWS}, and each partition logs its own counters when it is done; the totals are kept
+ * in accumulators and logged on the driver. Event rows come from a per-partition {@link EventArena} and are refilled
+ * once a batch has been handed out.
+ *
+ * <p>Enabled per transformer with the run flag {@link ContextUtil#CONVERT_BY_PARTITIONS}, see {@link #select(BaseDataConverter)}.
+ */
+@Slf4j
+public class PartitionDataConverter extends BaseDataConverter {
+    public static final int FLUSH_ROWS = 1024;
+    private static final String INPUT_COL_PREFIX = "_convert_in_";
+
+    private final BaseDataConverter converter;
+    private ConvertCounters counters;
+
+    public PartitionDataConverter(final BaseDataConverter converter) {
+        this.converter = converter;
+    }
+
+    public static BaseDataConverter select(final BaseDataConverter converter) {
+        if (ContextUtil.isConvertByPartitions(converter.getName().name())) {
+            log.info("convert {} by partitions", converter.getName());
+            return new PartitionDataConverter(converter);
+        }
+        return converter;
+    }
+
+    @Override
+    public TransformerNameEnum getName() {
+        return converter.getName();
+    }
+
+    @Override
+    public TransformConfig getTransformConfig() {
+        return converter.getTransformConfig();
+    }
+
+    @Override
+    public Column[] getUDFParamsColumns(final Dataset<Row> dataset) {
+        return converter.getUDFParamsColumns(dataset);
+    }
+
+    public ConvertCounters getCounters() {
+        return counters;
+    }
+
+    @Override
+    public Dataset<Row> transform(final Dataset<Row> dataset) {
+        Dataset<Row> okDataset = super.transform(dataset);
+        if (counters != null) {
+            log.info(new ETLMetric(counters.rows.value(), getName() + " convert input rows").toString());
+            log.info(new ETLMetric(counters.events.value(), getName() + " convert events").toString());
+            log.info(new ETLMetric(counters.corrupt.value(), getName() + " convert corrupt rows").toString());
+            log.info(new ETLMetric(counters.adjusted.value(), getName() + " convert adjusted event timestamps").toString());
+        }
+        return okDataset;
+    }
+
+    @Override
+    public Dataset<Row> convert(final Dataset<Row> dataset, final int requiredOutputs) {
+        Dataset<Row> filteredDataset = filterEmptyAppId(dataset);
+        StructType inputSchema = filteredDataset.schema();
+        Column[] params = getUDFParamsColumns(dataset);
+
+        List<Column> selectColumns = new ArrayList<>();
+        for (String name : filteredDataset.columns()) {
+            selectColumns.add(col(name));
+        }
+        for (int i = 0; i < params.length; i++) {
+            selectColumns.add(params[i].cast(ParseClickstream.getInputType(i)).alias(INPUT_COL_PREFIX + i));
+        }
+        Dataset<Row> inputDataset = filteredDataset.select(selectColumns.toArray(new Column[0]));
+
+        SparkSession spark = dataset.sparkSession();
+        this.counters = new ConvertCounters(spark, getName());
+        PartitionConverter partitionConverter = new PartitionConverter(getName(), getTransformConfig(), inputSchema, this.counters, requiredOutputs);
+        RDD<InternalRow> rows = inputDataset.queryExecution().toRdd().toJavaRDD().mapPartitions(partitionConverter).rdd();
+        return spark.internalCreateDataFrame(rows, inputSchema.add(DATA_OUT, UDFHelper.getUdfOutput().elementType(), true), false);
+    }
+
+    /**
+     * Accumulators behind the per-partition counters, their values are only complete after an action
+     * and add up when the converted dataset is evaluated more than once.
+     */
+    public static class ConvertCounters implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final LongAccumulator rows;
+        private final LongAccumulator events;
+        private final LongAccumulator corrupt;
+        private final LongAccumulator adjusted;
+
+        ConvertCounters(final SparkSession spark, final TransformerNameEnum name) {
+            String prefix = "convert." + name.name().toLowerCase() + ".";
+            this.rows = spark.sparkContext().longAccumulator(prefix + "rows");
+            this.events = spark.sparkContext().longAccumulator(prefix + "events");
+            this.corrupt = spark.sparkContext().longAccumulator(prefix + "corrupt");
+            this.adjusted = spark.sparkContext().longAccumulator(prefix + "adjusted");
+        }
+
+        public long getRows() {
+            return rows.value();
+        }
+
+        public long getEvents() {
+            return events.value();
+        }
+
+        public long getCorrupt() {
+            return corrupt.value();
+        }
+
+        public long getAdjusted() {
+            return adjusted.value();
+        }
+    }
+
+    private static class PartitionConverter implements FlatMapFunction<Iterator<InternalRow>, InternalRow> {
+        private static final long serialVersionUID = 1L;
+        private final TransformerNameEnum name;
+        private final TransformConfig transformConfig;
+        private final StructType inputSchema;
+        private final ConvertCounters counters;
+        private final int requiredOutputs;
+
+        PartitionConverter(final TransformerNameEnum name, final TransformConfig transformConfig,
+                           final StructType inputSchema, final ConvertCounters counters, final int requiredOutputs) {
+            this.name = name;
+            this.transformConfig = transformConfig;
+            this.inputSchema = inputSchema;
+            this.counters = counters;
+            this.requiredOutputs = requiredOutputs;
+        }
+
+        @Override
+        public Iterator<InternalRow> call(final Iterator<InternalRow> input) {
+            return new PartitionIterator(input, EventParserFactory.getEventParser(name, transformConfig),
+                    UnsafeProjection.create(inputSchema), inputSchema.size(), counters, requiredOutputs);
+        }
+    }
+
+    private static final class PartitionIterator implements Iterator<InternalRow>, ParseSink {
+        private final Iterator<InternalRow> input;
+        private final EventParser eventParser;
+        private final UnsafeProjection inputColumns;
+        private final int paramsOffset;
+        private final ConvertCounters counters;
+        private final int requiredOutputs;
+        private final ExtraParams.ExtraParamsBuilder extraParams = ExtraParams.builder();
+        private final List<InternalRow> buffer = new ArrayList<>(FLUSH_ROWS);
+        private final List<InternalRow> dataOutRows = new ArrayList<>();
+        private final EventArena eventArena = new EventArena();
+        private final ParseBatchStats stats = new ParseBatchStats();
+        private int position;
+        private long adjustedCount;
+        private long rowAdjustedCount;
+        private boolean reported;
+
+        PartitionIterator(final Iterator<InternalRow> input, final EventParser eventParser, final UnsafeProjection inputColumns,
+                          final int paramsOffset, final ConvertCounters counters, final int requiredOutputs) {
+            this.input = input;
+            this.eventParser = eventParser;
+            this.inputColumns = inputColumns;
+            this.paramsOffset = paramsOffset;
+            this.counters = counters;
+            this.requiredOutputs = requiredOutputs;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (position < buffer.size()) {
+                return true;
+            }
+            buffer.clear();
+            // every buffered row has been handed out, the RDD scan over this iterator turns each row into an unsafe row
+            // before it asks for the next one, so the event rows can be refilled, see PartitionDataConverterTest
+            eventArena.reset();
+            position = 0;
+            while (buffer.size() < FLUSH_ROWS && input.hasNext()) {
+                convertRow(input.next());
+            }
+            if (buffer.isEmpty()) {
+                report();
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public InternalRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return buffer.get(position++);
+        }
+
+        private void convertRow(final InternalRow row) {
+            // the input row is reused by the upstream iterator, keep a copy of the original columns
+            InternalRow originalColumns = inputColumns.apply(row).copy();
+            String value = getString(row, paramsOffset);
+            dataOutRows.clear();
+            rowAdjustedCount = 0;
+            try {
+                eventParser.parseDataElements(value, buildExtraParams(row), this, stats);
+                // like the parse stats, only a row that is parsed completely adds to the counters
+                adjustedCount += rowAdjustedCount;
+                if (dataOutRows.isEmpty()) {
+                    log.warn("Cannot parse data: " + value);
+                }
+            } catch (Exception e) {
+                log.error("cannot convert data to ClickstreamEvent"
+                        + ERROR_LOG + e.getMessage() + VALUE_LOG + value);
+                log.error(getStackTrace(e));
+                dataOutRows.clear();
+                dataOutRows.add(UDFHelper.getCorruptInternalRow(value, e));
+            }
+            for (InternalRow dataOut : dataOutRows) {
+                buffer.add(new JoinedRow(originalColumns, new GenericInternalRow(new Object[]{dataOut})));
+            }
+        }
+
+        @Override
+        public void acceptElement(final ParseDataResult result) {
+            for (ClickstreamEvent event : result.getClickstreamEventList()) {
+                if (event.getProcessInfo() != null && event.getProcessInfo().containsKey(EVENT_TIMESTAMP_ADJUSTED)) {
+                    rowAdjustedCount++;
+                }
+            }
+            dataOutRows.add(UDFHelper.getInternalRow(result, requiredOutputs, eventArena));
+        }
+
+        private ExtraParams buildExtraParams(final InternalRow row) {
+            return extraParams
+                    .ingestTimestamp(getLong(row, paramsOffset + 1))
+                    .uploadTimestamp(getLong(row, paramsOffset + 2))
+                    .rid(getString(row, paramsOffset + 3))
+                    .uri(getString(row, paramsOffset + 4))
+                    .ua(getString(row, paramsOffset + 5))
+                    .ip(getString(row, paramsOffset + 6))
+                    .projectId(getString(row, paramsOffset + 7))
+                    .inputFileName(getString(row, paramsOffset + 8))
+                    .appId(getString(row, paramsOffset + 9))
+                    .build();
+        }
+
+        private static String getString(final InternalRow row, final int ordinal) {
+            return row.isNullAt(ordinal) ? null : row.getUTF8String(ordinal).toString();
+        }
+
+        private static Long getLong(final InternalRow row, final int ordinal) {
+            return row.isNullAt(ordinal) ? null : row.getLong(ordinal);
+        }
+
+        private void report() {
+            if (reported) {
+                return;
+            }
+            reported = true;
+            counters.rows.add(stats.getRows());
+            counters.events.add(stats.getEvents());
+            counters.corrupt.add(stats.getFailedRows());
+            counters.adjusted.add(adjustedCount);
+            log.info("converted partition: {}, adjustedTimestamps={}, pooledEventRows={}, internedStrings={}",
+                    stats, adjustedCount, eventArena.capacity(), eventArena.getInterner().size());
+        }
+    }
+}
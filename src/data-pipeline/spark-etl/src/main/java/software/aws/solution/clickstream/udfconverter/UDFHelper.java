@@ -13,11 +13,12 @@
 
 package software.aws.solution.clickstream.udfconverter;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.spark.sql.api.java.UDF10;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.expressions.GenericInternalRow;
 import org.apache.spark.sql.catalyst.expressions.GenericRow;
+import org.apache.spark.sql.catalyst.util.GenericArrayData;
 import org.apache.spark.sql.types.ArrayType;
 import org.apache.spark.sql.types.DataTypes;
 import org.apache.spark.sql.types.StructField;
@@ -28,13 +29,16 @@ import software.aws.solution.clickstream.common.TransformConfig;
 import software.aws.solution.clickstream.common.model.ClickstreamEvent;
 import software.aws.solution.clickstream.common.model.ClickstreamItem;
 import software.aws.solution.clickstream.common.model.ClickstreamUser;
+import software.aws.solution.clickstream.rowconv.EventArena;
+import software.aws.solution.clickstream.rowconv.EventRow;
+import software.aws.solution.clickstream.rowconv.InternalRowConverter;
 import software.aws.solution.clickstream.rowconv.ItemGenericRowConverter;
 import software.aws.solution.clickstream.rowconv.UserGenericRowConverter;
 import software.aws.solution.clickstream.transformer.TransformerNameEnum;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
 
 import static software.aws.solution.clickstream.common.Util.ERROR_LOG;
@@ -44,10 +48,17 @@ import static software.aws.solution.clickstream.model.ModelV2.EVENT_TYPE;
 import static software.aws.solution.clickstream.model.ModelV2.ITEM_TYPE;
 import static software.aws.solution.clickstream.model.ModelV2.USER_TYPE;
 import static software.aws.solution.clickstream.rowconv.EventGenericRowConverter.toGenericRow;
+import static software.aws.solution.clickstream.rowconv.InternalRowConverter.utf8;
 import static software.aws.solution.clickstream.util.DatasetUtil.CORRUPT_RECORD;
 
 @Slf4j
 public final class UDFHelper {
+    public static final int OUTPUT_NONE = 0;
+    public static final int OUTPUT_EVENTS = 1;
+    public static final int OUTPUT_USER = 1 << 1;
+    public static final int OUTPUT_ITEMS = 1 << 2;
+    public static final int OUTPUT_ALL = OUTPUT_EVENTS | OUTPUT_USER | OUTPUT_ITEMS;
+
     private UDFHelper() {
     }
     public static UDF10<String, Long, Long, String, String, String, String, String, String, String, List<GenericRow>>
@@ -89,29 +100,16 @@ public final class UDFHelper {
         }));
     }
 
-    public static List<GenericRow> getGenericRowList(final String rawDataString, final ExtraParams extraParams, final EventParser eventParser) throws JsonProcessingException {
-        JsonNode jsonNode = eventParser.getData(rawDataString);
+    public static List<GenericRow> getGenericRowList(final String rawDataString, final ExtraParams extraParams, final EventParser eventParser) throws IOException {
         List<GenericRow> rows = new ArrayList<>();
-        if (jsonNode == null) {
+        int count = eventParser.parseDataElements(rawDataString, extraParams, result -> rows.add(getGenericRow(result)));
+        if (count == 0) {
             log.warn("Cannot parse data: " + rawDataString);
-            return rows;
-        }
-        int index = 0;
-        if (jsonNode.isArray()) {
-            for (Iterator<JsonNode> elementsIt = jsonNode.elements(); elementsIt.hasNext(); ) {
-                rows.add(getGenericRow(elementsIt.next().toString(), index, extraParams, eventParser));
-                index++;
-            }
-        } else {
-            rows.add(getGenericRow(jsonNode.toString(), index, extraParams, eventParser));
         }
         return rows;
-
     }
 
-    private static GenericRow getGenericRow(final String rawDataString, final int index, final ExtraParams extraParams, final EventParser eventParser) throws JsonProcessingException {
-        ParseDataResult result = eventParser.parseData(rawDataString, extraParams, index);
-
+    private static GenericRow getGenericRow(final ParseDataResult result) {
         List<GenericRow> eventRows = new ArrayList<>();
         for (ClickstreamEvent event : result.getClickstreamEventList()) {
             eventRows.add(toGenericRow(event));
@@ -125,6 +123,71 @@ public final class UDFHelper {
         return new GenericRow(new Object[]{null, eventRows, userRow, itemRows});
     }
 
+    public static InternalRow getCorruptInternalRow(final String value, final Exception e) {
+        return new GenericInternalRow(new Object[]{
+                utf8("Cannot convert data to ClickstreamEvent" + ERROR_LOG + e.getMessage() + VALUE_LOG + value + ", stackTrace:" + getStackTrace(e)),
+                null,
+                null,
+                null,
+        });
+    }
+
+    /**
+     * Same output as {@link #getGenericRowList}, already in Catalyst's internal form,
+     * matching the element type of {@link #getUdfOutput()}.
+     */
+    public static List<InternalRow> getInternalRowList(final String rawDataString, final ExtraParams extraParams, final EventParser eventParser) throws IOException {
+        return getInternalRowList(rawDataString, extraParams, eventParser, OUTPUT_ALL);
+    }
+
+    /**
+     * Only the parts selected by {@code requiredOutputs} ({@link #OUTPUT_EVENTS}, {@link #OUTPUT_USER},
+     * {@link #OUTPUT_ITEMS}) are converted, the other fields of the struct are left null.
+     */
+    public static List<InternalRow> getInternalRowList(final String rawDataString, final ExtraParams extraParams,
+                                                       final EventParser eventParser, final int requiredOutputs) throws IOException {
+        List<InternalRow> rows = new ArrayList<>();
+        int count = eventParser.parseDataElements(rawDataString, extraParams, result -> rows.add(getInternalRow(result, requiredOutputs)));
+        if (count == 0) {
+            log.warn("Cannot parse data: " + rawDataString);
+        }
+        return rows;
+    }
+
+    public static InternalRow getInternalRow(final ParseDataResult result, final int requiredOutputs) {
+        return getInternalRow(result, requiredOutputs, null);
+    }
+
+    /**
+     * With an {@code eventArena} the event rows are pooled {@link EventRow}s, which are only valid until the arena is reset.
+     */
+    public static InternalRow getInternalRow(final ParseDataResult result, final int requiredOutputs, final EventArena eventArena) {
+        GenericArrayData eventRows = null;
+        if ((requiredOutputs & OUTPUT_EVENTS) != 0) {
+            List<ClickstreamEvent> events = result.getClickstreamEventList();
+            Object[] rows = new Object[events.size()];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = eventArena == null ? InternalRowConverter.toInternalRow(events.get(i)) : eventArena.next(events.get(i));
+            }
+            eventRows = new GenericArrayData(rows);
+        }
+        GenericArrayData itemRows = null;
+        if ((requiredOutputs & OUTPUT_ITEMS) != 0) {
+            List<ClickstreamItem> items = result.getClickstreamItemList();
+            Object[] rows = new Object[items.size()];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = InternalRowConverter.toInternalRow(items.get(i));
+            }
+            itemRows = new GenericArrayData(rows);
+        }
+        InternalRow userRow = null;
+        ClickstreamUser user = result.getClickstreamUser();
+        if ((requiredOutputs & OUTPUT_USER) != 0 && user != null && user.getUserPseudoId() != null) {
+            userRow = InternalRowConverter.toInternalRow(user);
+        }
+        return new GenericInternalRow(new Object[]{null, eventRows, userRow, itemRows});
+    }
+
     public static ArrayType getUdfOutput() {
         ArrayType eventListType = DataTypes.createArrayType(EVENT_TYPE, true);
         ArrayType itemListType = DataTypes.createArrayType(ITEM_TYPE, true);
@@ -0,0 +1,99 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+
+package software.aws.solution.clickstream.util;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.spark.api.plugin.DriverPlugin;
+import org.apache.spark.api.plugin.ExecutorPlugin;
+import org.apache.spark.api.plugin.PluginContext;
+import org.apache.spark.api.plugin.SparkPlugin;
+import software.aws.solution.clickstream.IPEnrichment;
+import software.aws.solution.clickstream.common.Cache;
+import software.aws.solution.clickstream.common.enrich.RuleBasedTrafficSourceHelper;
+import software.aws.solution.clickstream.common.enrich.UAEnrichHelper;
+import software.aws.solution.clickstream.common.enrich.ts.rule.ChannelListEvaluator;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Spark plugin exporting the hit, miss, eviction and size gauges of the enrichment caches of each driver and executor
+ * JVM to the Spark metrics system, e.g. {@code plugin.software.aws.solution.clickstream.util.CacheMetricsPlugin.ua.hits}.
+ * Enable it with {@code spark.plugins}; {@link #logStats()} writes the same numbers of the driver JVM to the job log.
+ */
+@Slf4j
+public final class CacheMetricsPlugin implements SparkPlugin {
+    public static final List<String> CACHE_NAMES = Collections.unmodifiableList(Arrays.asList(
+            UAEnrichHelper.UA_CACHE,
+            IPEnrichment.IP_CACHE,
+            RuleBasedTrafficSourceHelper.PAGE_TRAFFIC_SOURCE_CACHE,
+            RuleBasedTrafficSourceHelper.TRAFFIC_SOURCE_CACHE,
+            ChannelListEvaluator.CHANNEL_CACHE));
+
+    @Override
+    public DriverPlugin driverPlugin() {
+        return new DriverPlugin() {
+            @Override
+            public void registerMetrics(final String appId, final PluginContext pluginContext) {
+                registerGauges(pluginContext.metricRegistry());
+            }
+        };
+    }
+
+    @Override
+    public ExecutorPlugin executorPlugin() {
+        return new ExecutorPlugin() {
+            @Override
+            public void init(final PluginContext ctx, final Map<String, String> extraConf) {
+                registerGauges(ctx.metricRegistry());
+            }
+        };
+    }
+
+    public static void registerGauges(final MetricRegistry registry) {
+        for (String name : CACHE_NAMES) {
+            register(registry, name, "hits", Cache.Stats::getHitCount);
+            register(registry, name, "misses", Cache.Stats::getMissCount);
+            register(registry, name, "evictions", Cache.Stats::getEvictionCount);
+            register(registry, name, "entries", Cache.Stats::getEstimatedSize);
+            register(registry, name, "weightedBytes", Cache.Stats::getWeightedSize);
+        }
+    }
+
+    private static void register(final MetricRegistry registry, final String name, final String stat, final ToLongFunction<Cache.Stats> value) {
+        registry.register(MetricRegistry.name(name, stat), (Gauge<Long>) () -> value.applyAsLong(Cache.getStats(name)));
+    }
+
+    /**
+     * The {@code spark.plugins} value with this plugin added, keeping the plugins already configured.
+     */
+    public static String withPlugin(final String plugins) {
+        return ContextUtil.withSparkPlugin(plugins, CacheMetricsPlugin.class);
+    }
+
+    /**
+     * Log the cache stats of this (driver) JVM.
+     */
+    public static void logStats() {
+        for (String name : CACHE_NAMES) {
+            log.info("[CacheMetric]" + Cache.getStats(name));
+        }
+    }
+}
@@ -42,20 +42,48 @@ public final class ContextUtil {
     public static final String ITEM_KEEP_DAYS_PROP =  "keep.item.days";
 
     public static final String FILTER_BOT_BY_UA_PROP = "filter.bot.by.ua";
+    public static final String INGEST_START_TIMESTAMP_PROP = "ingest.start.timestamp";
     public static final String DISABLE_TRAFFIC_SOURCE_ENRICHMENT = "disable.traffic.source.enrichment";
     public static final String DISABLE_MAX_LENGTH_CHECK = "disable.max.length.check";
+    /**
+     * run flag, "convert.by.partitions" for all transformers or e.g. "convert.by.partitions.clickstream" for one
+     */
+    public static final String CONVERT_BY_PARTITIONS = "convert.by.partitions";
+    /**
+     * run flag, enrich the UA and IP once per distinct value and join the results back to the events, on by default
+     */
+    public static final String ENRICH_BY_DISTINCT_KEYS = "enrich.by.distinct.keys";
+    /**
+     * the max cached size in bytes of the enriched distinct values joined back with a broadcast join, a shuffle join is used above it,
+     * defaults to spark.sql.autoBroadcastJoinThreshold
+     */
+    public static final String ENRICH_BROADCAST_MAX_BYTES = "enrich.broadcast.max.bytes";
 
     private static Dataset<Row> datasetCached;
 
     private ContextUtil() {
     }
 
+    /**
+     * The {@code spark.plugins} value with the plugin class added, keeping the plugins already configured.
+     */
+    public static String withSparkPlugin(final String plugins, final Class<?> plugin) {
+        String name = plugin.getName();
+        if (plugins == null || plugins.isEmpty()) {
+            return name;
+        }
+        return Arrays.asList(plugins.split(",")).contains(name) ? plugins : plugins + "," + name;
+    }
+
+    /**
+     * Persist the dataset and unpersist the one cached before, a dataset already persisted keeps its storage level.
+     */
     public static void cacheDataset(final Dataset<Row> dataset) {
         if (datasetCached == null) {
-            datasetCached = dataset.persist(StorageLevel.MEMORY_AND_DISK());
+            datasetCached = persist(dataset);
         } else if (dataset != datasetCached) {
             Dataset<Row> oldDatasetCached = datasetCached;
-            datasetCached = dataset.persist(StorageLevel.MEMORY_AND_DISK());
+            datasetCached = persist(dataset);
             try {
                 oldDatasetCached.unpersist();
             } catch (Exception e) {
@@ -65,6 +93,10 @@ public final class ContextUtil {
         }
     }
 
+    private static Dataset<Row> persist(final Dataset<Row> dataset) {
+        return StorageLevel.NONE().equals(dataset.storageLevel()) ? dataset.persist(StorageLevel.MEMORY_AND_DISK()) : dataset;
+    }
+
     public static void setContextProperties(final ETLRunnerConfig config) {
         System.setProperty(DATABASE_PROP, config.getDatabase());
         System.setProperty(JOB_DATA_DIR_PROP, config.getJobDataDir());
@@ -78,6 +110,9 @@ public final class ContextUtil {
         System.setProperty(USER_KEEP_DAYS_PROP, String.valueOf(config.getUserKeepDays()));
         System.setProperty(ITEM_KEEP_DAYS_PROP, String.valueOf(config.getItemKeepDays()));
         System.setProperty(FILTER_BOT_BY_UA_PROP, config.getFilterBotByUa());
+        if (config.getStartTimestamp() != null) {
+            System.setProperty(INGEST_START_TIMESTAMP_PROP, String.valueOf(config.getStartTimestamp()));
+        }
     }
 
     public static void setJobAndWarehouseInfo(final String jobDataDir) {
@@ -116,4 +151,15 @@ public final class ContextUtil {
     public static String getEtlRunFlag() {
         return System.getProperty(Constant.ETL_RUN_FLAG, "");
     }
+
+    public static boolean isConvertByPartitions(final String transformerName) {
+        String transformerFlag = CONVERT_BY_PARTITIONS + "." + transformerName.toLowerCase();
+        for (String flag : getEtlRunFlag().split("\\|")) {
+            String f = flag.trim();
+            if (f.equals(CONVERT_BY_PARTITIONS) || f.equalsIgnoreCase(transformerFlag)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
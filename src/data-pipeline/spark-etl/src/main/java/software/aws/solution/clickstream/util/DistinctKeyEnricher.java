@@ -0,0 +1,132 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+
+package software.aws.solution.clickstream.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.spark.sql.Column;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.execution.CachedData;
+import org.apache.spark.sql.expressions.UserDefinedFunction;
+import org.apache.spark.storage.StorageLevel;
+import scala.Option;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.spark.sql.functions.broadcast;
+import static org.apache.spark.sql.functions.col;
+import static software.aws.solution.clickstream.util.ContextUtil.ENRICH_BROADCAST_MAX_BYTES;
+import static software.aws.solution.clickstream.util.ContextUtil.ENRICH_BY_DISTINCT_KEYS;
+
+/**
+ * Runs an enrich UDF once per distinct key of the dataset instead of once per row, and joins the result
+ * back to the rows on the key. The join is a broadcast join when the cached size of the enriched keys is at most
+ * {@link ContextUtil#ENRICH_BROADCAST_MAX_BYTES} (spark.sql.autoBroadcastJoinThreshold by default), otherwise a shuffle join.
+ * Null keys are joined null-safe, so every row gets the same result as calling the UDF on its own keys.
+ * <p>
+ * The enriched keys stay persisted until {@link #unpersist()} is called once the joined rows are written,
+ * one instance is owned by each {@link software.aws.solution.clickstream.ETLRunner} run.
+ */
+@Slf4j
+public final class DistinctKeyEnricher {
+    private static final String KEY_PREFIX = "_enrich_key_";
+    private static final String RESULT_KEY_PREFIX = "_enrich_result_key_";
+    private final List<Dataset<Row>> enrichedKeysList = new ArrayList<>();
+
+    public static boolean isEnabled() {
+        String enabled = System.getProperty(ENRICH_BY_DISTINCT_KEYS);
+        return enabled == null || Boolean.parseBoolean(enabled);
+    }
+
+    /**
+     * Add the column {@code outColumn} with the value of {@code enrichUdf} applied to {@code keys}.
+     */
+    public Dataset<Row> enrich(final Dataset<Row> dataset, final UserDefinedFunction enrichUdf,
+                               final String outColumn, final Column... keys) {
+        if (!isEnabled()) {
+            return dataset.withColumn(outColumn, enrichUdf.apply(keys));
+        }
+        Dataset<Row> keyedDataset = dataset;
+        Column[] keyColumns = new Column[keys.length];
+        Column[] resultKeyColumns = new Column[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            keyedDataset = keyedDataset.withColumn(KEY_PREFIX + i, keys[i]);
+            keyColumns[i] = col(KEY_PREFIX + i);
+            resultKeyColumns[i] = col(KEY_PREFIX + i).as(RESULT_KEY_PREFIX + i);
+        }
+
+        Dataset<Row> enrichedKeys = keyedDataset.select(keyColumns).distinct().select(resultKeyColumns);
+        Column[] udfInputs = new Column[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            udfInputs[i] = col(RESULT_KEY_PREFIX + i);
+        }
+        enrichedKeys = enrichedKeys.withColumn(outColumn, enrichUdf.apply(udfInputs)).persist(StorageLevel.MEMORY_AND_DISK());
+        addEnrichedKeys(enrichedKeys);
+
+        long keyCount = enrichedKeys.count();
+        long sizeInBytes = cachedSizeInBytes(enrichedKeys);
+        long broadcastMaxBytes = getBroadcastMaxBytes(enrichedKeys);
+        boolean isBroadcast = sizeInBytes >= 0 && sizeInBytes <= broadcastMaxBytes;
+        log.info(new ETLMetric(keyCount, "distinct keys for " + outColumn + ", cached bytes: " + sizeInBytes
+                + ", broadcast join: " + isBroadcast).toString());
+
+        Column joinCondition = null;
+        for (int i = 0; i < keys.length; i++) {
+            Column keyEquals = col(KEY_PREFIX + i).eqNullSafe(col(RESULT_KEY_PREFIX + i));
+            joinCondition = joinCondition == null ? keyEquals : joinCondition.and(keyEquals);
+        }
+        Dataset<Row> joinedDataset = keyedDataset.join(isBroadcast ? broadcast(enrichedKeys) : enrichedKeys, joinCondition, "left");
+        for (int i = 0; i < keys.length; i++) {
+            joinedDataset = joinedDataset.drop(KEY_PREFIX + i).drop(RESULT_KEY_PREFIX + i);
+        }
+        return joinedDataset;
+    }
+
+    private static long cachedSizeInBytes(final Dataset<Row> enrichedKeys) {
+        Option<CachedData> cachedData = enrichedKeys.sparkSession().sharedState().cacheManager().lookupCachedData(enrichedKeys);
+        if (cachedData.isEmpty()) {
+            return -1L;
+        }
+        return cachedData.get().cachedRepresentation().computeStats().sizeInBytes().longValue();
+    }
+
+    private static long getBroadcastMaxBytes(final Dataset<Row> enrichedKeys) {
+        String maxBytes = System.getProperty(ENRICH_BROADCAST_MAX_BYTES);
+        if (maxBytes != null) {
+            return Long.parseLong(maxBytes);
+        }
+        return enrichedKeys.sparkSession().sessionState().conf().autoBroadcastJoinThreshold();
+    }
+
+    private synchronized void addEnrichedKeys(final Dataset<Row> enrichedKeys) {
+        enrichedKeysList.add(enrichedKeys);
+    }
+
+    /**
+     * Unpersist the enriched keys of all {@link #enrich} calls, the datasets joined with them must be materialized.
+     */
+    public synchronized void unpersist() {
+        for (Dataset<Row> enrichedKeys : enrichedKeysList) {
+            try {
+                enrichedKeys.unpersist();
+            } catch (Exception e) {
+                //print and ignore error
+                log.error(e.getMessage());
+            }
+        }
+        enrichedKeysList.clear();
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+
+package software.aws.solution.clickstream.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.spark.api.plugin.DriverPlugin;
+import org.apache.spark.api.plugin.ExecutorPlugin;
+import org.apache.spark.api.plugin.SparkPlugin;
+import software.aws.solution.clickstream.common.EnrichmentContext;
+
+/**
+ * Spark plugin closing the enrichment contexts of each executor JVM (GeoIP readers, caches and other components)
+ * when the executor shuts down. The driver closes its own contexts at the end of {@code DataProcessor}.
+ */
+@Slf4j
+public final class EnrichmentContextPlugin implements SparkPlugin {
+
+    @Override
+    public DriverPlugin driverPlugin() {
+        return null;
+    }
+
+    @Override
+    public ExecutorPlugin executorPlugin() {
+        return new ExecutorPlugin() {
+            @Override
+            public void shutdown() {
+                log.info("Closing the enrichment contexts of the executor");
+                EnrichmentContext.closeAll();
+            }
+        };
+    }
+}
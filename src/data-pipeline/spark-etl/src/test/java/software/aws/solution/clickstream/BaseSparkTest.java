@@ -224,6 +224,7 @@ public class BaseSparkTest extends BaseTest {
                 .as(Encoders.bean(PathContent.class)).collectAsList();
 
         Map<String, RuleConfig> appRuleConfig = new HashMap<>();
+        String mappingSpecJson = null;
         for (PathContent pathContent : configFileList) {
             log.info("path: " + pathContent.getPath());
             String path = pathContent.getPath();
@@ -231,6 +232,10 @@ public class BaseSparkTest extends BaseTest {
 
             String[] pathParts = path.split("/");
             String fileName = pathParts[pathParts.length - 1];
+            if (ETLRunner.MAPPING_SPEC_FILE_NAME.equalsIgnoreCase(fileName)) {
+                mappingSpecJson = content;
+                continue;
+            }
             String appId = pathParts[pathParts.length - 2];
 
             RuleConfig ruleConfig = null;
@@ -261,6 +266,7 @@ public class BaseSparkTest extends BaseTest {
 
         TransformConfig transformRuleConfig = new TransformConfig();
         transformRuleConfig.setAppRuleConfig(appRuleConfig);
+        transformRuleConfig.setMappingSpecJson(mappingSpecJson);
         return transformRuleConfig;
     }
 }
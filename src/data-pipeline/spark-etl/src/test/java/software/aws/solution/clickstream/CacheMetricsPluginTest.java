@@ -0,0 +1,55 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+
+package software.aws.solution.clickstream;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import software.aws.solution.clickstream.common.enrich.UAEnrichHelper;
+import software.aws.solution.clickstream.util.CacheMetricsPlugin;
+
+public class CacheMetricsPluginTest {
+
+    @Test
+    public void test_cache_gauges_are_registered() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.CacheMetricsPluginTest.test_cache_gauges_are_registered
+        MetricRegistry registry = new MetricRegistry();
+        CacheMetricsPlugin.registerGauges(registry);
+        Assertions.assertEquals(CacheMetricsPlugin.CACHE_NAMES.size() * 5, registry.getGauges().size());
+
+        Gauge<?> hits = registry.getGauges().get("ua.hits");
+        Gauge<?> misses = registry.getGauges().get("ua.misses");
+        long hitsBefore = (Long) hits.getValue();
+        long missesBefore = (Long) misses.getValue();
+
+        String ua = "Mozilla/5.0 (CacheMetricsPluginTest) " + System.nanoTime();
+        UAEnrichHelper.parserUA(ua);
+        UAEnrichHelper.parserUA(ua);
+
+        Assertions.assertEquals(hitsBefore + 1, (Long) hits.getValue());
+        Assertions.assertEquals(missesBefore + 1, (Long) misses.getValue());
+        Assertions.assertTrue((Long) registry.getGauges().get("ua.weightedBytes").getValue() > 0);
+    }
+
+    @Test
+    public void test_with_plugin_keeps_configured_plugins() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.CacheMetricsPluginTest.test_with_plugin_keeps_configured_plugins
+        String name = CacheMetricsPlugin.class.getName();
+        Assertions.assertEquals(name, CacheMetricsPlugin.withPlugin(""));
+        Assertions.assertEquals("a.Plugin," + name, CacheMetricsPlugin.withPlugin("a.Plugin"));
+        Assertions.assertEquals("a.Plugin," + name, CacheMetricsPlugin.withPlugin("a.Plugin," + name));
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream;
+
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.catalyst.CatalystTypeConverters;
+import org.apache.spark.sql.catalyst.expressions.GenericRow;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import scala.Function1;
+import software.aws.solution.clickstream.common.ColumnLimits;
+import software.aws.solution.clickstream.common.Constant;
+import software.aws.solution.clickstream.common.model.ClickstreamEvent;
+import software.aws.solution.clickstream.common.model.ClickstreamItem;
+import software.aws.solution.clickstream.common.model.ClickstreamUser;
+import software.aws.solution.clickstream.model.ModelV2;
+import software.aws.solution.clickstream.rowconv.EventArena;
+import software.aws.solution.clickstream.rowconv.EventGenericRowConverter;
+import software.aws.solution.clickstream.rowconv.InternalRowConverter;
+import software.aws.solution.clickstream.rowconv.ItemGenericRowConverter;
+import software.aws.solution.clickstream.rowconv.UserGenericRowConverter;
+import software.aws.solution.clickstream.transformer.MaxLengthTransformer;
+
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ColumnLimitsRowTest extends BaseSparkTest {
+
+    @Test
+    public void test_event_rows_truncated_to_column_limits() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.ColumnLimitsRowTest.test_event_rows_truncated_to_column_limits
+        ClickstreamEvent event = new ClickstreamEvent();
+        event.setEventTimestamp(new Timestamp(1700000000000L));
+        event.setEventId("e".repeat(300));
+        event.setEventName("_page_view");
+        event.setEventValueCurrency("中".repeat(20));
+        event.setPageViewPageTitle("t".repeat(3000));
+        Map<String, String> processInfo = new HashMap<>();
+        processInfo.put("rid", "rid1");
+        event.setProcessInfo(processInfo);
+
+        GenericRow genericRow = EventGenericRowConverter.toGenericRow(event);
+        Assertions.assertEquals("e".repeat(255), genericRow.getAs(ModelV2.EVENT_TYPE.fieldIndex(Constant.EVENT_ID)));
+        Assertions.assertEquals("中".repeat(10), genericRow.getAs(ModelV2.EVENT_TYPE.fieldIndex(Constant.EVENT_VALUE_CURRENCY)));
+        Assertions.assertEquals(ColumnLimits.MAX_STRING_VALUE_LEN_2K,
+                genericRow.<String>getAs(ModelV2.EVENT_TYPE.fieldIndex(Constant.PAGE_VIEW_PAGE_TITLE)).length());
+        Assertions.assertEquals("_page_view", genericRow.getAs(ModelV2.EVENT_TYPE.fieldIndex(Constant.EVENT_NAME)));
+        Map<String, String> rowProcessInfo = genericRow.getAs(ModelV2.EVENT_TYPE.fieldIndex(Constant.PROCESS_INFO));
+        Assertions.assertEquals("event_value_currency,event_id,page_view_page_title", rowProcessInfo.get(ColumnLimits.TRUNCATED_FIELDS));
+        Assertions.assertEquals("rid1", rowProcessInfo.get("rid"));
+        Assertions.assertFalse(processInfo.containsKey(ColumnLimits.TRUNCATED_FIELDS));
+
+        Function1<Object, Object> toScala = CatalystTypeConverters.createToScalaConverter(ModelV2.EVENT_TYPE);
+        Row internal = (Row) toScala.apply(InternalRowConverter.toInternalRow(event));
+        Row arena = (Row) toScala.apply(new EventArena().next(event));
+        for (Row row : new Row[]{internal, arena}) {
+            Assertions.assertEquals("e".repeat(255), row.getAs(Constant.EVENT_ID));
+            Assertions.assertEquals("中".repeat(10), row.getAs(Constant.EVENT_VALUE_CURRENCY));
+            Map<String, String> info = row.getJavaMap(row.fieldIndex(Constant.PROCESS_INFO));
+            Assertions.assertEquals("event_value_currency,event_id,page_view_page_title", info.get(ColumnLimits.TRUNCATED_FIELDS));
+        }
+
+        ClickstreamEvent small = new ClickstreamEvent();
+        small.setEventId("e1");
+        small.setProcessInfo(processInfo);
+        Assertions.assertSame(processInfo, EventGenericRowConverter.toGenericRow(small).getAs(ModelV2.EVENT_TYPE.fieldIndex(Constant.PROCESS_INFO)));
+    }
+
+    @Test
+    public void test_item_and_user_rows_truncated_to_column_limits() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.ColumnLimitsRowTest.test_item_and_user_rows_truncated_to_column_limits
+        ClickstreamItem item = new ClickstreamItem();
+        item.setItemId("i".repeat(256));
+        GenericRow itemRow = ItemGenericRowConverter.toGenericRow(item);
+        Assertions.assertEquals("i".repeat(255), itemRow.getAs(ModelV2.ITEM_TYPE.fieldIndex(Constant.ITEM_ID)));
+        Map<String, String> itemInfo = itemRow.getAs(ModelV2.ITEM_TYPE.fieldIndex(Constant.PROCESS_INFO));
+        Assertions.assertEquals(Constant.ITEM_ID, itemInfo.get(ColumnLimits.TRUNCATED_FIELDS));
+
+        ClickstreamUser user = new ClickstreamUser();
+        user.setUserPseudoId("u1");
+        user.setFirstTrafficTerm("t".repeat(2049));
+        GenericRow userRow = UserGenericRowConverter.toGenericRow(user);
+        Assertions.assertEquals("t".repeat(2048), userRow.getAs(ModelV2.USER_TYPE.fieldIndex(Constant.FIRST_TRAFFIC_TERM)));
+        Row internalUser = (Row) CatalystTypeConverters.createToScalaConverter(ModelV2.USER_TYPE).apply(InternalRowConverter.toInternalRow(user));
+        Assertions.assertEquals("t".repeat(2048), internalUser.getAs(Constant.FIRST_TRAFFIC_TERM));
+    }
+
+    @Test
+    public void test_truncate_same_as_max_length_transformer() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.ColumnLimitsRowTest.test_truncate_same_as_max_length_transformer
+        for (String value : new String[]{"a".repeat(300), "中文".repeat(100), "ab中".repeat(90), "é".repeat(200), "x"}) {
+            Assertions.assertEquals(MaxLengthTransformer.checkStringValueLength(value, 255), ColumnLimits.truncate(value, 255));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+
+package software.aws.solution.clickstream;
+
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.RowFactory;
+import org.apache.spark.sql.api.java.UDF1;
+import org.apache.spark.sql.expressions.UserDefinedFunction;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.util.LongAccumulator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import software.aws.solution.clickstream.util.DistinctKeyEnricher;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.apache.spark.sql.functions.col;
+import static org.apache.spark.sql.functions.udf;
+import static software.aws.solution.clickstream.util.ContextUtil.ENRICH_BROADCAST_MAX_BYTES;
+import static software.aws.solution.clickstream.util.ContextUtil.ENRICH_BY_DISTINCT_KEYS;
+
+public class DistinctKeyEnricherTest extends BaseSparkTest {
+
+    @AfterEach
+    public void clearEnrichProperties() {
+        System.clearProperty(ENRICH_BY_DISTINCT_KEYS);
+        System.clearProperty(ENRICH_BROADCAST_MAX_BYTES);
+    }
+
+    @Test
+    public void test_enrich_once_per_distinct_key_broadcast() {
+        // DOWNLOAD_FILE=0 ./gradlew clean test --info --tests software.aws.solution.clickstream.DistinctKeyEnricherTest.test_enrich_once_per_distinct_key_broadcast
+        LongAccumulator calls = spark.sparkContext().longAccumulator("enrich.calls");
+        Dataset<Row> enriched = new DistinctKeyEnricher().enrich(createDataset(), upperUdf(calls), "ua_upper", col("ua"));
+
+        Assertions.assertTrue(enriched.queryExecution().executedPlan().toString().contains("BroadcastHashJoin"));
+        Assertions.assertEquals(expectedRows(), sortedRows(enriched));
+        Assertions.assertEquals(3, calls.value());
+    }
+
+    @Test
+    public void test_unpersist_enriched_keys() {
+        // DOWNLOAD_FILE=0 ./gradlew clean test --info --tests software.aws.solution.clickstream.DistinctKeyEnricherTest.test_unpersist_enriched_keys
+        spark.catalog().clearCache();
+        LongAccumulator calls = spark.sparkContext().longAccumulator("enrich.calls");
+        DistinctKeyEnricher enricher = new DistinctKeyEnricher();
+        DistinctKeyEnricher otherRunEnricher = new DistinctKeyEnricher();
+        Dataset<Row> enriched = enricher.enrich(createDataset(), upperUdf(calls), "ua_upper", col("ua"));
+        Assertions.assertFalse(spark.sharedState().cacheManager().isEmpty());
+
+        Assertions.assertEquals(expectedRows(), sortedRows(enriched));
+        // the enriched keys belong to the enricher of one run only
+        otherRunEnricher.unpersist();
+        Assertions.assertFalse(spark.sharedState().cacheManager().isEmpty());
+        enricher.unpersist();
+        Assertions.assertTrue(spark.sharedState().cacheManager().isEmpty());
+        Assertions.assertEquals(expectedRows(), sortedRows(enriched));
+    }
+
+    @Test
+    public void test_enrich_shuffle_join_and_disabled() {
+        // DOWNLOAD_FILE=0 ./gradlew clean test --info --tests software.aws.solution.clickstream.DistinctKeyEnricherTest.test_enrich_shuffle_join_and_disabled
+        System.setProperty(ENRICH_BROADCAST_MAX_BYTES, "1");
+        LongAccumulator calls = spark.sparkContext().longAccumulator("enrich.calls");
+        Dataset<Row> enriched = new DistinctKeyEnricher().enrich(createDataset(), upperUdf(calls), "ua_upper", col("ua"));
+        Assertions.assertEquals(expectedRows(), sortedRows(enriched));
+        Assertions.assertEquals(3, calls.value());
+
+        System.setProperty(ENRICH_BY_DISTINCT_KEYS, "false");
+        LongAccumulator rowCalls = spark.sparkContext().longAccumulator("enrich.row.calls");
+        Assertions.assertEquals(expectedRows(), sortedRows(new DistinctKeyEnricher().enrich(createDataset(), upperUdf(rowCalls), "ua_upper", col("ua"))));
+        Assertions.assertEquals(6, rowCalls.value());
+    }
+
+    private static UserDefinedFunction upperUdf(final LongAccumulator calls) {
+        return udf((UDF1<String, String>) ua -> {
+            calls.add(1);
+            return ua == null ? "<null>" : ua.toUpperCase();
+        }, DataTypes.StringType);
+    }
+
+    private Dataset<Row> createDataset() {
+        List<Row> rows = Arrays.asList(
+                RowFactory.create("e1", "chrome"),
+                RowFactory.create("e2", "safari"),
+                RowFactory.create("e3", "chrome"),
+                RowFactory.create("e4", null),
+                RowFactory.create("e5", "safari"),
+                RowFactory.create("e6", null));
+        return spark.createDataFrame(rows, DataTypes.createStructType(new StructField[]{
+                DataTypes.createStructField("event_id", DataTypes.StringType, true),
+                DataTypes.createStructField("ua", DataTypes.StringType, true),
+        }));
+    }
+
+    private static List<String> expectedRows() {
+        return Arrays.asList("e1,chrome,CHROME", "e2,safari,SAFARI", "e3,chrome,CHROME", "e4,null,<null>", "e5,safari,SAFARI", "e6,null,<null>");
+    }
+
+    private static List<String> sortedRows(final Dataset<Row> dataset) {
+        Assertions.assertEquals(Arrays.asList("event_id", "ua", "ua_upper"), Arrays.asList(dataset.columns()));
+        return dataset.collectAsList().stream()
+                .map(r -> r.getString(0) + "," + r.getString(1) + "," + r.getString(2))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+}
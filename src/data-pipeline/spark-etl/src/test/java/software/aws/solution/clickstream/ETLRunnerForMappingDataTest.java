@@ -0,0 +1,62 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream;
+
+import com.clearspring.analytics.util.Lists;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import software.aws.solution.clickstream.util.ETLRunnerConfig;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.requireNonNull;
+import static org.apache.spark.sql.functions.col;
+import static software.aws.solution.clickstream.util.ContextUtil.APP_IDS_PROP;
+import static software.aws.solution.clickstream.util.ContextUtil.PROJECT_ID_PROP;
+import static software.aws.solution.clickstream.util.ContextUtil.WAREHOUSE_DIR_PROP;
+
+@Slf4j
+public class ETLRunnerForMappingDataTest extends ETLRunnerBaseTest {
+
+    @Test
+    public void test_mapping_data_runner() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.ETLRunnerForMappingDataTest.test_mapping_data_runner
+        System.setProperty(APP_IDS_PROP, "uba-app");
+        System.setProperty(PROJECT_ID_PROP, "test_project_id_01");
+        System.setProperty(WAREHOUSE_DIR_PROP, "/tmp/warehouse/etl_runner/test_mapping_data_runner_" + System.currentTimeMillis());
+
+        List<String> transformers = Lists.newArrayList();
+        transformers.add("software.aws.solution.clickstream.mapping.MappingDataTransformer");
+
+        ETLRunnerConfig config = getRunnerConfig(transformers, "test_mapping_data_runner");
+        ETLRunner runner = new ETLRunner(spark, config);
+        Assertions.assertNotNull(runner.getTransformConfig().getMappingSpecJson());
+        Assertions.assertNull(runner.getTransformConfig().getAppRuleConfig().get("rule_config"));
+
+        Dataset<Row> sourceDataset =
+                spark.read().json(requireNonNull(getClass().getResource("/mapping/mapping-data.json")).getPath());
+        Dataset<Row> eventDataset = runner.executeTransformers(sourceDataset, transformers);
+
+        List<String> eventNames = eventDataset.orderBy(col("event_timestamp")).select("event_name").collectAsList()
+                .stream().map(row -> row.getString(0)).collect(Collectors.toList());
+        Assertions.assertEquals(List.of("ViewProduct", "AddCart"), eventNames);
+        Row first = eventDataset.filter(col("event_name").equalTo("ViewProduct")).first();
+        Assertions.assertEquals("123456", first.getString(first.fieldIndex("user_pseudo_id")));
+        Assertions.assertEquals("uba-app", first.getString(first.fieldIndex("app_id")));
+    }
+}
@@ -17,7 +17,10 @@ package software.aws.solution.clickstream;
 import com.clearspring.analytics.util.*;
 import org.apache.spark.sql.*;
 import org.junit.jupiter.api.*;
+import software.aws.solution.clickstream.common.ExtraParams;
 import software.aws.solution.clickstream.common.TransformConfig;
+import software.aws.solution.clickstream.common.model.ClickstreamEvent;
+import software.aws.solution.clickstream.common.plugin.EventEnricher;
 import software.aws.solution.clickstream.util.*;
 
 import java.io.*;
@@ -525,4 +528,27 @@ class ETLRunnerTest extends ETLRunnerBaseTest {
         Assertions.assertTrue(transformConfig.getAppRuleConfig().get("app1").getOptChannelRuleJson().contains("__empty__"));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void should_reject_enricher_that_is_dataset_transformer() {
+        // DOWNLOAD_FILE=0 ./gradlew clean test --info --tests software.aws.solution.clickstream.ETLRunnerTest.should_reject_enricher_that_is_dataset_transformer
+        List<String> transformers = Lists.newArrayList();
+        transformers.add("software.aws.solution.clickstream.SimpleTransformer");
+        transformers.add(EnricherAndTransformer.class.getName());
+
+        ETLRunner runner = new ETLRunner(spark, getRunnerConfig(transformers, "enricherAndTransformer"));
+        Dataset<Row> sourceDataset =
+                spark.read().json(requireNonNull(getClass().getResource("/original_data.json")).getPath());
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> runner.executeTransformers(sourceDataset, transformers));
+        assertTrue(e.getMessage().startsWith("Config Error::" + EnricherAndTransformer.class.getName()));
+    }
+
+    public static class EnricherAndTransformer implements EventEnricher {
+        @Override
+        public void enrich(final ClickstreamEvent event, final ExtraParams extraParams) {
+        }
+
+        public Dataset<Row> transform(final Dataset<Row> dataset) {
+            return dataset;
+        }
+    }
+}
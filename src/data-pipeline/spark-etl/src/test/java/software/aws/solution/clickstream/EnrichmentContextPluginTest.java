@@ -0,0 +1,55 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+
+package software.aws.solution.clickstream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import software.aws.solution.clickstream.common.EnrichmentContext;
+import software.aws.solution.clickstream.util.CacheMetricsPlugin;
+import software.aws.solution.clickstream.util.ContextUtil;
+import software.aws.solution.clickstream.util.EnrichmentContextPlugin;
+
+public class EnrichmentContextPluginTest {
+
+    @Test
+    public void test_executor_shutdown_closes_contexts() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.EnrichmentContextPluginTest.test_executor_shutdown_closes_contexts
+        EnrichmentContext context = EnrichmentContext.getDefault();
+        AutoCloseableComponent component = context.getComponent(AutoCloseableComponent.class, c -> new AutoCloseableComponent());
+
+        new EnrichmentContextPlugin().executorPlugin().shutdown();
+
+        Assertions.assertTrue(context.isClosed());
+        Assertions.assertTrue(component.closed);
+        Assertions.assertNotSame(context, EnrichmentContext.getDefault());
+    }
+
+    @Test
+    public void test_with_spark_plugin() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.EnrichmentContextPluginTest.test_with_spark_plugin
+        String plugins = ContextUtil.withSparkPlugin(CacheMetricsPlugin.withPlugin(""), EnrichmentContextPlugin.class);
+        Assertions.assertEquals(CacheMetricsPlugin.class.getName() + "," + EnrichmentContextPlugin.class.getName(), plugins);
+        Assertions.assertEquals(plugins, ContextUtil.withSparkPlugin(plugins, EnrichmentContextPlugin.class));
+    }
+
+    private static final class AutoCloseableComponent implements AutoCloseable {
+        private boolean closed;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+
+package software.aws.solution.clickstream;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.catalyst.CatalystTypeConverters;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.expressions.UnsafeProjection;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import scala.Function1;
+import software.aws.solution.clickstream.common.EventParser;
+import software.aws.solution.clickstream.common.ExtraParams;
+import software.aws.solution.clickstream.common.model.ClickstreamEvent;
+import software.aws.solution.clickstream.model.ModelV2;
+import software.aws.solution.clickstream.rowconv.EventArena;
+import software.aws.solution.clickstream.rowconv.EventGenericRowConverter;
+import software.aws.solution.clickstream.rowconv.EventRow;
+import software.aws.solution.clickstream.rowconv.InternalRowConverter;
+import software.aws.solution.clickstream.rowconv.StringInterner;
+import software.aws.solution.clickstream.transformer.TransformerNameEnum;
+import software.aws.solution.clickstream.udfconverter.EventParserFactory;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class EventRowTest extends BaseSparkTest {
+
+    @Test
+    public void test_event_row_same_as_internal_row() throws IOException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.EventRowTest.test_event_row_same_as_internal_row
+        List<ClickstreamEvent> events = parseEvents("/original_data_with_items.json");
+        Assertions.assertFalse(events.isEmpty());
+
+        Function1<Object, Object> toScala = CatalystTypeConverters.createToScalaConverter(ModelV2.EVENT_TYPE);
+        UnsafeProjection projection = UnsafeProjection.create(ModelV2.EVENT_TYPE);
+        EventArena arena = new EventArena();
+        for (ClickstreamEvent event : events) {
+            Object expected = toScala.apply(InternalRowConverter.toInternalRow(event));
+            EventRow eventRow = arena.next(event);
+            Assertions.assertEquals(expected, toScala.apply(eventRow));
+            Assertions.assertEquals(expected, toScala.apply(eventRow.copy()));
+            Assertions.assertEquals(expected, toScala.apply(projection.apply(eventRow)));
+        }
+    }
+
+    @Test
+    public void test_arena_reuses_rows_after_reset() throws IOException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.EventRowTest.test_arena_reuses_rows_after_reset
+        List<ClickstreamEvent> events = parseEvents("/original_data_with_items.json");
+        EventArena arena = new EventArena();
+        EventRow first = arena.next(events.get(0));
+        InternalRow detached = first.copy();
+        arena.reset();
+        Assertions.assertTrue(first.isNullAt(1));
+
+        EventRow reused = arena.next(events.get(events.size() - 1));
+        Assertions.assertSame(first, reused);
+        Assertions.assertEquals(1, arena.capacity());
+        // rows copied before the reset keep their values
+        Assertions.assertEquals(events.get(0).getEventId(), detached.getUTF8String(1).toString());
+        Assertions.assertEquals(events.get(events.size() - 1).getEventId(), reused.getUTF8String(1).toString());
+    }
+
+    @Test
+    public void test_interner_shares_low_cardinality_strings() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.EventRowTest.test_interner_shares_low_cardinality_strings
+        StringInterner interner = new StringInterner(1);
+        Assertions.assertSame(interner.intern("_page_view"), interner.intern(new String("_page_view")));
+        Assertions.assertNotSame(interner.intern("_click"), interner.intern("_click"));
+        Assertions.assertEquals("_click", interner.intern("_click").toString());
+        Assertions.assertNull(interner.intern(null));
+        Assertions.assertEquals(1, interner.size());
+        Assertions.assertEquals(1, interner.getHits());
+    }
+
+    @Test
+    public void test_every_ordinal_matches_event_schema() throws IllegalAccessException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.EventRowTest.test_every_ordinal_matches_event_schema
+        // every scalar event property gets a value unique to its column, so a shifted ordinal cannot go unnoticed
+        ClickstreamEvent event = new ClickstreamEvent();
+        Map<String, Object> expected = new HashMap<>();
+        int unique = 1;
+        for (Field field : ClickstreamEvent.class.getDeclaredFields()) {
+            JsonProperty property = field.getAnnotation(JsonProperty.class);
+            if (property == null || ModelV2.EVENT_TYPE.getFieldIndex(property.value()).isEmpty()) {
+                continue;
+            }
+            Object value = uniqueValue(field.getType(), property.value(), unique++);
+            if (value != null) {
+                field.setAccessible(true);
+                field.set(event, value);
+                expected.put(property.value(), value);
+            }
+        }
+        Assertions.assertTrue(expected.size() > 80, "scalar event columns checked: " + expected.size());
+
+        Function1<Object, Object> toScala = CatalystTypeConverters.createToScalaConverter(ModelV2.EVENT_TYPE);
+        Row eventRow = (Row) toScala.apply(new EventArena().next(event));
+        Row internalRow = (Row) toScala.apply(InternalRowConverter.toInternalRow(event));
+        Row genericRow = EventGenericRowConverter.toGenericRow(event);
+        Assertions.assertEquals(ModelV2.EVENT_TYPE.size(), genericRow.size());
+        for (Map.Entry<String, Object> column : expected.entrySet()) {
+            int ordinal = ModelV2.EVENT_TYPE.fieldIndex(column.getKey());
+            Assertions.assertEquals(column.getValue(), genericRow.get(ordinal), "EventGenericRowConverter column " + column.getKey());
+            Assertions.assertEquals(column.getValue(), eventRow.get(ordinal), "EventRow column " + column.getKey());
+            Assertions.assertEquals(column.getValue(), internalRow.get(ordinal), "InternalRowConverter column " + column.getKey());
+        }
+    }
+
+    private static Object uniqueValue(final Class<?> type, final String column, final int unique) {
+        if (type == String.class) {
+            return "v:" + column;
+        } else if (type == Long.class) {
+            return 1000L + unique;
+        } else if (type == Integer.class) {
+            return 1000 + unique;
+        } else if (type == Double.class) {
+            return unique + 0.5;
+        } else if (type == Boolean.class) {
+            return unique % 2 == 0;
+        } else if (type == Timestamp.class) {
+            return new Timestamp(1000L * unique);
+        }
+        return null;
+    }
+
+    private List<ClickstreamEvent> parseEvents(final String filePath) throws IOException {
+        EventParser eventParser = EventParserFactory.getEventParser(TransformerNameEnum.CLICKSTREAM, getTestTransformConfig());
+        Dataset<Row> dataset = readJsonDataset(filePath);
+        List<ClickstreamEvent> events = new ArrayList<>();
+        for (Row row : dataset.collectAsList()) {
+            ExtraParams extraParams = ExtraParams.builder()
+                    .ingestTimestamp(row.getAs("ingest_time"))
+                    .rid(row.getAs("rid"))
+                    .uri(row.getAs("uri"))
+                    .ua(row.getAs("ua"))
+                    .ip(row.getAs("ip"))
+                    .projectId("projectId1")
+                    .inputFileName("test_file")
+                    .appId(row.getAs("appId"))
+                    .build();
+            eventParser.parseDataElements(row.getAs("data"), extraParams, result -> events.addAll(result.getClickstreamEventList()));
+        }
+        return events;
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream;
+
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.catalyst.CatalystTypeConverters;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.util.ArrayData;
+import org.apache.spark.sql.types.ArrayType;
+import org.apache.spark.sql.types.StructType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import scala.Function1;
+import software.aws.solution.clickstream.common.EventParser;
+import software.aws.solution.clickstream.common.ExtraParams;
+import software.aws.solution.clickstream.common.TransformConfig;
+import software.aws.solution.clickstream.transformer.TransformerNameEnum;
+import software.aws.solution.clickstream.udfconverter.EventParserFactory;
+import software.aws.solution.clickstream.udfconverter.UDFHelper;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static software.aws.solution.clickstream.common.BaseEventParser.UPLOAD_TIMESTAMP;
+
+public class InternalRowConverterTest extends BaseSparkTest {
+
+    @Test
+    public void test_internal_rows_same_as_generic_rows() throws IOException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.InternalRowConverterTest.test_internal_rows_same_as_generic_rows
+        assertSameRows("/original_data_nozip_upload_time.json", 1);
+    }
+
+    @Test
+    public void test_internal_rows_same_as_generic_rows_with_items() throws IOException {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.InternalRowConverterTest.test_internal_rows_same_as_generic_rows_with_items
+        assertSameRows("/original_data_with_items.json", 1);
+    }
+
+    private void assertSameRows(final String filePath, final int minRows) throws IOException {
+        TransformConfig transformConfig = getTestTransformConfig();
+        EventParser eventParser = EventParserFactory.getEventParser(TransformerNameEnum.CLICKSTREAM, transformConfig);
+        Dataset<Row> dataset = readJsonDataset(filePath);
+
+        ArrayType udfOutput = UDFHelper.getUdfOutput();
+        StructType dataOutType = (StructType) udfOutput.elementType();
+        // map entries may come out in a different order, so compare the external rows
+        Function1<Object, Object> toScala = CatalystTypeConverters.createToScalaConverter(dataOutType);
+
+        boolean hasUploadTimestamp = Arrays.asList(dataset.columns()).contains(UPLOAD_TIMESTAMP);
+        int checkedRows = 0;
+        for (Row row : dataset.collectAsList()) {
+            ExtraParams extraParams = ExtraParams.builder()
+                    .ingestTimestamp(row.getAs("ingest_time"))
+                    .uploadTimestamp(hasUploadTimestamp ? row.getAs(UPLOAD_TIMESTAMP) : null)
+                    .rid(row.getAs("rid"))
+                    .uri(row.getAs("uri"))
+                    .ua(row.getAs("ua"))
+                    .ip(row.getAs("ip"))
+                    .projectId("projectId1")
+                    .inputFileName("test_file")
+                    .appId(row.getAs("appId"))
+                    .build();
+            String data = row.getAs("data");
+
+            ArrayData expected = (ArrayData) CatalystTypeConverters.createToCatalystConverter(udfOutput)
+                    .apply(UDFHelper.getGenericRowList(data, extraParams, eventParser));
+            List<InternalRow> actual = UDFHelper.getInternalRowList(data, extraParams, eventParser);
+
+            Assertions.assertEquals(expected.numElements(), actual.size());
+            for (int i = 0; i < actual.size(); i++) {
+                InternalRow expectedRow = expected.getStruct(i, dataOutType.size());
+                Assertions.assertEquals(toScala.apply(expectedRow), toScala.apply(actual.get(i)));
+                checkedRows++;
+            }
+        }
+        Assertions.assertTrue(checkedRows >= minRows);
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream;
+
+import org.apache.spark.sql.Column;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.aws.solution.clickstream.udfconverter.ClickstreamDataConverterV3;
+import software.aws.solution.clickstream.udfconverter.ParseClickstream;
+import software.aws.solution.clickstream.udfconverter.UDFHelper;
+
+import java.util.List;
+
+import static org.apache.spark.sql.functions.col;
+import static org.apache.spark.sql.functions.explode;
+import static software.aws.solution.clickstream.ClickstreamDataConverterV3Test.addFileName;
+import static software.aws.solution.clickstream.transformer.TransformerNameEnum.CLICKSTREAM;
+import static software.aws.solution.clickstream.util.ContextUtil.PROJECT_ID_PROP;
+import static software.aws.solution.clickstream.util.DatasetUtil.CORRUPT_RECORD;
+import static software.aws.solution.clickstream.util.DatasetUtil.DATA_OUT;
+
+public class ParseClickstreamTest extends BaseSparkTest {
+    private static final String CODEGEN_FALLBACK = "spark.sql.codegen.fallback";
+    private static final String WHOLE_STAGE = "spark.sql.codegen.wholeStage";
+    private static final String FACTORY_MODE = "spark.sql.codegen.factoryMode";
+
+    private ClickstreamDataConverterV3 converter;
+
+    @BeforeEach
+    void setupConverter() {
+        this.converter = new ClickstreamDataConverterV3(getTestTransformConfig());
+        System.setProperty(PROJECT_ID_PROP, "projectId1");
+        // fail instead of silently falling back to the interpreted path if the generated code doesn't compile
+        spark.conf().set(CODEGEN_FALLBACK, "false");
+    }
+
+    @AfterEach
+    void resetConf() {
+        spark.conf().unset(CODEGEN_FALLBACK);
+        spark.conf().unset(WHOLE_STAGE);
+        spark.conf().unset(FACTORY_MODE);
+    }
+
+    @Test
+    public void test_parse_clickstream_same_as_udf() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.ParseClickstreamTest.test_parse_clickstream_same_as_udf
+        assertSameAsUdf("/original_data_nozip_upload_time.json");
+        assertSameAsUdf("/original_data_with_items.json");
+    }
+
+    @Test
+    public void test_parse_clickstream_interpreted() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.ParseClickstreamTest.test_parse_clickstream_interpreted
+        spark.conf().set(WHOLE_STAGE, "false");
+        spark.conf().set(FACTORY_MODE, "NO_CODEGEN");
+        assertSameAsUdf("/original_data_with_items.json");
+    }
+
+    @Test
+    public void test_parse_clickstream_corrupt_data() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.ParseClickstreamTest.test_parse_clickstream_corrupt_data
+        Dataset<Row> dataset = addFileName(readJsonDataset("/original_data_nozip_upload_time.json"))
+                .withColumn("data", col("data").substr(1, 100));
+        List<Row> rows = converter.convertByExpression(dataset).select(DATA_OUT).collectAsList();
+        Assertions.assertEquals(1, rows.size());
+        Row dataOut = rows.get(0).getStruct(0);
+        Assertions.assertTrue(dataOut.getString(0).startsWith("Cannot convert data to ClickstreamEvent"));
+        Assertions.assertTrue(dataOut.isNullAt(1));
+    }
+
+    @Test
+    public void test_parse_clickstream_required_outputs() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.ParseClickstreamTest.test_parse_clickstream_required_outputs
+        Dataset<Row> dataset = addFileName(readJsonDataset("/original_data_with_items.json"));
+        List<Row> rows = dataset.select(explode(ParseClickstream.parseClickstream(CLICKSTREAM, converter.getTransformConfig(),
+                        UDFHelper.OUTPUT_USER, converter.getUDFParamsColumns(dataset))).alias(DATA_OUT))
+                .select(DATA_OUT + ".*")
+                .collectAsList();
+
+        Assertions.assertFalse(rows.isEmpty());
+        for (Row row : rows) {
+            Assertions.assertTrue(row.isNullAt(row.fieldIndex("events")));
+            Assertions.assertTrue(row.isNullAt(row.fieldIndex("items")));
+        }
+        Assertions.assertTrue(rows.stream().anyMatch(r -> !r.isNullAt(r.fieldIndex("user"))));
+    }
+
+    @Test
+    public void test_corrupt_records_parsed_without_outputs() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.ParseClickstreamTest.test_corrupt_records_parsed_without_outputs
+        Dataset<Row> good = addFileName(readJsonDataset("/original_data_with_items.json"));
+        Dataset<Row> dataset = good.unionByName(good.withColumn("data", col("data").substr(1, 100)));
+
+        Column corrupt = col(DATA_OUT).getField(CORRUPT_RECORD);
+        List<Row> expected = converter.convertByExpression(dataset).filter(corrupt.isNotNull()).select(DATA_OUT).collectAsList();
+        Dataset<Row> pruned = converter.convertByExpression(dataset, UDFHelper.OUTPUT_NONE);
+        List<Row> actual = pruned.filter(corrupt.isNotNull()).select(DATA_OUT).collectAsList();
+
+        Assertions.assertFalse(expected.isEmpty());
+        Assertions.assertEquals(expected, actual);
+        Row okRow = pruned.filter(corrupt.isNull()).select(DATA_OUT + ".*").first();
+        Assertions.assertTrue(okRow.isNullAt(okRow.fieldIndex("events")));
+        Assertions.assertTrue(okRow.isNullAt(okRow.fieldIndex("user")));
+    }
+
+    private void assertSameAsUdf(final String filePath) {
+        Dataset<Row> dataset = addFileName(readJsonDataset(filePath));
+
+        List<Row> expected = converter.convertByUDF(dataset).select(DATA_OUT).collectAsList();
+        List<Row> actual = converter.convertByExpression(dataset).select(DATA_OUT).collectAsList();
+
+        Assertions.assertFalse(expected.isEmpty());
+        Assertions.assertEquals(expected, actual);
+    }
+}
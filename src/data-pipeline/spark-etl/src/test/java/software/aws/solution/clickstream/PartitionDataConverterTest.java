@@ -0,0 +1,159 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream;
+
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.execution.RDDScanExec;
+import org.apache.spark.sql.execution.SparkPlan;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.aws.solution.clickstream.common.Constant;
+import software.aws.solution.clickstream.udfconverter.BaseDataConverter;
+import software.aws.solution.clickstream.udfconverter.ClickstreamDataConverterV3;
+import software.aws.solution.clickstream.udfconverter.PartitionDataConverter;
+import software.aws.solution.clickstream.udfconverter.UDFHelper;
+
+import java.util.List;
+
+import static org.apache.spark.sql.functions.col;
+import static org.apache.spark.sql.functions.explode;
+import static org.apache.spark.sql.functions.expr;
+import static software.aws.solution.clickstream.ClickstreamDataConverterV3Test.addFileName;
+import static software.aws.solution.clickstream.util.ContextUtil.PROJECT_ID_PROP;
+import static software.aws.solution.clickstream.util.DatasetUtil.DATA_OUT;
+
+public class PartitionDataConverterTest extends BaseSparkTest {
+    private ClickstreamDataConverterV3 converter;
+
+    @BeforeEach
+    void setupConverter() {
+        this.converter = new ClickstreamDataConverterV3(getTestTransformConfig());
+        System.setProperty(PROJECT_ID_PROP, "projectId1");
+    }
+
+    @AfterEach
+    void clearRunFlag() {
+        System.clearProperty(Constant.ETL_RUN_FLAG);
+    }
+
+    @Test
+    public void test_convert_by_partitions_same_as_expression() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.PartitionDataConverterTest.test_convert_by_partitions_same_as_expression
+        Dataset<Row> dataset = addFileName(readJsonDataset("/empty_latest_referrer.json"));
+        PartitionDataConverter partitionConverter = new PartitionDataConverter(converter);
+
+        Dataset<Row> expected = converter.convert(dataset);
+        Dataset<Row> actual = partitionConverter.convert(dataset);
+
+        Assertions.assertEquals(expected.schema(), actual.schema());
+        List<Row> expectedRows = expected.collectAsList();
+        List<Row> actualRows = actual.collectAsList();
+        Assertions.assertEquals(88, actualRows.size());
+        Assertions.assertEquals(expectedRows, actualRows);
+
+        Assertions.assertEquals(dataset.count(), partitionConverter.getCounters().getRows());
+        Assertions.assertEquals(88, partitionConverter.getCounters().getEvents());
+        Assertions.assertEquals(0, partitionConverter.getCounters().getCorrupt());
+    }
+
+    @Test
+    public void test_convert_by_partitions_corrupt_data() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.PartitionDataConverterTest.test_convert_by_partitions_corrupt_data
+        Dataset<Row> dataset = addFileName(readJsonDataset("/original_data_nozip_upload_time.json"))
+                .withColumn("data", col("data").substr(1, 100));
+        PartitionDataConverter partitionConverter = new PartitionDataConverter(converter);
+
+        List<Row> rows = partitionConverter.convert(dataset).select(DATA_OUT).collectAsList();
+
+        Assertions.assertEquals(1, rows.size());
+        Assertions.assertTrue(rows.get(0).getStruct(0).getString(0).startsWith("Cannot convert data to ClickstreamEvent"));
+        Assertions.assertEquals(1, partitionConverter.getCounters().getCorrupt());
+        Assertions.assertEquals(0, partitionConverter.transform(dataset).count());
+    }
+
+    @Test
+    public void test_transform_parses_each_row_once() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.PartitionDataConverterTest.test_transform_parses_each_row_once
+        Dataset<Row> good = addFileName(readJsonDataset("/empty_latest_referrer.json"));
+        Dataset<Row> dataset = good.unionByName(good.limit(1).withColumn("data", col("data").substr(1, 100)));
+        PartitionDataConverter partitionConverter = new PartitionDataConverter(converter);
+
+        Dataset<Row> okDataset = partitionConverter.transform(dataset);
+        Assertions.assertEquals(88, okDataset.count());
+        Assertions.assertEquals(88, okDataset.select(explode(expr(DATA_OUT + ".events"))).count());
+
+        // the corrupt records are counted from the cached conversion, not from a second parse
+        Assertions.assertEquals(dataset.count(), partitionConverter.getCounters().getRows());
+        Assertions.assertEquals(88, partitionConverter.getCounters().getEvents());
+        Assertions.assertEquals(1, partitionConverter.getCounters().getCorrupt());
+    }
+
+    @Test
+    public void test_transform_builds_required_outputs_only() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.PartitionDataConverterTest.test_transform_builds_required_outputs_only
+        Dataset<Row> dataset = addFileName(readJsonDataset("/original_data_with_items.json"));
+        for (BaseDataConverter dataConverter : new BaseDataConverter[]{converter, new PartitionDataConverter(converter)}) {
+            List<Row> rows = dataConverter.transform(dataset, UDFHelper.OUTPUT_EVENTS).select(DATA_OUT + ".*").collectAsList();
+            Assertions.assertFalse(rows.isEmpty());
+            for (Row row : rows) {
+                Assertions.assertFalse(row.isNullAt(row.fieldIndex("events")), dataConverter.getClass().getSimpleName());
+                Assertions.assertTrue(row.isNullAt(row.fieldIndex("user")), dataConverter.getClass().getSimpleName());
+                Assertions.assertTrue(row.isNullAt(row.fieldIndex("items")), dataConverter.getClass().getSimpleName());
+            }
+        }
+    }
+
+    @Test
+    public void test_event_rows_valid_across_batches() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.PartitionDataConverterTest.test_event_rows_valid_across_batches
+        Dataset<Row> once = addFileName(readJsonDataset("/empty_latest_referrer.json"));
+        Dataset<Row> dataset = once;
+        for (int i = 0; i < 15; i++) {
+            dataset = dataset.unionByName(once);
+        }
+        dataset = dataset.coalesce(1);
+        PartitionDataConverter partitionConverter = new PartitionDataConverter(converter);
+        Dataset<Row> actual = partitionConverter.convert(dataset);
+
+        // the pooled event rows are refilled after each batch, this holds because the RDD scan copies
+        // every row into an unsafe row before it pulls the next one from the partition iterator
+        SparkPlan plan = actual.queryExecution().executedPlan();
+        Assertions.assertTrue(plan.find(node -> node instanceof RDDScanExec).isDefined(), plan.toString());
+
+        List<Row> expectedRows = converter.convert(dataset).select(DATA_OUT).collectAsList();
+        List<Row> actualRows = actual.select(DATA_OUT).collectAsList();
+        Assertions.assertTrue(actualRows.size() > PartitionDataConverter.FLUSH_ROWS, "rows: " + actualRows.size());
+        Assertions.assertEquals(expectedRows, actualRows);
+    }
+
+    @Test
+    public void test_select_converter_by_run_flag() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.PartitionDataConverterTest.test_select_converter_by_run_flag
+        Assertions.assertSame(converter, PartitionDataConverter.select(converter));
+
+        System.setProperty(Constant.ETL_RUN_FLAG, "disable.max.length.check|convert.by.partitions.sensors_data");
+        Assertions.assertSame(converter, PartitionDataConverter.select(converter));
+
+        System.setProperty(Constant.ETL_RUN_FLAG, "disable.max.length.check|convert.by.partitions.clickstream");
+        BaseDataConverter selected = PartitionDataConverter.select(converter);
+        Assertions.assertTrue(selected instanceof PartitionDataConverter);
+        Assertions.assertEquals(converter.getName(), selected.getName());
+
+        System.setProperty(Constant.ETL_RUN_FLAG, "convert.by.partitions");
+        Assertions.assertTrue(PartitionDataConverter.select(converter) instanceof PartitionDataConverter);
+    }
+}
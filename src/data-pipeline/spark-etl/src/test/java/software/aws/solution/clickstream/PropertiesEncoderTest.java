@@ -0,0 +1,98 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import software.aws.solution.clickstream.common.model.ClickstreamEventPropValue;
+import software.aws.solution.clickstream.common.model.ClickstreamEventPropValueSerializer;
+import software.aws.solution.clickstream.common.model.ClickstreamUserPropValue;
+import software.aws.solution.clickstream.common.model.ClickstreamUserPropValueSerializer;
+import software.aws.solution.clickstream.common.model.ValueType;
+import software.aws.solution.clickstream.exception.ExecuteTransformerException;
+import software.aws.solution.clickstream.rowconv.PropertiesEncoder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PropertiesEncoderTest {
+
+    @Test
+    public void test_encode_event_properties() throws Exception {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.PropertiesEncoderTest.test_encode_event_properties
+        Map<String, ClickstreamEventPropValue> props = new LinkedHashMap<>();
+        props.put("s", new ClickstreamEventPropValue("a \"quoted\"\n中文", ValueType.STRING));
+        props.put("l", new ClickstreamEventPropValue("123", ValueType.NUMBER));
+        props.put("d", new ClickstreamEventPropValue("1.5", ValueType.NUMBER));
+        props.put("b", new ClickstreamEventPropValue("true", ValueType.BOOLEAN));
+        props.put("o", new ClickstreamEventPropValue("{\"k\":[1,2]}", ValueType.OBJECT));
+        props.put("n", null);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new SimpleModule().addSerializer(ClickstreamEventPropValue.class, new ClickstreamEventPropValueSerializer()));
+        String expected = objectMapper.writeValueAsString(props);
+
+        List<String> keys = new ArrayList<>();
+        String json = PropertiesEncoder.encodeEventProperties(props, (index, key, value) -> {
+            Assertions.assertEquals(keys.size(), index);
+            keys.add(key);
+        });
+        Assertions.assertEquals(expected, json);
+        Assertions.assertEquals(new ArrayList<>(props.keySet()), keys);
+
+        // the generator is reused for the next call
+        Assertions.assertEquals(expected, PropertiesEncoder.encodeEventProperties(props, (index, key, value) -> { }));
+        Assertions.assertNull(PropertiesEncoder.encodeEventProperties(new LinkedHashMap<>(), (index, key, value) -> { }));
+        Assertions.assertNull(PropertiesEncoder.encodeEventProperties(null, (index, key, value) -> { }));
+    }
+
+    @Test
+    public void test_encode_user_properties() throws Exception {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.PropertiesEncoderTest.test_encode_user_properties
+        Map<String, ClickstreamUserPropValue> props = new LinkedHashMap<>();
+        props.put("_user_name", new ClickstreamUserPropValue("name", ValueType.STRING, 1667877566697L));
+        props.put("_user_age", new ClickstreamUserPropValue("20", ValueType.NUMBER, null));
+        props.put("_user_score", new ClickstreamUserPropValue("20.5", ValueType.NUMBER, 1L));
+        props.put("_user_vip", new ClickstreamUserPropValue("false", ValueType.BOOLEAN, 1L));
+        props.put("_user_obj", new ClickstreamUserPropValue("{\"a\":1}", ValueType.OBJECT, 1L));
+        props.put("_user_null", new ClickstreamUserPropValue(null, ValueType.STRING, 1L));
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new SimpleModule().addSerializer(ClickstreamUserPropValue.class, new ClickstreamUserPropValueSerializer()));
+        String expected = objectMapper.writeValueAsString(props);
+
+        Map<String, ClickstreamUserPropValue> received = new LinkedHashMap<>();
+        String json = PropertiesEncoder.encodeUserProperties(props, (index, key, value) -> received.put(key, value));
+        Assertions.assertEquals(expected, json);
+        Assertions.assertEquals(props, received);
+    }
+
+    @Test
+    public void test_encode_after_error() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.PropertiesEncoderTest.test_encode_after_error
+        Map<String, ClickstreamEventPropValue> bad = new LinkedHashMap<>();
+        bad.put("ok", new ClickstreamEventPropValue("x", ValueType.STRING));
+        bad.put("bad", new ClickstreamEventPropValue("not a number", ValueType.NUMBER));
+        Assertions.assertThrows(ExecuteTransformerException.class,
+                () -> PropertiesEncoder.encodeEventProperties(bad, (index, key, value) -> { }));
+
+        Map<String, ClickstreamEventPropValue> good = new LinkedHashMap<>();
+        good.put("k", new ClickstreamEventPropValue("v", ValueType.STRING));
+        Assertions.assertEquals("{\"k\":\"v\"}", PropertiesEncoder.encodeEventProperties(good, (index, key, value) -> { }));
+    }
+}
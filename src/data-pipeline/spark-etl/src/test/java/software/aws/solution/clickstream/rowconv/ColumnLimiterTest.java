@@ -0,0 +1,48 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream.rowconv;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import software.aws.solution.clickstream.common.ColumnLimits;
+import software.aws.solution.clickstream.common.Constant;
+import software.aws.solution.clickstream.model.ModelV2;
+
+import static software.aws.solution.clickstream.util.ContextUtil.DISABLE_MAX_LENGTH_CHECK;
+
+public class ColumnLimiterTest {
+
+    @AfterEach
+    void clearRunFlag() {
+        System.clearProperty(Constant.ETL_RUN_FLAG);
+    }
+
+    @Test
+    void test_limiter_honors_disable_max_length_check() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.rowconv.ColumnLimiterTest.test_limiter_honors_disable_max_length_check
+        int eventIdOrdinal = ModelV2.EVENT_TYPE.fieldIndex(Constant.EVENT_ID);
+        String eventId = "e".repeat(300);
+
+        Object[] values = new Object[ModelV2.EVENT_TYPE.size()];
+        values[eventIdOrdinal] = eventId;
+        Assertions.assertEquals(Constant.EVENT_ID, ColumnLimiter.forTable(ModelV2.EVENT_TYPE, ColumnLimits.getEventLimits()).limit(values));
+        Assertions.assertEquals("e".repeat(255), values[eventIdOrdinal]);
+
+        System.setProperty(Constant.ETL_RUN_FLAG, "convert.by.partitions|" + DISABLE_MAX_LENGTH_CHECK);
+        values[eventIdOrdinal] = eventId;
+        Assertions.assertNull(ColumnLimiter.forTable(ModelV2.EVENT_TYPE, ColumnLimits.getEventLimits()).limit(values));
+        Assertions.assertSame(eventId, values[eventIdOrdinal]);
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+
+package software.aws.solution.clickstream.transformer;
+
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.RowFactory;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructField;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import software.aws.solution.clickstream.BaseSparkTest;
+import software.aws.solution.clickstream.common.Constant;
+import software.aws.solution.clickstream.common.enrich.ts.rule.ChannelListEvaluator;
+import software.aws.solution.clickstream.common.enrich.ts.rule.ChannelRuleEvaluatorInput;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.apache.spark.sql.functions.col;
+
+public class ChannelRuleSqlCompilerTest extends BaseSparkTest {
+    private static final String[] FIELDS = {
+            Constant.TRAFFIC_SOURCE_CATEGORY,
+            Constant.TRAFFIC_SOURCE_SOURCE,
+            Constant.TRAFFIC_SOURCE_MEDIUM,
+            Constant.TRAFFIC_SOURCE_CAMPAIGN,
+            Constant.TRAFFIC_SOURCE_CAMPAIGN_ID,
+            Constant.TRAFFIC_SOURCE_CONTENT,
+            Constant.TRAFFIC_SOURCE_TERM,
+            Constant.TRAFFIC_SOURCE_CLID,
+            Constant.TRAFFIC_SOURCE_CLID_PLATFORM,
+            Constant.PAGE_VIEW_LATEST_REFERRER,
+            Constant.PAGE_VIEW_LATEST_REFERRER_HOST,
+    };
+    private static final String[] SAMPLE_VALUES = {
+            null, "", "Unassigned", "Search", "SHOPPING", "Social", "Video", "(cpc)", "cpc", "ppc", "Paid_Social", "display",
+            "email", "e-mail", "sms", "affiliate", "referral", "(none)", "organic", "google", "wechat", "youtube.com",
+            "m.youtube.com", "Direct", "cross-network", "gclid", "Google Ads", "shopping_campaign", "push", "mobile", "x",
+    };
+
+    private static final String EDGE_RULES = "["
+            + "{\"channel\": \"NotIn\", \"condition\": {\"op::and\": [{\"field\": \"traffic_source_source\", \"op\": \"not_in\", \"values\": [\"Google\", \"wechat\"]},"
+            + "{\"field\": \"traffic_source_medium\", \"op\": \"not_contain\", \"value\": \"C\"}]}},"
+            + "{\"channel\": \"Empty\", \"condition\": {\"op::or\": [{\"field\": \"traffic_source_campaign\", \"op\": \"eq\", \"value\": \"__empty__\"},"
+            + "{\"op::and\": [{\"field\": \"traffic_source_term\", \"op\": \"not_start_with\", \"value\": \"S\"},"
+            + "{\"field\": \"traffic_source_content\", \"op\": \"not_end_with\", \"value\": \"L\"}]}]}},"
+            + "{\"channel\": \"Match\", \"condition\": {\"op::and\": [{\"field\": \"page_view_latest_referrer_host\", \"op\": \"match\", \"value\": \"YOUTUBE|.*\\\\.YouTube\\\\.com\"},"
+            + "{\"field\": \"traffic_source_clid\", \"op\": \"not_match\", \"value\": \"g.*\"}]}}"
+            + "]";
+
+    @Test
+    public void test_sql_channel_equals_jvm_channel_v0_rules() throws IOException {
+        // DOWNLOAD_FILE=0 ./gradlew clean test --info --tests software.aws.solution.clickstream.transformer.ChannelRuleSqlCompilerTest.test_sql_channel_equals_jvm_channel_v0_rules
+        assertSameChannels(ChannelListEvaluator.fromJsonFile("ts/traffic_source_channel_rule_v0.json"), 4);
+    }
+
+    @Test
+    public void test_sql_channel_equals_jvm_channel_test_rules() throws IOException {
+        // DOWNLOAD_FILE=0 ./gradlew clean test --info --tests software.aws.solution.clickstream.transformer.ChannelRuleSqlCompilerTest.test_sql_channel_equals_jvm_channel_test_rules
+        // the not_eq and match items, the Direct rule needs all fields empty and is not reached by the samples
+        assertSameChannels(ChannelListEvaluator.fromJsonFile("ts/traffic_source_channel_rule_test.json"), 2);
+    }
+
+    @Test
+    public void test_sql_channel_equals_jvm_channel_edge_rules() throws IOException {
+        // DOWNLOAD_FILE=0 ./gradlew clean test --info --tests software.aws.solution.clickstream.transformer.ChannelRuleSqlCompilerTest.test_sql_channel_equals_jvm_channel_edge_rules
+        ChannelListEvaluator evaluator = ChannelListEvaluator.fromJson(EDGE_RULES);
+        assertSameChannels(evaluator, 4);
+
+        evaluator.getChannelRules().get(0).getCondition().getOpAndList().get(0).setField("unknown_field");
+        IllegalArgumentException e = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ChannelRuleSqlCompiler.compile(evaluator.getChannelRules()));
+        Assertions.assertTrue(e.getMessage().startsWith("Config Error::"));
+    }
+
+    private void assertSameChannels(final ChannelListEvaluator evaluator, final int minChannels) {
+        Random random = new Random(20240101L);
+        List<Row> rows = new ArrayList<>();
+        List<String> expectedChannels = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            Object[] values = new Object[FIELDS.length + 1];
+            values[0] = String.valueOf(i);
+            for (int f = 0; f < FIELDS.length; f++) {
+                values[f + 1] = SAMPLE_VALUES[random.nextInt(SAMPLE_VALUES.length)];
+            }
+            rows.add(RowFactory.create(values));
+            expectedChannels.add(evaluator.evaluate(eventInput(values)));
+        }
+        // the sample values reach most rules, not only the default channel
+        Assertions.assertTrue(new HashSet<>(expectedChannels).size() >= minChannels, expectedChannels.toString());
+
+        List<StructField> fields = new ArrayList<>();
+        fields.add(DataTypes.createStructField("id", DataTypes.StringType, false));
+        for (String field : FIELDS) {
+            fields.add(DataTypes.createStructField(field, DataTypes.StringType, true));
+        }
+        Dataset<Row> dataset = spark.createDataFrame(rows, DataTypes.createStructType(fields));
+
+        List<Row> result = ChannelRuleSqlCompiler.classify(dataset, evaluator.getChannelRules())
+                .orderBy(col("id").cast(DataTypes.IntegerType))
+                .select(Constant.TRAFFIC_SOURCE_CHANNEL_GROUP)
+                .collectAsList();
+        Assertions.assertEquals(expectedChannels.size(), result.size());
+        for (int i = 0; i < result.size(); i++) {
+            Assertions.assertEquals(expectedChannels.get(i), result.get(i).getString(0), rows.get(i).toString());
+        }
+    }
+
+    private static ChannelRuleEvaluatorInput eventInput(final Object[] values) {
+        ChannelRuleEvaluatorInput input = new ChannelRuleEvaluatorInput();
+        String category = (String) values[1];
+        input.setTrafficSourceCategory("Unassigned".equals(category) ? null : category);
+        input.setTrafficSourceSource((String) values[2]);
+        String medium = (String) values[3];
+        input.setTrafficSourceMedium(medium == null ? null : medium.replace("(", "").replace(")", ""));
+        input.setTrafficSourceCampaign((String) values[4]);
+        input.setTrafficSourceCampaignId((String) values[5]);
+        input.setTrafficSourceContent((String) values[6]);
+        input.setTrafficSourceTerm((String) values[7]);
+        input.setTrafficSourceClid((String) values[8]);
+        input.setTrafficSourceClidPlatform((String) values[9]);
+        input.setPageViewLatestReferrer((String) values[10]);
+        input.setPageViewLatestReferrerHost((String) values[11]);
+        return input;
+    }
+}
@@ -14,15 +14,18 @@
 package software.aws.solution.clickstream.transformer;
 
 import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static software.aws.solution.clickstream.transformer.TransformerNameEnum.CLICKSTREAM;
 import static software.aws.solution.clickstream.transformer.TransformerNameEnum.GTM_SERVER_DATA;
+import static software.aws.solution.clickstream.transformer.TransformerNameEnum.MAPPING;
 import static software.aws.solution.clickstream.transformer.TransformerNameEnum.SENSORS_DATA;
 
 import software.aws.solution.clickstream.common.ClickstreamEventParser;
 import software.aws.solution.clickstream.common.EventParser;
 import software.aws.solution.clickstream.common.TransformConfig;
 import software.aws.solution.clickstream.common.gtm.GTMEventParser;
+import software.aws.solution.clickstream.common.mapping.MappingEventParser;
 import software.aws.solution.clickstream.common.sensors.SensorsEventParser;
 import software.aws.solution.clickstream.udfconverter.EventParserFactory;
 
@@ -50,4 +53,14 @@ public class EventParserFactoryTest {
         EventParser parser = EventParserFactory.getEventParser(CLICKSTREAM, null);
         assertTrue(parser instanceof ClickstreamEventParser);
     }
+
+    @Test
+    public void shouldReturnMappingEventParser() {
+        TransformConfig transformConfig = new TransformConfig();
+        assertThrows(IllegalArgumentException.class, () -> EventParserFactory.getEventParser(MAPPING, transformConfig));
+
+        transformConfig.setMappingSpecJson("{\"event\": [{\"source\": \"event\", \"target\": \"event_name\"}]}");
+        EventParser parser = EventParserFactory.getEventParser(MAPPING, transformConfig);
+        assertTrue(parser instanceof MappingEventParser);
+    }
 }
\ No newline at end of file
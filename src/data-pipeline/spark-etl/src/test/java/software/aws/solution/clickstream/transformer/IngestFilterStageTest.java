@@ -0,0 +1,102 @@
+/**
+ *  Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ *  with the License. A copy of the License is located at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  or in the 'license' file accompanying this file. This file is distributed on an 'AS IS' BASIS, WITHOUT WARRANTIES
+ *  OR CONDITIONS OF ANY KIND, express or implied. See the License for the specific language governing permissions
+ *  and limitations under the License.
+ */
+
+package software.aws.solution.clickstream.transformer;
+
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.RowFactory;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import software.aws.solution.clickstream.BaseSparkTest;
+import software.aws.solution.clickstream.common.filter.IngestFilter;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static software.aws.solution.clickstream.util.ContextUtil.DATA_FRESHNESS_HOUR_PROP;
+import static software.aws.solution.clickstream.util.ContextUtil.FILTER_BOT_BY_UA_PROP;
+import static software.aws.solution.clickstream.util.ContextUtil.INGEST_START_TIMESTAMP_PROP;
+
+public class IngestFilterStageTest extends BaseSparkTest {
+    private static final String BROWSER_UA = "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36";
+    private static final String CRAWLER_UA = "Mozilla/5.0 (compatible; Googlebot/2.1; +http://www.google.com/bot.html)";
+
+    @BeforeEach
+    @AfterEach
+    public void clearFilterProperties() {
+        System.clearProperty(INGEST_START_TIMESTAMP_PROP);
+        System.clearProperty(DATA_FRESHNESS_HOUR_PROP);
+        System.clearProperty(FILTER_BOT_BY_UA_PROP);
+    }
+
+    @Test
+    public void test_filter_raw_ingest_rows() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.transformer.IngestFilterStageTest.test_filter_raw_ingest_rows
+        System.setProperty(INGEST_START_TIMESTAMP_PROP, "1700000000000");
+        System.setProperty(DATA_FRESHNESS_HOUR_PROP, "1");
+        System.setProperty(FILTER_BOT_BY_UA_PROP, "true");
+
+        long start = 1700000000000L;
+        Dataset<Row> dataset = createDataset(Arrays.asList(
+                RowFactory.create("r1", BROWSER_UA, "app1", start, "not decoded"),
+                RowFactory.create("r2", CRAWLER_UA, "app1", start, "not decoded"),
+                RowFactory.create("r3", BROWSER_UA, "other", start, "not decoded"),
+                RowFactory.create("r4", BROWSER_UA, null, start, "not decoded"),
+                RowFactory.create("r5", BROWSER_UA, "app2", start - 2 * 3600_000L, "not decoded"),
+                RowFactory.create("r6", null, "app2", null, "not decoded")
+        ));
+
+        IngestFilterStage stage = IngestFilterStage.fromContext(spark);
+        List<String> kept = stage.apply(dataset).collectAsList().stream().map(r -> r.<String>getAs("rid")).sorted().collect(Collectors.toList());
+
+        Assertions.assertEquals(Arrays.asList("r1", "r3", "r6"), kept);
+        Assertions.assertEquals(1, stage.getDropped(IngestFilter.Reason.APP_ID));
+        Assertions.assertEquals(1, stage.getDropped(IngestFilter.Reason.STALE_INGEST_TIME));
+        Assertions.assertEquals(1, stage.getDropped(IngestFilter.Reason.BOT_USER_AGENT));
+        Assertions.assertEquals(3, stage.getKept());
+    }
+
+    @Test
+    public void test_filter_disabled_checks() {
+        // ./gradlew clean test --info --tests software.aws.solution.clickstream.transformer.IngestFilterStageTest.test_filter_disabled_checks
+        // the bot filter is off when the property is not set
+        Dataset<Row> dataset = createDataset(Arrays.asList(
+                RowFactory.create("r1", CRAWLER_UA, "app1", 1L, "not decoded"),
+                RowFactory.create("r2", BROWSER_UA, "app1", null, "not decoded")
+        ));
+
+        IngestFilterStage stage = IngestFilterStage.fromContext(spark);
+        Assertions.assertEquals(2, stage.apply(dataset).count());
+        Assertions.assertEquals(0, stage.getDropped(IngestFilter.Reason.BOT_USER_AGENT));
+        Assertions.assertEquals(0, stage.getDropped(IngestFilter.Reason.STALE_INGEST_TIME));
+        Assertions.assertEquals(2, stage.getKept());
+    }
+
+    private Dataset<Row> createDataset(final List<Row> rows) {
+        StructType schema = DataTypes.createStructType(new StructField[]{
+                DataTypes.createStructField("rid", DataTypes.StringType, true),
+                DataTypes.createStructField("ua", DataTypes.StringType, true),
+                DataTypes.createStructField("appId", DataTypes.StringType, true),
+                DataTypes.createStructField("ingest_time", DataTypes.LongType, true),
+                DataTypes.createStructField("data", DataTypes.StringType, true),
+        });
+        return spark.createDataFrame(rows, schema);
+    }
+}